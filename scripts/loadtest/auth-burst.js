@@ -0,0 +1,47 @@
+// Login + /me latency under a burst, e.g. the morning rush of dashboard opens.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=... -e PASSWORD=... \
+//          scripts/loadtest/auth-burst.js
+//
+// The rate limiter throttles /api/auth/login per client IP; run it against
+// an instance with a raised limit or from several source addresses, and use
+// an account that maps to a single contact (no account-selection step).
+// Turnstile must be disabled (empty TURNSTILE_SECRET) on the target.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+  scenarios: {
+    burst: {
+      executor: 'ramping-arrival-rate',
+      startRate: 5,
+      timeUnit: '1s',
+      preAllocatedVUs: 50,
+      stages: [
+        { target: 50, duration: '20s' },
+        { target: 50, duration: '40s' },
+        { target: 0, duration: '10s' },
+      ],
+    },
+  },
+  thresholds: {
+    'http_req_duration{name:login}': ['p(95)<500'],
+    'http_req_duration{name:me}': ['p(95)<100'],
+  },
+};
+
+export default function () {
+  const login = http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' }, tags: { name: 'login' } });
+  check(login, { 'login 200': (r) => r.status === 200 });
+
+  const token = login.json('token');
+  for (let i = 0; i < 5; i++) {
+    const me = http.get(`${BASE_URL}/api/auth/me`,
+      { headers: { Authorization: `Bearer ${token}` }, tags: { name: 'me' } });
+    check(me, { 'me 200': (r) => r.status === 200 });
+  }
+}
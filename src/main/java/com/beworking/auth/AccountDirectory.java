@@ -0,0 +1,103 @@
+package com.beworking.auth;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read side of the login email → contact accounts relation, backed by
+ * {@code beworking.contact_emails} (V101, trigger-maintained). Replaces the
+ * four-column case-insensitive OR over contact_profiles that login, /me,
+ * /my-accounts and the account switch each ran, and loads only the columns
+ * those endpoints return instead of whole ContactProfile entities.
+ */
+@Service
+public class AccountDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountDirectory(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Contacts whose primary/secondary/tertiary/representative email is {@code email}, by id. */
+    public List<AccountSummaryDTO> accountsFor(String email) {
+        return jdbcTemplate.query("""
+            SELECT c.id, c.name, c.billing_tax_id, c.tenant_type
+              FROM beworking.contact_emails e
+              JOIN beworking.contact_profiles c ON c.id = e.contact_id
+             WHERE e.email = lower(btrim(?))
+             ORDER BY c.id
+            """,
+            (rs, i) -> new AccountSummaryDTO(rs.getLong("id"), rs.getString("name"),
+                rs.getString("billing_tax_id"), rs.getString("tenant_type")),
+            email);
+    }
+
+    public boolean ownsAccount(String email, long contactId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM beworking.contact_emails WHERE email = lower(btrim(?)) AND contact_id = ?)",
+            Boolean.class, email, contactId));
+    }
+
+    public boolean hasAnyAccount(String email) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM beworking.contact_emails WHERE email = lower(btrim(?)))",
+            Boolean.class, email));
+    }
+
+    /**
+     * The {@code GET /api/auth/me} payload in one round trip: the user row,
+     * whether the email maps to more than one account, and whether the active
+     * tenant has an active subscription (always true for admins).
+     */
+    public Optional<Map<String, Object>> currentUser(String email) {
+        List<Map<String, Object>> rows = jdbcTemplate.query("""
+            SELECT u.email, u.name, u.phone, u.role, u.tenant_id, u.avatar,
+                   u.address_line1, u.address_city, u.address_country, u.address_postal,
+                   u.billing_brand, u.billing_last4, u.billing_exp_month, u.billing_exp_year,
+                   u.stripe_customer_id,
+                   (SELECT count(*) FROM beworking.contact_emails e
+                     WHERE e.email = lower(btrim(u.email))) > 1 AS has_multiple_accounts,
+                   (u.role = 'ADMIN' OR EXISTS (
+                        SELECT 1 FROM beworking.subscriptions s
+                         WHERE s.contact_id = u.tenant_id AND s.active = TRUE)) AS has_active_subscription
+              FROM beworking.users u
+             WHERE u.email = ?
+            """,
+            (rs, i) -> {
+                Map<String, Object> userData = new HashMap<>();
+                userData.put("email", rs.getString("email"));
+                userData.put("name", rs.getString("name"));
+                userData.put("phone", rs.getString("phone"));
+                userData.put("role", rs.getString("role"));
+                userData.put("tenantId", rs.getObject("tenant_id") != null ? rs.getLong("tenant_id") : null);
+                userData.put("avatar", rs.getString("avatar"));
+                userData.put("address", Map.of(
+                    "line1", orEmpty(rs.getString("address_line1")),
+                    "city", orEmpty(rs.getString("address_city")),
+                    "country", orEmpty(rs.getString("address_country")),
+                    "postal", orEmpty(rs.getString("address_postal"))
+                ));
+                userData.put("billing", Map.of(
+                    "brand", orEmpty(rs.getString("billing_brand")),
+                    "last4", orEmpty(rs.getString("billing_last4")),
+                    "expMonth", rs.getInt("billing_exp_month"),
+                    "expYear", rs.getInt("billing_exp_year"),
+                    "stripeCustomerId", orEmpty(rs.getString("stripe_customer_id"))
+                ));
+                userData.put("hasMultipleAccounts", rs.getBoolean("has_multiple_accounts"));
+                userData.put("hasActiveSubscription", rs.getBoolean("has_active_subscription"));
+                return userData;
+            },
+            email);
+        return rows.stream().findFirst();
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -15,10 +15,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import com.beworking.contacts.ContactProfile;
 import com.beworking.contacts.ContactProfileRepository;
 import com.beworking.subscriptions.SubscriptionRepository;
+import com.beworking.uploads.AvatarService;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -33,6 +33,8 @@ public class AuthController {
     private final SubscriptionRepository subscriptionRepository;
     private final TurnstileService turnstileService;
     private final EmailService emailService;
+    private final AvatarService avatarService;
+    private final AccountDirectory accountDirectory;
     @Value("${app.security.cookie-secure:true}")
     private boolean cookieSecure;
     @Value("${app.security.cookie-domain:}")
@@ -49,7 +51,9 @@ public class AuthController {
                           UserRepository userRepository, ContactProfileRepository contactProfileRepository,
                           SubscriptionRepository subscriptionRepository,
                           TurnstileService turnstileService,
-                          EmailService emailService) {
+                          EmailService emailService,
+                          AvatarService avatarService,
+                          AccountDirectory accountDirectory) {
         this.loginService = loginService;
         this.jwtUtil = jwtUtil;
         this.registerService = registerService;
@@ -58,6 +62,8 @@ public class AuthController {
         this.subscriptionRepository = subscriptionRepository;
         this.turnstileService = turnstileService;
         this.emailService = emailService;
+        this.avatarService = avatarService;
+        this.accountDirectory = accountDirectory;
     }
 
     @PostMapping("/login")
@@ -86,16 +92,10 @@ public class AuthController {
 
             // Find all contact profiles matching this email
             String email = user.getEmail();
-            List<ContactProfile> matchingProfiles = contactProfileRepository
-                .findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                    email, email, email, email);
+            List<AccountSummaryDTO> accounts = accountDirectory.accountsFor(email);
 
             // Multiple accounts: return account list for user to pick
-            if (matchingProfiles.size() > 1) {
-                List<AccountSummaryDTO> accounts = matchingProfiles.stream()
-                    .map(cp -> new AccountSummaryDTO(cp.getId(), cp.getName(), cp.getBillingTaxId(), cp.getTenantType()))
-                    .collect(Collectors.toList());
-
+            if (accounts.size() > 1) {
                 String selectionToken = jwtUtil.generateSelectionToken(email, user.getRole().name());
                 AuthResponse response = new AuthResponse("Account selection required", null, user.getRole().name());
                 response.setAccountSelectionRequired(true);
@@ -105,10 +105,10 @@ public class AuthController {
             }
 
             // Single or no account: auto-link and proceed as before
-            if (matchingProfiles.size() == 1 && user.getTenantId() == null) {
-                user.setTenantId(matchingProfiles.get(0).getId());
+            if (accounts.size() == 1 && user.getTenantId() == null) {
+                user.setTenantId(accounts.get(0).getId());
                 userRepository.save(user);
-            } else if (user.getTenantId() == null && matchingProfiles.isEmpty()) {
+            } else if (user.getTenantId() == null && accounts.isEmpty()) {
                 // No matching profile — proceed with null tenantId
             }
 
@@ -149,12 +149,7 @@ public class AuthController {
             User user = userOpt.get();
 
             // Verify the requested profile belongs to this user's email
-            List<ContactProfile> matchingProfiles = contactProfileRepository
-                .findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                    email, email, email, email);
-
-            boolean validChoice = matchingProfiles.stream().anyMatch(cp -> cp.getId().equals(contactProfileId));
-            if (!validChoice) {
+            if (!accountDirectory.ownsAccount(email, contactProfileId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new AuthResponse("Account does not belong to this user", null, null));
             }
@@ -176,16 +171,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
         }
 
-        String email = authentication.getName();
-        List<ContactProfile> matchingProfiles = contactProfileRepository
-            .findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                email, email, email, email);
-
-        List<AccountSummaryDTO> accounts = matchingProfiles.stream()
-            .map(cp -> new AccountSummaryDTO(cp.getId(), cp.getName(), cp.getBillingTaxId(), cp.getTenantType()))
-            .collect(Collectors.toList());
-
-        return ResponseEntity.ok(accounts);
+        return ResponseEntity.ok(accountDirectory.accountsFor(authentication.getName()));
     }
 
     @PostMapping("/switch-account")
@@ -205,12 +191,7 @@ public class AuthController {
         String email = authentication.getName();
 
         // Verify the requested profile belongs to this user's email
-        List<ContactProfile> matchingProfiles = contactProfileRepository
-            .findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                email, email, email, email);
-
-        boolean validChoice = matchingProfiles.stream().anyMatch(cp -> cp.getId().equals(contactProfileId));
-        if (!validChoice) {
+        if (!accountDirectory.ownsAccount(email, contactProfileId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new AuthResponse("Account does not belong to this user", null, null));
         }
@@ -282,10 +263,7 @@ public class AuthController {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             // Clean up orphan users (user exists but no contact profile)
-            boolean hasContact = contactProfileRepository
-                .findFirstByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                    normalized, normalized, normalized, normalized)
-                .isPresent();
+            boolean hasContact = accountDirectory.hasAnyAccount(normalized);
             if (!hasContact && user.getTenantId() == null) {
                 userRepository.delete(user);
                 return ResponseEntity.ok(Map.of("available", true));
@@ -408,46 +386,9 @@ public class AuthController {
                     .body(Map.of("message", "Unauthorized"));
         }
 
-        String email = authentication.getName();
-        return userRepository
-                .findByEmail(email)
-                .<ResponseEntity<?>>map(user -> {
-                    Map<String, Object> userData = new java.util.HashMap<>();
-                    userData.put("email", user.getEmail());
-                    userData.put("name", user.getName());
-                    userData.put("phone", user.getPhone());
-                    userData.put("role", user.getRole().name());
-                    userData.put("tenantId", user.getTenantId()); // This can be null
-                    userData.put("avatar", user.getAvatar()); // This can be null
-                    userData.put("address", Map.of(
-                        "line1", user.getAddressLine1() != null ? user.getAddressLine1() : "",
-                        "city", user.getAddressCity() != null ? user.getAddressCity() : "",
-                        "country", user.getAddressCountry() != null ? user.getAddressCountry() : "",
-                        "postal", user.getAddressPostal() != null ? user.getAddressPostal() : ""
-                    ));
-                    userData.put("billing", Map.of(
-                        "brand", user.getBillingBrand() != null ? user.getBillingBrand() : "",
-                        "last4", user.getBillingLast4() != null ? user.getBillingLast4() : "",
-                        "expMonth", user.getBillingExpMonth() != null ? user.getBillingExpMonth() : 0,
-                        "expYear", user.getBillingExpYear() != null ? user.getBillingExpYear() : 0,
-                        "stripeCustomerId", user.getStripeCustomerId() != null ? user.getStripeCustomerId() : ""
-                    ));
-
-                    // Check if user has multiple accounts
-                    String userEmail = user.getEmail();
-                    List<ContactProfile> profiles = contactProfileRepository
-                        .findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-                            userEmail, userEmail, userEmail, userEmail);
-                    userData.put("hasMultipleAccounts", profiles.size() > 1);
-
-                    // ADMIN always has full access; for others, check active subscription
-                    boolean hasActiveSubscription = user.getRole() == User.Role.ADMIN
-                        || (user.getTenantId() != null
-                            && !subscriptionRepository.findByContactIdAndActiveTrue(user.getTenantId()).isEmpty());
-                    userData.put("hasActiveSubscription", hasActiveSubscription);
-
-                    return ResponseEntity.ok(userData);
-                })
+        // One joined query: user row + multiple-accounts flag + active subscription.
+        return accountDirectory.currentUser(authentication.getName())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "User not found")));
     }
@@ -460,19 +401,52 @@ public class AuthController {
         }
 
         String email = authentication.getName();
-        String avatarUrl = request.get("avatar");
-        
+        String avatarUrl;
+        try {
+            // Legacy clients still send a base64 data URI; it is stored as thumbnails.
+            avatarUrl = avatarService.normalize(request.get("avatar"));
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
         return userRepository
                 .findByEmail(email)
                 .<ResponseEntity<?>>map(user -> {
                     user.setAvatar(avatarUrl);
                     userRepository.save(user);
-                    return ResponseEntity.ok(Map.of("message", "Avatar updated successfully", "avatar", avatarUrl));
+                    Map<String, Object> body = new java.util.HashMap<>();
+                    body.put("message", "Avatar updated successfully");
+                    body.put("avatar", avatarUrl);
+                    return ResponseEntity.ok(body);
                 })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "User not found")));
     }
 
+    @PostMapping(value = "/me/avatar", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadAvatar(Authentication authentication,
+                                          @RequestPart("file") org.springframework.web.multipart.MultipartFile file) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Unauthorized"));
+        }
+        var userOpt = userRepository.findByEmail(authentication.getName());
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "User not found"));
+        }
+        String avatarUrl;
+        try {
+            avatarUrl = avatarService.store(file.getBytes());
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        User user = userOpt.get();
+        user.setAvatar(avatarUrl);
+        userRepository.save(user);
+        return ResponseEntity.ok(Map.of("message", "Avatar updated successfully", "avatar", avatarUrl));
+    }
+
     @PutMapping("/me")
     public ResponseEntity<?> updateProfile(Authentication authentication, @RequestBody Map<String, Object> request) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -481,7 +455,16 @@ public class AuthController {
         }
 
         String email = authentication.getName();
-        
+        String avatar = null;
+        if (request.containsKey("avatar")) {
+            try {
+                avatar = avatarService.normalize((String) request.get("avatar"));
+            } catch (IllegalArgumentException | java.io.IOException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+            }
+        }
+        String avatarUrl = avatar;
+
         return userRepository
                 .findByEmail(email)
                 .<ResponseEntity<?>>map(user -> {
@@ -496,7 +479,7 @@ public class AuthController {
                         user.setPhone((String) request.get("phone"));
                     }
                     if (request.containsKey("avatar")) {
-                        user.setAvatar((String) request.get("avatar"));
+                        user.setAvatar(avatarUrl);
                     }
                     
                     // Update billing if provided
@@ -0,0 +1,51 @@
+package com.beworking.auth;
+
+/**
+ * Immutable snapshot of the authenticated {@link User} — just what controllers
+ * need for authorization (id, email, role, tenant/contact id). Resolved once
+ * per request by {@link AuthenticatedUserArgumentResolver} and shared through
+ * {@link AuthenticatedUserCache}; never a managed entity, so it is safe to
+ * cache and to hand across threads.
+ *
+ * Accessors mirror {@link User}'s so call sites read the same.
+ */
+public final class AuthenticatedUser {
+
+    private final Long id;
+    private final String email;
+    private final User.Role role;
+    private final Long tenantId;
+
+    public AuthenticatedUser(Long id, String email, User.Role role, Long tenantId) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.tenantId = tenantId;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getTenantId());
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public User.Role getRole() { return role; }
+
+    /** The contact_profiles id the user is acting as (null for admins / unlinked users). */
+    public Long getTenantId() { return tenantId; }
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+
+    public boolean isUser() {
+        return role == User.Role.USER;
+    }
+
+    /** Staff = ADMIN or ACCOUNTANT (read-only access to invoices and related endpoints). */
+    public boolean isStaff() {
+        return role == User.Role.ADMIN || role == User.Role.ACCOUNTANT;
+    }
+}
@@ -0,0 +1,41 @@
+package com.beworking.auth;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Injects the caller as an {@link AuthenticatedUser} controller parameter,
+ * resolved through {@link AuthenticatedUserCache}. The parameter is null when
+ * the request is unauthenticated or the token's email no longer maps to a
+ * user — endpoints keep deciding between 401 and 403 themselves.
+ */
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthenticatedUserCache authenticatedUserCache;
+
+    public AuthenticatedUserArgumentResolver(AuthenticatedUserCache authenticatedUserCache) {
+        this.authenticatedUserCache = authenticatedUserCache;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        // Same source Spring uses for an Authentication parameter, so both always agree.
+        Authentication authentication = webRequest.getUserPrincipal() instanceof Authentication auth
+            ? auth
+            : SecurityContextHolder.getContext().getAuthentication();
+        return authenticatedUserCache.resolve(authentication).orElse(null);
+    }
+}
@@ -0,0 +1,90 @@
+package com.beworking.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * JWT subject (email) → {@link AuthenticatedUser}, so a dashboard page load
+ * firing a dozen API calls doesn't run a dozen identical
+ * {@code userRepository.findByEmail} lookups.
+ *
+ * <ul>
+ *   <li>Per request: the first resolution is pinned to the request, so every
+ *       controller/helper in that request sees the same user.</li>
+ *   <li>Across requests: a short-TTL cache ({@code app.security.principal-cache-ttl},
+ *       30s by default). Unknown emails are not cached.</li>
+ *   <li>Invalidation: {@link UserPrincipalCacheListener} evicts on every JPA
+ *       write of a user — role changes, profile edits, switch-account
+ *       re-pointing tenant_id — after commit. The TTL bounds anything written
+ *       around JPA (e.g. the raw-SQL user delete on contact removal).</li>
+ * </ul>
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private static final String REQUEST_ATTRIBUTE = AuthenticatedUserCache.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+                                  @Value("${app.security.principal-cache-ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /** The authenticated caller, or empty when unauthenticated or no longer a known user. */
+    public Optional<AuthenticatedUser> resolve(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        String email = authentication.getName();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object pinned = request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (pinned instanceof AuthenticatedUser user && email.equals(user.getEmail())) {
+                return Optional.of(user);
+            }
+        }
+        Optional<AuthenticatedUser> user = get(email);
+        if (request != null) {
+            user.ifPresent(u -> request.setAttribute(REQUEST_ATTRIBUTE, u, RequestAttributes.SCOPE_REQUEST));
+        }
+        return user;
+    }
+
+    public Optional<AuthenticatedUser> get(String email) {
+        if (email == null) return Optional.empty();
+        AuthenticatedUser cached = cache.getIfPresent(email);
+        if (cached != null) return Optional.of(cached);
+        Optional<AuthenticatedUser> loaded = userRepository.findByEmail(email).map(AuthenticatedUser::of);
+        loaded.ifPresent(u -> cache.put(email, u));
+        return loaded;
+    }
+
+    /** Drops the entry now and, inside a transaction, again after commit. */
+    public void evict(String email) {
+        if (email == null) return;
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+}
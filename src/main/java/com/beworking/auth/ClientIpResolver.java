@@ -0,0 +1,74 @@
+package com.beworking.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * The originating client address of a request. Behind the load balancer
+ * {@code getRemoteAddr()} is the balancer for everyone, so {@code X-Forwarded-For}
+ * is honoured — but only hops appended by a trusted proxy
+ * ({@code app.rate-limit.trusted-proxies}, CIDRs; private ranges by default).
+ * The list is walked right to left and the first untrusted hop is the client,
+ * so a value the client put in the header itself is never believed.
+ */
+@Component
+public class ClientIpResolver {
+
+    /** Literal IPv4/IPv6 only — never hand a hostname to InetAddress (DNS lookup). */
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+
+    public ClientIpResolver(
+            @Value("${app.rate-limit.trusted-proxies:127.0.0.1/32,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            List<String> trustedProxies) {
+        for (String cidr : trustedProxies) {
+            if (cidr != null && !cidr.isBlank()) {
+                this.trustedProxies.add(new IpAddressMatcher(cidr.trim()));
+            }
+        }
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (!isTrusted(remote)) {
+            return remote;
+        }
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank()) {
+            return remote;
+        }
+        String[] hops = forwarded.split(",");
+        String client = remote;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!IP_LITERAL.matcher(hop).matches()) {
+                break;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (address == null || !IP_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            try {
+                if (matcher.matches(address)) return true;
+            } catch (IllegalArgumentException ignored) {
+                // malformed literal
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+package com.beworking.auth;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Producer side of {@code beworking.email_outbox} (V106). {@link EmailService}
+ * builds each message as before and hands it here instead of to SMTP; the row
+ * is written in the caller's transaction, so an email is queued exactly when
+ * the change it announces commits, and survives restarts until
+ * {@link EmailOutboxDispatcher} has delivered it.
+ *
+ * The message is stored fully rendered (RFC 822, Bcc included), so anything
+ * EmailService can build — reply-to, attachments, tracking pixels — is
+ * delivered unchanged, under the Message-ID it was given here.
+ *
+ * {@link #enqueue} runs its INSERT in a savepoint (NESTED). On Postgres a
+ * failed statement aborts the whole transaction, so without one the
+ * best-effort {@code send*} methods, which log enqueue failures, would leave
+ * their caller's transaction unusable. With it, the failure still propagates,
+ * but only the outbox row rolls back.
+ */
+@Service
+public class EmailOutbox {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO beworking.email_outbox (recipient, subject, raw_message, dedup_key)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (dedup_key) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate savepoint;
+
+    public EmailOutbox(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    public void enqueue(MimeMessage message) {
+        enqueue(message, null);
+    }
+
+    /**
+     * Queues {@code message} unless an email with the same {@code dedupKey}
+     * (e.g. {@code recovery:<contactId>:2}) was queued before — sequence and
+     * announcement senders pass one so a re-run or a second replica cannot
+     * mail the same person twice.
+     *
+     * @return false if the key was already taken.
+     * @throws MailPreparationException if the message cannot be rendered.
+     * @throws org.springframework.dao.DataAccessException if the INSERT fails;
+     *         the caller's transaction is rolled back to before it, not aborted.
+     */
+    public boolean enqueue(MimeMessage message, String dedupKey) {
+        Object[] row = render(message, dedupKey);
+        Boolean inserted = savepoint.execute(status -> jdbcTemplate.update(INSERT_SQL, row) > 0);
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    /**
+     * Queues {@code messages} with one batched INSERT, for fan-outs such as
+     * bulk notifications that would otherwise write a row per statement.
+     *
+     * @throws MailPreparationException if any message cannot be rendered;
+     *         nothing is queued then. A failed INSERT fails the caller's
+     *         transaction, which is what the bulk callers want.
+     */
+    public void enqueueAll(List<MimeMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (MimeMessage message : messages) {
+            rows.add(render(message, null));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private static Object[] render(MimeMessage message, String dedupKey) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try {
+            message.writeTo(raw);
+            return new Object[] {firstRecipient(message), message.getSubject(), raw.toByteArray(), dedupKey};
+        } catch (IOException | MessagingException e) {
+            throw new MailPreparationException("Could not render email for the outbox", e);
+        }
+    }
+
+    private static String firstRecipient(MimeMessage message) throws MessagingException {
+        Address[] to = message.getRecipients(Message.RecipientType.TO);
+        if (to == null || to.length == 0) {
+            throw new MessagingException("Email has no recipient");
+        }
+        return to[0] instanceof InternetAddress address ? address.getAddress() : to[0].toString();
+    }
+}
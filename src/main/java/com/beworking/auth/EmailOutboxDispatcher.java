@@ -0,0 +1,214 @@
+package com.beworking.auth;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers {@code beworking.email_outbox}. A fixed pool of
+ * {@code app.mail.outbox.workers} senders each claims up to
+ * {@code app.mail.outbox.batch-size} due rows and sends them through one SMTP
+ * connection ({@link JavaMailSender#send(MimeMessage...)} reuses the
+ * transport for the whole batch), so a bulk run opens a handful of sessions
+ * instead of one per email.
+ *
+ * Claiming pushes {@code next_attempt_at} one lease into the future with
+ * {@code FOR UPDATE SKIP LOCKED}, so replicas never share a row and a sender
+ * that dies mid-batch only delays its rows. A failed message is retried with
+ * exponential backoff ({@code retry-base} doubling per attempt, capped at six
+ * hours) and marked FAILED after {@code max-attempts}; the rest of its batch
+ * is unaffected.
+ */
+@Component
+class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender mailSender;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBase;
+    private final ExecutorService pool;
+    private final AtomicInteger active = new AtomicInteger();
+
+    EmailOutboxDispatcher(JdbcTemplate jdbcTemplate, JavaMailSender mailSender,
+                          @Value("${app.mail.outbox.workers:2}") int workers,
+                          @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+                          @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                          @Value("${app.mail.outbox.retry-base:PT1M}") Duration retryBase) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailSender = mailSender;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBase = retryBase;
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tops the pool up to {@code workers} draining senders and returns at once,
+     * so a slow SMTP server never holds the shared scheduler thread. A sender
+     * still draining from an earlier tick counts against the limit.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:PT5S}")
+    void dispatch() {
+        while (true) {
+            int running = active.get();
+            if (running >= workers) {
+                return;
+            }
+            if (active.compareAndSet(running, running + 1)) {
+                try {
+                    pool.execute(this::drain);
+                } catch (RuntimeException e) {
+                    active.decrementAndGet();
+                    logger.warn("Email outbox run not started: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.purge-cron:0 30 3 * * *}")
+    void purgeSent() {
+        // Rows with a dedup key stay (bodies are already cleared) so the key keeps blocking repeats.
+        jdbcTemplate.update("""
+            DELETE FROM beworking.email_outbox
+             WHERE status = 'SENT' AND dedup_key IS NULL AND sent_at < now() - interval '30 days'
+            """);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private void drain() {
+        try {
+            while (sendBatch() == batchSize) {
+                // keep going while full batches come back
+            }
+        } catch (Exception e) {
+            logger.warn("Email outbox run failed: {}", e.getMessage());
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    /** Claims and sends one batch; returns how many rows were claimed. */
+    int sendBatch() {
+        List<Claimed> batch = jdbcTemplate.query("""
+            UPDATE beworking.email_outbox o
+               SET attempts = o.attempts + 1,
+                   next_attempt_at = now() + make_interval(secs => ?)
+             WHERE o.id IN (
+                   SELECT id FROM beworking.email_outbox
+                    WHERE status = 'PENDING' AND next_attempt_at <= now()
+                    ORDER BY next_attempt_at
+                    LIMIT ?
+                      FOR UPDATE SKIP LOCKED)
+            RETURNING o.id, o.raw_message, o.attempts
+            """,
+            (rs, i) -> new Claimed(rs.getLong("id"), rs.getBytes("raw_message"), rs.getInt("attempts")),
+            LEASE.toSeconds(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Claim order is send order; MimeMessage keeps identity equality, so a LinkedHashMap is safe.
+        Map<MimeMessage, Claimed> byMessage = new LinkedHashMap<>();
+        for (Claimed row : batch) {
+            try {
+                byMessage.put(mailSender.createMimeMessage(new ByteArrayInputStream(row.rawMessage())), row);
+            } catch (Exception e) {
+                fail(row, e, true);
+            }
+        }
+        if (byMessage.isEmpty()) {
+            return batch.size();
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        MimeMessage[] messages = byMessage.keySet().toArray(new MimeMessage[0]);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+        } catch (MailException e) {
+            // Authentication or configuration failure: nothing in the batch went out.
+            failed = new IdentityHashMap<>();
+            for (MimeMessage message : messages) {
+                failed.put(message, e);
+            }
+        }
+
+        List<Object[]> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, Claimed> entry : byMessage.entrySet()) {
+            Exception error = failed.get(entry.getKey());
+            if (error == null) {
+                sent.add(new Object[] {entry.getValue().id()});
+            } else {
+                fail(entry.getValue(), error, false);
+            }
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                UPDATE beworking.email_outbox
+                   SET status = 'SENT', sent_at = now(), raw_message = NULL, last_error = NULL
+                 WHERE id = ?
+                """, sent);
+        }
+        return batch.size();
+    }
+
+    private void fail(Claimed row, Exception error, boolean permanent) {
+        String message = String.valueOf(error.getMessage());
+        if (permanent || row.attempts() >= maxAttempts) {
+            logger.error("Email outbox: giving up on message {} after {} attempts: {}", row.id(), row.attempts(), message);
+            jdbcTemplate.update(
+                "UPDATE beworking.email_outbox SET status = 'FAILED', last_error = ? WHERE id = ?",
+                message, row.id());
+            return;
+        }
+        logger.warn("Email outbox: message {} attempt {} failed, will retry: {}", row.id(), row.attempts(), message);
+        jdbcTemplate.update(
+            "UPDATE beworking.email_outbox SET next_attempt_at = now() + make_interval(secs => ?), last_error = ? WHERE id = ?",
+            backoff(row.attempts()).toSeconds(), message, row.id());
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = retryBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    record Claimed(long id, byte[] rawMessage, int attempts) {
+    }
+}
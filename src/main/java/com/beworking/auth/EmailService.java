@@ -1,21 +1,57 @@
 package com.beworking.auth;
 
 import jakarta.activation.DataSource;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.mail.util.ByteArrayDataSource;
+import java.util.HashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+/**
+ * Builds the application's emails. Nothing is sent from here: every message
+ * is handed to {@link EmailOutbox}, written in the caller's transaction and
+ * delivered by {@link EmailOutboxDispatcher} over pooled SMTP sessions with
+ * retries. Building and queueing is cheap, so the send methods run on the
+ * caller's thread.
+ */
 @Service
 public class EmailService {
     private final JavaMailSender mailSender;
+    private final EmailOutbox outbox;
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
+    // Sequence emails go out in bulk (bulk-send-recovery, nurture and reengagement crons),
+    // so their HTML is compiled once here rather than concatenated per send.
+    private static final EmailTemplate RECOVERY_SHELL = EmailTemplate.load("shell.html");
+    private static final RecoveryTemplate[] RECOVERY = {
+        new RecoveryTemplate("¿Necesitas ayuda para terminar tu registro? — BeWorking",
+            "¿Necesitas ayuda para terminar?", EmailTemplate.load("recovery-1.html")),
+        new RecoveryTemplate("Te ayudamos a terminar tu reserva — BeWorking",
+            "Estamos aquí para ayudarte", EmailTemplate.load("recovery-2.html")),
+        new RecoveryTemplate("Otros eligen BeWorking porque… — BeWorking",
+            "¿Qué dicen quienes ya están dentro?", EmailTemplate.load("recovery-3.html")),
+        new RecoveryTemplate("Última oportunidad — ¿podemos ayudarte? — BeWorking",
+            "Última llamada", EmailTemplate.load("recovery-4.html")),
+    };
+    private static final RecoveryTemplate[] LEAD_NURTURE = {
+        new RecoveryTemplate("¿Te puedo ayudar con algo más? — BeWorking",
+            "¿Te puedo ayudar con algo más?", EmailTemplate.load("lead-nurture-1.html")),
+        new RecoveryTemplate("¿Has podido revisar la información? — BeWorking",
+            "¿Pudiste revisar lo que te enviamos?", EmailTemplate.load("lead-nurture-2.html")),
+        new RecoveryTemplate("Algunas preguntas frecuentes — BeWorking",
+            "Quizá esto te ayude", EmailTemplate.load("lead-nurture-3.html")),
+        new RecoveryTemplate("Último mensaje — ¿podemos ayudarte? — BeWorking",
+            "Última llamada", EmailTemplate.load("lead-nurture-4.html")),
+    };
+    private static final EmailTemplate REENGAGEMENT = EmailTemplate.load("reengagement.html");
+
     @Value("${app.base-url}")
     private String baseUrl;
 
@@ -25,8 +61,9 @@ public class EmailService {
     @Value("${app.mail.from:}")
     private String mailFrom;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, EmailOutbox outbox) {
         this.mailSender = mailSender;
+        this.outbox = outbox;
     }
 
     private void applyFrom(MimeMessageHelper helper) throws jakarta.mail.MessagingException {
@@ -84,8 +121,8 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("Confirmation email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Confirmation email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send confirmation email to {}: {}", to, e.getMessage(), e);
         }
@@ -147,8 +184,8 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(plainText, content);
-            mailSender.send(message);
-            logger.info("Password reset email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Password reset email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send password reset email to {}: {}", to, e.getMessage(), e);
         }
@@ -197,8 +234,8 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("Welcome email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Welcome email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send welcome email to {}: {}", to, e.getMessage(), e);
         }
@@ -211,7 +248,6 @@ public class EmailService {
      * the guest opens the door from inside the app — never a magic link.
      * BCC/reply-to info@ so the team can field replies.
      */
-    @Async
     public void sendBeKeyShareInvite(String to, String guestName, String sharerName,
                                      java.time.OffsetDateTime startsAt, java.time.OffsetDateTime endsAt,
                                      String setupToken) {
@@ -270,8 +306,8 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("BeKey share invite sent to {}", to);
+            outbox.enqueue(message);
+            logger.info("BeKey share invite queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send BeKey share invite to {}: {}", to, e.getMessage(), e);
         }
@@ -280,8 +316,9 @@ public class EmailService {
     /**
      * One-time BeKey launch announcement to current access holders (#255).
      * Bilingual (ES + EN) in one message since contacts carry no language
-     * preference. Reply-to info@ so replies land in the team inbox. Synchronous
-     * so the bulk sender can count successes/failures and skip on failure.
+     * preference. Reply-to info@ so replies land in the team inbox. Throws if
+     * it cannot be queued so the bulk sender can count failures; queued at most
+     * once per recipient.
      */
     public void sendBeKeyAnnouncement(String to, String name) {
         String safeName = (name != null && !name.isBlank()) ? name.trim() : "";
@@ -335,7 +372,7 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
+            outbox.enqueue(message, "bekey-announcement:" + to.trim().toLowerCase());
         } catch (Exception e) {
             logger.error("Failed to send BeKey announcement to {}: {}", to, e.getMessage());
             throw new RuntimeException(e);
@@ -346,8 +383,9 @@ public class EmailService {
      * One-time Business Address / Mailbox announcement to virtual-office +
      * coworking members: mail scanning, QR package pickup, and the new tracking
      * flow. Bilingual ES + EN in one message (contacts carry no language pref).
-     * Reply-to info@ so replies land in the team inbox. Synchronous so the bulk
-     * sender can count successes/failures and skip on failure.
+     * Reply-to info@ so replies land in the team inbox. Throws if it cannot be
+     * queued so the bulk sender can count failures; queued at most once per
+     * recipient.
      */
     public void sendMailroomAnnouncement(String to, String name) {
         String safeName = (name != null && !name.isBlank()) ? name.trim() : "";
@@ -403,7 +441,7 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
+            outbox.enqueue(message, "mailroom-announcement:" + to.trim().toLowerCase());
         } catch (Exception e) {
             logger.error("Failed to send mailroom announcement to {}: {}", to, e.getMessage());
             throw new RuntimeException(e);
@@ -415,7 +453,6 @@ public class EmailService {
      * the platform and nudges them toward the BeWorkingVirtual upgrade. BCCs
      * info@ so the team can pick up replies.
      */
-    @Async
     public void sendFreeRegistrationWelcomeEmail(String to, String name) {
         String safeName = (name != null && !name.isBlank()) ? name : "";
         String greeting = safeName.isEmpty() ? "Hola," : "Hola " + safeName + ",";
@@ -498,14 +535,13 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("Free-registration welcome email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Free-registration welcome email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send free-registration welcome email to {}: {}", to, e.getMessage(), e);
         }
     }
 
-    @Async
     public void sendBookingWelcomeEmail(String to, String name, String token) {
         String subject = "BeWorking: Tu cuenta está lista";
         String resetLink = frontendUrl + "/reset-password?token=" + token;
@@ -551,14 +587,13 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("Booking welcome email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Booking welcome email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send booking welcome email to {}: {}", to, e.getMessage(), e);
         }
     }
 
-    @Async
     public void sendSubscriptionWelcomeEmail(String to, String name, String plan, String location) {
         sendSubscriptionWelcomeEmail(to, name, plan, location, null, null);
     }
@@ -675,14 +710,13 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(content, true);
-            mailSender.send(message);
-            logger.info("Trial welcome email sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("Trial welcome email queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send trial welcome email to {}: {}", to, e.getMessage(), e);
         }
     }
 
-    @Async
     public void sendRegistrationAdminNotification(String name, String email, String phone,
                                                    String company, String taxId, String plan, String location) {
         String planLabel = plan != null ? switch (plan.toLowerCase()) {
@@ -910,7 +944,6 @@ public class EmailService {
     }
 
     /** Customer-facing confirmation that their subscription was cancelled. */
-    @Async
     public void sendSubscriptionCancellationToCustomer(String to, String contactName, String description) {
         if (to == null || to.isBlank()) return;
         String name = contactName != null && !contactName.isBlank() ? contactName : "Hola";
@@ -937,7 +970,7 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject("BeWorking: Tu suscripción ha sido cancelada");
             helper.setText(body, true);
-            mailSender.send(message);
+            outbox.enqueue(message);
         } catch (Exception e) {
             System.err.println("Failed to send customer cancellation email to " + to + ": " + e.getMessage());
         }
@@ -949,12 +982,10 @@ public class EmailService {
                 + "<div style=\"font-size:16px;font-weight:700;color:#111;\">" + value + "</div></div>";
     }
 
-    @Async
     public void sendHtml(String to, String subject, String htmlContent) {
         sendHtml(to, subject, htmlContent, null);
     }
 
-    @Async
     public void sendHtml(String to, String subject, String htmlContent, String replyTo) {
         sendHtmlInternal(to, subject, htmlContent, replyTo, false);
     }
@@ -964,7 +995,6 @@ public class EmailService {
      * Reply-To info@ so replies land in the team inbox. Used by dunning /
      * past-due reminders where a human follow-up is expected.
      */
-    @Async
     public void sendBccInfo(String to, String subject, String htmlContent) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -975,8 +1005,8 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
-            mailSender.send(message);
-            logger.info("Customer email (BCC info@) sent to {}", to);
+            outbox.enqueue(message);
+            logger.info("Customer email (BCC info@) queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send BCC-info email to {}: {}", to, e.getMessage(), e);
         }
@@ -992,7 +1022,6 @@ public class EmailService {
      * method just dispatches the matching template. info@be-working.com is
      * BCC'd so the team can pick up replies.
      */
-    @Async
     public void sendRecoveryEmail(String to, String name, int templateNumber) {
         sendRecoveryEmail(to, name, templateNumber, null);
     }
@@ -1002,18 +1031,27 @@ public class EmailService {
      * open-tracking pixel and tag links with UTM params. Skip the contactId
      * (or pass null) for ad-hoc sends without tracking.
      */
-    @Async
     public void sendRecoveryEmail(String to, String name, int templateNumber, Long contactId) {
-        String safeName = (name != null && !name.isBlank()) ? name : "";
-        String greeting = safeName.isEmpty() ? "Hola," : "Hola " + safeName + ",";
-        RecoveryTemplate tpl = recoveryTemplate(templateNumber, greeting);
-        String body = tpl.body();
-        if (contactId != null) {
-            body = injectTracking(body, "recovery", templateNumber, contactId);
+        try {
+            queueRecoveryEmail(to, name, templateNumber, contactId);
+        } catch (Exception e) {
+            logger.error("Failed to send recovery email #{} to {}: {}", templateNumber, to, e.getMessage(), e);
         }
-        String html = recoveryEmailShell(tpl.headline(), body);
+    }
+
+    /**
+     * Queues recovery email N in the caller's transaction and lets failures
+     * propagate, so AbandonmentRecoveryScheduler's step claim rolls back with
+     * it instead of advancing past a message that was never queued.
+     *
+     * @throws MailPreparationException if the message cannot be built.
+     */
+    public void queueRecoveryEmail(String to, String name, int templateNumber, Long contactId) {
+        RecoveryTemplate tpl = sequenceStep(RECOVERY, templateNumber);
+        String html = recoveryEmailShell(tpl.headline(), tpl.body().with(Map.of("greeting", greeting(name))),
+            contactId != null ? trackingPixel("recovery", templateNumber, contactId) : null);
+        MimeMessage message = mailSender.createMimeMessage();
         try {
-            MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             applyFrom(helper);
             helper.setTo(to);
@@ -1021,11 +1059,11 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject("BeWorking: " + tpl.subject());
             helper.setText(html, true);
-            mailSender.send(message);
-            logger.info("Recovery email #{} sent to {}", templateNumber, to);
-        } catch (Exception e) {
-            logger.error("Failed to send recovery email #{} to {}: {}", templateNumber, to, e.getMessage(), e);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build recovery email #" + templateNumber, e);
         }
+        outbox.enqueue(message, contactId != null ? "recovery:" + contactId + ":" + templateNumber : null);
+        logger.info("Recovery email #{} queued for {}", templateNumber, to);
     }
 
     /**
@@ -1034,14 +1072,25 @@ public class EmailService {
      * inquiry-style copy — leads asked a question, they didn't try to pay.
      * Owned by LeadNurtureScheduler. info@ is BCC'd so replies thread back.
      */
-    @Async
     public void sendLeadNurtureEmail(String to, String name, int templateNumber) {
-        String safeName = (name != null && !name.isBlank()) ? name : "";
-        String greeting = safeName.isEmpty() ? "Hola," : "Hola " + safeName + ",";
-        RecoveryTemplate tpl = leadNurtureTemplate(templateNumber, greeting);
-        String html = recoveryEmailShell(tpl.headline(), tpl.body());
         try {
-            MimeMessage message = mailSender.createMimeMessage();
+            queueLeadNurtureEmail(to, name, templateNumber);
+        } catch (Exception e) {
+            logger.error("Failed to send lead nurture email #{} to {}: {}", templateNumber, to, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Queues nurture email N in the caller's transaction and lets failures
+     * propagate, so LeadNurtureScheduler's step claim rolls back with it.
+     *
+     * @throws MailPreparationException if the message cannot be built.
+     */
+    public void queueLeadNurtureEmail(String to, String name, int templateNumber) {
+        RecoveryTemplate tpl = sequenceStep(LEAD_NURTURE, templateNumber);
+        String html = recoveryEmailShell(tpl.headline(), tpl.body().with(Map.of("greeting", greeting(name))), null);
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             applyFrom(helper);
             helper.setTo(to);
@@ -1049,59 +1098,11 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject("BeWorking: " + tpl.subject());
             helper.setText(html, true);
-            mailSender.send(message);
-            logger.info("Lead nurture email #{} sent to {}", templateNumber, to);
-        } catch (Exception e) {
-            logger.error("Failed to send lead nurture email #{} to {}: {}", templateNumber, to, e.getMessage(), e);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build lead nurture email #" + templateNumber, e);
         }
-    }
-
-    private RecoveryTemplate leadNurtureTemplate(int n, String greeting) {
-        String waLink = "https://wa.me/34640369759?text=Hola,%20tengo%20una%20pregunta%20sobre%20BeWorking";
-        String waButton = "<table role=\"presentation\" cellspacing=\"0\" cellpadding=\"0\" border=\"0\" style=\"margin:0 auto 16px;\"><tr>"
-            + "<td style=\"background:#009624;border-radius:999px;\">"
-            + "<a href=\"" + waLink + "\" style=\"display:inline-block;padding:12px 28px;color:#fff;text-decoration:none;font-weight:600;font-size:15px;\">Hablar por WhatsApp</a>"
-            + "</td></tr></table>";
-        return switch (n) {
-            case 2 -> new RecoveryTemplate(
-                "¿Has podido revisar la información? — BeWorking",
-                "¿Pudiste revisar lo que te enviamos?",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Ayer te contactamos tras tu mensaje. Queríamos comprobar si has tenido tiempo de revisar la información y si te queda alguna duda.</p>"
-                + "<p style=\"margin:0 0 24px;\">Si prefieres una respuesta rápida, escríbenos por WhatsApp — el equipo te atiende en directo.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">o responde a este correo si lo prefieres.</p>"
-            );
-            case 3 -> new RecoveryTemplate(
-                "Algunas preguntas frecuentes — BeWorking",
-                "Quizá esto te ayude",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Pasados unos días, te dejamos algunas respuestas a lo que más nos preguntan:</p>"
-                + "<p style=\"margin:0 0 8px;\"><strong>¿Cuánto cuesta?</strong> Tenemos planes desde 15€/mes para oficina virtual.</p>"
-                + "<p style=\"margin:0 0 8px;\"><strong>¿Puedo darme de alta hoy?</strong> Sí, el proceso es 100% online y tarda menos de 5 minutos.</p>"
-                + "<p style=\"margin:0 0 24px;\"><strong>¿Puedo cancelar cuando quiera?</strong> Sí, sin permanencia.</p>"
-                + "<p style=\"margin:0 0 24px;\">Si tienes una pregunta distinta, cuéntanosla — estamos para resolverla.</p>"
-                + waButton
-            );
-            case 4 -> new RecoveryTemplate(
-                "Último mensaje — ¿podemos ayudarte? — BeWorking",
-                "Última llamada",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Esta es la última vez que te escribimos sobre tu consulta. No queremos saturarte.</p>"
-                + "<p style=\"margin:0 0 24px;\">Si en algún momento quieres retomar la conversación, aquí estaremos. Y si la consulta se resolvió por otro lado, gracias por considerarnos.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">Un saludo del equipo BeWorking.</p>"
-            );
-            default -> new RecoveryTemplate(
-                "¿Te puedo ayudar con algo más? — BeWorking",
-                "¿Te puedo ayudar con algo más?",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Recibimos tu mensaje hace un rato. Queríamos asegurarnos de que te llegó nuestra respuesta y comprobar si tienes alguna duda adicional.</p>"
-                + "<p style=\"margin:0 0 24px;\">Si te resulta más fácil, podemos hablar por WhatsApp — un compañero del equipo te resuelve dudas en directo.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">o responde a este correo y te contestamos.</p>"
-            );
-        };
+        outbox.enqueue(message);
+        logger.info("Lead nurture email #{} queued for {}", templateNumber, to);
     }
 
     /**
@@ -1110,7 +1111,6 @@ public class EmailService {
      * "long time no see" — no urgency, no discount, just a reminder we're
      * still here. info@be-working.com is BCC'd so a reply opens a thread.
      */
-    @Async
     public void sendReengagementEmail(String to, String name) {
         sendReengagementEmail(to, name, null, 1);
     }
@@ -1120,27 +1120,26 @@ public class EmailService {
      * (1, 2, or 3) used to inject an open-tracking pixel. Pass null for
      * the contactId for sends without tracking.
      */
-    @Async
     public void sendReengagementEmail(String to, String name, Long contactId, int emailNumber) {
-        String safeName = (name != null && !name.isBlank()) ? name : "";
-        String greeting = safeName.isEmpty() ? "Hola," : "Hola " + safeName + ",";
-        String waLink = "https://wa.me/34640369759?text=Hola,%20me%20gustaria%20saber%20que%20espacios%20teneis";
-        String waButton = "<table role=\"presentation\" cellspacing=\"0\" cellpadding=\"0\" border=\"0\" style=\"margin:0 auto 16px;\"><tr>"
-            + "<td style=\"background:#009624;border-radius:999px;\">"
-            + "<a href=\"" + waLink + "\" style=\"display:inline-block;padding:12px 28px;color:#fff;text-decoration:none;font-weight:600;font-size:15px;\">Hablar por WhatsApp</a>"
-            + "</td></tr></table>";
-        String body = "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-            + "<p style=\"margin:0 0 16px;\">Hace tiempo que no nos vemos. ¿Cómo va todo?</p>"
-            + "<p style=\"margin:0 0 16px;\">En BeWorking seguimos aquí — oficinas virtuales, salas de reunión, espacios de trabajo. Si tu negocio necesita una dirección fiscal, una sala para reunirte con un cliente o un puesto en coworking, lo tenemos preparado.</p>"
-            + "<p style=\"margin:0 0 24px;\">Sin compromiso. Si te interesa lo que ofrecemos hoy, escríbenos y te lo contamos.</p>"
-            + waButton
-            + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">o responde a este correo y te contestamos.</p>";
-        if (contactId != null) {
-            body = injectTracking(body, "reengagement", emailNumber, contactId);
+        try {
+            queueReengagementEmail(to, name, contactId, emailNumber);
+        } catch (Exception e) {
+            logger.error("Failed to send reengagement email to {}: {}", to, e.getMessage(), e);
         }
-        String html = recoveryEmailShell("¿Cuánto tiempo!", body);
+    }
+
+    /**
+     * Queues re-engagement email N in the caller's transaction and lets
+     * failures propagate, so InactivoReengagementScheduler's step claim rolls
+     * back with it.
+     *
+     * @throws MailPreparationException if the message cannot be built.
+     */
+    public void queueReengagementEmail(String to, String name, Long contactId, int emailNumber) {
+        String html = recoveryEmailShell("¿Cuánto tiempo!", REENGAGEMENT.with(Map.of("greeting", greeting(name))),
+            contactId != null ? trackingPixel("reengagement", emailNumber, contactId) : null);
+        MimeMessage message = mailSender.createMimeMessage();
         try {
-            MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             applyFrom(helper);
             helper.setTo(to);
@@ -1149,11 +1148,11 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject("BeWorking: ¿Cuánto tiempo! ¿Volvemos a vernos?");
             helper.setText(html, true);
-            mailSender.send(message);
-            logger.info("Reengagement email sent to {}", to);
-        } catch (Exception e) {
-            logger.error("Failed to send reengagement email to {}: {}", to, e.getMessage(), e);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build reengagement email #" + emailNumber, e);
         }
+        outbox.enqueue(message, contactId != null ? "reengagement:" + contactId + ":" + emailNumber : null);
+        logger.info("Reengagement email queued for {}", to);
     }
 
     /**
@@ -1170,7 +1169,7 @@ public class EmailService {
             + "<tr><td style=\"padding:4px 16px 4px 0;\">Candidatos Inactivo</td><td>" + totalCandidates + "</td></tr>"
             + "</table>"
             + "<p style=\"margin:0;color:#666;font-size:13px;\">Aviso automático interno. No requiere acción.</p>";
-        String html = recoveryEmailShell("Cron reengagement ejecutado", body);
+        String html = recoveryEmailShell("Cron reengagement ejecutado", body, null);
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -1179,98 +1178,45 @@ public class EmailService {
             helper.setReplyTo("info@be-working.com");
             helper.setSubject("BeWorking: Cron reengagement ejecutado — " + sent + " enviados");
             helper.setText(html, true);
-            mailSender.send(message);
-            logger.info("Reengagement cron summary sent to info@ (sent={})", sent);
+            outbox.enqueue(message);
+            logger.info("Reengagement cron summary queued for info@ (sent={})", sent);
         } catch (Exception e) {
             logger.error("Failed to send reengagement cron summary: {}", e.getMessage(), e);
         }
     }
 
-    private record RecoveryTemplate(String subject, String headline, String body) {}
-
-    private RecoveryTemplate recoveryTemplate(int n, String greeting) {
-        String waLink = "https://wa.me/34640369759?text=Hola,%20necesito%20ayuda%20para%20completar%20mi%20registro";
-        String waButton = "<table role=\"presentation\" cellspacing=\"0\" cellpadding=\"0\" border=\"0\" style=\"margin:0 auto 16px;\"><tr>"
-            + "<td style=\"background:#009624;border-radius:999px;\">"
-            + "<a href=\"" + waLink + "\" style=\"display:inline-block;padding:12px 28px;color:#fff;text-decoration:none;font-weight:600;font-size:15px;\">Hablar por WhatsApp</a>"
-            + "</td></tr></table>";
-        return switch (n) {
-            case 2 -> new RecoveryTemplate(
-                "Te ayudamos a terminar tu reserva — BeWorking",
-                "Estamos aquí para ayudarte",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Hace un día empezaste el proceso pero no llegamos a completarlo juntos. ¿Necesitas que te ayudemos en algún paso?</p>"
-                + "<p style=\"margin:0 0 24px;\">Si prefieres hablar antes de pagar, escríbenos por WhatsApp y un compañero del equipo te resuelve dudas en directo. Es lo más rápido.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">o responde a este correo si lo prefieres.</p>"
-            );
-            case 3 -> new RecoveryTemplate(
-                "Otros eligen BeWorking porque… — BeWorking",
-                "¿Qué dicen quienes ya están dentro?",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Han pasado unos días y queríamos volver a contactarte. La mayoría de las personas que dan el paso con nosotros nos cuentan lo mismo:</p>"
-                + "<p style=\"margin:0 0 8px;color:#1a1a1a;\"><em>«Lo que más valoro es responder rápido a clientes y proveedores con una dirección fiscal y atención telefónica reales.»</em></p>"
-                + "<p style=\"margin:0 0 24px;color:#666;font-size:13px;\">— María, autónoma desde 2024</p>"
-                + "<p style=\"margin:0 0 24px;\">Si estás dudando, cuéntanos qué te frena y vemos cómo encajarlo. Sin compromiso.</p>"
-                + waButton
-            );
-            case 4 -> new RecoveryTemplate(
-                "Última oportunidad — ¿podemos ayudarte? — BeWorking",
-                "Última llamada",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Esta es la última vez que te escribimos sobre tu registro pendiente. No queremos saturarte.</p>"
-                + "<p style=\"margin:0 0 24px;\">Si en algún momento quieres retomarlo, aquí estaremos. Y si simplemente no era el momento, gracias por considerarnos.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">Un saludo del equipo BeWorking.</p>"
-            );
-            default -> new RecoveryTemplate(
-                "¿Necesitas ayuda para terminar tu registro? — BeWorking",
-                "¿Necesitas ayuda para terminar?",
-                "<p style=\"margin:0 0 16px;\">" + greeting + "</p>"
-                + "<p style=\"margin:0 0 16px;\">Vimos que empezaste el registro en BeWorking pero no llegaste a completar el pago. Pasa muchas veces — formulario, banco, una duda — y queríamos echarte una mano.</p>"
-                + "<p style=\"margin:0 0 24px;\">¿Qué te frenó? Responde a este correo o escríbenos por WhatsApp y resolvemos cualquier duda en menos de un día hábil. Sin compromiso.</p>"
-                + waButton
-                + "<p style=\"margin:0;color:#666;font-size:13px;text-align:center;\">o responde a este correo y te contestamos.</p>"
-            );
-        };
+    private record RecoveryTemplate(String subject, String headline, EmailTemplate body) {}
+
+    private static RecoveryTemplate sequenceStep(RecoveryTemplate[] steps, int n) {
+        return n >= 1 && n <= steps.length ? steps[n - 1] : steps[0];
+    }
+
+    private static String greeting(String name) {
+        return name != null && !name.isBlank() ? "Hola " + name + "," : "Hola,";
     }
 
-    private String recoveryEmailShell(String headline, String body) {
-        return "<!doctype html>"
-            + "<html lang=\"es\"><head><meta charset=\"utf-8\">"
-            + "<meta name=\"viewport\" content=\"width=device-width,initial-scale=1\"></head>"
-            + "<body style=\"margin:0;padding:0;background:#f7f7f8;-webkit-font-smoothing:antialiased;font-family:-apple-system,BlinkMacSystemFont,'Segoe UI',Roboto,sans-serif;\">"
-            + "<table role=\"presentation\" width=\"100%\" cellspacing=\"0\" cellpadding=\"0\" border=\"0\" style=\"background:#f7f7f8;\">"
-            + "<tr><td align=\"center\" style=\"padding:32px 0;\">"
-            + "<table role=\"presentation\" width=\"560\" cellspacing=\"0\" cellpadding=\"0\" border=\"0\" style=\"width:560px;max-width:560px;margin:0 auto;\">"
-            + "<tr><td style=\"background:linear-gradient(135deg,#009624 0%,#00c853 100%);padding:32px;color:#fff;border-radius:14px 14px 0 0;\">"
-            + "<div style=\"font-size:14px;letter-spacing:0.06em;text-transform:uppercase;opacity:.85;\">BeWorking</div>"
-            + "<div style=\"font-size:24px;font-weight:700;margin-top:8px;\">" + headline + "</div>"
-            + "</td></tr>"
-            + "<tr><td style=\"background:#fff;padding:32px;color:#1a1a1a;line-height:1.55;\">"
-            + body
-            + "</td></tr>"
-            + "<tr><td style=\"background:#fafafa;padding:20px 32px;color:#888;font-size:12px;line-height:1.5;border-radius:0 0 14px 14px;\">"
-            + "BeWorking · Calle Alejandro Dumas 17, 29004 Málaga · <a href=\"mailto:info@be-working.com\" style=\"color:#009624;text-decoration:none;\">info@be-working.com</a>"
-            + "</td></tr>"
-            + "</table></td></tr></table></body></html>";
+    private static String recoveryEmailShell(String headline, Object body, String tracking) {
+        Map<String, Object> params = new HashMap<>(4);
+        params.put("headline", headline);
+        params.put("body", body);
+        params.put("tracking", tracking);
+        return RECOVERY_SHELL.render(params);
     }
 
     /**
-     * Append a 1×1 transparent tracking pixel that hits
+     * A 1×1 transparent tracking pixel that hits
      * {@code /api/track/open?c=…&t=…&type=…} when the recipient opens the
-     * email. Inline images get auto-loaded by most clients (with caching),
-     * which is why the controller sets no-cache headers — Gmail proxies
-     * still cache, but we get a single signal which is enough for first-open
-     * rate.
+     * email, appended after the body. Inline images get auto-loaded by most
+     * clients (with caching), which is why the controller sets no-cache
+     * headers — Gmail proxies still cache, but we get a single signal which
+     * is enough for first-open rate.
      */
-    private String injectTracking(String body, String type, int templateNumber, Long contactId) {
+    private String trackingPixel(String type, int templateNumber, Long contactId) {
         String pixelUrl = (baseUrl != null ? baseUrl.replaceAll("/+$", "") : "")
             + "/api/track/open?c=" + contactId
             + "&t=" + templateNumber
             + "&type=" + type;
-        return body
-            + "<img src=\"" + pixelUrl + "\" alt=\"\" width=\"1\" height=\"1\""
+        return "<img src=\"" + pixelUrl + "\" alt=\"\" width=\"1\" height=\"1\""
             + " style=\"display:block;width:1px;height:1px;border:0;outline:none;text-decoration:none\" />";
     }
 
@@ -1282,7 +1228,6 @@ public class EmailService {
         return sendHtmlInternal(to, subject, htmlContent, replyTo, true);
     }
 
-    @Async
     public void sendHtmlWithAttachment(String to, String subject, String htmlContent,
                                        byte[] attachment, String attachmentName) {
         try {
@@ -1295,27 +1240,41 @@ public class EmailService {
             helper.setText(htmlContent, true);
             DataSource dataSource = new ByteArrayDataSource(attachment, "application/pdf");
             helper.addAttachment(attachmentName, dataSource);
-            mailSender.send(message);
-            logger.info("HTML email with attachment sent successfully to {}", to);
+            outbox.enqueue(message);
+            logger.info("HTML email with attachment queued for {}", to);
         } catch (Exception e) {
             logger.error("Failed to send HTML email with attachment to {}: {}", to, e.getMessage(), e);
         }
     }
 
+    /**
+     * Builds an HTML email without queueing it, for callers that hand many
+     * messages to {@link EmailOutbox#enqueueAll} in one batch.
+     */
+    public MimeMessage createHtmlMessage(String to, String subject, String htmlContent) throws MessagingException {
+        return buildHtmlMessage(to, subject, htmlContent, null);
+    }
+
+    private MimeMessage buildHtmlMessage(String to, String subject, String htmlContent, String replyTo)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        applyFrom(helper);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        if (replyTo != null && !replyTo.isBlank()) {
+            helper.setReplyTo(replyTo);
+        }
+        return message;
+    }
+
     private String sendHtmlInternal(String to, String subject, String htmlContent, String replyTo, boolean returnMessageId) {
         try {
             logger.info("Attempting to send HTML email to {}", to);
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            applyFrom(helper);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            if (replyTo != null && !replyTo.isBlank()) {
-                helper.setReplyTo(replyTo);
-            }
-            mailSender.send(message);
-            logger.info("HTML email sent successfully to {}", to);
+            MimeMessage message = buildHtmlMessage(to, subject, htmlContent, replyTo);
+            outbox.enqueue(message);
+            logger.info("HTML email queued for {}", to);
             return returnMessageId ? message.getMessageID() : null;
         } catch (Exception e) {
             logger.error("Failed to send HTML email to {}: {}", to, e.getMessage(), e);
@@ -0,0 +1,167 @@
+package com.beworking.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML email template parsed once into literal chunks and named slots, so
+ * rendering is a single pass that appends into one buffer instead of
+ * concatenating every literal again per send.
+ *
+ * Syntax: {@code {{name}}} inserts the parameter HTML-escaped,
+ * {@code {{{name}}}} inserts it as-is (pre-built markup). A parameter may be
+ * another template bound with {@link #with}, which renders straight into the
+ * same buffer. Missing parameters are an error; null values render as empty.
+ *
+ * Templates live under {@code src/main/resources/templates/email/} and are
+ * held in {@code static final} fields, so each one is compiled exactly once
+ * when its service class loads.
+ */
+public final class EmailTemplate {
+
+    private static final String RESOURCE_ROOT = "templates/email/";
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    private sealed interface Part permits Literal, Slot {
+    }
+
+    private record Literal(String text) implements Part {
+    }
+
+    private record Slot(String name, boolean raw) implements Part {
+    }
+
+    /** A template with its parameters, usable as the value of a raw slot in another template. */
+    public record Bound(EmailTemplate template, Map<String, ?> params) {
+    }
+
+    private final String name;
+    private final Part[] parts;
+    private final int literalLength;
+
+    private EmailTemplate(String name, Part[] parts) {
+        this.name = name;
+        this.parts = parts;
+        int length = 0;
+        for (Part part : parts) {
+            if (part instanceof Literal literal) {
+                length += literal.text().length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    /** Loads and compiles {@code templates/email/<name>} from the classpath. */
+    public static EmailTemplate load(String name) {
+        String path = RESOURCE_ROOT + name;
+        try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Email template not found: " + path);
+            }
+            return compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read email template " + path, e);
+        }
+    }
+
+    public static EmailTemplate compile(String name, String source) {
+        List<Part> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", open);
+            String close = raw ? "}}}" : "}}";
+            int start = open + (raw ? 3 : 2);
+            int end = source.indexOf(close, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed slot at offset " + open + " in email template " + name);
+            }
+            String slot = source.substring(start, end).trim();
+            if (slot.isEmpty()) {
+                throw new IllegalArgumentException("Empty slot at offset " + open + " in email template " + name);
+            }
+            if (open > pos) {
+                parts.add(new Literal(source.substring(pos, open)));
+            }
+            parts.add(new Slot(slot, raw));
+            pos = end + close.length();
+        }
+        if (pos < source.length()) {
+            parts.add(new Literal(source.substring(pos)));
+        }
+        return new EmailTemplate(name, parts.toArray(new Part[0]));
+    }
+
+    public Bound with(Map<String, ?> params) {
+        return new Bound(this, params);
+    }
+
+    /** Renders into this thread's reusable buffer and returns the result. */
+    public String render(Map<String, ?> params) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            renderTo(params, out);
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            } else {
+                out.setLength(0);
+            }
+        }
+    }
+
+    public void renderTo(Map<String, ?> params, StringBuilder out) {
+        out.ensureCapacity(out.length() + literalLength + 256);
+        for (Part part : parts) {
+            if (part instanceof Literal literal) {
+                out.append(literal.text());
+                continue;
+            }
+            Slot slot = (Slot) part;
+            if (!params.containsKey(slot.name())) {
+                throw new IllegalArgumentException("Missing parameter '" + slot.name() + "' for email template " + name);
+            }
+            Object value = params.get(slot.name());
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Bound bound) {
+                bound.template().renderTo(bound.params(), out);
+            } else if (slot.raw()) {
+                out.append(value);
+            } else {
+                appendEscaped(out, value.toString());
+            }
+        }
+    }
+
+    static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EmailTemplate[" + name + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.beworking.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-JVM buckets in a bounded Caffeine cache. An entry idle for longer than
+ * {@code app.rate-limit.idle-expiry} has refilled completely, so dropping it
+ * loses nothing; the size bound ({@code app.rate-limit.max-keys}) keeps memory
+ * flat when a client sprays requests from thousands of addresses.
+ * Active when app.rate-limit.backend is "memory" or unset.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    InMemoryRateLimitStore(@Value("${app.rate-limit.max-keys:100000}") long maxKeys,
+                           @Value("${app.rate-limit.idle-expiry:1m}") Duration idleExpiry) {
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(idleExpiry)
+            .build();
+    }
+
+    @Override
+    public boolean tryConsume(String key, int capacity, Duration period) {
+        return buckets.get(key, k -> Bucket4j.builder()
+                .addLimit(Bandwidth.classic(capacity, Refill.greedy(capacity, period)))
+                .build())
+            .tryConsume(1);
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,77 @@
+package com.beworking.auth;
+
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buckets in {@code beworking.rate_limit_buckets}, so the limit holds across
+ * replicas instead of multiplying by their count. Each request is a single
+ * upsert: the row lock taken by ON CONFLICT serializes concurrent requests
+ * for the same key, refill is computed from the stored timestamp, and the
+ * statement reports whether a token was taken.
+ *
+ * Rows idle past {@code app.rate-limit.idle-expiry} are full buckets and are
+ * purged periodically. If the database is unavailable the request is let
+ * through — the limiter must not take login down with it.
+ * Active when app.rate-limit.backend is "jdbc".
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "jdbc")
+class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String AVAILABLE =
+        "LEAST(?, b.tokens + EXTRACT(EPOCH FROM now() - b.refilled_at) * ?)";
+
+    private static final String CONSUME_SQL = """
+        INSERT INTO beworking.rate_limit_buckets AS b (bucket_key, tokens, refilled_at, allowed)
+        VALUES (?, ? - 1, now(), TRUE)
+        ON CONFLICT (bucket_key) DO UPDATE
+           SET tokens = CASE WHEN %1$s >= 1 THEN %1$s - 1 ELSE %1$s END,
+               allowed = %1$s >= 1,
+               refilled_at = now()
+        RETURNING allowed
+        """.formatted(AVAILABLE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration idleExpiry;
+
+    JdbcRateLimitStore(JdbcTemplate jdbcTemplate,
+                       @Value("${app.rate-limit.idle-expiry:1m}") Duration idleExpiry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleExpiry = idleExpiry;
+    }
+
+    @Override
+    public boolean tryConsume(String key, int capacity, Duration period) {
+        double cap = capacity;
+        double perSecond = cap / Math.max(1, period.toSeconds());
+        try {
+            Boolean allowed = jdbcTemplate.queryForObject(CONSUME_SQL, Boolean.class,
+                key, cap,
+                cap, perSecond, cap, perSecond, cap, perSecond,
+                cap, perSecond);
+            return !Boolean.FALSE.equals(allowed);
+        } catch (Exception e) {
+            logger.warn("Rate limit store unavailable, allowing request for {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void purgeIdleBuckets() {
+        int purged = jdbcTemplate.update(
+            "DELETE FROM beworking.rate_limit_buckets WHERE refilled_at < now() - make_interval(secs => ?)",
+            idleExpiry.toSeconds());
+        if (purged > 0) {
+            logger.debug("Purged {} idle rate-limit buckets", purged);
+        }
+    }
+}
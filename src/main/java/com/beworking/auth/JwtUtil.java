@@ -6,25 +6,71 @@ import io.jsonwebtoken.security.Keys; // it is the import of the Keys class. It
 import io.jsonwebtoken.Claims; // it is the import of the Claims class. It is used to represent the claims in a JWT token.
 import org.springframework.stereotype.Component; // it is the import of the Component annotation. It is used to mark a class as a Spring component. It is used for dependency injection and component scanning.
 import org.springframework.beans.factory.annotation.Value;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtParser;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 // ---
 // JWT Secret Management Steps (for reference, remove before production)
-// 1. The secret is injected from application.properties via @Value.
+// 1. The secret is injected from application.properties via @Value (constructor).
 // 2. Never hardcode secrets in code. Always use environment variables for production.
 // 3. The secret is used to sign and verify JWT tokens.
 // ---
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String jwtSecret; // Step 1: Secret injected here
     private final long ACCESS_EXPIRATION_MS = 1000 * 60 * 60; // 1 hour
     private final long REFRESH_EXPIRATION_MS = 1000L * 60 * 60 * 24 * 7; // 7 days
 
+    // Derived once: the HMAC key and the parser are immutable and thread-safe,
+    // so there's no reason to rebuild them on every request.
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Claims of tokens whose signature already checked out, keyed by SHA-256 of
+    // the compact token (the raw bearer string is never kept) and evicted at
+    // the token's own exp. JwtAuthenticationFilter runs on every API request;
+    // a browser session sends the same access token for its whole hour, so
+    // HMAC verification + JSON parsing happen once per token instead of once
+    // per request. Invalid tokens are never cached.
+    private final Cache<String, Claims> verified;
+
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret, // Step 1: Secret injected here
+                   @Value("${app.security.jwt-cache-size:10000}") long cacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Step 3: Used for signing/verifying
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, cacheSize))
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes()); // Step 3: Used for signing/verifying
+        return signingKey;
     }
 
     // ---
@@ -63,15 +109,34 @@ public class JwtUtil {
     // ---
     // JWT Token Verification Process:
     // 1. parseToken() is called with the JWT string from the client.
-    // 2. Uses the secret key to verify the signature and parse claims.
-    // 3. Returns the claims if valid, or throws if invalid/expired.
+    // 2. A token verified earlier (and not yet expired) is answered from the cache.
+    // 3. Otherwise the secret key verifies the signature and the claims are parsed.
+    // 4. Returns the claims if valid, or throws if invalid/expired.
     // ---
     public Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String key = sha256(token);
+        Claims cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parseTokenUncached(token);
+        if (claims.getExpiration() != null) {
+            verified.put(key, claims);
+        }
+        return claims;
+    }
+
+    Claims parseTokenUncached(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
 // ---
@@ -23,6 +23,12 @@ public class LoginService {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             if (passwordEncoder.matches(password, user.getPassword())) {
+                // Hashes made at a lower cost than configured are upgraded
+                // while the plaintext is at hand.
+                if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                    user.setPassword(passwordEncoder.encode(password));
+                    userRepository.save(user);
+                }
                 // Return the user even if email is not yet confirmed. The
                 // controller distinguishes "wrong credentials" (Optional.empty)
                 // from "unconfirmed email" (user present, isEmailConfirmed=false)
@@ -0,0 +1,20 @@
+package com.beworking.auth;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket state behind {@link RateLimitingFilter}, one bucket per key.
+ * Two implementations, picked by {@code app.rate-limit.backend}:
+ * InMemoryRateLimitStore (default, per JVM) and JdbcRateLimitStore
+ * (Postgres, shared by every replica).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from {@code key}'s bucket, which holds {@code capacity}
+     * tokens and refills continuously over {@code period}.
+     *
+     * @return false when the bucket is empty.
+     */
+    boolean tryConsume(String key, int capacity, Duration period);
+}
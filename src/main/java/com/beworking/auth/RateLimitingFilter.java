@@ -1,10 +1,5 @@
 package com.beworking.auth;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
-import io.github.bucket4j.Refill;
-
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,16 +11,26 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Per-client throttle on the abuse-prone public endpoints. Buckets live in a
+ * {@link RateLimitStore} (bounded in-memory, or Postgres for a limit shared by
+ * all replicas) keyed by the client address from {@link ClientIpResolver}.
+ */
 @Component
 public class RateLimitingFilter implements Filter {
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
     // 5 requests per minute per IP for auth endpoints
     private static final int RATE_LIMIT = 5;
     private static final Duration DURATION = Duration.ofMinutes(1);
 
+    private final RateLimitStore rateLimitStore;
+    private final ClientIpResolver clientIpResolver;
+
+    public RateLimitingFilter(RateLimitStore rateLimitStore, ClientIpResolver clientIpResolver) {
+        this.rateLimitStore = rateLimitStore;
+        this.clientIpResolver = clientIpResolver;
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
         HttpServletRequest req = (HttpServletRequest) request;
@@ -33,11 +38,8 @@ public class RateLimitingFilter implements Filter {
         String path = req.getRequestURI();
         String method = req.getMethod();
         if (isProtectedEndpoint(path, method)) {
-            String ip = req.getRemoteAddr();
-            Bucket bucket = buckets.computeIfAbsent(ip, k -> Bucket4j.builder()
-                    .addLimit(Bandwidth.classic(RATE_LIMIT, Refill.greedy(RATE_LIMIT, DURATION)))
-                    .build());
-            if (bucket.tryConsume(1)) {
+            String ip = clientIpResolver.resolve(req);
+            if (rateLimitStore.tryConsume(ip, RATE_LIMIT, DURATION)) {
                 chain.doFilter(request, response);
             } else {
                 res.setStatus(429);
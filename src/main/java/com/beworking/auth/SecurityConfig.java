@@ -1,6 +1,7 @@
 package com.beworking.auth;
 
 import com.beworking.auth.RateLimitingFilter;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,11 +59,15 @@ public class SecurityConfig {
     /**
      * Password encoder for credential hashing.
      *
+     * The cost is tunable ({@code app.security.bcrypt-strength}, BCrypt's
+     * default 10 when unset); hashes below the configured cost are re-hashed
+     * on the next successful login (see {@link LoginService}).
+     *
      * @return a BCrypt password encoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
@@ -81,6 +86,8 @@ public class SecurityConfig {
         }
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Keyset-paginated lists (notification inbox) return the next page's cursor in a header.
+        configuration.setExposedHeaders(List.of("X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -103,12 +110,17 @@ public class SecurityConfig {
             .httpBasic(basic -> basic.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // The re-dispatch that completes an async response (SSE event stream) carries no
+                // JWT context; the original request was already authorized.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/api/**").permitAll()
                 .requestMatchers("/").permitAll()
                 .requestMatchers("/api/health","/api/auth/login", "/api/auth/admin/login", "/api/auth/register", "/api/auth/register-pending", "/api/auth/register-with-trial", "/api/auth/check-email", "/api/auth/setup-intent", "/api/auth/confirm", "/api/auth/forgot-password", "/api/auth/reset-password", "/api/auth/refresh", "/api/auth/select-account", "/api/mailroom/**", "/api/invoices/*/pdf", "/api/webhooks/**").permitAll()
                 // /api/leads — public POST (contact form, OV interest); GET/DELETE require admin auth (handled at controller level)
                 .requestMatchers(HttpMethod.POST, "/api/leads").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/uploads").permitAll()
+                // Dev-only direct upload receiver — the upload id is the one-time token.
+                .requestMatchers(HttpMethod.PUT, "/api/storage/uploads/*").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/contact-profiles/**").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/contact-profiles").permitAll()
                 .requestMatchers(HttpMethod.PUT, "/api/contact-profiles/**").permitAll()
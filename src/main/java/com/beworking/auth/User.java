@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
  */
 @Entity
 @Table(name = "users", schema = "beworking")
+@EntityListeners(UserPrincipalCacheListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,31 @@
+package com.beworking.auth;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user's cached {@link AuthenticatedUser} whenever the row is written
+ * through JPA — switch-account / select-account re-pointing tenant_id, role
+ * changes, profile edits, deletes.
+ *
+ * Instantiated by Hibernate through Spring's bean container, so constructor
+ * injection works like any other component.
+ */
+@Component
+public class UserPrincipalCacheListener {
+
+    private final AuthenticatedUserCache authenticatedUserCache;
+
+    public UserPrincipalCacheListener(AuthenticatedUserCache authenticatedUserCache) {
+        this.authenticatedUserCache = authenticatedUserCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserWritten(User user) {
+        authenticatedUserCache.evict(user.getEmail());
+    }
+}
@@ -1,14 +1,15 @@
 package com.beworking.bekey;
 
+import com.beworking.bookings.OccupancyTimeline;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
@@ -21,7 +22,8 @@ import java.util.Set;
  * Reconciles BeKey door grants against booked slots (#151). Diff-based: only the
  * changes hit Akiles, the unchanged middle is skipped.
  *
- *   desired = paid, current/upcoming bloqueos on door-mapped rooms (MA1A1..MA1A5)
+ *   desired = paid, current/upcoming bloqueos on door-mapped rooms (MA1A1..MA1A5),
+ *             read from the shared {@link OccupancyTimeline}
  *   existing = active Source.booking grants, keyed by bloqueo id (sourceRef)
  *
  *   in desired, not granted  -> grantForBloqueo  (async invoice-paid bookings)
@@ -36,55 +38,34 @@ public class BeKeyReconciliationScheduler {
     private static final Logger logger = LoggerFactory.getLogger(BeKeyReconciliationScheduler.class);
     private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
 
-    private static final String DESIRED_SQL = """
-        SELECT b.id AS bloqueo_id, b.id_cliente, p.nombre AS room_code,
-               b.fecha_ini, b.fecha_fin, b.fin_indefinido
-          FROM beworking.bloqueos b
-          JOIN beworking.productos p ON p.id = b.id_producto
-         WHERE b.estado IN ('Pagado', 'Free')
-           AND b.id_cliente IS NOT NULL
-           AND (b.fin_indefinido = 1 OR b.fecha_fin >= CURRENT_DATE)
-           AND UPPER(p.nombre) IN ('MA1A1','MA1A2','MA1A3','MA1A4','MA1A5')
-        """;
+    private static final Set<String> DOOR_ROOMS = Set.of("MA1A1", "MA1A2", "MA1A3", "MA1A4", "MA1A5");
+    private static final Set<String> DOOR_ESTADOS = Set.of("Pagado", "Free");
 
-    // Active coworking subscriptions — mirrors SubscriptionService.resolveSubscriptionCategory:
-    // coworking iff the linked product's tipo is 'mesa', else (no product tipo) a description
-    // heuristic. These get a standing MA1O1 (desk + street door) grant. Virtual-office subs
-    // are deliberately excluded — their access is booking-driven, not subscription-driven.
-    private static final String SUBS_DESIRED_SQL = """
-        SELECT s.id AS sub_id, s.contact_id
-          FROM beworking.subscriptions s
-          LEFT JOIN beworking.productos p ON p.id = s.producto_id
-         WHERE s.active = true
-           AND s.contact_id IS NOT NULL
-           AND (
-                 LOWER(TRIM(p.tipo)) = 'mesa'
-              OR (p.tipo IS NULL AND (
-                    LOWER(COALESCE(s.description,'')) LIKE '%coworking%'
-                 OR LOWER(COALESCE(s.description,'')) LIKE '%mesa%'
-                 OR LOWER(COALESCE(s.description,'')) LIKE '%desk%'))
-               )
-        """;
-
-    private final JdbcTemplate jdbcTemplate;
+    private final OccupancyTimeline occupancyTimeline;
     private final BeKeyAccessService beKeyAccessService;
     private final BeKeyAccessRepository accessRepository;
+    private final BeKeyShareService shareService;
     private final boolean integrationEnabled;
+    private final ScheduledJobRunner jobRunner;
 
-    public BeKeyReconciliationScheduler(JdbcTemplate jdbcTemplate,
+    public BeKeyReconciliationScheduler(OccupancyTimeline occupancyTimeline,
                                         BeKeyAccessService beKeyAccessService,
                                         BeKeyAccessRepository accessRepository,
-                                        @Value("${akiles.integration.enabled:false}") boolean integrationEnabled) {
-        this.jdbcTemplate = jdbcTemplate;
+                                        BeKeyShareService shareService,
+                                        @Value("${akiles.integration.enabled:false}") boolean integrationEnabled,
+                                        ScheduledJobRunner jobRunner) {
+        this.occupancyTimeline = occupancyTimeline;
         this.beKeyAccessService = beKeyAccessService;
         this.accessRepository = accessRepository;
+        this.shareService = shareService;
         this.integrationEnabled = integrationEnabled;
+        this.jobRunner = jobRunner;
     }
 
     // Every 30 minutes (UTC). Day-pinned windows make exact timing non-critical.
     @Scheduled(cron = "0 0,30 * * * *")
     public void reconcile() {
-        runOnce();
+        jobRunner.runScheduled("bekeyBookingReconcile", this::runOnce);
     }
 
     public RunResult runOnce() {
@@ -93,7 +74,10 @@ public class BeKeyReconciliationScheduler {
             return new RunResult(0, 0);
         }
 
-        List<Map<String, Object>> desired = jdbcTemplate.queryForList(DESIRED_SQL);
+        List<OccupancyTimeline.BloqueoSlot> desired = occupancyTimeline.currentBloqueos(LocalDate.now(ZONE)).stream()
+            .filter(b -> b.contactId() != null && b.estado() != null && DOOR_ESTADOS.contains(b.estado()))
+            .filter(b -> DOOR_ROOMS.contains(roomCode(b.productoId())))
+            .toList();
 
         // Existing active booking grants, keyed by bloqueo id (sourceRef).
         Map<Long, BeKeyAccess> existing = new HashMap<>();
@@ -108,24 +92,19 @@ public class BeKeyReconciliationScheduler {
         Set<Long> desiredIds = new HashSet<>();
 
         // ADD — desired slots that have no active grant yet.
-        for (Map<String, Object> row : desired) {
-            Long bloqueoId = ((Number) row.get("bloqueo_id")).longValue();
+        for (OccupancyTimeline.BloqueoSlot slot : desired) {
+            Long bloqueoId = slot.id();
             desiredIds.add(bloqueoId);
             if (existing.containsKey(bloqueoId)) {
                 continue;   // already granted — no Akiles call
             }
             try {
-                Long contactId = ((Number) row.get("id_cliente")).longValue();
-                String roomCode = (String) row.get("room_code");
-                Object finObj = row.get("fin_indefinido");
-                boolean openEnded = finObj != null && ((Number) finObj).intValue() == 1;
-                LocalDateTime fechaIni = ((Timestamp) row.get("fecha_ini")).toLocalDateTime();
-                LocalDateTime fechaFin = ((Timestamp) row.get("fecha_fin")).toLocalDateTime();
-                OffsetDateTime startsAt = fechaIni.toLocalDate().atStartOfDay(ZONE).toOffsetDateTime();
-                OffsetDateTime expiresAt = openEnded
+                OffsetDateTime startsAt = slot.fechaIni().toLocalDate().atStartOfDay(ZONE).toOffsetDateTime();
+                OffsetDateTime expiresAt = slot.finIndefinido()
                         ? null
-                        : fechaFin.toLocalDate().plusDays(1).atStartOfDay(ZONE).minusSeconds(1).toOffsetDateTime();
-                beKeyAccessService.grantForBloqueo(contactId, bloqueoId, roomCode, startsAt, expiresAt);
+                        : slot.fechaFin().toLocalDate().plusDays(1).atStartOfDay(ZONE).minusSeconds(1).toOffsetDateTime();
+                beKeyAccessService.grantForBloqueo(slot.contactId(), bloqueoId, roomCode(slot.productoId()),
+                        startsAt, expiresAt);
                 granted++;
             } catch (Exception ex) {
                 logger.warn("BeKey reconcile: grant for bloqueo {} failed: {}", bloqueoId, ex.getMessage());
@@ -159,7 +138,17 @@ public class BeKeyReconciliationScheduler {
     // deactivated / re-categorised outside the create+cancel paths).
     @Scheduled(cron = "0 15,45 * * * *")
     public void reconcileSubscriptions() {
-        runSubscriptionsOnce();
+        jobRunner.runScheduled("bekeySubscriptionReconcile", this::runSubscriptionsOnce);
+    }
+
+    // Share expiry sweep every 10 minutes, between the two reconciles.
+    @Scheduled(cron = "0 5,15,25,35,45,55 * * * *")
+    public void sweepExpiredShares() {
+        jobRunner.runScheduled("bekeyShareSweep", this::sweepSharesOnce);
+    }
+
+    public SweepResult sweepSharesOnce() {
+        return new SweepResult(shareService.sweepExpiredShares());
     }
 
     /**
@@ -174,7 +163,9 @@ public class BeKeyReconciliationScheduler {
             return new RunResult(0, 0);
         }
 
-        List<Map<String, Object>> desired = jdbcTemplate.queryForList(SUBS_DESIRED_SQL);
+        List<OccupancyTimeline.SubscriptionSlot> desired = occupancyTimeline.activeSubscriptions().stream()
+            .filter(sub -> sub.contactId() != null && isCoworking(sub))
+            .toList();
 
         // Existing active subscription grants, keyed by subscription id (sourceRef).
         Map<Long, BeKeyAccess> existing = new HashMap<>();
@@ -189,15 +180,14 @@ public class BeKeyReconciliationScheduler {
         Set<Long> desiredIds = new HashSet<>();
 
         // ADD — active coworking subs with no standing grant yet.
-        for (Map<String, Object> row : desired) {
-            Long subId = ((Number) row.get("sub_id")).longValue();
+        for (OccupancyTimeline.SubscriptionSlot sub : desired) {
+            Long subId = sub.id().longValue();
             desiredIds.add(subId);
             if (existing.containsKey(subId)) {
                 continue;   // already granted — no Akiles call
             }
             try {
-                Long contactId = ((Number) row.get("contact_id")).longValue();
-                beKeyAccessService.grantForSubscription(contactId, subId, "coworking");
+                beKeyAccessService.grantForSubscription(sub.contactId(), subId, "coworking");
                 granted++;
             } catch (Exception ex) {
                 logger.warn("BeKey sub reconcile: grant for sub {} failed: {}", subId, ex.getMessage());
@@ -238,5 +228,36 @@ public class BeKeyReconciliationScheduler {
         return new RunResult(granted, revoked);
     }
 
-    public record RunResult(int granted, int revoked) {}
+    private String roomCode(Long productoId) {
+        return occupancyTimeline.product(productoId)
+            .map(p -> p.nombre() == null ? "" : p.nombre().toUpperCase())
+            .orElse("");
+    }
+
+    // Active coworking subscriptions — mirrors SubscriptionService.resolveSubscriptionCategory:
+    // coworking iff the linked product's tipo is 'mesa', else (no product tipo) a description
+    // heuristic. These get a standing MA1O1 (desk + street door) grant. Virtual-office subs
+    // are deliberately excluded — their access is booking-driven, not subscription-driven.
+    private boolean isCoworking(OccupancyTimeline.SubscriptionSlot sub) {
+        String tipo = occupancyTimeline.product(sub.productoId()).map(OccupancyTimeline.ProductSlot::tipo).orElse(null);
+        if (tipo != null) {
+            return "mesa".equals(tipo.trim().toLowerCase());
+        }
+        String description = sub.description() == null ? "" : sub.description().toLowerCase();
+        return description.contains("coworking") || description.contains("mesa") || description.contains("desk");
+    }
+
+    public record RunResult(int granted, int revoked) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return granted + revoked;
+        }
+    }
+
+    public record SweepResult(int revoked) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return revoked;
+        }
+    }
 }
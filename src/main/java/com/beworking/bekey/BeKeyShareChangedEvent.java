@@ -0,0 +1,13 @@
+package com.beworking.bekey;
+
+/**
+ * Published when a share is created, revoked by its sharer (directly or by
+ * cascade) or swept after its window ends; {@code change} is
+ * {@code created}, {@code revoked} or {@code expired}.
+ */
+public record BeKeyShareChangedEvent(Long shareId, Long sharerContactId, Long guestContactId, String change) {
+
+    static BeKeyShareChangedEvent of(BeKeyShare share, String change) {
+        return new BeKeyShareChangedEvent(share.getId(), share.getSharerContactId(), share.getGuestContactId(), change);
+    }
+}
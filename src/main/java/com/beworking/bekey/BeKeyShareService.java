@@ -9,7 +9,7 @@ import com.beworking.contacts.ContactProfileRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,6 +43,7 @@ public class BeKeyShareService {
     private final RegisterService registerService;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     private final boolean integrationEnabled;
     private final String frontendUrl;
 
@@ -53,6 +54,7 @@ public class BeKeyShareService {
                              RegisterService registerService,
                              UserRepository userRepository,
                              EmailService emailService,
+                             ApplicationEventPublisher eventPublisher,
                              @Value("${akiles.integration.enabled:false}") boolean integrationEnabled,
                              @Value("${app.frontend-url}") String frontendUrl) {
         this.shareRepository = shareRepository;
@@ -62,6 +64,7 @@ public class BeKeyShareService {
         this.registerService = registerService;
         this.userRepository = userRepository;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
         this.integrationEnabled = integrationEnabled;
         this.frontendUrl = frontendUrl;
     }
@@ -164,6 +167,7 @@ public class BeKeyShareService {
         }
         share.setAccessId(access.getId());
         share = shareRepository.save(share);
+        eventPublisher.publishEvent(BeKeyShareChangedEvent.of(share, "created"));
 
         String sharerName = (sharer != null && sharer.getName() != null) ? sharer.getName() : "Un miembro de BeWorking";
 
@@ -248,6 +252,7 @@ public class BeKeyShareService {
         }
         share.setRevokedAt(OffsetDateTime.now());
         shareRepository.save(share);
+        eventPublisher.publishEvent(BeKeyShareChangedEvent.of(share, "revoked"));
     }
 
     /** Cascade: revoke every active share a member created (e.g. when their own access ends). */
@@ -261,6 +266,7 @@ public class BeKeyShareService {
                 }
                 s.setRevokedAt(OffsetDateTime.now());
                 shareRepository.save(s);
+                eventPublisher.publishEvent(BeKeyShareChangedEvent.of(s, "revoked"));
                 n++;
             } catch (Exception e) {
                 LOGGER.warn("cascade revoke of share {} failed: {}", s.getId(), e.getMessage());
@@ -273,17 +279,18 @@ public class BeKeyShareService {
     }
 
     /**
-     * Sweep expired shares every 10 minutes: revoke the underlying grant (which
+     * Sweep expired shares (every 10 minutes, from
+     * {@link BeKeyReconciliationScheduler}): revoke the underlying grant (which
      * removes the Akiles association) and mark the share revoked, so it drops off
      * the sharer's list and the guest's access is cleaned up. Door-open authz
      * already refuses out-of-window grants, so this is for state hygiene rather
-     * than security — but it keeps the DB and Akiles in sync.
+     * than security — but it keeps the DB and Akiles in sync. Returns the number
+     * of shares revoked.
      */
-    @Scheduled(cron = "0 5,15,25,35,45,55 * * * *")
     @Transactional
-    public void sweepExpiredShares() {
+    public int sweepExpiredShares() {
         if (!integrationEnabled) {
-            return;
+            return 0;
         }
         List<BeKeyShare> expired = shareRepository.findByRevokedAtIsNullAndEndsAtBefore(OffsetDateTime.now());
         int n = 0;
@@ -294,6 +301,7 @@ public class BeKeyShareService {
                 }
                 s.setRevokedAt(OffsetDateTime.now());
                 shareRepository.save(s);
+                eventPublisher.publishEvent(BeKeyShareChangedEvent.of(s, "expired"));
                 n++;
             } catch (Exception e) {
                 LOGGER.warn("sweep of expired share {} failed: {}", s.getId(), e.getMessage());
@@ -302,6 +310,7 @@ public class BeKeyShareService {
         if (n > 0) {
             LOGGER.info("BeKey expiry sweep: revoked {} expired share(s)", n);
         }
+        return n;
     }
 
     /** Finds the guest contact by email, or creates a lightweight 'Invitado' one. */
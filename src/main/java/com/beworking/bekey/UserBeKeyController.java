@@ -1,10 +1,9 @@
 package com.beworking.bekey;
 
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -30,32 +29,25 @@ public class UserBeKeyController {
 
     private final BeKeyAccessService accessService;
     private final BeKeyShareService shareService;
-    private final UserRepository userRepository;
 
-    public UserBeKeyController(BeKeyAccessService accessService, BeKeyShareService shareService, UserRepository userRepository) {
+    public UserBeKeyController(BeKeyAccessService accessService, BeKeyShareService shareService) {
         this.accessService = accessService;
         this.shareService = shareService;
-        this.userRepository = userRepository;
     }
 
-    /** JWT email -> User -> contact_profiles id (tenant_id). Null if not authenticated / no contact. */
-    private Long resolveContactId(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) return null;
-        User user = userRepository.findByEmail(authentication.getName()).orElse(null);
+    /** The caller's contact_profiles id (tenant_id). Null if not authenticated / no contact. */
+    private static Long resolveContactId(AuthenticatedUser user) {
         return user != null ? user.getTenantId() : null;
     }
 
-    private boolean isAdmin(Authentication authentication) {
-        return authentication != null
-            && authentication.isAuthenticated()
-            && authentication.getAuthorities().stream()
-                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    private static boolean isAdmin(AuthenticatedUser user) {
+        return user != null && user.isAdmin();
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> me(Authentication authentication) {
-        boolean admin = isAdmin(authentication);
-        Long contactId = resolveContactId(authentication);
+    public ResponseEntity<?> me(AuthenticatedUser user) {
+        boolean admin = isAdmin(user);
+        Long contactId = resolveContactId(user);
         if (contactId == null && !admin) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         // Admins hold a master key: every door, independent of any booking or grant.
         List<BeKeyDevice> devices = admin
@@ -76,9 +68,9 @@ public class UserBeKeyController {
     }
 
     @PostMapping("/open/{deviceId}")
-    public ResponseEntity<?> open(@PathVariable Long deviceId, Authentication authentication) {
-        boolean admin = isAdmin(authentication);
-        Long contactId = resolveContactId(authentication);
+    public ResponseEntity<?> open(@PathVariable Long deviceId, AuthenticatedUser user) {
+        boolean admin = isAdmin(user);
+        Long contactId = resolveContactId(user);
         if (contactId == null && !admin) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
             BeKeyDevice device = accessService.openDoor(contactId, deviceId, admin);
@@ -95,16 +87,16 @@ public class UserBeKeyController {
 
     /** Shares the caller created (active, non-revoked). */
     @GetMapping("/shares")
-    public ResponseEntity<?> listShares(Authentication authentication) {
-        Long contactId = resolveContactId(authentication);
+    public ResponseEntity<?> listShares(AuthenticatedUser user) {
+        Long contactId = resolveContactId(user);
         if (contactId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         return ResponseEntity.ok(shareService.listForSharer(contactId));
     }
 
     /** Share the caller's access with a guest for a bounded window (#243). */
     @PostMapping("/shares")
-    public ResponseEntity<?> createShare(@RequestBody ShareRequest req, Authentication authentication) {
-        Long contactId = resolveContactId(authentication);
+    public ResponseEntity<?> createShare(@RequestBody ShareRequest req, AuthenticatedUser user) {
+        Long contactId = resolveContactId(user);
         if (contactId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
             BeKeyShareService.ShareResult result = shareService.createShare(
@@ -123,8 +115,8 @@ public class UserBeKeyController {
 
     /** Revoke a share the caller created. */
     @DeleteMapping("/shares/{id}")
-    public ResponseEntity<?> revokeShare(@PathVariable Long id, Authentication authentication) {
-        Long contactId = resolveContactId(authentication);
+    public ResponseEntity<?> revokeShare(@PathVariable Long id, AuthenticatedUser user) {
+        Long contactId = resolveContactId(user);
         if (contactId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         try {
             shareService.revoke(id, contactId);
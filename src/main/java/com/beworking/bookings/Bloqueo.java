@@ -3,6 +3,7 @@ package com.beworking.bookings;
 import com.beworking.contacts.ContactProfile;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bloqueos", schema = "beworking")
+@EntityListeners(OccupancyTimelineListener.class)
 public class Bloqueo {
 
     @Id
@@ -1,17 +1,15 @@
 package com.beworking.bookings;
 
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -26,16 +24,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class BloqueoController {
 
     private final BloqueoService bloqueoService;
-    private final UserRepository userRepository;
 
-    public BloqueoController(BloqueoService bloqueoService, UserRepository userRepository) {
+    public BloqueoController(BloqueoService bloqueoService) {
         this.bloqueoService = bloqueoService;
-        this.userRepository = userRepository;
     }
 
     @GetMapping
     public ResponseEntity<List<BloqueoResponse>> listBloqueos(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam(value = "from", required = false)
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
         @RequestParam(value = "to", required = false)
@@ -55,16 +51,9 @@ public class BloqueoController {
             from = to.minusMonths(1);
         }
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
-
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(401).build();
-        }
-
-        User user = userOpt.get();
         Long effectiveTenantId;
         Long effectiveContactId = contactId;
 
@@ -92,17 +81,13 @@ public class BloqueoController {
 
     @GetMapping("/uninvoiced")
     public ResponseEntity<List<BloqueoResponse>> getUninvoicedBloqueos(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam("contactId") Long contactId
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(401).build();
-        }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(403).build();
         }
         List<BloqueoResponse> bloqueos = bloqueoService.getUninvoicedBloqueos(contactId);
@@ -110,19 +95,12 @@ public class BloqueoController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateBloqueo(Authentication authentication,
+    public ResponseEntity<?> updateBloqueo(AuthenticatedUser user,
                                            @PathVariable Long id,
                                            @Valid @RequestBody UpdateBloqueoRequest request) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
-
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(401).build();
-        }
-
-        User user = userOpt.get();
         if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(403).build();
         }
@@ -145,15 +123,10 @@ public class BloqueoController {
     }
 
     @DeleteMapping("/{id}/cancel")
-    public ResponseEntity<Void> cancelFreeBloqueo(Authentication authentication, @PathVariable Long id) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(401).build();
-        }
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
+    public ResponseEntity<Void> cancelFreeBloqueo(AuthenticatedUser user, @PathVariable Long id) {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userOpt.get();
         Long tenantId = user.getTenantId();
         if (tenantId == null) {
             return ResponseEntity.status(403).build();
@@ -171,17 +144,10 @@ public class BloqueoController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBloqueo(Authentication authentication, @PathVariable Long id) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<Void> deleteBloqueo(AuthenticatedUser user, @PathVariable Long id) {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
-
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(401).build();
-        }
-
-        User user = userOpt.get();
         if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(403).build();
         }
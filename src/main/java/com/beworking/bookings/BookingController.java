@@ -1,8 +1,8 @@
 package com.beworking.bookings;
 
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.auth.EmailService;
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
 import com.beworking.contacts.ContactProfile;
 import com.beworking.contacts.ContactProfileRepository;
 import jakarta.validation.Valid;
@@ -22,7 +22,6 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -43,20 +42,18 @@ public class BookingController {
     private static final int FREE_MONTHLY_LIMIT = 5;
 
     private final BookingService bookingService;
-    private final UserRepository userRepository;
     private final EmailService emailService;
     private final JdbcTemplate jdbcTemplate;
     private final ReservaRepository reservaRepository;
     private final ContactProfileRepository contactRepository;
     private final ProductoRepository productoRepository;
 
-    public BookingController(BookingService bookingService, UserRepository userRepository,
+    public BookingController(BookingService bookingService,
                              EmailService emailService, JdbcTemplate jdbcTemplate,
                              ReservaRepository reservaRepository,
                              ContactProfileRepository contactRepository,
                              ProductoRepository productoRepository) {
         this.bookingService = bookingService;
-        this.userRepository = userRepository;
         this.emailService = emailService;
         this.jdbcTemplate = jdbcTemplate;
         this.reservaRepository = reservaRepository;
@@ -66,7 +63,7 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<List<BookingResponse>> listBookings(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam(value = "from", required = false)
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
         @RequestParam(value = "to", required = false)
@@ -86,37 +83,25 @@ public class BookingController {
 
         Long tenantFilter = null;
 
-        if (authentication != null && authentication.isAuthenticated()) {
-            Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(401).build();
-            }
-            User user = userOpt.get();
-            if (user.getRole() == User.Role.ADMIN) {
-                tenantFilter = tenantIdParam;
-            } else {
-                tenantFilter = user.getTenantId();
-            }
-        } else {
+        if (user == null) {
             return ResponseEntity.status(401).build();
         }
+        if (user.getRole() == User.Role.ADMIN) {
+            tenantFilter = tenantIdParam;
+        } else {
+            tenantFilter = user.getTenantId();
+        }
 
         List<BookingResponse> bookings = bookingService.getBookings(from, to, tenantFilter, centerId);
         return ResponseEntity.ok(bookings);
     }
 
     @PostMapping
-    public ResponseEntity<?> createReserva(Authentication authentication, @Valid @RequestBody CreateReservaRequest request) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<?> createReserva(AuthenticatedUser user, @Valid @RequestBody CreateReservaRequest request) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        User user = userOpt.get();
         if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -138,15 +123,14 @@ public class BookingController {
 
     @PostMapping("/{id}/confirm-email")
     public ResponseEntity<Map<String, Object>> sendConfirmationEmail(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id,
         @RequestParam(value = "testEmail", required = false) String testEmail
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty() || userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -275,17 +259,12 @@ public class BookingController {
 
     @GetMapping("/stats")
     public ResponseEntity<?> getBookingStats(
-        Authentication authentication,
+        AuthenticatedUser currentUser,
         @RequestParam Long contactId
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        User currentUser = userOpt.get();
         // Allow admins to query any contact; users can only query their own
         if (currentUser.getRole() != User.Role.ADMIN) {
             if (currentUser.getTenantId() == null || !currentUser.getTenantId().equals(contactId)) {
@@ -1,7 +1,7 @@
 package com.beworking.bookings;
 
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.contacts.ContactProfile;
 import com.beworking.contacts.ContactProfileRepository;
 import com.beworking.rooms.Room;
@@ -13,7 +13,6 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -24,18 +23,15 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/api/bookings/lookups")
 public class BookingLookupController {
 
-    private final UserRepository userRepository;
     private final ContactProfileRepository contactRepository;
     private final CentroRepository centroRepository;
     private final ProductoRepository productoRepository;
     private final RoomRepository roomRepository;
 
-    public BookingLookupController(UserRepository userRepository,
-                                   ContactProfileRepository contactRepository,
+    public BookingLookupController(ContactProfileRepository contactRepository,
                                    CentroRepository centroRepository,
                                    ProductoRepository productoRepository,
                                    RoomRepository roomRepository) {
-        this.userRepository = userRepository;
         this.contactRepository = contactRepository;
         this.centroRepository = centroRepository;
         this.productoRepository = productoRepository;
@@ -43,10 +39,10 @@ public class BookingLookupController {
     }
 
     @GetMapping("/contacts")
-    public ResponseEntity<List<ContactLookupResponse>> contacts(Authentication authentication,
+    public ResponseEntity<List<ContactLookupResponse>> contacts(AuthenticatedUser user,
                                                                 @RequestParam(name = "search", required = false) String search,
                                                                 @RequestParam(name = "tenantType", required = false) String tenantType) {
-        User user = requireAuthenticatedUser(authentication);
+        requireAuthenticated(user);
         boolean isAdmin = user.getRole() == User.Role.ADMIN;
         boolean isUser = user.getRole() == User.Role.USER;
         if (!isAdmin && !isUser) {
@@ -81,8 +77,8 @@ public class BookingLookupController {
     }
 
     @GetMapping("/centros")
-    public ResponseEntity<List<CentroLookupResponse>> centros(Authentication authentication) {
-        User user = requireAuthenticatedUser(authentication);
+    public ResponseEntity<List<CentroLookupResponse>> centros(AuthenticatedUser user) {
+        requireAuthenticated(user);
         if (user.getRole() != User.Role.ADMIN && user.getRole() != User.Role.USER) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
@@ -102,10 +98,10 @@ public class BookingLookupController {
     }
 
     @GetMapping("/productos")
-    public ResponseEntity<List<ProductoLookupResponse>> productos(Authentication authentication,
+    public ResponseEntity<List<ProductoLookupResponse>> productos(AuthenticatedUser user,
                                                                   @RequestParam(name = "type", required = false) String type,
                                                                   @RequestParam(name = "centerCode", required = false) String centerCode) {
-        User user = requireAuthenticatedUser(authentication);
+        requireAuthenticated(user);
         if (user.getRole() != User.Role.ADMIN && user.getRole() != User.Role.USER) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
@@ -163,17 +159,10 @@ public class BookingLookupController {
         return ResponseEntity.ok(payload);
     }
 
-    private User requireAuthenticatedUser(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    private static void requireAuthenticated(AuthenticatedUser user) {
+        if (user == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
         }
-
-        Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-        if (userOpt.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        }
-
-        return userOpt.get();
     }
 
     private ContactLookupResponse mapToContact(ContactProfile contact) {
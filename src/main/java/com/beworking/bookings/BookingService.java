@@ -1,6 +1,6 @@
 package com.beworking.bookings;
 
-import com.beworking.auth.User;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.auth.RegisterService;
 import com.beworking.contacts.ContactProfile;
 import com.beworking.contacts.ContactProfileRepository;
@@ -71,6 +71,7 @@ class BookingService {
     private final org.springframework.context.ApplicationEventPublisher eventPublisher;
     private final com.beworking.invoices.BillingSnapshotService billingSnapshotService;
     private final com.beworking.subscriptions.SubscriptionService subscriptionService;
+    private final OccupancyTimeline occupancyTimeline;
 
     BookingService(ReservaRepository reservaRepository,
                    BloqueoRepository bloqueoRepository,
@@ -86,7 +87,8 @@ class BookingService {
                    org.springframework.context.ApplicationEventPublisher eventPublisher,
                    com.beworking.invoices.BillingSnapshotService billingSnapshotService,
                    com.beworking.bekey.BeKeyAccessService beKeyAccessService,
-                   com.beworking.subscriptions.SubscriptionService subscriptionService) {
+                   com.beworking.subscriptions.SubscriptionService subscriptionService,
+                   OccupancyTimeline occupancyTimeline) {
         this.reservaRepository = reservaRepository;
         this.bloqueoRepository = bloqueoRepository;
         this.contactRepository = contactRepository;
@@ -102,6 +104,7 @@ class BookingService {
         this.billingSnapshotService = billingSnapshotService;
         this.beKeyAccessService = beKeyAccessService;
         this.subscriptionService = subscriptionService;
+        this.occupancyTimeline = occupancyTimeline;
     }
 
     @Transactional(readOnly = true)
@@ -458,6 +461,7 @@ class BookingService {
                         // Update bloqueo status
                         jdbcTemplate.update(
                             "UPDATE beworking.bloqueos SET estado = 'Pagado' WHERE id = ?", bi.id());
+                        occupancyTimeline.refreshBloqueo(bi.id());
                     }
 
                     LOGGER.info("Auto-created invoice {} for {} public booking sessions", invoiceNumber, sessionCount);
@@ -544,14 +548,8 @@ class BookingService {
 
     private int resolveContactVatPercent(Long contactId, String cuenta) {
         // Single source of truth: TaxResolver (lock-in first, fresh compute fallback).
-        try {
-            Integer lockedRate = jdbcTemplate.queryForObject(
-                "SELECT vat_percent FROM beworking.subscriptions "
-                + "WHERE contact_id = ? AND active = TRUE AND vat_percent IS NOT NULL "
-                + "ORDER BY id LIMIT 1",
-                Integer.class, contactId);
-            if (lockedRate != null) return lockedRate;
-        } catch (EmptyResultDataAccessException ignored) {}
+        Optional<Integer> lockedRate = taxResolver.lockedRateFor(contactId);
+        if (lockedRate.isPresent()) return lockedRate.get();
 
         contactProfileService.ensureVatValidated(contactId);
         return taxResolver.computeFreshForContact(contactId, cuenta);
@@ -677,7 +675,7 @@ class BookingService {
     }
 
     @Transactional
-    CreateReservaResponse createReserva(CreateReservaRequest request, User user) {
+    CreateReservaResponse createReserva(CreateReservaRequest request, AuthenticatedUser user) {
         if (request.getDateFrom().isAfter(request.getDateTo())) {
             throw new IllegalArgumentException("dateFrom must be on or before dateTo");
         }
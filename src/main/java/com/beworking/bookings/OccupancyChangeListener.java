@@ -0,0 +1,137 @@
+package com.beworking.bookings;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies occupancy writes made by other instances (and raw SQL anywhere) to
+ * this instance's {@link OccupancyTimeline}. The V111 triggers NOTIFY
+ * {@value #CHANNEL} with {@code <kind>:<id>} when a write commits; this
+ * listener holds one pooled connection on {@code LISTEN} and re-reads the
+ * rows named.
+ *
+ * <p>After every (re)connect it runs a full {@link OccupancyTimeline#resync()},
+ * since notifications sent while nobody was listening are lost. Off Postgres
+ * (or with {@code app.occupancy.listen=false}) it stays idle and the timeline
+ * falls back to the periodic resync.
+ */
+@Component
+class OccupancyChangeListener {
+
+    static final String CHANNEL = "occupancy_changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyChangeListener.class);
+    private static final int POLL_MS = 10_000;
+    private static final long RETRY_MS = 5_000;
+
+    private final DataSource dataSource;
+    private final OccupancyTimeline timeline;
+    private final boolean enabled;
+    private volatile boolean running;
+    private Thread worker;
+
+    OccupancyChangeListener(DataSource dataSource,
+                            OccupancyTimeline timeline,
+                            @Value("${app.occupancy.listen:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.timeline = timeline;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled || worker != null) return;
+        running = true;
+        worker = new Thread(this::listen, "occupancy-listen");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (worker != null) worker.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    logger.info("Database is not PostgreSQL; occupancy timeline relies on its periodic resync");
+                    return;
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                statement.execute("LISTEN " + CHANNEL);
+                // Anything committed while we weren't listening was never delivered.
+                timeline.resync();
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications(POLL_MS);
+                    if (batch != null && batch.length > 0) apply(batch);
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                logger.warn("Occupancy listen connection lost, retrying in {}ms: {}", RETRY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Groups one poll's notifications so a bulk write re-reads its bloqueos in a single query. */
+    void apply(PGNotification[] batch) {
+        Set<Long> bloqueos = new LinkedHashSet<>();
+        Set<Integer> subscriptions = new LinkedHashSet<>();
+        Set<Long> contacts = new LinkedHashSet<>();
+        Set<Long> deletedContacts = new LinkedHashSet<>();
+        for (PGNotification notification : batch) {
+            String payload = notification.getParameter();
+            int colon = payload == null ? -1 : payload.indexOf(':');
+            if (colon < 0) continue;
+            String id = payload.substring(colon + 1);
+            try {
+                switch (payload.substring(0, colon)) {
+                    case "b" -> bloqueos.add(Long.valueOf(id));
+                    case "s" -> subscriptions.add(Integer.valueOf(id));
+                    case "c" -> contacts.add(Long.valueOf(id));
+                    case "cd" -> deletedContacts.add(Long.valueOf(id));
+                    default -> logger.debug("Ignoring occupancy notification {}", payload);
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring occupancy notification {}", payload);
+            }
+        }
+        List<Runnable> updates = new ArrayList<>();
+        if (!bloqueos.isEmpty()) updates.add(() -> timeline.applyBloqueos(List.copyOf(bloqueos)));
+        subscriptions.forEach(id -> updates.add(() -> timeline.applySubscription(id)));
+        contacts.forEach(id -> updates.add(() -> timeline.applyContact(id)));
+        deletedContacts.forEach(id -> updates.add(() -> timeline.removeContact(id)));
+        for (Runnable update : updates) {
+            try {
+                update.run();
+            } catch (Exception e) {
+                // The periodic resync heals whatever a failed refresh missed.
+                logger.warn("Occupancy timeline refresh failed: {}", e.getMessage());
+            }
+        }
+    }
+}
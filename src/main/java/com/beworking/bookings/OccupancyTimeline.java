@@ -0,0 +1,487 @@
+package com.beworking.bookings;
+
+import com.beworking.contacts.ContactBillingChangedEvent;
+import com.beworking.contacts.ContactProfileDeletedEvent;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory picture of who occupies which product when — bloqueos (room and
+ * desk bookings) plus subscription coverage — shared by public availability,
+ * the admin desk-occupancy dashboard and BeKey door reconciliation, which
+ * used to each query and resolve products/contacts on their own.
+ *
+ * <p>Held as a snapshot: products, the contact names the intervals reference,
+ * every subscription, and the bloqueos that end on or after
+ * {@code today - app.occupancy.history-days} (open-ended ones always),
+ * indexed per product and sorted by start. Built lazily on first use.
+ *
+ * <p>Kept current incrementally: {@link OccupancyTimelineListener} re-reads a
+ * single bloqueo or subscription after every JPA write commits, raw-SQL
+ * writers (invoicing and payment flipping estado, credit notes deleting
+ * bloqueos) call {@link #refreshBloqueos} with the ids they touched,
+ * {@link ContactBillingChangedEvent} refreshes a contact's name and
+ * {@link ContactProfileDeletedEvent} drops a deleted contact's rows. The
+ * {@link #resync()} sweep every {@code app.occupancy.resync-ms} (5 min by
+ * default) heals anything a refresh missed.
+ *
+ * <p>Each instance holds its own snapshot, so writes on other replicas arrive
+ * through {@link OccupancyChangeListener}: database triggers NOTIFY on commit
+ * and every instance re-reads the rows named. Staleness is therefore bounded
+ * by notification latency (milliseconds) while the listen connection is up;
+ * while it is down, by the resync interval, with a full resync as soon as it
+ * reconnects. Booking creation still checks conflicts against the database,
+ * so a stale read can hide or show a free slot but never double-book.
+ *
+ * <p>Reads are lock-free; refreshes and the resync serialize on a lock so a
+ * refresh can't be applied to a snapshot that is about to be replaced.
+ * Refreshes query before taking the lock and hold it only to apply.
+ */
+@Component
+public class OccupancyTimeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyTimeline.class);
+
+    public record ProductSlot(Long id, String nombre, String centroCodigo, String tipo) {}
+
+    public record BloqueoSlot(Long id, Long productoId, Long contactId, LocalDateTime fechaIni,
+                              LocalDateTime fechaFin, boolean finIndefinido, String estado) {
+        /** Same overlap rule as {@link BloqueoRepository#findPublicAvailability}. */
+        public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return fechaIni != null && fechaIni.isBefore(end) && (fechaFin == null || fechaFin.isAfter(start));
+        }
+    }
+
+    public record SubscriptionSlot(Integer id, Long contactId, Long productoId, LocalDate startDate,
+                                   LocalDate endDate, boolean active, String description,
+                                   BigDecimal monthlyAmount) {
+        /**
+         * Same rule as {@code SubscriptionRepository.findActiveCoveringDate}: the
+         * product is held while start_date <= date <= end_date, or from
+         * start_date on while active with no end date.
+         */
+        public boolean coversDate(LocalDate date) {
+            if (productoId == null || startDate == null || startDate.isAfter(date)) return false;
+            return endDate == null ? active : !endDate.isBefore(date);
+        }
+    }
+
+    private record State(LocalDateTime horizon,
+                         Map<Long, ProductSlot> products,
+                         Map<Long, String> contactNames,
+                         Map<Long, BloqueoSlot> bloqueos,
+                         Map<Long, List<BloqueoSlot>> bloqueosByProduct,
+                         Map<Integer, SubscriptionSlot> subscriptions) {}
+
+    private static final Long NO_PRODUCT = -1L;
+    private static final Comparator<BloqueoSlot> BY_START = Comparator
+        .comparing(BloqueoSlot::fechaIni, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(BloqueoSlot::id);
+
+    private static final String BLOQUEO_COLUMNS =
+        "SELECT id, id_producto, id_cliente, fecha_ini, fecha_fin, fin_indefinido, estado FROM beworking.bloqueos";
+    private static final String SUBSCRIPTION_COLUMNS = """
+        SELECT id, contact_id, producto_id, start_date, end_date, active, description, monthly_amount
+          FROM beworking.subscriptions""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int historyDays;
+    private final Object writeLock = new Object();
+    private volatile State state;
+
+    public OccupancyTimeline(JdbcTemplate jdbcTemplate,
+                             @Value("${app.occupancy.history-days:7}") int historyDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyDays = Math.max(0, historyDays);
+    }
+
+    // ── Queries ────────────────────────────────────────────────────────────
+
+    /** Whether bloqueos overlapping a window starting at {@code from} are all held in memory. */
+    public boolean covers(LocalDateTime from) {
+        return !from.isBefore(state().horizon());
+    }
+
+    /** Bloqueos overlapping [start, end), optionally restricted to some products. */
+    public List<BloqueoSlot> bloqueosOverlapping(LocalDateTime start, LocalDateTime end,
+                                                 Collection<Long> productIds) {
+        State s = state();
+        List<BloqueoSlot> out = new ArrayList<>();
+        if (productIds == null) {
+            s.bloqueosByProduct().values().forEach(list -> collectOverlapping(list, start, end, out));
+        } else {
+            for (Long productId : productIds) {
+                collectOverlapping(s.bloqueosByProduct().getOrDefault(productId, List.of()), start, end, out);
+            }
+        }
+        return out;
+    }
+
+    /** Bloqueos still current (open-ended or ending today or later), for door-access reconciliation. */
+    public List<BloqueoSlot> currentBloqueos(LocalDate today) {
+        LocalDateTime from = today.atStartOfDay();
+        return state().bloqueos().values().stream()
+            .filter(b -> b.finIndefinido() || (b.fechaFin() != null && !b.fechaFin().isBefore(from)))
+            .toList();
+    }
+
+    /** Subscriptions holding their product on {@code date}, ordered by id. */
+    public List<SubscriptionSlot> subscriptionsCovering(LocalDate date) {
+        return state().subscriptions().values().stream()
+            .filter(sub -> sub.coversDate(date))
+            .sorted(Comparator.comparing(SubscriptionSlot::id))
+            .toList();
+    }
+
+    /** Subscriptions with active = true, ordered by id. */
+    public List<SubscriptionSlot> activeSubscriptions() {
+        return state().subscriptions().values().stream()
+            .filter(SubscriptionSlot::active)
+            .sorted(Comparator.comparing(SubscriptionSlot::id))
+            .toList();
+    }
+
+    public Optional<ProductSlot> product(Long productId) {
+        return productId == null ? Optional.empty() : Optional.ofNullable(state().products().get(productId));
+    }
+
+    public Collection<ProductSlot> products() {
+        return state().products().values();
+    }
+
+    /** Case-insensitive name-prefix match, ordered by name — like {@link ProductoRepository#findByNombrePrefix}. */
+    public List<ProductSlot> productsByPrefix(String prefix) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        return state().products().values().stream()
+            .filter(p -> p.nombre() != null && p.nombre().toLowerCase(Locale.ROOT).startsWith(lower))
+            .sorted(Comparator.comparing(ProductSlot::nombre))
+            .toList();
+    }
+
+    /** Display name (name, else contact_name, else ""), or empty when the contact doesn't exist. */
+    public Optional<String> contactName(Long contactId) {
+        return contactId == null ? Optional.empty() : Optional.ofNullable(state().contactNames().get(contactId));
+    }
+
+    // ── Maintenance ────────────────────────────────────────────────────────
+
+    /** Re-reads one bloqueo once the current transaction commits (immediately outside one). */
+    public void refreshBloqueo(Long id) {
+        if (id != null) refreshBloqueos(List.of(id));
+    }
+
+    /**
+     * Re-reads bloqueos once the current transaction commits (immediately
+     * outside one). For raw-SQL writes, which the JPA listener never sees:
+     * {@code UPDATE ... RETURNING id} gives the ids to pass.
+     */
+    public void refreshBloqueos(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (!distinct.isEmpty()) afterCommit(() -> applyBloqueos(distinct));
+    }
+
+    /** Re-reads one subscription once the current transaction commits (immediately outside one). */
+    public void refreshSubscription(Integer id) {
+        if (id != null) afterCommit(() -> applySubscription(id));
+    }
+
+    @EventListener
+    public void onContactBillingChanged(ContactBillingChangedEvent event) {
+        if (event.contactId() != null) afterCommit(() -> applyContact(event.contactId()));
+    }
+
+    @EventListener
+    public void onContactDeleted(ContactProfileDeletedEvent event) {
+        if (event.contactProfileId() != null) afterCommit(() -> removeContact(event.contactProfileId()));
+    }
+
+    /** Rebuilds the snapshot from the database; skipped until something has used it. */
+    @Scheduled(fixedDelayString = "${app.occupancy.resync-ms:300000}", initialDelayString = "${app.occupancy.resync-ms:300000}")
+    public void resync() {
+        if (state == null) return;
+        synchronized (writeLock) {
+            state = load();
+        }
+    }
+
+    private State state() {
+        State s = state;
+        if (s == null) {
+            synchronized (writeLock) {
+                if (state == null) state = load();
+                s = state;
+            }
+        }
+        return s;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runQuietly(action);
+                }
+            });
+        } else {
+            runQuietly(action);
+        }
+    }
+
+    private void runQuietly(Runnable action) {
+        if (state == null) return;  // nothing loaded yet — the first read will see the committed row
+        try {
+            action.run();
+        } catch (Exception e) {
+            // The periodic resync heals whatever a failed refresh missed.
+            logger.warn("Occupancy timeline refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Each apply reads from the database first and only takes the write lock to
+    // swap the results in, so a slow query never stalls other refreshes.
+
+    void applyBloqueos(List<Long> ids) {
+        State loaded = state;
+        if (loaded == null) return;
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, BloqueoSlot> rows = new HashMap<>();
+        jdbcTemplate.query(BLOQUEO_COLUMNS + " WHERE id IN (" + placeholders + ")",
+            OccupancyTimeline::mapBloqueo, ids.toArray()).forEach(b -> rows.put(b.id(), b));
+        Map<Long, ProductSlot> products = missingProducts(loaded, rows.values().stream().map(BloqueoSlot::productoId).toList());
+        Map<Long, String> names = missingContacts(loaded, rows.values().stream().map(BloqueoSlot::contactId).toList());
+        synchronized (writeLock) {
+            State s = state;
+            if (s == null) return;
+            for (Long id : ids) {
+                removeBloqueo(s, id);
+                BloqueoSlot current = rows.get(id);
+                if (current != null && inWindow(current, s.horizon())) addBloqueo(s, current);
+            }
+            products.forEach(s.products()::putIfAbsent);
+            names.forEach(s.contactNames()::putIfAbsent);
+        }
+    }
+
+    void applySubscription(Integer id) {
+        State loaded = state;
+        if (loaded == null) return;
+        List<SubscriptionSlot> rows = jdbcTemplate.query(SUBSCRIPTION_COLUMNS + " WHERE id = ?",
+            OccupancyTimeline::mapSubscription, id);
+        SubscriptionSlot current = rows.isEmpty() ? null : rows.get(0);
+        Map<Long, ProductSlot> products = current == null ? Map.of() : missingProducts(loaded, List.of(current.productoId()));
+        Map<Long, String> names = current == null ? Map.of() : missingContacts(loaded, List.of(current.contactId()));
+        synchronized (writeLock) {
+            State s = state;
+            if (s == null) return;
+            if (current == null) {
+                s.subscriptions().remove(id);
+                return;
+            }
+            s.subscriptions().put(id, current);
+            products.forEach(s.products()::putIfAbsent);
+            names.forEach(s.contactNames()::putIfAbsent);
+        }
+    }
+
+    void applyContact(Long contactId) {
+        State loaded = state;
+        if (loaded == null || !loaded.contactNames().containsKey(contactId)) return;
+        List<String> names = jdbcTemplate.query(
+            "SELECT name, contact_name FROM beworking.contact_profiles WHERE id = ?",
+            (rs, n) -> displayName(rs.getString("name"), rs.getString("contact_name")), contactId);
+        synchronized (writeLock) {
+            State s = state;
+            if (s == null || !s.contactNames().containsKey(contactId)) return;
+            if (names.isEmpty()) {
+                s.contactNames().remove(contactId);
+            } else {
+                s.contactNames().put(contactId, names.get(0));
+            }
+        }
+    }
+
+    /** Drops a deleted contact's bloqueos, subscriptions and name; no database read needed. */
+    void removeContact(Long contactId) {
+        synchronized (writeLock) {
+            State s = state;
+            if (s == null) return;
+            List.copyOf(s.bloqueos().values()).stream()
+                .filter(b -> contactId.equals(b.contactId()))
+                .forEach(b -> removeBloqueo(s, b.id()));
+            s.subscriptions().values().removeIf(sub -> contactId.equals(sub.contactId()));
+            s.contactNames().remove(contactId);
+        }
+    }
+
+    private static void removeBloqueo(State s, Long id) {
+        BloqueoSlot previous = s.bloqueos().remove(id);
+        if (previous == null) return;
+        s.bloqueosByProduct().computeIfPresent(productKey(previous.productoId()), (k, list) -> {
+            List<BloqueoSlot> copy = new ArrayList<>(list);
+            copy.removeIf(b -> b.id().equals(id));
+            return copy.isEmpty() ? null : List.copyOf(copy);
+        });
+    }
+
+    private static void addBloqueo(State s, BloqueoSlot current) {
+        s.bloqueos().put(current.id(), current);
+        s.bloqueosByProduct().compute(productKey(current.productoId()), (k, list) -> {
+            List<BloqueoSlot> copy = list == null ? new ArrayList<>() : new ArrayList<>(list);
+            copy.add(current);
+            copy.sort(BY_START);
+            return List.copyOf(copy);
+        });
+    }
+
+    private Map<Long, ProductSlot> missingProducts(State s, Collection<Long> productIds) {
+        Map<Long, ProductSlot> found = new HashMap<>();
+        for (Long productId : new HashSet<>(productIds)) {
+            if (productId == null || s.products().containsKey(productId)) continue;
+            jdbcTemplate.query("SELECT id, nombre, centro, tipo FROM beworking.productos WHERE id = ?",
+                OccupancyTimeline::mapProduct, productId).forEach(p -> found.put(p.id(), p));
+        }
+        return found;
+    }
+
+    private Map<Long, String> missingContacts(State s, Collection<Long> contactIds) {
+        Map<Long, String> found = new HashMap<>();
+        for (Long contactId : new HashSet<>(contactIds)) {
+            if (contactId == null || s.contactNames().containsKey(contactId)) continue;
+            jdbcTemplate.query("SELECT id, name, contact_name FROM beworking.contact_profiles WHERE id = ?",
+                (rs, n) -> {
+                    found.put(rs.getLong("id"), displayName(rs.getString("name"), rs.getString("contact_name")));
+                    return null;
+                }, contactId);
+        }
+        return found;
+    }
+
+    private State load() {
+        long start = System.currentTimeMillis();
+        LocalDateTime horizon = LocalDate.now().minusDays(historyDays).atStartOfDay();
+        String bloqueoWindow = " WHERE fin_indefinido = 1 OR fecha_fin IS NULL OR fecha_fin >= ?";
+
+        Map<Long, ProductSlot> products = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, nombre, centro, tipo FROM beworking.productos", OccupancyTimeline::mapProduct)
+            .forEach(p -> products.put(p.id(), p));
+
+        Map<Long, BloqueoSlot> bloqueos = new ConcurrentHashMap<>();
+        Map<Long, List<BloqueoSlot>> byProduct = new ConcurrentHashMap<>();
+        Map<Long, List<BloqueoSlot>> grouping = new HashMap<>();
+        for (BloqueoSlot b : jdbcTemplate.query(BLOQUEO_COLUMNS + bloqueoWindow,
+                OccupancyTimeline::mapBloqueo, Timestamp.valueOf(horizon))) {
+            bloqueos.put(b.id(), b);
+            grouping.computeIfAbsent(productKey(b.productoId()), k -> new ArrayList<>()).add(b);
+        }
+        grouping.forEach((productId, list) -> {
+            list.sort(BY_START);
+            byProduct.put(productId, List.copyOf(list));
+        });
+
+        Map<Integer, SubscriptionSlot> subscriptions = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SUBSCRIPTION_COLUMNS, OccupancyTimeline::mapSubscription)
+            .forEach(sub -> subscriptions.put(sub.id(), sub));
+
+        Map<Long, String> contactNames = new ConcurrentHashMap<>();
+        jdbcTemplate.query("""
+            SELECT cp.id, cp.name, cp.contact_name
+              FROM beworking.contact_profiles cp
+             WHERE cp.id IN (SELECT contact_id FROM beworking.subscriptions)
+                OR cp.id IN (SELECT id_cliente FROM beworking.bloqueos""" + bloqueoWindow + ")",
+            (rs, n) -> {
+                contactNames.put(rs.getLong("id"), displayName(rs.getString("name"), rs.getString("contact_name")));
+                return null;
+            }, Timestamp.valueOf(horizon));
+
+        logger.info("Occupancy timeline loaded in {}ms: {} bloqueos since {}, {} subscriptions, {} products",
+            System.currentTimeMillis() - start, bloqueos.size(), horizon.toLocalDate(),
+            subscriptions.size(), products.size());
+        return new State(horizon, products, contactNames, bloqueos, byProduct, subscriptions);
+    }
+
+    private static void collectOverlapping(List<BloqueoSlot> sorted, LocalDateTime start, LocalDateTime end,
+                                           List<BloqueoSlot> out) {
+        for (BloqueoSlot b : sorted) {
+            // Sorted by start: nothing after the first slot starting at/after `end` can overlap.
+            if (b.fechaIni() != null && !b.fechaIni().isBefore(end)) break;
+            if (b.overlaps(start, end)) out.add(b);
+        }
+    }
+
+    private static boolean inWindow(BloqueoSlot b, LocalDateTime horizon) {
+        return b.finIndefinido() || b.fechaFin() == null || !b.fechaFin().isBefore(horizon);
+    }
+
+    private static Long productKey(Long productId) {
+        return productId != null ? productId : NO_PRODUCT;
+    }
+
+    private static String displayName(String name, String contactName) {
+        if (name != null && !name.isBlank()) return name;
+        if (contactName != null && !contactName.isBlank()) return contactName;
+        return "";
+    }
+
+    private static ProductSlot mapProduct(ResultSet rs, int n) throws SQLException {
+        return new ProductSlot(rs.getLong("id"), rs.getString("nombre"), rs.getString("centro"), rs.getString("tipo"));
+    }
+
+    private static BloqueoSlot mapBloqueo(ResultSet rs, int n) throws SQLException {
+        Timestamp ini = rs.getTimestamp("fecha_ini");
+        Timestamp fin = rs.getTimestamp("fecha_fin");
+        Number finIndefinido = (Number) rs.getObject("fin_indefinido");
+        return new BloqueoSlot(
+            rs.getLong("id"),
+            toLong(rs.getObject("id_producto")),
+            toLong(rs.getObject("id_cliente")),
+            ini != null ? ini.toLocalDateTime() : null,
+            fin != null ? fin.toLocalDateTime() : null,
+            finIndefinido != null && finIndefinido.intValue() == 1,
+            rs.getString("estado"));
+    }
+
+    private static SubscriptionSlot mapSubscription(ResultSet rs, int n) throws SQLException {
+        Date startDate = rs.getDate("start_date");
+        Date endDate = rs.getDate("end_date");
+        return new SubscriptionSlot(
+            rs.getInt("id"),
+            toLong(rs.getObject("contact_id")),
+            toLong(rs.getObject("producto_id")),
+            startDate != null ? startDate.toLocalDate() : null,
+            endDate != null ? endDate.toLocalDate() : null,
+            Boolean.TRUE.equals(rs.getObject("active")),
+            rs.getString("description"),
+            rs.getBigDecimal("monthly_amount"));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
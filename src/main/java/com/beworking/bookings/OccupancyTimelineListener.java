@@ -0,0 +1,36 @@
+package com.beworking.bookings;
+
+import com.beworking.subscriptions.Subscription;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds JPA writes of bloqueos and subscriptions — bookings created, moved or
+ * cancelled; subscriptions created, cancelled, re-pointed to another desk —
+ * into {@link OccupancyTimeline}, which re-reads the row after commit.
+ *
+ * Instantiated by Hibernate through Spring's bean container, so constructor
+ * injection works like any other component.
+ */
+@Component
+public class OccupancyTimelineListener {
+
+    private final OccupancyTimeline occupancyTimeline;
+
+    public OccupancyTimelineListener(OccupancyTimeline occupancyTimeline) {
+        this.occupancyTimeline = occupancyTimeline;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWritten(Object entity) {
+        if (entity instanceof Bloqueo bloqueo) {
+            occupancyTimeline.refreshBloqueo(bloqueo.getId());
+        } else if (entity instanceof Subscription subscription) {
+            occupancyTimeline.refreshSubscription(subscription.getId());
+        }
+    }
+}
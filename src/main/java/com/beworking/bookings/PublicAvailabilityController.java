@@ -1,17 +1,11 @@
 package com.beworking.bookings;
 
-import com.beworking.contacts.ContactProfile;
-import com.beworking.contacts.ContactProfileRepository;
-import com.beworking.subscriptions.Subscription;
-import com.beworking.subscriptions.SubscriptionRepository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
@@ -25,20 +19,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class PublicAvailabilityController {
 
     private final BloqueoRepository bloqueoRepository;
-    private final SubscriptionRepository subscriptionRepository;
-    private final ProductoRepository productoRepository;
-    private final ContactProfileRepository contactProfileRepository;
+    private final OccupancyTimeline occupancyTimeline;
 
     public PublicAvailabilityController(
         BloqueoRepository bloqueoRepository,
-        SubscriptionRepository subscriptionRepository,
-        ProductoRepository productoRepository,
-        ContactProfileRepository contactProfileRepository
+        OccupancyTimeline occupancyTimeline
     ) {
         this.bloqueoRepository = bloqueoRepository;
-        this.subscriptionRepository = subscriptionRepository;
-        this.productoRepository = productoRepository;
-        this.contactProfileRepository = contactProfileRepository;
+        this.occupancyTimeline = occupancyTimeline;
     }
 
     @GetMapping
@@ -56,23 +44,55 @@ public class PublicAvailabilityController {
         List<String> normalizedProducts = normalize(productNames);
         List<String> normalizedCenters = normalize(centerCodes);
 
-        List<Bloqueo> bloqueos = bloqueoRepository.findPublicAvailability(
-            normalizedProducts,
-            normalizedProducts.isEmpty(),
-            normalizedCenters,
-            normalizedCenters.isEmpty(),
-            start,
-            end
-        );
-
-        List<PublicAvailabilityResponse> responses = bloqueos.stream()
-            .map(PublicAvailabilityResponse::from)
-            .collect(Collectors.toCollection(ArrayList::new));
+        List<PublicAvailabilityResponse> responses;
+        if (occupancyTimeline.covers(start)) {
+            responses = bloqueoResponses(normalizedProducts, normalizedCenters, start, end);
+        } else {
+            // Older than the timeline's history window — rare (the calendar looks forward).
+            responses = bloqueoRepository.findPublicAvailability(
+                normalizedProducts,
+                normalizedProducts.isEmpty(),
+                normalizedCenters,
+                normalizedCenters.isEmpty(),
+                start,
+                end
+            ).stream()
+                .map(PublicAvailabilityResponse::from)
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
 
         responses.addAll(subscriptionResponses(effectiveDate, normalizedProducts, normalizedCenters, start, end));
         return responses;
     }
 
+    private List<PublicAvailabilityResponse> bloqueoResponses(
+        List<String> normalizedProductNames,
+        List<String> normalizedCenters,
+        LocalDateTime start,
+        LocalDateTime end
+    ) {
+        // Without filters every bloqueo counts, including ones with no product.
+        List<Long> productIds = null;
+        if (!normalizedProductNames.isEmpty() || !normalizedCenters.isEmpty()) {
+            productIds = occupancyTimeline.products().stream()
+                .filter(p -> matches(p, normalizedProductNames, normalizedCenters))
+                .map(OccupancyTimeline.ProductSlot::id)
+                .toList();
+        }
+        List<PublicAvailabilityResponse> out = new ArrayList<>();
+        for (OccupancyTimeline.BloqueoSlot b : occupancyTimeline.bloqueosOverlapping(start, end, productIds)) {
+            out.add(new PublicAvailabilityResponse(
+                b.id(),
+                b.estado(),
+                b.fechaIni(),
+                b.fechaFin(),
+                cliente(b.contactId()),
+                producto(b.productoId())
+            ));
+        }
+        return out;
+    }
+
     /**
      * Treat each active subscription whose coverage period contains the date as a
      * synthetic full-day occupancy on its product. The frontend can then mark the
@@ -89,67 +109,51 @@ public class PublicAvailabilityController {
         LocalDateTime start,
         LocalDateTime end
     ) {
-        List<Subscription> subs = subscriptionRepository.findActiveCoveringDate(date);
+        List<OccupancyTimeline.SubscriptionSlot> subs = occupancyTimeline.subscriptionsCovering(date);
         if (subs.isEmpty()) return Collections.emptyList();
 
-        Set<Long> productoIds = subs.stream()
-            .map(Subscription::getProductoId)
-            .filter(java.util.Objects::nonNull)
-            .collect(Collectors.toSet());
-        if (productoIds.isEmpty()) return Collections.emptyList();
-
-        Map<Long, Producto> productosById = productoRepository.findAllById(productoIds).stream()
-            .collect(Collectors.toMap(Producto::getId, p -> p));
-
-        boolean filterByName = !normalizedProductNames.isEmpty();
-        boolean filterByCenter = !normalizedCenters.isEmpty();
-
-        Set<Long> contactIds = subs.stream()
-            .map(Subscription::getContactId)
-            .filter(java.util.Objects::nonNull)
-            .collect(Collectors.toSet());
-        Map<Long, ContactProfile> contactsById = contactProfileRepository.findAllById(contactIds).stream()
-            .collect(Collectors.toMap(ContactProfile::getId, c -> c));
-
         List<PublicAvailabilityResponse> out = new ArrayList<>();
-        for (Subscription sub : subs) {
-            Producto producto = productosById.get(sub.getProductoId());
+        for (OccupancyTimeline.SubscriptionSlot sub : subs) {
+            OccupancyTimeline.ProductSlot producto = occupancyTimeline.product(sub.productoId()).orElse(null);
             if (producto == null) continue;
-
-            if (filterByName) {
-                String name = producto.getNombre();
-                if (name == null) continue;
-                if (!normalizedProductNames.contains(name.toLowerCase(Locale.ROOT))) continue;
-            }
-            if (filterByCenter) {
-                String centro = producto.getCentroCodigo();
-                if (centro == null) continue;
-                if (!normalizedCenters.contains(centro.toLowerCase(Locale.ROOT))) continue;
-            }
-
-            ContactProfile cliente = sub.getContactId() != null ? contactsById.get(sub.getContactId()) : null;
-            String clienteName = cliente != null ? resolveContactName(cliente) : "";
+            if (!matches(producto, normalizedProductNames, normalizedCenters)) continue;
 
             out.add(new PublicAvailabilityResponse(
-                -sub.getId().longValue(),
+                -sub.id().longValue(),
                 "subscribed",
                 start,
                 end,
-                cliente != null ? new PublicAvailabilityResponse.PublicCliente(cliente.getId(), clienteName) : null,
-                new PublicAvailabilityResponse.PublicProducto(
-                    producto.getId(),
-                    producto.getNombre(),
-                    producto.getCentroCodigo()
-                )
+                cliente(sub.contactId()),
+                producto(producto.id())
             ));
         }
         return out;
     }
 
-    private static String resolveContactName(ContactProfile profile) {
-        if (profile.getName() != null && !profile.getName().isBlank()) return profile.getName();
-        if (profile.getContactName() != null && !profile.getContactName().isBlank()) return profile.getContactName();
-        return "";
+    private static boolean matches(OccupancyTimeline.ProductSlot producto,
+                                   List<String> normalizedProductNames,
+                                   List<String> normalizedCenters) {
+        if (!normalizedProductNames.isEmpty()) {
+            String name = producto.nombre();
+            if (name == null || !normalizedProductNames.contains(name.toLowerCase(Locale.ROOT))) return false;
+        }
+        if (!normalizedCenters.isEmpty()) {
+            String centro = producto.centroCodigo();
+            if (centro == null || !normalizedCenters.contains(centro.toLowerCase(Locale.ROOT))) return false;
+        }
+        return true;
+    }
+
+    private PublicAvailabilityResponse.PublicCliente cliente(Long contactId) {
+        return occupancyTimeline.contactName(contactId)
+            .map(name -> new PublicAvailabilityResponse.PublicCliente(contactId, name))
+            .orElse(null);
+    }
+
+    private PublicAvailabilityResponse.PublicProducto producto(Long productoId) {
+        return occupancyTimeline.product(productoId)
+            .map(p -> new PublicAvailabilityResponse.PublicProducto(p.id(), p.nombre(), p.centroCodigo()))
+            .orElse(null);
     }
 
     private List<String> normalize(List<String> values) {
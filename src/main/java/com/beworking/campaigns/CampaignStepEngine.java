@@ -0,0 +1,119 @@
+package com.beworking.campaigns;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs one pass of an email sequence (recovery, lead nurture, reengagement)
+ * without loading candidates into memory. Each campaign supplies a claim
+ * statement of the form
+ *
+ * <pre>
+ *   UPDATE t SET counter = counter + 1, last_sent = NOW() ...
+ *    WHERE id IN (SELECT id FROM t WHERE &lt;due&gt; LIMIT ? FOR UPDATE SKIP LOCKED)
+ *   RETURNING id, email, name, counter AS step
+ * </pre>
+ *
+ * so selecting exactly the due rows and advancing their counters is one
+ * atomic statement; replicas running the same cron skip each other's rows
+ * instead of double-sending. Claims run in batches of {@link #BATCH_SIZE},
+ * and each batch's emails are handed to the outbox inside the claiming
+ * transaction, so a batch is either claimed and queued or neither. That
+ * holds only if the send callback throws when it cannot queue: pass the
+ * {@code EmailService.queue*} methods, not the best-effort {@code send*}
+ * ones, which log and swallow the failure.
+ *
+ * <p>A recipient whose message cannot be built (a malformed legacy address
+ * raising {@link MailPreparationException}, or a missing one) is logged and
+ * left claimed, which skips that step for them; nothing was written for it
+ * yet, so the rest of the batch still commits. Only failures to queue —
+ * outbox or database errors — roll the batch back.
+ */
+@Component
+public class CampaignStepEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampaignStepEngine.class);
+
+    static final int BATCH_SIZE = 200;
+
+    /** One claimed row. {@code step} is the counter after the bump, i.e. the template number to send. */
+    public record Recipient(Object id, String email, String name, int step) {
+    }
+
+    private static final RowMapper<Recipient> RECIPIENT = (rs, i) ->
+        new Recipient(rs.getObject("id"), rs.getString("email"), rs.getString("name"), rs.getInt("step"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CampaignStepEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Claims due rows with {@code claimSql} (whose last placeholder is the
+     * batch limit) and calls {@code send} for each, until a batch comes back
+     * short. Returns the number of emails queued.
+     */
+    public int run(String campaign, String claimSql, Consumer<Recipient> send, Object... args) {
+        Object[] params = Arrays.copyOf(args, args.length + 1);
+        params[args.length] = BATCH_SIZE;
+        int claimed = 0;
+        int queued = 0;
+        while (true) {
+            int[] batchQueued = new int[1];
+            List<Recipient> batch = transactionTemplate.execute(status -> {
+                List<Recipient> rows = jdbcTemplate.query(claimSql, RECIPIENT, params);
+                for (Recipient recipient : rows) {
+                    if (sendQuietly(campaign, recipient, send)) batchQueued[0]++;
+                }
+                return rows;
+            });
+            claimed += batch.size();
+            queued += batchQueued[0];
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (claimed > 0) {
+            logger.debug("Campaign {}: claimed {} recipients, queued {}", campaign, claimed, queued);
+        }
+        return queued;
+    }
+
+    /** False when the recipient's message cannot be built; queueing failures still propagate. */
+    private static boolean sendQuietly(String campaign, Recipient recipient, Consumer<Recipient> send) {
+        try {
+            send.accept(recipient);
+            return true;
+        } catch (MailPreparationException | IllegalArgumentException e) {
+            logger.warn("Campaign {}: skipping step {} for {} ({}): {}",
+                campaign, recipient.step(), recipient.id(), recipient.email(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * SQL for "the delay before the next email", indexed by how many were
+     * already sent: {@code delays[counter]} as an interval. Built from
+     * constants, so it is safe to inline into the statement.
+     */
+    public static String stepDelay(String counterColumn, Duration[] delays) {
+        String seconds = Arrays.stream(delays)
+            .map(delay -> Long.toString(delay.toSeconds()))
+            .collect(Collectors.joining(","));
+        return "make_interval(secs => (ARRAY[" + seconds + "])[" + counterColumn + " + 1])";
+    }
+}
@@ -0,0 +1,51 @@
+package com.beworking.config;
+
+import com.beworking.auth.AuthenticatedUser;
+import com.beworking.auth.AuthenticatedUserArgumentResolver;
+import java.time.Duration;
+import java.util.List;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC customizations.
+ *
+ * <p>Registers {@link AuthenticatedUserArgumentResolver} so controllers can take
+ * the caller as an {@link AuthenticatedUser} parameter, and hides that
+ * parameter from the OpenAPI docs (it never comes from the request).
+ *
+ * <p>Sets the async request timeout to {@code app.mvc.async-timeout} (30 min
+ * by default). Downloads and previews stream a {@code StreamingResponseBody},
+ * which is async, and the container's own default (30s on Tomcat) would cut
+ * off any transfer that takes longer, e.g. a large scan over a slow link.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    static {
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(AuthenticatedUser.class);
+    }
+
+    private final AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver;
+    private final Duration asyncTimeout;
+
+    public WebMvcConfig(AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver,
+                        @Value("${app.mvc.async-timeout:PT30M}") Duration asyncTimeout) {
+        this.authenticatedUserArgumentResolver = authenticatedUserArgumentResolver;
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authenticatedUserArgumentResolver);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeout.toMillis());
+    }
+}
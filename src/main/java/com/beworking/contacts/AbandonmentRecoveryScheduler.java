@@ -1,11 +1,13 @@
 package com.beworking.contacts;
 
 import com.beworking.auth.EmailService;
+import com.beworking.campaigns.CampaignStepEngine;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -28,7 +30,9 @@ import org.springframework.stereotype.Component;
  *
  * Each send increments {@code abandonment_email_count} and stamps
  * {@code last_recovery_email_at} — guarantees no double-send and lets us
- * pick the right next template on the next pass.
+ * pick the right next template on the next pass. Due rows are picked and
+ * advanced in SQL by {@link CampaignStepEngine}; {@code totalCandidates} is
+ * the due rows, sent or skipped for lack of an email.
  */
 @Component
 public class AbandonmentRecoveryScheduler {
@@ -49,69 +53,72 @@ public class AbandonmentRecoveryScheduler {
         Duration.ofDays(6)        // #4
     };
 
-    private final ContactProfileRepository contactProfileRepository;
+    /** Potencial contacts inside the window whose next email is due. */
+    private static final String DUE = """
+        status = 'Potencial'
+           AND abandonment_email_count < %d
+           AND created_at >= NOW() - make_interval(days => %d)
+           AND created_at <= NOW() - %s
+        """.formatted(MAX_EMAILS, RECOVERY_WINDOW.toDays(),
+            CampaignStepEngine.stepDelay("abandonment_email_count", DELAY_AFTER_CREATION)).strip();
+
+    private static final String CLAIM = """
+        UPDATE beworking.contact_profiles cp
+           SET abandonment_email_count = cp.abandonment_email_count + 1,
+               last_recovery_email_at = NOW(),
+               abandonment_email_sent_at = CASE WHEN cp.abandonment_email_count = 0
+                                                THEN NOW() ELSE cp.abandonment_email_sent_at END
+         WHERE cp.id IN (
+               SELECT id FROM beworking.contact_profiles
+                WHERE %s
+                  AND nullif(trim(email_primary), '') IS NOT NULL
+                ORDER BY id
+                LIMIT ?
+                  FOR UPDATE SKIP LOCKED)
+        RETURNING cp.id, cp.email_primary AS email, cp.name, cp.abandonment_email_count AS step
+        """.formatted(DUE);
+
+    private static final String COUNT_SKIPPED = """
+        SELECT count(*) FROM beworking.contact_profiles
+         WHERE %s
+           AND nullif(trim(email_primary), '') IS NULL
+        """.formatted(DUE);
+
+    private final CampaignStepEngine campaignStepEngine;
+    private final JdbcTemplate jdbcTemplate;
     private final EmailService emailService;
+    private final ScheduledJobRunner jobRunner;
 
-    public AbandonmentRecoveryScheduler(ContactProfileRepository contactProfileRepository,
-                                        EmailService emailService) {
-        this.contactProfileRepository = contactProfileRepository;
+    public AbandonmentRecoveryScheduler(CampaignStepEngine campaignStepEngine, JdbcTemplate jdbcTemplate,
+                                        EmailService emailService, ScheduledJobRunner jobRunner) {
+        this.campaignStepEngine = campaignStepEngine;
+        this.jdbcTemplate = jdbcTemplate;
         this.emailService = emailService;
+        this.jobRunner = jobRunner;
     }
 
     @Scheduled(cron = "0 0 * * * *")
     public void sendRecoveryEmails() {
-        runOnce();
+        jobRunner.runScheduled("recovery", this::runOnce);
     }
 
     public RunResult runOnce() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime windowStart = now.minus(RECOVERY_WINDOW);
-
-        List<ContactProfile> candidates = contactProfileRepository
-            .findByStatusAndCreatedAtGreaterThanEqualAndAbandonmentEmailCountLessThan(
-                TARGET_STATUS, windowStart, MAX_EMAILS);
-
-        int sent = 0;
-        int skipped = 0;
+        int sent = campaignStepEngine.run("recovery", CLAIM, recipient ->
+            emailService.queueRecoveryEmail(recipient.email(), recipient.name(), recipient.step(),
+                ((Number) recipient.id()).longValue()));
+        Integer skipped = jdbcTemplate.queryForObject(COUNT_SKIPPED, Integer.class);
+        int skippedCount = skipped == null ? 0 : skipped;
 
-        for (ContactProfile cp : candidates) {
-            int alreadySent = cp.getAbandonmentEmailCount();
-            if (alreadySent >= MAX_EMAILS) {
-                continue;
-            }
-            LocalDateTime createdAt = cp.getCreatedAt();
-            if (createdAt == null) {
-                skipped++;
-                continue;
-            }
-            Duration elapsedSinceCreation = Duration.between(createdAt, now);
-            if (elapsedSinceCreation.compareTo(DELAY_AFTER_CREATION[alreadySent]) < 0) {
-                continue;
-            }
-            String email = cp.getEmailPrimary();
-            if (email == null || email.isBlank()) {
-                skipped++;
-                continue;
-            }
-
-            int templateNumber = alreadySent + 1;
-            cp.setAbandonmentEmailCount(templateNumber);
-            cp.setLastRecoveryEmailAt(now);
-            if (templateNumber == 1) {
-                cp.setAbandonmentEmailSentAt(now);
-            }
-            contactProfileRepository.save(cp);
-
-            emailService.sendRecoveryEmail(email, cp.getName(), templateNumber, cp.getId());
-            sent++;
+        if (sent > 0 || skippedCount > 0) {
+            logger.info("Recovery cron: sent={} skipped={}", sent, skippedCount);
         }
+        return new RunResult(sent, skippedCount, sent + skippedCount);
+    }
 
-        if (sent > 0 || skipped > 0) {
-            logger.info("Recovery cron: sent={} skipped={} candidates={}",
-                sent, skipped, candidates.size());
+    public record RunResult(int sent, int skipped, int totalCandidates) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return sent;
         }
-        return new RunResult(sent, skipped, candidates.size());
     }
-
-    public record RunResult(int sent, int skipped, int totalCandidates) {}
 }
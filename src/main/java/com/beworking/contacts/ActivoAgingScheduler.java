@@ -1,5 +1,7 @@
 package com.beworking.contacts;
 
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -42,15 +44,17 @@ public class ActivoAgingScheduler {
         """;
 
     private final JdbcTemplate jdbcTemplate;
+    private final ScheduledJobRunner jobRunner;
 
-    public ActivoAgingScheduler(JdbcTemplate jdbcTemplate) {
+    public ActivoAgingScheduler(JdbcTemplate jdbcTemplate, ScheduledJobRunner jobRunner) {
         this.jdbcTemplate = jdbcTemplate;
+        this.jobRunner = jobRunner;
     }
 
     // 04:00 UTC every day, after PotencialAgingScheduler at 03:00.
     @Scheduled(cron = "0 0 4 * * *")
     public void reconcileActivoStatus() {
-        runOnce();
+        jobRunner.runScheduled("activoAging", this::runOnce);
     }
 
     public RunResult runOnce() {
@@ -75,5 +79,10 @@ public class ActivoAgingScheduler {
         return new RunResult(demoted, promoted);
     }
 
-    public record RunResult(int demoted, int promoted) {}
+    public record RunResult(int demoted, int promoted) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return demoted + promoted;
+        }
+    }
 }
@@ -0,0 +1,238 @@
+package com.beworking.contacts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Contact funnel and automation counters for the dashboard, shared by
+ * {@code AutomationController} (funnel-stats, jobs list) and
+ * {@code ContactProfileController} (funnel-counts).
+ *
+ * Each view is one statement: the funnel is a single pass over
+ * contact_profiles and one over the last 30 days of email_opens, using
+ * {@code FILTER} aggregates instead of a query per number, and the job
+ * candidate counts are one statement of scalar subqueries. Results are held
+ * for {@code app.automation.stats-ttl} (30s by default); concurrent refreshes
+ * of the same view share one computation. The figures feed dashboards, not
+ * decisions, so they may lag writes by up to the TTL.
+ */
+@Service
+class AutomationStats {
+
+    static final List<String> STATUSES = List.of("Activo", "Potencial", "Inactivo");
+
+    private static final String FUNNEL_SQL = """
+        WITH cp AS (
+            SELECT count(*) FILTER (WHERE status = 'Activo') AS activo,
+                   count(*) FILTER (WHERE status = 'Potencial') AS potencial,
+                   count(*) FILTER (WHERE status = 'Inactivo') AS inactivo,
+                   count(*) FILTER (WHERE status = 'Activo'
+                                      AND status_changed_at >= NOW() - INTERVAL '30 days'
+                                      AND EXISTS (SELECT 1 FROM beworking.facturas f
+                                                   WHERE f.idcliente = c.id
+                                                     AND f.creacionfecha >= c.status_changed_at - INTERVAL '1 day')
+                                   ) AS converted_30d,
+                   count(*) FILTER (WHERE status = 'Inactivo'
+                                      AND status_changed_at >= NOW() - INTERVAL '30 days'
+                                      AND created_at < NOW() - INTERVAL '7 days'
+                                      AND created_at > NOW() - INTERVAL '60 days') AS aged_out_30d,
+                   count(*) FILTER (WHERE last_recovery_email_at >= NOW() - INTERVAL '30 days'
+                                      AND abandonment_email_count = 1) AS recovery_sent_1,
+                   count(*) FILTER (WHERE last_recovery_email_at >= NOW() - INTERVAL '30 days'
+                                      AND abandonment_email_count = 2) AS recovery_sent_2,
+                   count(*) FILTER (WHERE last_recovery_email_at >= NOW() - INTERVAL '30 days'
+                                      AND abandonment_email_count = 3) AS recovery_sent_3,
+                   count(*) FILTER (WHERE last_recovery_email_at >= NOW() - INTERVAL '30 days'
+                                      AND abandonment_email_count = 4) AS recovery_sent_4
+              FROM beworking.contact_profiles c
+        ), opens AS (
+            -- Distinct contacts: several opens by one recipient count once.
+            SELECT count(DISTINCT contact_id) FILTER (WHERE template_type = 'recovery' AND template_number = 1) AS recovery_opens_1,
+                   count(DISTINCT contact_id) FILTER (WHERE template_type = 'recovery' AND template_number = 2) AS recovery_opens_2,
+                   count(DISTINCT contact_id) FILTER (WHERE template_type = 'recovery' AND template_number = 3) AS recovery_opens_3,
+                   count(DISTINCT contact_id) FILTER (WHERE template_type = 'recovery' AND template_number = 4) AS recovery_opens_4,
+                   count(DISTINCT contact_id) FILTER (WHERE template_type = 'reengagement') AS reengagement_opens
+              FROM beworking.email_opens
+             WHERE opened_at >= NOW() - INTERVAL '30 days'
+        )
+        SELECT * FROM cp CROSS JOIN opens
+        """;
+
+    /** One column per job in {@code AutomationController.listJobs}, named after the job. */
+    private static final String CANDIDATES_SQL = """
+        SELECT cp.*,
+               (SELECT COUNT(*) FROM beworking.contact_profiles c
+                 WHERE c.status = 'Activo'
+                   AND NOT EXISTS (SELECT 1 FROM beworking.facturas f
+                                    WHERE f.idcliente = c.id
+                                      AND f.creacionfecha >= NOW() - INTERVAL '12 months')
+                   AND NOT EXISTS (SELECT 1 FROM beworking.subscriptions s
+                                    WHERE s.contact_id = c.id AND s.active = TRUE)
+               ) AS "activoAging",
+               l."leadNurture",
+               l."leadAging",
+               (SELECT COUNT(*) FROM beworking.bloqueos b
+                 WHERE b.fecha_ini >= date_trunc('month', NOW() + INTERVAL '1 month')
+                   AND b.fecha_ini <  date_trunc('month', NOW() + INTERVAL '2 months')
+                   AND b.id_cliente IS NOT NULL
+                   AND (b.estado IS NULL OR (
+                        LOWER(b.estado) NOT LIKE '%invoice%'
+                    AND LOWER(b.estado) NOT LIKE '%factura%'
+                    AND LOWER(b.estado) NOT LIKE '%pend%'
+                    AND LOWER(b.estado) NOT LIKE '%pag%'
+                    AND LOWER(b.estado) NOT LIKE '%grat%'
+                    AND LOWER(b.estado) NOT LIKE '%free%'
+                   ))
+               ) AS "monthlyInvoice",
+               (SELECT COUNT(*) FROM beworking.subscriptions
+                 WHERE active = TRUE
+                   AND billing_method = 'bank_transfer'
+                   AND (last_invoiced_month IS NULL
+                        OR last_invoiced_month <> to_char(NOW(), 'YYYY-MM'))
+               ) AS "localSubscription",
+               (SELECT COUNT(*) FROM beworking.facturas f
+                  JOIN beworking.contact_profiles c ON c.id = f.idcliente
+                 WHERE UPPER(COALESCE(NULLIF(f.holdedcuenta, ''), 'PT')) = 'PT'
+                   AND c.tenant_type = 'Usuario Aulas'
+                   AND f.creacionfecha < NOW() - INTERVAL '1 day'
+                   AND f.idfactura < 100000
+                   AND (LOWER(COALESCE(f.estado, '')) LIKE '%pend%'
+                     OR LOWER(COALESCE(f.estado, '')) LIKE '%confir%'
+                     OR LOWER(COALESCE(f.estado, '')) LIKE '%fact%'
+                     OR LOWER(COALESCE(f.estado, '')) LIKE '%invoice%'
+                     OR LOWER(COALESCE(f.estado, '')) LIKE '%created%')
+               ) AS "meetingRoomReconciliation",
+               (SELECT COUNT(*) FROM beworking.facturas f
+                 WHERE f.stripeinvoiceid IS NOT NULL
+                   AND f.stripeinvoiceid <> ''
+                   AND LOWER(COALESCE(f.estado, '')) = 'pagado'
+                   AND f.creacionfecha >= NOW() - INTERVAL '30 days'
+                   AND f.idfactura < 100000
+               ) AS "priceDiscrepancyAudit",
+               (SELECT COUNT(*) FROM beworking.bloqueos b
+                  JOIN beworking.productos p ON p.id = b.id_producto
+                 WHERE b.estado IN ('Pagado', 'Free')
+                   AND b.id_cliente IS NOT NULL
+                   AND (b.fin_indefinido = 1 OR b.fecha_fin >= CURRENT_DATE)
+                   AND UPPER(p.nombre) IN ('MA1A1','MA1A2','MA1A3','MA1A4','MA1A5')
+                   AND NOT EXISTS (SELECT 1 FROM beworking.bekey_access a
+                                    WHERE a.source = 'booking'
+                                      AND a.source_ref = b.id
+                                      AND a.revoked_at IS NULL)
+               ) AS "bekeyBookingReconcile",
+               (SELECT COUNT(*) FROM beworking.subscriptions s
+                  LEFT JOIN beworking.productos p ON p.id = s.producto_id
+                 WHERE s.active = true
+                   AND s.contact_id IS NOT NULL
+                   AND (
+                         LOWER(TRIM(p.tipo)) = 'mesa'
+                      OR (p.tipo IS NULL AND (
+                            LOWER(COALESCE(s.description,'')) LIKE '%coworking%'
+                         OR LOWER(COALESCE(s.description,'')) LIKE '%mesa%'
+                         OR LOWER(COALESCE(s.description,'')) LIKE '%desk%'))
+                       )
+                   AND NOT EXISTS (SELECT 1 FROM beworking.bekey_access a
+                                    WHERE a.source = 'subscription'
+                                      AND a.source_ref = s.id
+                                      AND a.revoked_at IS NULL)
+               ) AS "bekeySubscriptionReconcile",
+               (SELECT COUNT(*) FROM beworking.bekey_shares
+                 WHERE revoked_at IS NULL
+                   AND ends_at < NOW()
+               ) AS "bekeyShareSweep"
+          FROM (SELECT count(*) FILTER (WHERE status = 'Potencial'
+                                          AND created_at >= NOW() - INTERVAL '7 days'
+                                          AND abandonment_email_count < 4) AS "recovery",
+                       count(*) FILTER (WHERE status = 'Potencial'
+                                          AND created_at < NOW() - INTERVAL '7 days') AS "potencialAging",
+                       count(*) FILTER (WHERE status = 'Inactivo'
+                                          AND reengagement_email_count < 3
+                                          AND (last_reengagement_email_at IS NULL
+                                               OR last_reengagement_email_at < NOW() - INTERVAL '6 months')
+                                       ) AS "reengagement"
+                  FROM beworking.contact_profiles) cp
+         CROSS JOIN (SELECT count(*) FILTER (WHERE status = 'Contactado'
+                                               AND status_changed_at >= NOW() - INTERVAL '7 days'
+                                               AND nurture_email_count < 4) AS "leadNurture",
+                            count(*) FILTER (WHERE status = 'Contactado'
+                                               AND status_changed_at IS NOT NULL
+                                               AND status_changed_at < NOW() - INTERVAL '30 days') AS "leadAging"
+                       FROM beworking.leads) l
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Map<String, Object>> cache;
+
+    AutomationStats(JdbcTemplate jdbcTemplate,
+                    @Value("${app.automation.stats-ttl:30s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(8)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /** Contacts per status, in {@link #STATUSES} order. */
+    @SuppressWarnings("unchecked")
+    Map<String, Long> statusCounts() {
+        return (Map<String, Long>) funnel().get("counts");
+    }
+
+    /** The {@code /api/admin/automation/funnel-stats} payload. */
+    Map<String, Object> funnel() {
+        return cache.get("funnel", key -> loadFunnel());
+    }
+
+    /** Candidate count per job name, for the jobs list. */
+    @SuppressWarnings("unchecked")
+    Map<String, Long> jobCandidates() {
+        return (Map<String, Long>) (Map<String, ?>) cache.get("candidates", key -> loadCandidates());
+    }
+
+    private Map<String, Object> loadFunnel() {
+        Map<String, Object> row = jdbcTemplate.queryForMap(FUNNEL_SQL);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String status : STATUSES) {
+            counts.put(status, asLong(row.get(status.toLowerCase())));
+        }
+        Map<String, Object> funnel = new LinkedHashMap<>();
+        funnel.put("counts", counts);
+        funnel.put("potencialesConverted30d", asLong(row.get("converted_30d")));
+        funnel.put("potencialesAgedOut30d", asLong(row.get("aged_out_30d")));
+        funnel.put("recoveryEmailsByTemplate30d", byTemplate(row, "recovery_sent_"));
+        funnel.put("recoveryOpensByTemplate30d", byTemplate(row, "recovery_opens_"));
+        funnel.put("reengagementOpens30d", asLong(row.get("reengagement_opens")));
+        return Collections.unmodifiableMap(funnel);
+    }
+
+    private Map<String, Object> loadCandidates() {
+        Map<String, Object> candidates = new LinkedHashMap<>();
+        jdbcTemplate.queryForMap(CANDIDATES_SQL).forEach((job, n) -> candidates.put(job, asLong(n)));
+        return Collections.unmodifiableMap(candidates);
+    }
+
+    /** Templates with no rows are left out, as the old GROUP BY queries did. */
+    private static Map<String, Long> byTemplate(Map<String, Object> row, String prefix) {
+        Map<String, Long> byTemplate = new LinkedHashMap<>();
+        for (int n = 1; n <= 4; n++) {
+            long count = asLong(row.get(prefix + n));
+            if (count > 0) {
+                byTemplate.put(String.valueOf(n), count);
+            }
+        }
+        return byTemplate;
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.auth.RegisterService;
 import com.beworking.auth.User;
 import com.beworking.auth.UserRepository;
@@ -29,6 +30,8 @@ public class ContactProfileController {
     private final com.beworking.subscriptions.SubscriptionService subscriptionService;
     private final com.beworking.auth.EmailService emailService;
     private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final VatRevalidationJobService vatRevalidationJobService;
+    private final AutomationStats automationStats;
 
     public ContactProfileController(ContactProfileService contactProfileService,
                                      ContactProfileRepository contactProfileRepository,
@@ -38,7 +41,9 @@ public class ContactProfileController {
                                      RegisterService registerService,
                                      com.beworking.subscriptions.SubscriptionService subscriptionService,
                                      com.beworking.auth.EmailService emailService,
-                                     org.springframework.context.ApplicationEventPublisher eventPublisher) {
+                                     org.springframework.context.ApplicationEventPublisher eventPublisher,
+                                     VatRevalidationJobService vatRevalidationJobService,
+                                     AutomationStats automationStats) {
         this.contactProfileService = contactProfileService;
         this.contactProfileRepository = contactProfileRepository;
         this.userRepository = userRepository;
@@ -48,11 +53,13 @@ public class ContactProfileController {
         this.subscriptionService = subscriptionService;
         this.emailService = emailService;
         this.eventPublisher = eventPublisher;
+        this.vatRevalidationJobService = vatRevalidationJobService;
+        this.automationStats = automationStats;
     }
 
     @GetMapping
     public ResponseEntity<ContactProfilesPageResponse> getAllContactProfiles(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam(value = "page", defaultValue = "0") int page,
         @RequestParam(value = "size", defaultValue = "25") int size,
         @RequestParam(value = "search", required = false) String search,
@@ -63,13 +70,6 @@ public class ContactProfileController {
         @RequestParam(value = "startDate", required = false) String startDate,
         @RequestParam(value = "endDate", required = false) String endDate
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        String userEmail = authentication.getName();
-        User user = userRepository.findByEmail(userEmail).orElse(null);
-        
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -103,15 +103,8 @@ public class ContactProfileController {
     @GetMapping("/{id}")
     public ResponseEntity<ContactProfile> getContactProfileById(
         @PathVariable Long id,
-        Authentication authentication
+        AuthenticatedUser user
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        String userEmail = authentication.getName();
-        User user = userRepository.findByEmail(userEmail).orElse(null);
-        
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -139,18 +132,19 @@ public class ContactProfileController {
         try {
             ContactProfile createdProfile = contactProfileService.createContactProfile(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdProfile);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @PostMapping("/sync-users")
-    public ResponseEntity<Map<String, Object>> syncContactUsers(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<Map<String, Object>> syncContactUsers(AuthenticatedUser adminUser) {
+        if (adminUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        User adminUser = userRepository.findByEmail(authentication.getName()).orElse(null);
-        if (adminUser == null || adminUser.getRole() != User.Role.ADMIN) {
+        if (adminUser.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -209,6 +203,8 @@ public class ContactProfileController {
             return ResponseEntity.ok(updatedProfile);
         } catch (ContactProfileService.ContactProfileNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Failed to update contact profile {}: {}", id, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -216,12 +212,11 @@ public class ContactProfileController {
     }
 
     @GetMapping("/audit")
-    public ResponseEntity<Map<String, Object>> auditContacts(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<Map<String, Object>> auditContacts(AuthenticatedUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        User user = userRepository.findByEmail(authentication.getName()).orElse(null);
-        if (user == null || user.getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -359,9 +354,6 @@ public class ContactProfileController {
         return ResponseEntity.ok(body);
     }
 
-    private static final java.util.concurrent.atomic.AtomicBoolean RESEED_IN_PROGRESS =
-        new java.util.concurrent.atomic.AtomicBoolean(false);
-
     @PostMapping("/vat/revalidate-all")
     public ResponseEntity<Map<String, Object>> revalidateAllVat(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -373,36 +365,45 @@ public class ContactProfileController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        // Fire-and-forget: ~1972 contacts × 1s VIES throttle ≈ 33 min, far over
-        // the ALB's idle timeout. Run in a background thread; results land in
-        // the backend log. Lock prevents two reseeds racing each other.
-        if (!RESEED_IN_PROGRESS.compareAndSet(false, true)) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+        // Runs as a background job (see VatRevalidationJobService): SQL-selected
+        // candidates, one VIES call per distinct tax id, throttled per member state.
+        return vatRevalidationJobService.start(authentication.getName())
+            .<ResponseEntity<Map<String, Object>>>map(jobId -> ResponseEntity.accepted().body(Map.of(
+                "status", "started",
+                "jobId", jobId,
+                "statusUrl", "/api/contact-profiles/vat/revalidate-jobs/" + jobId)))
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
                 "status", "rejected",
-                "message", "VIES reseed already in progress"
-            ));
-        }
+                "message", "VIES reseed already in progress")));
+    }
 
-        new Thread(() -> {
-            long start = System.currentTimeMillis();
-            logger.info("VIES bulk reseed starting (admin={})",
-                authentication.getName());
-            try {
-                Map<String, Integer> stats = contactProfileService.revalidateAllStaleVat();
-                long elapsedMin = (System.currentTimeMillis() - start) / 60_000;
-                logger.info("VIES bulk reseed finished in {} min: {}", elapsedMin, stats);
-            } catch (Exception e) {
-                logger.error("VIES bulk reseed failed", e);
-            } finally {
-                RESEED_IN_PROGRESS.set(false);
-            }
-        }, "vies-bulk-reseed").start();
+    @GetMapping("/vat/revalidate-jobs")
+    public ResponseEntity<List<Map<String, Object>>> listVatRevalidationJobs(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (!isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(vatRevalidationJobService.listRecent(20));
+    }
 
-        return ResponseEntity.accepted().body(Map.of(
-            "status", "started",
-            "message", "VIES revalidation running in background. Check backend logs for progress and final counts.",
-            "estimatedMinutes", 33
-        ));
+    @GetMapping("/vat/revalidate-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getVatRevalidationJob(Authentication authentication,
+                                                                     @PathVariable java.util.UUID jobId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean isAdmin = authentication.getAuthorities().stream()
+            .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (!isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return vatRevalidationJobService.findJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -618,14 +619,7 @@ public class ContactProfileController {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        Map<String, Long> counts = new HashMap<>();
-        for (String status : List.of("Activo", "Potencial", "Inactivo")) {
-            long n = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM beworking.contact_profiles WHERE status = ?",
-                Long.class, status);
-            counts.put(status, n);
-        }
-        return ResponseEntity.ok(counts);
+        return ResponseEntity.ok(automationStats.statusCounts());
     }
 
     /**
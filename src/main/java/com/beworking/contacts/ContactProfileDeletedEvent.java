@@ -0,0 +1,10 @@
+package com.beworking.contacts;
+
+/**
+ * Published when a ContactProfile is deleted together with its bloqueos,
+ * reservas and subscriptions (admin delete). Those rows go through native
+ * SQL, so JPA listeners never see them; the occupancy timeline listens for
+ * this instead and drops the contact's rows once the transaction commits.
+ */
+public record ContactProfileDeletedEvent(Long contactProfileId) {
+}
@@ -33,14 +33,55 @@ public interface ContactProfileRepository extends JpaRepository<ContactProfile,
     """, nativeQuery = true)
     List<ContactProfile> searchContacts(@org.springframework.data.repository.query.Param("search") String search);
 
-    Optional<ContactProfile> findFirstByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
-        String emailPrimary,
-        String emailSecondary,
-        String emailTertiary,
-        String representativeEmail
-    );
+    /**
+     * First non-blank phone (primary → quaternary, then representative) of
+     * the lowest-id contact for each of {@code emails}, which must already be
+     * lower-cased and trimmed. One lookup through the indexed contact_emails
+     * mapping (V101) instead of a four-column scan per email.
+     */
+    @org.springframework.data.jpa.repository.Query(value = """
+        SELECT DISTINCT ON (e.email) e.email AS email,
+               COALESCE(CASE WHEN btrim(c.phone_primary) <> '' THEN c.phone_primary END,
+                        CASE WHEN btrim(c.phone_secondary) <> '' THEN c.phone_secondary END,
+                        CASE WHEN btrim(c.phone_tertiary) <> '' THEN c.phone_tertiary END,
+                        CASE WHEN btrim(c.phone_quaternary) <> '' THEN c.phone_quaternary END,
+                        CASE WHEN btrim(c.representative_phone) <> '' THEN c.representative_phone END) AS phone
+          FROM beworking.contact_emails e
+          JOIN beworking.contact_profiles c ON c.id = e.contact_id
+         WHERE e.email IN (:emails)
+         ORDER BY e.email, c.id
+    """, nativeQuery = true)
+    List<EmailPhone> findPhonesByEmails(@org.springframework.data.repository.query.Param("emails") java.util.Collection<String> emails);
+
+    interface EmailPhone {
+        String getEmail();
+        String getPhone();
+    }
+
+    /**
+     * Greeting fields (names, billing country) of the lowest-id contact for
+     * each of {@code emails}, lower-cased and trimmed like
+     * {@link #findPhonesByEmails}; used to personalise emails sent to many
+     * recipients at once.
+     */
+    @org.springframework.data.jpa.repository.Query(value = """
+        SELECT DISTINCT ON (e.email) e.email AS email, c.contact_name AS contactName,
+               c.name AS name, c.billing_country AS billingCountry
+          FROM beworking.contact_emails e
+          JOIN beworking.contact_profiles c ON c.id = e.contact_id
+         WHERE e.email IN (:emails)
+         ORDER BY e.email, c.id
+    """, nativeQuery = true)
+    List<EmailRecipient> findRecipientsByEmails(@org.springframework.data.repository.query.Param("emails") java.util.Collection<String> emails);
+
+    interface EmailRecipient {
+        String getEmail();
+        String getContactName();
+        String getName();
+        String getBillingCountry();
+    }
 
-    List<ContactProfile> findByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
+    Optional<ContactProfile> findFirstByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
         String emailPrimary,
         String emailSecondary,
         String emailTertiary,
@@ -48,13 +89,14 @@ public interface ContactProfileRepository extends JpaRepository<ContactProfile,
     );
 
     /**
-     * Recovery cron candidates: contacts in the funnel-drop state, bounded by
+     * Recovery candidates for the admin one-off batch
+     * (ContactProfileController#sendAbandonmentBatch): contacts in the funnel-drop state, bounded by
      * created_at ≥ cutoff so we don't include contacts that already aged out
      * (the aging scheduler flips them to Inactivo at 7d). The "no invoice"
      * check is implicit — InvoiceService auto-promotes any invoiced contact
      * to Activo, so anyone still at Potencial has no invoice by definition.
-     * Each row is filtered further in code by elapsed-time windows that
-     * depend on its current abandonment_email_count.
+     * The hourly cron selects its due rows in SQL instead
+     * (AbandonmentRecoveryScheduler).
      */
     List<ContactProfile> findByStatusAndCreatedAtGreaterThanEqualAndAbandonmentEmailCountLessThan(
         String status,
@@ -62,19 +104,6 @@ public interface ContactProfileRepository extends JpaRepository<ContactProfile,
         int maxCount
     );
 
-    /** All contacts at the given status (used by reengagement cron). */
-    List<ContactProfile> findByStatus(String status);
-
-    /**
-     * Aging scheduler target: contacts still sitting at Potencial after the
-     * 7-day window. Daily job flips these to Inactivo. Same reasoning as
-     * above — if they were paying we'd see Activo.
-     */
-    List<ContactProfile> findByStatusAndCreatedAtLessThan(
-        String status,
-        java.time.LocalDateTime createdBefore
-    );
-
     @org.springframework.data.jpa.repository.Query("SELECT MAX(c.id) FROM ContactProfile c")
     Optional<Long> findMaxId();
 }
@@ -3,8 +3,13 @@ package com.beworking.contacts;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -16,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.auth.UserRepository;
 import com.beworking.bookings.CentroRepository;
 import org.slf4j.Logger;
@@ -40,18 +46,21 @@ public class ContactProfileService {
 
     private final ContactProfileRepository repository;
     private final UserRepository userRepository;
-    private final ViesVatService viesVatService;
+    private final com.beworking.tax.ViesGateway viesGateway;
     private final CentroRepository centroRepository;
     private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final com.beworking.uploads.AvatarService avatarService;
 
     public ContactProfileService(ContactProfileRepository repository, UserRepository userRepository,
-                                  ViesVatService viesVatService, CentroRepository centroRepository,
-                                  org.springframework.context.ApplicationEventPublisher eventPublisher) {
+                                  com.beworking.tax.ViesGateway viesGateway, CentroRepository centroRepository,
+                                  org.springframework.context.ApplicationEventPublisher eventPublisher,
+                                  com.beworking.uploads.AvatarService avatarService) {
         this.repository = repository;
         this.userRepository = userRepository;
-        this.viesVatService = viesVatService;
+        this.viesGateway = viesGateway;
         this.centroRepository = centroRepository;
         this.eventPublisher = eventPublisher;
+        this.avatarService = avatarService;
     }
 
     @Transactional(readOnly = true)
@@ -126,6 +135,69 @@ public class ContactProfileService {
 
     }
 
+    /**
+     * The member's OWN contact email, derived from their identity and never from
+     * request input: the login email for tenant users, otherwise the first email
+     * on the contact their login email matches; null when there is none.
+     */
+    @Transactional(readOnly = true)
+    public String resolveOwnEmail(AuthenticatedUser user) {
+        if (user.getTenantId() != null) {
+            return user.getEmail();
+        }
+        return findContactByEmail(user.getEmail())
+            .flatMap(contact -> Stream.of(
+                    contact.getEmailPrimary(),
+                    contact.getEmailSecondary(),
+                    contact.getEmailTertiary(),
+                    contact.getRepresentativeEmail())
+                .filter(email -> email != null && !email.isBlank())
+                .findFirst())
+            .orElse(null);
+    }
+
+    /**
+     * Phone of the contact behind each email, keyed by lower-cased email;
+     * emails without a contact or a phone are absent. One query for any number
+     * of emails.
+     */
+    public Map<String, String> findPhonesByEmails(Collection<String> emails) {
+        Set<String> normalized = emails.stream()
+            .filter(email -> email != null && !email.isBlank())
+            .map(email -> email.trim().toLowerCase())
+            .collect(Collectors.toSet());
+        if (normalized.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> phones = new HashMap<>();
+        for (ContactProfileRepository.EmailPhone row : repository.findPhonesByEmails(normalized)) {
+            if (row.getPhone() != null) {
+                phones.put(row.getEmail(), row.getPhone());
+            }
+        }
+        return phones;
+    }
+
+    /**
+     * Contact behind each email (names and billing country), keyed by
+     * lower-cased email; emails without a contact are absent. One query for
+     * any number of emails.
+     */
+    public Map<String, ContactProfileRepository.EmailRecipient> findRecipientsByEmails(Collection<String> emails) {
+        Set<String> normalized = emails.stream()
+            .filter(email -> email != null && !email.isBlank())
+            .map(email -> email.trim().toLowerCase())
+            .collect(Collectors.toSet());
+        if (normalized.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, ContactProfileRepository.EmailRecipient> recipients = new HashMap<>();
+        for (ContactProfileRepository.EmailRecipient row : repository.findRecipientsByEmails(normalized)) {
+            recipients.put(row.getEmail(), row);
+        }
+        return recipients;
+    }
+
     public ContactProfilesPageResponse getContactProfilesByEmail(String userEmail, int page, int size, String search, String status, String plan, String tenantType, String email, String startDate, String endDate) {
         int pageIndex = Math.max(page, 0);
         int pageSize = Math.max(1, size);
@@ -420,6 +492,15 @@ public class ContactProfileService {
         return firstName + " " + lastName;
     }
 
+    /** Base64 avatars from older clients go to media storage; the profile keeps the URL. */
+    private String storeAvatar(String avatar) {
+        try {
+            return avatarService.normalize(avatar);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException("Failed to store avatar", e);
+        }
+    }
+
     private String blankToNull(String value) {
         if (value == null) {
             return null;
@@ -486,7 +567,7 @@ public class ContactProfileService {
         profile.setTenantType(request.getUserType());
         profile.setCenterId(parseCenterId(request.getCenter()));
         profile.setChannel(request.getChannel());
-        profile.setAvatar(request.getAvatar());
+        profile.setAvatar(storeAvatar(request.getAvatar()));
         
         // Set billing information
         profile.setBillingName(request.getBillingCompany());
@@ -533,13 +614,15 @@ public class ContactProfileService {
         // Track original status to update timestamp if needed
         String originalStatus = profile.getStatus();
 
-        // Snapshot billing identity so we only push to Stripe when it actually
-        // changes (name / tax id / tax-id type / VAT validity).
+        // Snapshot billing identity so we only push to Stripe (and drop the
+        // cached VAT decision) when it actually changes (name / tax id /
+        // tax-id type / VAT validity / billing country).
         String origName = profile.getName();
         String origBillingName = profile.getBillingName();
         String origTaxId = profile.getBillingTaxId();
         String origTaxIdType = profile.getBillingTaxIdType();
         Boolean origVatValid = profile.getVatValid();
+        String origBillingCountry = profile.getBillingCountry();
 
         if (request.getName() != null && !request.getName().isBlank()) {
             profile.setName(request.getName().trim());
@@ -559,7 +642,7 @@ public class ContactProfileService {
         }
 
         if (request.getAvatar() != null) {
-            profile.setAvatar(blankToNull(request.getAvatar()));
+            profile.setAvatar(storeAvatar(blankToNull(request.getAvatar())));
         }
 
         // Sync key fields to linked user account
@@ -684,7 +767,8 @@ public class ContactProfileService {
             || !java.util.Objects.equals(origBillingName, saved.getBillingName())
             || !java.util.Objects.equals(origTaxId, saved.getBillingTaxId())
             || !java.util.Objects.equals(origTaxIdType, saved.getBillingTaxIdType())
-            || !java.util.Objects.equals(origVatValid, saved.getVatValid());
+            || !java.util.Objects.equals(origVatValid, saved.getVatValid())
+            || !java.util.Objects.equals(origBillingCountry, saved.getBillingCountry());
         if (identityChanged) {
             eventPublisher.publishEvent(new ContactBillingChangedEvent(saved.getId()));
         }
@@ -710,11 +794,19 @@ public class ContactProfileService {
      *      context is overwhelmingly Spanish (autónomo or empresa). Spanish
      *      autónomos with personal-NIF format are validated by VIES too.
      *
-     * Result is always TRUE or FALSE when a tax ID is present; only NULL when
-     * the contact has no tax ID at all. VIES network errors → FALSE so the
-     * caller never reverse-charges based on an unknown state.
+     * A definitive VIES answer is stored as TRUE/FALSE; only NULL when the
+     * contact has no tax ID at all. UNREACHABLE (VIES service errors) keeps
+     * the current value and bumps the failure streak.
+     *
+     * The check goes through {@link com.beworking.tax.ViesGateway}, so a
+     * tax ID another contact validated recently is answered from the shared
+     * result cache; {@code fresh} skips that cache for explicit revalidation.
      */
     private void runVatValidation(ContactProfile profile) {
+        runVatValidation(profile, false);
+    }
+
+    private void runVatValidation(ContactProfile profile, boolean fresh) {
         profile.setVatValidatedAt(LocalDateTime.now());
         String taxId = profile.getBillingTaxId();
         if (taxId == null || taxId.isBlank()) {
@@ -723,8 +815,13 @@ public class ContactProfileService {
         }
         String countryHint = resolveCountryHint(profile);
         try {
-            ViesVatService.VatValidationResult result = viesVatService.validate(taxId, countryHint);
-            applyValidationResult(profile, result.valid());
+            com.beworking.tax.ViesGateway.GatewayResult result = fresh
+                ? viesGateway.validateFresh(profile.getId(), taxId, countryHint)
+                : viesGateway.validate(profile.getId(), taxId, countryHint);
+            if (result.isUnreachable()) {
+                throw new IllegalStateException("VIES unreachable");
+            }
+            applyValidationResult(profile, result.isValid());
         } catch (Exception e) {
             // Network / timeout / SOAP error. NEVER write vat_valid=FALSE here —
             // doing so silently corrupts legitimate B2B customers every time VIES
@@ -799,7 +896,7 @@ public class ContactProfileService {
         if (profile == null) return false;
         Boolean origVatValid = profile.getVatValid();
         String origTaxIdType = profile.getBillingTaxIdType();
-        runVatValidation(profile);
+        runVatValidation(profile, true);
         ContactProfile saved = repository.save(profile);
         if (!java.util.Objects.equals(origVatValid, saved.getVatValid())
             || !java.util.Objects.equals(origTaxIdType, saved.getBillingTaxIdType())) {
@@ -824,55 +921,40 @@ public class ContactProfileService {
             && profile.getVatValidatedAt().isAfter(LocalDateTime.now().minus(VAT_CACHE_TTL))) {
             return profile.getVatValid();
         }
+        Boolean origVatValid = profile.getVatValid();
         runVatValidation(profile);
         repository.save(profile);
+        if (!java.util.Objects.equals(origVatValid, profile.getVatValid())) {
+            eventPublisher.publishEvent(new ContactBillingChangedEvent(contactId));
+        }
         return profile.getVatValid();
     }
 
     /**
-     * One-shot bulk re-validation against VIES. Throttled to ~1 req/sec to stay
-     * under the implicit VIES rate limit. Skips contacts already known TRUE so
-     * the 15 confirmed-good ones aren't re-burned. Use when seeding fresh data
-     * after a validator-logic fix or DB restore.
+     * Applies a VIES outcome obtained elsewhere (the background revalidation
+     * pipeline, which dedupes and throttles the calls itself) with the same
+     * stickiness rules as {@link #runVatValidation}. UNREACHABLE only bumps
+     * the failure streak. Publishes {@link ContactBillingChangedEvent} when
+     * vat_valid flips.
      *
-     * NOT @Transactional — running for ~33 min in one transaction would hold a
-     * single connection open the whole time and only commit at the end. Each
-     * repository.save() below is its own short transaction (Spring Data JPA's
-     * SimpleJpaRepository wraps save() in @Transactional internally), so
-     * progress lands on disk per contact and is visible to other sessions.
+     * @return the contact's vat_valid after the update, or null if the contact is gone
      */
-    public java.util.Map<String, Integer> revalidateAllStaleVat() {
-        java.util.List<ContactProfile> all = repository.findAll();
-        int processed = 0, validated = 0, invalid = 0, errors = 0;
-        for (ContactProfile p : all) {
-            if (p.getBillingTaxId() == null || p.getBillingTaxId().isBlank()) continue;
-            if (Boolean.TRUE.equals(p.getVatValid())) continue;
-            try {
-                Boolean origVatValid = p.getVatValid();
-                runVatValidation(p);
-                ContactProfile saved = repository.save(p);  // its own short transaction → commits now
-                processed++;
-                if (Boolean.TRUE.equals(saved.getVatValid())) validated++; else invalid++;
-                // Only the flipped subset (small) pushes to Stripe; paced by
-                // the 1s VIES throttle below, so no rate-limit storm.
-                if (!java.util.Objects.equals(origVatValid, saved.getVatValid())) {
-                    eventPublisher.publishEvent(new ContactBillingChangedEvent(saved.getId()));
-                }
-            } catch (Exception e) {
-                errors++;
-                LOGGER.warn("Reseed failed for contact {}: {}", p.getId(), e.getMessage());
-            }
-            // VIES rate-limit safety: ~1 req/sec. 1972 contacts ≈ 33 min worst case.
-            try { Thread.sleep(1000); } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+    @Transactional
+    public Boolean applyViesOutcome(Long contactId, com.beworking.tax.ViesGateway.Result result) {
+        ContactProfile profile = repository.findById(contactId).orElse(null);
+        if (profile == null) return null;
+        Boolean origVatValid = profile.getVatValid();
+        profile.setVatValidatedAt(LocalDateTime.now());
+        switch (result) {
+            case VALID -> applyValidationResult(profile, true);
+            case INVALID -> applyValidationResult(profile, false);
+            case UNREACHABLE -> bumpFailureStreak(profile);
+        }
+        ContactProfile saved = repository.save(profile);
+        if (!java.util.Objects.equals(origVatValid, saved.getVatValid())) {
+            eventPublisher.publishEvent(new ContactBillingChangedEvent(contactId));
         }
-        return java.util.Map.of(
-            "processed", processed,
-            "validated", validated,
-            "invalid", invalid,
-            "errors", errors);
+        return saved.getVatValid();
     }
 
     @Transactional
@@ -962,6 +1044,7 @@ public class ContactProfileService {
         }
 
         repository.deleteById(id);
+        eventPublisher.publishEvent(new ContactProfileDeletedEvent(id));
         return true;
     }
 
@@ -0,0 +1,186 @@
+package com.beworking.contacts;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers tracking-pixel opens and writes them to {@code beworking.email_opens}
+ * in multi-row INSERTs, so a burst of prefetches after a campaign send costs
+ * a few statements instead of one per image on the request path.
+ *
+ * {@link #record} is lock-free and never touches the database: it appends to
+ * a queue bounded at {@code app.tracking.opens.buffer-capacity} and counts
+ * (and later logs) what it drops once full. A single flusher thread drains
+ * the queue every {@code app.tracking.opens.flush-interval}, or as soon as
+ * {@code app.tracking.opens.batch-size} opens are waiting. Opens still
+ * buffered at shutdown are flushed; a crash loses at most one interval's
+ * worth, which is fine for a best-effort metric.
+ */
+@Component
+class EmailOpenRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOpenRecorder.class);
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO beworking.email_opens
+            (contact_id, template_type, template_number, opened_at, user_agent, ip)
+        VALUES\s""";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?)";
+    // Postgres caps a statement at 32767 bind parameters (6 per row).
+    private static final int MAX_BATCH_SIZE = 5_000;
+
+    record Open(long contactId, String templateType, int templateNumber, LocalDateTime openedAt,
+                String userAgent, String ip) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final String fullBatchSql;
+
+    private final ConcurrentLinkedQueue<Open> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile Thread flusher;
+    private volatile boolean running;
+
+    EmailOpenRecorder(JdbcTemplate jdbcTemplate,
+                      @Value("${app.tracking.opens.buffer-capacity:10000}") int capacity,
+                      @Value("${app.tracking.opens.batch-size:500}") int batchSize,
+                      @Value("${app.tracking.opens.flush-interval:PT0.25S}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.flushInterval = flushInterval;
+        this.fullBatchSql = insertSql(this.batchSize);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread thread = new Thread(this::flushLoop, "email-open-flusher");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(flushInterval.toMillis() * 4 + 5_000);
+        }
+        while (flush() > 0) {
+            // drain what arrived while stopping
+        }
+    }
+
+    /** Queues one open; returns false (and counts a drop) if the buffer is full. */
+    boolean record(Open open) {
+        int queued = size.incrementAndGet();
+        if (queued > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(open);
+        if (queued == batchSize) {
+            Thread thread = flusher;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    /** Writes up to one batch in a single statement; returns how many opens it took off the queue. */
+    int flush() {
+        List<Open> batch = new ArrayList<>(Math.min(batchSize, Math.max(size.get(), 1)));
+        Open open;
+        while (batch.size() < batchSize && (open = queue.poll()) != null) {
+            batch.add(open);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        size.addAndGet(-batch.size());
+
+        Object[] args = new Object[batch.size() * 6];
+        int i = 0;
+        for (Open o : batch) {
+            args[i++] = o.contactId();
+            args[i++] = o.templateType();
+            args[i++] = o.templateNumber();
+            args[i++] = Timestamp.valueOf(o.openedAt());
+            args[i++] = o.userAgent();
+            args[i++] = o.ip();
+        }
+        try {
+            jdbcTemplate.update(batch.size() == batchSize ? fullBatchSql : insertSql(batch.size()), args);
+        } catch (Exception e) {
+            failed.add(batch.size());
+            logger.warn("Failed to write {} email opens: {}", batch.size(), e.getMessage());
+        }
+        return batch.size();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    long failedCount() {
+        return failed.sum();
+    }
+
+    private void flushLoop() {
+        long reportedDrops = 0;
+        while (running) {
+            if (size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+            }
+            try {
+                while (flush() == batchSize) {
+                    // a full batch came back; more are likely waiting
+                }
+            } catch (Exception e) {
+                logger.warn("Email open flush failed: {}", e.getMessage());
+            }
+            long drops = dropped.sum();
+            if (drops > reportedDrops) {
+                logger.warn("Email open buffer full: dropped {} opens ({} total)", drops - reportedDrops, drops);
+                reportedDrops = drops;
+            }
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.toString();
+    }
+}
@@ -1,11 +1,10 @@
 package com.beworking.contacts;
 
 import jakarta.servlet.http.HttpServletRequest;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.time.LocalDateTime;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -18,15 +17,15 @@ import org.springframework.web.bind.annotation.RestController;
  *
  * Mounted under /api/track so it inherits the /api/* nginx pass-through but
  * remains unauthenticated (recipients can't be expected to log in to load
- * an inline image). All four params are best-effort — bad input is logged
- * but always returns the GIF to avoid broken images in the email.
+ * an inline image). All four params are best-effort — bad input is ignored
+ * and the GIF is always returned to avoid broken images in the email. The
+ * open is handed to {@link EmailOpenRecorder}, which batches the INSERTs, so
+ * the request never waits on the database.
  */
 @RestController
 @RequestMapping("/api/track")
 public class EmailTrackingController {
 
-    private static final Logger logger = LoggerFactory.getLogger(EmailTrackingController.class);
-
     // 43-byte minimum 1x1 transparent GIF. Smallest possible image payload.
     private static final byte[] PIXEL = new byte[] {
         0x47, 0x49, 0x46, 0x38, 0x39, 0x61, 0x01, 0x00, 0x01, 0x00,
@@ -36,10 +35,12 @@ public class EmailTrackingController {
         0x02, 0x44, 0x01, 0x00, 0x3b
     };
 
-    private final JdbcTemplate jdbcTemplate;
+    private static final HttpHeaders PIXEL_HEADERS = pixelHeaders();
+
+    private final EmailOpenRecorder openRecorder;
 
-    public EmailTrackingController(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public EmailTrackingController(EmailOpenRecorder openRecorder) {
+        this.openRecorder = openRecorder;
     }
 
     @GetMapping(value = "/open", produces = MediaType.IMAGE_GIF_VALUE)
@@ -49,35 +50,28 @@ public class EmailTrackingController {
         @RequestParam(value = "type", required = false, defaultValue = "recovery") String templateType,
         HttpServletRequest request
     ) {
-        try {
-            if (contactId != null && templateNumber != null) {
-                String userAgent = request.getHeader("User-Agent");
-                String ip = firstNonBlank(
-                    request.getHeader("X-Forwarded-For"),
-                    request.getRemoteAddr()
-                );
-                jdbcTemplate.update("""
-                    INSERT INTO beworking.email_opens
-                        (contact_id, template_type, template_number, opened_at, user_agent, ip)
-                    VALUES (?, ?, ?, NOW(), ?, ?)
-                    """,
-                    contactId,
-                    sanitizeType(templateType),
-                    templateNumber,
-                    truncate(userAgent, 4000),
-                    truncate(ip, 64));
-            }
-        } catch (Exception e) {
-            // Tracking is best-effort — never let a failure surface to the recipient.
-            logger.warn("Failed to log email open: contact={} template={} type={} err={}",
-                contactId, templateNumber, templateType, e.getMessage());
+        if (contactId != null && templateNumber != null) {
+            // Buffered; EmailOpenRecorder writes it off the request path.
+            openRecorder.record(new EmailOpenRecorder.Open(
+                contactId,
+                sanitizeType(templateType),
+                templateNumber,
+                LocalDateTime.now(),
+                truncate(request.getHeader("User-Agent"), 4000),
+                truncate(firstNonBlank(request.getHeader("X-Forwarded-For"), request.getRemoteAddr()), 64)));
         }
         return ResponseEntity.ok()
-            .header("Cache-Control", "no-store, no-cache, must-revalidate, max-age=0")
-            .header("Pragma", "no-cache")
+            .headers(PIXEL_HEADERS)
             .body(PIXEL);
     }
 
+    private static HttpHeaders pixelHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, max-age=0");
+        headers.set(HttpHeaders.PRAGMA, "no-cache");
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
     private static String sanitizeType(String type) {
         if (type == null) return "recovery";
         return switch (type.toLowerCase()) {
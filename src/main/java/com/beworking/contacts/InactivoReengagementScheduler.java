@@ -1,11 +1,14 @@
 package com.beworking.contacts;
 
 import com.beworking.auth.EmailService;
+import com.beworking.campaigns.CampaignStepEngine;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -32,23 +35,64 @@ public class InactivoReengagementScheduler {
     private static final int INTERVAL_MONTHS = 6;
     private static final Duration INTERVAL = Duration.ofDays(INTERVAL_MONTHS * 30L);
 
-    private final ContactProfileRepository contactProfileRepository;
+    private static final String NOT_CAPPED = """
+        status = '%s'
+           AND reengagement_email_count < %d
+        """.formatted(TARGET_STATUS, MAX_EMAILS).strip();
+
+    private static final String INTERVAL_ELAPSED = """
+        (last_reengagement_email_at IS NULL
+                OR last_reengagement_email_at <= NOW() - make_interval(days => %d))
+        """.formatted(INTERVAL.toDays()).strip();
+
+    private static final String CLAIM = """
+        UPDATE beworking.contact_profiles cp
+           SET reengagement_email_count = cp.reengagement_email_count + 1,
+               last_reengagement_email_at = NOW()
+         WHERE cp.id IN (
+               SELECT id FROM beworking.contact_profiles
+                WHERE %s
+                  AND %s
+                  AND nullif(trim(email_primary), '') IS NOT NULL
+                ORDER BY id
+                LIMIT ?
+                  FOR UPDATE SKIP LOCKED)
+        RETURNING cp.id, cp.email_primary AS email, cp.name, cp.reengagement_email_count AS step
+        """.formatted(NOT_CAPPED, INTERVAL_ELAPSED);
+
+    /** Counted before claiming, while claimable rows still look due. */
+    private static final String COUNT_CANDIDATES = """
+        SELECT count(*) AS total,
+               count(*) FILTER (WHERE %1$s AND NOT %2$s) AS not_due,
+               count(*) FILTER (WHERE %1$s AND %2$s AND nullif(trim(email_primary), '') IS NULL) AS skipped
+          FROM beworking.contact_profiles
+         WHERE status = '%3$s'
+        """.formatted(NOT_CAPPED, INTERVAL_ELAPSED, TARGET_STATUS);
+
+    private final CampaignStepEngine campaignStepEngine;
+    private final JdbcTemplate jdbcTemplate;
     private final EmailService emailService;
+    private final ScheduledJobRunner jobRunner;
 
-    public InactivoReengagementScheduler(ContactProfileRepository contactProfileRepository,
-                                         EmailService emailService) {
-        this.contactProfileRepository = contactProfileRepository;
+    public InactivoReengagementScheduler(CampaignStepEngine campaignStepEngine, JdbcTemplate jdbcTemplate,
+                                         EmailService emailService, ScheduledJobRunner jobRunner) {
+        this.campaignStepEngine = campaignStepEngine;
+        this.jdbcTemplate = jdbcTemplate;
         this.emailService = emailService;
+        this.jobRunner = jobRunner;
     }
 
     // 02:00 UTC on the 1st of each month.
     @Scheduled(cron = "0 0 2 1 * *")
     public void sendReengagementEmails() {
-        RunResult result = runOnce();
-        // Unattended cron: reengagement emails go 1:1 to the customer (no BCC).
-        // Send a single run-summary to info@ so the team knows it fired.
-        emailService.sendReengagementCronSummary(
-            result.sent(), result.skipped(), result.notDue(), result.totalCandidates());
+        jobRunner.runScheduled("reengagement", () -> {
+            RunResult result = runOnce();
+            // Unattended cron: reengagement emails go 1:1 to the customer (no BCC).
+            // Send a single run-summary to info@ so the team knows it fired.
+            emailService.sendReengagementCronSummary(
+                result.sent(), result.skipped(), result.notDue(), result.totalCandidates());
+            return result;
+        });
     }
 
     /**
@@ -56,41 +100,26 @@ public class InactivoReengagementScheduler {
      * "Ejecutar ahora" button. Returns counts so the UI can show feedback.
      */
     public RunResult runOnce() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ContactProfile> candidates = contactProfileRepository.findByStatus(TARGET_STATUS);
+        Map<String, Object> counts = jdbcTemplate.queryForMap(COUNT_CANDIDATES);
+        int skipped = ((Number) counts.get("skipped")).intValue();
+        int notDue = ((Number) counts.get("not_due")).intValue();
+        int total = ((Number) counts.get("total")).intValue();
 
-        int sent = 0;
-        int skipped = 0;
-        int notDue = 0;
-
-        for (ContactProfile cp : candidates) {
-            int alreadySent = cp.getReengagementEmailCount();
-            if (alreadySent >= MAX_EMAILS) {
-                continue;
-            }
-            LocalDateTime last = cp.getLastReengagementEmailAt();
-            if (last != null && Duration.between(last, now).compareTo(INTERVAL) < 0) {
-                notDue++;
-                continue;
-            }
-            String email = cp.getEmailPrimary();
-            if (email == null || email.isBlank()) {
-                skipped++;
-                continue;
-            }
-            cp.setReengagementEmailCount(alreadySent + 1);
-            cp.setLastReengagementEmailAt(now);
-            contactProfileRepository.save(cp);
-            emailService.sendReengagementEmail(email, cp.getName(), cp.getId(), alreadySent + 1);
-            sent++;
-        }
+        int sent = campaignStepEngine.run("reengagement", CLAIM, recipient ->
+            emailService.queueReengagementEmail(recipient.email(), recipient.name(),
+                ((Number) recipient.id()).longValue(), recipient.step()));
 
         if (sent > 0 || skipped > 0) {
             logger.info("Reengagement cron: sent={} skipped={} notDue={} candidates={}",
-                sent, skipped, notDue, candidates.size());
+                sent, skipped, notDue, total);
         }
-        return new RunResult(sent, skipped, notDue, candidates.size());
+        return new RunResult(sent, skipped, notDue, total);
     }
 
-    public record RunResult(int sent, int skipped, int notDue, int totalCandidates) {}
+    public record RunResult(int sent, int skipped, int notDue, int totalCandidates) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return sent;
+        }
+    }
 }
@@ -1,9 +1,10 @@
 package com.beworking.contacts;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +18,8 @@ import org.springframework.stereotype.Component;
  *
  * Anyone who paid in the meantime was already promoted to Activo by
  * InvoiceService — they're filtered out by the status check below.
+ *
+ * Single SQL UPDATE; idempotent.
  */
 @Component
 public class PotencialAgingScheduler {
@@ -26,39 +29,40 @@ public class PotencialAgingScheduler {
     private static final String TO_STATUS = "Inactivo";
     private static final int AGING_DAYS = 7;
 
-    private final ContactProfileRepository contactProfileRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledJobRunner jobRunner;
 
-    public PotencialAgingScheduler(ContactProfileRepository contactProfileRepository) {
-        this.contactProfileRepository = contactProfileRepository;
+    public PotencialAgingScheduler(JdbcTemplate jdbcTemplate, ScheduledJobRunner jobRunner) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRunner = jobRunner;
     }
 
     // 03:00 UTC every day, after the recovery cron has had its last window.
     @Scheduled(cron = "0 0 3 * * *")
     public void ageOutPotenciales() {
-        runOnce();
+        jobRunner.runScheduled("potencialAging", this::runOnce);
     }
 
     public RunResult runOnce() {
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(AGING_DAYS);
-        List<ContactProfile> stale = contactProfileRepository
-            .findByStatusAndCreatedAtLessThan(FROM_STATUS, cutoff);
-
-        if (stale.isEmpty()) {
-            return new RunResult(0);
-        }
+        int flipped = jdbcTemplate.update("""
+            UPDATE beworking.contact_profiles
+               SET status = ?,
+                   status_changed_at = NOW()
+             WHERE status = ?
+               AND created_at < NOW() - (? * INTERVAL '1 day')
+            """, TO_STATUS, FROM_STATUS, AGING_DAYS);
 
-        LocalDateTime now = LocalDateTime.now();
-        int flipped = 0;
-        for (ContactProfile cp : stale) {
-            cp.setStatus(TO_STATUS);
-            cp.setStatusChangedAt(now);
-            contactProfileRepository.save(cp);
-            flipped++;
+        if (flipped > 0) {
+            logger.info("Aging cron: flipped {} contacts from {} to {} (older than {} days)",
+                flipped, FROM_STATUS, TO_STATUS, AGING_DAYS);
         }
-        logger.info("Aging cron: flipped {} contacts from {} to {} (older than {} days)",
-            flipped, FROM_STATUS, TO_STATUS, AGING_DAYS);
         return new RunResult(flipped);
     }
 
-    public record RunResult(int flipped) {}
+    public record RunResult(int flipped) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return flipped;
+        }
+    }
 }
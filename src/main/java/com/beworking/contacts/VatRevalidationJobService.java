@@ -0,0 +1,256 @@
+package com.beworking.contacts;
+
+import com.beworking.tax.TaxIdNormalizer;
+import com.beworking.tax.ViesGateway;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background VIES revalidation of every contact whose VAT status isn't
+ * confirmed TRUE. Replaces the old request-thread reseed (findAll + serial
+ * calls with a global 1s sleep, ~33 min for ~2,000 contacts).
+ *
+ * <ul>
+ *   <li>Candidates are selected in SQL (tax id present, vat_valid not TRUE,
+ *       not validated since the run's cutoff).</li>
+ *   <li>Contacts are grouped by normalized tax id ({@link TaxIdNormalizer}) —
+ *       one VIES call per distinct number, the outcome applied to every
+ *       contact sharing it.</li>
+ *   <li>Each member state is worked by its own task; up to
+ *       {@code app.vies.revalidation.parallel-countries} states run at once.
+ *       Calls go through {@link ViesGateway#validateFresh}, so VIES is asked
+ *       again rather than the result cache, every contact gets its own audit
+ *       row, and each call is throttled by that state's bucket.</li>
+ *   <li>Counters land in {@code beworking.vat_revalidation_jobs} after every
+ *       tax id; a run whose row goes quiet is resumed by
+ *       {@link #resumeStaleJobs()} — processed contacts drop out of the
+ *       candidate query by themselves.</li>
+ * </ul>
+ */
+@Service
+public class VatRevalidationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VatRevalidationJobService.class);
+
+    static final Duration STALE_AFTER = Duration.ofMinutes(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ViesGateway viesGateway;
+    private final TaxIdNormalizer taxIdNormalizer;
+    private final ContactProfileService contactProfileService;
+    private final int parallelCountries;
+
+    public VatRevalidationJobService(JdbcTemplate jdbcTemplate,
+                                     ViesGateway viesGateway,
+                                     TaxIdNormalizer taxIdNormalizer,
+                                     ContactProfileService contactProfileService,
+                                     @Value("${app.vies.revalidation.parallel-countries:4}") int parallelCountries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.viesGateway = viesGateway;
+        this.taxIdNormalizer = taxIdNormalizer;
+        this.contactProfileService = contactProfileService;
+        this.parallelCountries = Math.max(1, parallelCountries);
+    }
+
+    /** A distinct normalized tax id and the contacts carrying it. */
+    record TaxIdGroup(String country, String taxId, List<Long> contactIds) {}
+
+    /**
+     * Registers a run and starts it off the request thread.
+     *
+     * @return the job id, or empty if a run is already in flight.
+     */
+    public Optional<UUID> start(String startedBy) {
+        UUID id = UUID.randomUUID();
+        LocalDateTime cutoff = LocalDateTime.now();
+        try {
+            jdbcTemplate.update("""
+                INSERT INTO beworking.vat_revalidation_jobs (id, status, candidate_cutoff, started_by)
+                VALUES (?, 'RUNNING', ?, ?)
+                """, id, Timestamp.valueOf(cutoff), startedBy);
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+        launch(id, cutoff);
+        return Optional.of(id);
+    }
+
+    public Optional<Map<String, Object>> findJob(UUID id) {
+        try {
+            return Optional.of(jdbcTemplate.queryForMap(
+                "SELECT * FROM beworking.vat_revalidation_jobs WHERE id = ?", id));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    public List<Map<String, Object>> listRecent(int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT * FROM beworking.vat_revalidation_jobs ORDER BY started_at DESC LIMIT ?", limit);
+    }
+
+    /** Adopts runs whose owner stopped heartbeating; the conditional UPDATE is the claim. */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void resumeStaleJobs() {
+        List<Map<String, Object>> stale = jdbcTemplate.queryForList("""
+            SELECT id, candidate_cutoff FROM beworking.vat_revalidation_jobs
+             WHERE status = 'RUNNING' AND updated_at < now() - make_interval(secs => ?)
+            """, STALE_AFTER.toSeconds());
+        for (Map<String, Object> row : stale) {
+            UUID id = (UUID) row.get("id");
+            int claimed = jdbcTemplate.update("""
+                UPDATE beworking.vat_revalidation_jobs SET updated_at = now()
+                 WHERE id = ? AND status = 'RUNNING' AND updated_at < now() - make_interval(secs => ?)
+                """, id, STALE_AFTER.toSeconds());
+            if (claimed == 1) {
+                logger.info("Resuming VIES revalidation job {}", id);
+                launch(id, ((Timestamp) row.get("candidate_cutoff")).toLocalDateTime());
+            }
+        }
+    }
+
+    private void launch(UUID id, LocalDateTime cutoff) {
+        Thread coordinator = new Thread(() -> run(id, cutoff), "vies-revalidation");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    void run(UUID id, LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        ExecutorService pool = null;
+        try {
+            Map<String, List<TaxIdGroup>> byCountry = loadCandidates(cutoff);
+            int remaining = byCountry.values().stream()
+                .flatMap(List::stream).mapToInt(g -> g.contactIds().size()).sum();
+            jdbcTemplate.update("""
+                UPDATE beworking.vat_revalidation_jobs
+                   SET total = processed + ?, updated_at = now()
+                 WHERE id = ?
+                """, remaining, id);
+            logger.info("VIES revalidation {}: {} contacts across {} member states",
+                id, remaining, byCountry.size());
+
+            if (!byCountry.isEmpty()) {
+                pool = Executors.newFixedThreadPool(Math.min(parallelCountries, byCountry.size()));
+                List<Future<?>> futures = new ArrayList<>();
+                for (List<TaxIdGroup> groups : byCountry.values()) {
+                    futures.add(pool.submit(() -> {
+                        for (TaxIdGroup group : groups) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedException();
+                            }
+                            process(id, group);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            }
+            jdbcTemplate.update("""
+                UPDATE beworking.vat_revalidation_jobs
+                   SET status = 'COMPLETED', finished_at = now(), updated_at = now()
+                 WHERE id = ?
+                """, id);
+            logger.info("VIES revalidation {} completed in {}s", id, (System.currentTimeMillis() - start) / 1000);
+        } catch (InterruptedException e) {
+            // Shutdown: leave the row RUNNING so it is resumed.
+            Thread.currentThread().interrupt();
+            logger.warn("VIES revalidation {} interrupted; will resume", id);
+        } catch (Exception e) {
+            logger.error("VIES revalidation {} failed", id, e);
+            jdbcTemplate.update("""
+                UPDATE beworking.vat_revalidation_jobs
+                   SET status = 'FAILED', error = ?, finished_at = now(), updated_at = now()
+                 WHERE id = ?
+                """, e.getMessage(), id);
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+    }
+
+    /** Stale candidates grouped by member state, then by normalized tax id. */
+    Map<String, List<TaxIdGroup>> loadCandidates(LocalDateTime cutoff) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+            SELECT id, billing_tax_id, billing_country
+              FROM beworking.contact_profiles
+             WHERE billing_tax_id IS NOT NULL AND btrim(billing_tax_id) <> ''
+               AND vat_valid IS DISTINCT FROM TRUE
+               AND (vat_validated_at IS NULL OR vat_validated_at < ?)
+             ORDER BY id
+            """, Timestamp.valueOf(cutoff));
+
+        Map<String, Map<String, List<Long>>> grouped = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            String key = taxIdNormalizer.canonicalize(
+                (String) row.get("billing_tax_id"),
+                ViesVatService.countryNameToIso((String) row.get("billing_country")));
+            if (key == null || key.length() < 3) continue;
+            grouped.computeIfAbsent(key.substring(0, 2), c -> new LinkedHashMap<>())
+                .computeIfAbsent(key, k -> new ArrayList<>())
+                .add(((Number) row.get("id")).longValue());
+        }
+
+        Map<String, List<TaxIdGroup>> out = new LinkedHashMap<>();
+        grouped.forEach((country, byKey) -> {
+            List<TaxIdGroup> groups = new ArrayList<>(byKey.size());
+            byKey.forEach((key, ids) -> groups.add(new TaxIdGroup(country, key, ids)));
+            out.put(country, groups);
+        });
+        return out;
+    }
+
+    private void process(UUID jobId, TaxIdGroup group) {
+        int validated = 0, invalid = 0, unreachable = 0, errors = 0;
+        ViesGateway.Result result;
+        try {
+            result = viesGateway.validateFresh(group.contactIds(), group.taxId(), group.country()).result();
+        } catch (Exception e) {
+            logger.warn("VIES revalidation: {} failed: {}", group.taxId(), e.getMessage());
+            result = ViesGateway.Result.UNREACHABLE;
+        }
+        for (Long contactId : group.contactIds()) {
+            try {
+                contactProfileService.applyViesOutcome(contactId, result);
+                switch (result) {
+                    case VALID -> validated++;
+                    case INVALID -> invalid++;
+                    case UNREACHABLE -> unreachable++;
+                }
+            } catch (Exception e) {
+                errors++;
+                logger.warn("VIES revalidation: contact {} failed: {}", contactId, e.getMessage());
+            }
+        }
+        jdbcTemplate.update("""
+            UPDATE beworking.vat_revalidation_jobs
+               SET processed = processed + ?,
+                   vies_calls = vies_calls + 1,
+                   validated = validated + ?,
+                   invalid = invalid + ?,
+                   unreachable = unreachable + ?,
+                   errors = errors + ?,
+                   updated_at = now()
+             WHERE id = ?
+            """, group.contactIds().size(), validated, invalid, unreachable, errors, jobId);
+    }
+}
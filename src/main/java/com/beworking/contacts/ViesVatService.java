@@ -33,15 +33,21 @@ public class ViesVatService {
         this.restTemplate = new RestTemplate(factory);
     }
 
-    public record VatValidationResult(boolean valid, String name, String address, String error) {
+    /**
+     * Outcome of one VIES check. {@code serviceError} marks results where VIES
+     * itself could not answer (timeout, 5xx, member-state DB down) — those are
+     * NOT a verdict on the number and must never be stored as vat_valid=FALSE.
+     */
+    public record VatValidationResult(boolean valid, String name, String address, String error,
+                                      boolean serviceError) {
         public static VatValidationResult valid(String name, String address) {
-            return new VatValidationResult(true, name, address, null);
+            return new VatValidationResult(true, name, address, null, false);
         }
         public static VatValidationResult invalid(String error) {
-            return new VatValidationResult(false, null, null, error);
+            return new VatValidationResult(false, null, null, error, false);
         }
         public static VatValidationResult serviceError(String error) {
-            return new VatValidationResult(false, null, null, error);
+            return new VatValidationResult(false, null, null, error, true);
         }
     }
 
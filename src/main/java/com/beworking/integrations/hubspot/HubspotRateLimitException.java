@@ -0,0 +1,18 @@
+package com.beworking.integrations.hubspot;
+
+import java.time.Duration;
+
+/** HubSpot answered 429; nothing in the request was applied. */
+public class HubspotRateLimitException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public HubspotRateLimitException(Duration retryAfter) {
+        super("HubSpot rate limit exceeded, retry after " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,170 +1,146 @@
+package com.beworking.integrations.hubspot;
 
-package com.beworking.integrations.hubspot; // Import for Hubspot integration service
-
-import com.beworking.leads.Lead; 
-import com.beworking.leads.LeadRepository;
+import com.beworking.leads.Lead;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.slf4j.Logger; 
-import org.slf4j.LoggerFactory; 
-import org.springframework.beans.factory.annotation.Value; // Import for Value annotation to inject properties from application.properties
-import org.springframework.http.*;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * HubSpot CRM client. Contacts are written through the batch upsert endpoint
+ * keyed on email, so one call creates or updates up to
+ * {@link #MAX_BATCH_SIZE} leads and an existing contact is no longer a 409 to
+ * recover from. The underlying JDK {@link HttpClient} is built once and keeps
+ * its connections alive between calls.
+ */
 @Service
 public class HubspotService {
     private static final Logger log = LoggerFactory.getLogger(HubspotService.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
-    private final LeadRepository leadRepository;
 
-    @Value("${hubspot.api.baseUrl:https://api.hubapi.com}")
-    private String hubspotBaseUrl;
-    @Value("${hubspot.api.token:${beworking.api.token:}}")
-    private String hubspotToken;
+    static final String BATCH_UPSERT_PATH = "/crm/v3/objects/contacts/batch/upsert";
 
-    public HubspotService(LeadRepository leadRepository) {
-        this.leadRepository = leadRepository;
-    }
-    
-    //Sync a lead with HubSpot. Return a HubspotSyncResult with status, id, and error message if any.
-
-    public HubspotSyncResult syncLead(Lead lead) {
-        log.info("HubspotService.synclead stub called for lead id={}", lead.getId());
-        if (log.isDebugEnabled()) {
-            log.debug("HubSpot config → baseUrl={}, tokenPrefix={}", hubspotBaseUrl,
-                hubspotToken != null && hubspotToken.length() >= 8 ? hubspotToken.substring(0, 8) : "(none)");
-        }
-        try {
-            if (hubspotToken == null || hubspotToken.isBlank()) {
-                String message = "Missing HubSpot API token. Set hubspot.api.token or HUBSPOT_API_TOKEN.";
-                log.warn(message);
-                return new HubspotSyncResult(false, null, message);
-            }
-            RestTemplate restTemplate = new RestTemplate();
-            String url = hubspotBaseUrl + "/crm/v3/objects/contacts";
+    /** HubSpot rejects batch requests with more inputs than this. */
+    public static final int MAX_BATCH_SIZE = 100;
 
-            // Build properties map without null values (Map.of throws NPE on null);
-            // phone is now optional on contact-form leads.
-            Map<String, Object> properties = new HashMap<>();
-            properties.put("email", lead.getEmail());
-            properties.put("firstname", lead.getName());
-            if (lead.getPhone() != null && !lead.getPhone().isBlank()) {
-                properties.put("phone", lead.getPhone());
-            }
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("properties", properties);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(hubspotToken);
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(10);
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(url, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+    private final RestClient http;
+    private final String hubspotToken;
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Object id = response.getBody().get("id");
-                return new HubspotSyncResult(true, id != null ? id.toString() : null, null);
-            }else {
-                return new HubspotSyncResult(false, null, "Non-2xx response: " + response.getStatusCode());
-            }
-        
-        } catch (Exception e) {
-            if (e instanceof org.springframework.web.client.HttpClientErrorException httpError) {
-                if (httpError.getStatusCode() == HttpStatus.CONFLICT) {
-                    var existingId = extractExistingId(httpError.getResponseBodyAsString());
-                    if (existingId.isPresent()) {
-                        log.info("Contact already exists in HubSpot with id={}, attempting update", existingId.get());
-                        if (updateExistingContact(existingId.get(), lead)) {
-                            return new HubspotSyncResult(true, existingId.get(), null);
-                        }
-                    }
-                }
-                log.error("Error syncing lead to Hubspot: status={} body={}", httpError.getStatusCode(), httpError.getResponseBodyAsString(), httpError);
-                return new HubspotSyncResult(false, null, "HubSpot API error: " + httpError.getStatusCode());
-            }
-            log.error("Error syncing lead to Hubspot", e);
-            return new HubspotSyncResult(false, null, e.getMessage());
-        } 
+    public HubspotService(@Value("${hubspot.api.baseUrl:https://api.hubapi.com}") String hubspotBaseUrl,
+                          @Value("${hubspot.api.token:${beworking.api.token:}}") String hubspotToken) {
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(client);
+        requestFactory.setReadTimeout(Duration.ofSeconds(30));
+        this.http = RestClient.builder()
+            .baseUrl(hubspotBaseUrl)
+            .requestFactory(requestFactory)
+            .build();
+        this.hubspotToken = hubspotToken;
     }
 
-    private Optional<String> extractExistingId(String responseBody) {
-        if (responseBody == null || responseBody.isBlank()) {
-            return Optional.empty();
-        }
-        try {
-            JsonNode node = OBJECT_MAPPER.readTree(responseBody);
-            if (node.has("message")) {
-                String message = node.get("message").asText("");
-                int markerIndex = message.indexOf("Existing ID:");
-                if (markerIndex >= 0) {
-                    String id = message.substring(markerIndex + "Existing ID:".length()).trim();
-                    if (!id.isEmpty()) {
-                        return Optional.of(id);
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            log.debug("Unable to parse HubSpot conflict response", ex);
-        }
-        return Optional.empty();
+    public boolean isConfigured() {
+        return hubspotToken != null && !hubspotToken.isBlank();
     }
 
-    private boolean updateExistingContact(String hubspotId, Lead lead) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            String url = hubspotBaseUrl + "/crm/v3/objects/contacts/" + hubspotId;
+    /**
+     * Outcome of one batch upsert, keyed by lower-cased email: the HubSpot
+     * contact id for each contact written, the error message for each one
+     * HubSpot rejected.
+     */
+    public record BatchResult(Map<String, String> idsByEmail, Map<String, String> errorsByEmail) {
+    }
 
+    /**
+     * Creates or updates one contact per distinct email in {@code leads}
+     * (the last lead wins when emails repeat) in a single call.
+     *
+     * @throws HubspotRateLimitException on 429; nothing was written.
+     * @throws org.springframework.web.client.RestClientException on any other
+     *         non-2xx or I/O failure.
+     */
+    public BatchResult upsertContacts(List<Lead> leads) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("Missing HubSpot API token. Set hubspot.api.token or HUBSPOT_API_TOKEN.");
+        }
+        Map<String, Map<String, Object>> inputsByEmail = new LinkedHashMap<>();
+        for (Lead lead : leads) {
+            String email = normalize(lead.getEmail());
             Map<String, Object> properties = new HashMap<>();
+            properties.put("email", email);
             properties.put("firstname", lead.getName());
             if (lead.getPhone() != null && !lead.getPhone().isBlank()) {
                 properties.put("phone", lead.getPhone());
             }
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("properties", properties);
+            inputsByEmail.put(email, Map.of("idProperty", "email", "id", email, "properties", properties));
+        }
+        if (inputsByEmail.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " contacts per HubSpot batch");
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(hubspotToken);
+        JsonNode response;
+        try {
+            response = http.post()
+                .uri(BATCH_UPSERT_PATH)
+                .headers(headers -> headers.setBearerAuth(hubspotToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("inputs", new ArrayList<>(inputsByEmail.values())))
+                .retrieve()
+                .body(JsonNode.class);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new HubspotRateLimitException(retryAfter(e.getResponseHeaders()));
+        }
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.PATCH, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Updated existing HubSpot contact {}", hubspotId);
-                return true;
+        Map<String, String> ids = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        if (response != null) {
+            for (JsonNode result : response.path("results")) {
+                String email = normalize(result.path("properties").path("email").asText(null));
+                if (email != null && result.hasNonNull("id")) {
+                    ids.put(email, result.get("id").asText());
+                }
+            }
+            for (JsonNode error : response.path("errors")) {
+                String message = error.path("message").asText("HubSpot rejected the contact");
+                for (JsonNode id : error.path("context").path("ids")) {
+                    errors.put(normalize(id.asText()), message);
+                }
             }
-            log.warn("Failed to update existing HubSpot contact {}. Status={}", hubspotId, response.getStatusCode());
-        } catch (Exception ex) {
-            log.error("Error updating existing HubSpot contact {}", hubspotId, ex);
         }
-        return false;
+        log.info("HubSpot batch upsert: {} contacts sent, {} written, {} rejected",
+            inputsByEmail.size(), ids.size(), errors.size());
+        return new BatchResult(ids, errors);
     }
 
-    // Simple result class for sync operation
-    public static class HubspotSyncResult {
-        private boolean success;
-        private String hubspotId;
-        private String error;
-
-        public HubspotSyncResult(boolean success, String hubspotId, String error) {
-            this.success = success;
-            this.hubspotId = hubspotId;
-            this.error = error;
-        }
+    static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 
-        // Patch: add isSuccess() and getId() for compatibility
-        public boolean isSuccess() {
-            return success;
-        }
-        public String getId() {
-            return hubspotId;
-        }
-        public String getError() {
-            return error;
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value != null) {
+            try {
+                return Duration.ofSeconds(Math.max(1, Long.parseLong(value.trim())));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; fall back to the default pause
+            }
         }
-
+        return DEFAULT_RETRY_AFTER;
     }
 }
@@ -0,0 +1,183 @@
+package com.beworking.integrations.hubspot;
+
+import com.beworking.leads.Lead;
+import com.beworking.leads.LeadRepository;
+import com.beworking.leads.SyncStatus;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Pushes leads to HubSpot in batches. Each run collects leads that were never
+ * synced or whose last failure has waited out its backoff, and sends them to
+ * {@link HubspotService#upsertContacts} in chunks of
+ * {@code hubspot.sync.batch-size}, so a burst of form submissions costs a few
+ * calls instead of one per lead.
+ *
+ * A failed lead is retried after {@code hubspot.sync.retry-base} doubled per
+ * attempt (capped at a day) and is left FAILED once
+ * {@code hubspot.sync.max-attempts} is reached. A 429 pauses the worker for
+ * HubSpot's Retry-After without charging an attempt to anyone. Any other 4xx
+ * is bisected down to the lead that caused it, so one malformed lead does not
+ * hold back the rest of its batch; a 5xx or I/O failure backs off the whole
+ * batch. Upserts are keyed on email, so two replicas pushing the same lead
+ * are harmless.
+ *
+ * Outcomes are written back with a batched UPDATE of the hubspot_* columns
+ * only. The leads were loaded before the HubSpot round-trip, and saving the
+ * entities would overwrite whatever the nurture cron or an admin changed on
+ * them meanwhile (status, nurture counters).
+ */
+@Component
+class HubspotSyncWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(HubspotSyncWorker.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofDays(1);
+
+    static final String UPDATE_SYNC_SQL = """
+        UPDATE beworking.leads
+           SET hubspot_sync_status = ?, hubspot_id = ?, hubspot_error = ?, hubspot_synced_at = ?,
+               hubspot_sync_attempts = ?, last_hubspot_attempt_at = ?, hubspot_next_attempt_at = ?
+         WHERE id = ?
+        """;
+
+    private final HubspotService hubspotService;
+    private final LeadRepository leadRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBase;
+
+    private volatile Instant pausedUntil = Instant.EPOCH;
+
+    HubspotSyncWorker(HubspotService hubspotService, LeadRepository leadRepository, JdbcTemplate jdbcTemplate,
+                      @Value("${hubspot.sync.batch-size:100}") int batchSize,
+                      @Value("${hubspot.sync.max-attempts:8}") int maxAttempts,
+                      @Value("${hubspot.sync.retry-base:PT1M}") Duration retryBase) {
+        this.hubspotService = hubspotService;
+        this.leadRepository = leadRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.min(batchSize, HubspotService.MAX_BATCH_SIZE);
+        this.maxAttempts = maxAttempts;
+        this.retryBase = retryBase;
+    }
+
+    @Scheduled(fixedDelayString = "${hubspot.sync.interval:PT30S}")
+    void syncDue() {
+        if (!hubspotService.isConfigured()) {
+            return;
+        }
+        try {
+            while (Instant.now().isAfter(pausedUntil)) {
+                List<Lead> due = leadRepository.findDueForHubspotSync(maxAttempts, Instant.now(), Limit.of(batchSize));
+                if (due.isEmpty()) {
+                    return;
+                }
+                push(due);
+                if (due.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("HubSpot sync run failed: {}", e.getMessage());
+        }
+    }
+
+    void push(List<Lead> leads) {
+        Instant now = Instant.now();
+        HubspotService.BatchResult result;
+        try {
+            result = hubspotService.upsertContacts(leads);
+        } catch (HubspotRateLimitException e) {
+            pausedUntil = now.plus(e.getRetryAfter());
+            log.warn("HubSpot rate limit hit; pausing lead sync for {}s", e.getRetryAfter().toSeconds());
+            return;
+        } catch (HttpClientErrorException e) {
+            // A 4xx rejects the whole request without naming the lead at fault,
+            // so split the batch until the bad input is alone and fail only it.
+            if (leads.size() > 1) {
+                int half = leads.size() / 2;
+                log.info("HubSpot rejected a batch of {} leads ({}); retrying in halves", leads.size(), e.getStatusCode());
+                push(leads.subList(0, half));
+                if (Instant.now().isAfter(pausedUntil)) {
+                    push(leads.subList(half, leads.size()));
+                }
+                return;
+            }
+            log.warn("HubSpot rejected lead {}: {}", leads.get(0).getId(), e.getMessage());
+            markFailed(leads.get(0), e.getMessage(), now);
+            saveSyncState(leads);
+            return;
+        } catch (Exception e) {
+            // 5xx or I/O: nothing says the input is wrong, so back the whole batch off.
+            log.warn("HubSpot batch upsert of {} leads failed: {}", leads.size(), e.getMessage());
+            leads.forEach(lead -> markFailed(lead, e.getMessage(), now));
+            saveSyncState(leads);
+            return;
+        }
+
+        for (Lead lead : leads) {
+            String email = HubspotService.normalize(lead.getEmail());
+            String hubspotId = result.idsByEmail().get(email);
+            if (hubspotId != null) {
+                lead.setHubspotSyncStatus(SyncStatus.SYNCED);
+                lead.setHubspotId(hubspotId);
+                lead.setHubspotError(null);
+                lead.setHubspotSyncedAt(now);
+                lead.setHubspotNextAttemptAt(null);
+                lead.setHubspotSyncAttempts(attempts(lead) + 1);
+                lead.setLastHubspotAttemptAt(now);
+            } else {
+                markFailed(lead, result.errorsByEmail().getOrDefault(email, "Missing from HubSpot batch response"), now);
+            }
+        }
+        saveSyncState(leads);
+    }
+
+    private void saveSyncState(List<Lead> leads) {
+        List<Object[]> rows = leads.stream()
+            .map(lead -> new Object[] {
+                lead.getHubspotSyncStatus() == null ? null : lead.getHubspotSyncStatus().name(),
+                lead.getHubspotId(),
+                lead.getHubspotError(),
+                timestamp(lead.getHubspotSyncedAt()),
+                lead.getHubspotSyncAttempts(),
+                timestamp(lead.getLastHubspotAttemptAt()),
+                timestamp(lead.getHubspotNextAttemptAt()),
+                lead.getId()})
+            .toList();
+        jdbcTemplate.batchUpdate(UPDATE_SYNC_SQL, rows);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private void markFailed(Lead lead, String error, Instant now) {
+        int attempts = attempts(lead) + 1;
+        lead.setHubspotSyncStatus(SyncStatus.FAILED);
+        lead.setHubspotError(error);
+        lead.setHubspotSyncAttempts(attempts);
+        lead.setLastHubspotAttemptAt(now);
+        lead.setHubspotNextAttemptAt(attempts < maxAttempts ? now.plus(backoff(attempts)) : null);
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = retryBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static int attempts(Lead lead) {
+        return lead.getHubspotSyncAttempts() == null ? 0 : lead.getHubspotSyncAttempts();
+    }
+}
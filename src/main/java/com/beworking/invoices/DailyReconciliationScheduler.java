@@ -1,6 +1,8 @@
 package com.beworking.invoices;
 
 import com.beworking.auth.EmailService;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -33,19 +35,22 @@ public class DailyReconciliationScheduler {
     private final RestClient http;
     private final String paymentsBaseUrl;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledJobRunner jobRunner;
 
     public DailyReconciliationScheduler(JdbcTemplate jdbcTemplate,
                                         EmailService emailService,
-                                        @Value("${app.payments.base-url:}") String paymentsBaseUrl) {
+                                        @Value("${app.payments.base-url:}") String paymentsBaseUrl,
+                                        ScheduledJobRunner jobRunner) {
         this.jdbcTemplate = jdbcTemplate;
         this.emailService = emailService;
         this.paymentsBaseUrl = paymentsBaseUrl;
         this.http = RestClient.create();
+        this.jobRunner = jobRunner;
     }
 
      @Scheduled(cron = "0 0 5 * * *")
       public void runDailyReconciliation() {
-          runOnce();
+          jobRunner.runScheduled("reconciliation", this::runOnce);
       }
   
       public RunResult runOnce() {
@@ -771,5 +776,10 @@ public class DailyReconciliationScheduler {
             return hasSubIssues() || hasInvoiceIssues();
         }
     }
-          public record RunResult(int accountsRun, int missingInvoices, int pastDue, int deviation, boolean issuesFound) {}
+    public record RunResult(int accountsRun, int missingInvoices, int pastDue, int deviation, boolean issuesFound) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return missingInvoices + pastDue + deviation;
+        }
+    }
 }
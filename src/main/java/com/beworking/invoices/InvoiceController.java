@@ -2,7 +2,7 @@ package com.beworking.invoices;
 
 import com.beworking.auth.EmailService;
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.util.List;
@@ -10,13 +10,11 @@ import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -36,22 +34,20 @@ public class InvoiceController {
     private final InvoiceService invoiceService;
     private final InvoicePdfService pdfService;
     private final EmailService emailService;
-    private final UserRepository userRepository;
     private final InvoiceEmailService invoiceEmailService;
 
     public InvoiceController(InvoiceService invoiceService, InvoicePdfService pdfService,
-                             EmailService emailService, UserRepository userRepository,
+                             EmailService emailService,
                              InvoiceEmailService invoiceEmailService) {
         this.invoiceService = invoiceService;
         this.pdfService = pdfService;
         this.emailService = emailService;
-        this.userRepository = userRepository;
         this.invoiceEmailService = invoiceEmailService;
     }
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> list(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam(value = "page", defaultValue = "0") int page,
         @RequestParam(value = "size", defaultValue = "25") int size,
         @RequestParam(value = "name", required = false) String name,
@@ -67,11 +63,9 @@ public class InvoiceController {
         @RequestParam(value = "cuenta", required = false) String cuenta,
         @RequestParam(value = "sortDir", required = false, defaultValue = "desc") String sortDir
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        User user = userOpt.get();
 
         // Support both startDate/endDate and from/to parameter names
         String actualStartDate = startDate != null ? startDate : from;
@@ -131,14 +125,12 @@ public class InvoiceController {
 
     @PostMapping
     public ResponseEntity<?> createInvoice(
-        Authentication authentication,
+        AuthenticatedUser user,
         @Valid @RequestBody CreateInvoiceRequest request
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        User user = userOpt.get();
         if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -156,14 +148,12 @@ public class InvoiceController {
 
     @PostMapping("/manual")
     public ResponseEntity<Map<String, Object>> createManualInvoice(
-        Authentication authentication,
+        AuthenticatedUser user,
         @Valid @RequestBody CreateManualInvoiceRequest request
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        User user = userOpt.get();
         if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -180,14 +170,13 @@ public class InvoiceController {
 
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getInvoice(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (!userOpt.get().isStaff()) {
+        if (!user.isStaff()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -203,15 +192,14 @@ public class InvoiceController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateInvoice(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id,
         @Valid @RequestBody CreateManualInvoiceRequest request
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -232,15 +220,14 @@ public class InvoiceController {
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<Map<String, Object>> updateStatus(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id,
         @RequestBody Map<String, String> body
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -298,15 +285,14 @@ public class InvoiceController {
 
     @GetMapping("/payment-info")
     public ResponseEntity<Map<String, Object>> getPaymentInfo(
-        Authentication authentication,
+        AuthenticatedUser user,
         @RequestParam("contactId") Long contactId,
         @RequestParam(value = "cuenta", required = false) String cuenta
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -324,15 +310,14 @@ public class InvoiceController {
 
     @PostMapping("/{id}/credit")
     public ResponseEntity<Map<String, Object>> creditInvoice(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id,
         @RequestBody(required = false) Map<String, Object> body
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -368,14 +353,13 @@ public class InvoiceController {
 
     @PostMapping("/{id}/send-email")
     public ResponseEntity<Map<String, Object>> sendInvoiceEmail(
-        Authentication authentication,
+        AuthenticatedUser user,
         @PathVariable Long id
     ) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -393,12 +377,11 @@ public class InvoiceController {
     }
 
     @GetMapping("/orphaned-bloqueos")
-    public ResponseEntity<Map<String, Object>> findOrphanedBloqueos(Authentication authentication) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+    public ResponseEntity<Map<String, Object>> findOrphanedBloqueos(AuthenticatedUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -410,12 +393,11 @@ public class InvoiceController {
     }
 
     @PostMapping("/orphaned-bloqueos/fix")
-    public ResponseEntity<Map<String, Object>> fixOrphanedBloqueos(Authentication authentication) {
-        Optional<User> userOpt = resolveUser(authentication);
-        if (userOpt.isEmpty()) {
+    public ResponseEntity<Map<String, Object>> fixOrphanedBloqueos(AuthenticatedUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (userOpt.get().getRole() != User.Role.ADMIN) {
+        if (user.getRole() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -432,11 +414,4 @@ public class InvoiceController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-
-    private Optional<User> resolveUser(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return Optional.empty();
-        }
-        return userRepository.findByEmail(authentication.getName());
-    }
 }
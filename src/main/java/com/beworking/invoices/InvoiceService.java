@@ -54,6 +54,8 @@ public class InvoiceService {
     private final CuentaService cuentaService;
     private final com.beworking.contacts.ContactProfileService contactProfileService;
     private final com.beworking.tax.TaxResolver taxResolver;
+    private final com.beworking.tax.ContactTaxProfileCache taxProfileCache;
+    private final com.beworking.bookings.OccupancyTimeline occupancyTimeline;
     private final BillingSnapshotService billingSnapshotService;
     private final String paymentsBaseUrl;
 
@@ -63,6 +65,8 @@ public class InvoiceService {
             CuentaService cuentaService,
             @org.springframework.context.annotation.Lazy com.beworking.contacts.ContactProfileService contactProfileService,
             com.beworking.tax.TaxResolver taxResolver,
+            com.beworking.tax.ContactTaxProfileCache taxProfileCache,
+            com.beworking.bookings.OccupancyTimeline occupancyTimeline,
             BillingSnapshotService billingSnapshotService,
             @Value("${app.payments.base-url:}") String paymentsBaseUrl) {
         this.jdbcTemplate = jdbcTemplate;
@@ -71,6 +75,8 @@ public class InvoiceService {
         this.cuentaService = cuentaService;
         this.contactProfileService = contactProfileService;
         this.taxResolver = taxResolver;
+        this.taxProfileCache = taxProfileCache;
+        this.occupancyTimeline = occupancyTimeline;
         this.billingSnapshotService = billingSnapshotService;
         this.paymentsBaseUrl = paymentsBaseUrl;
     }
@@ -568,6 +574,7 @@ public class InvoiceService {
             "UPDATE beworking.bloqueos SET estado = 'Invoiced', edicion_fecha = ? WHERE id IN (" + placeholders + ")",
             updateArgs.toArray()
         );
+        occupancyTimeline.refreshBloqueos(bloqueoIds);
 
         // Auto-update contact status to "Activo" when invoiced
         jdbcTemplate.update("""
@@ -726,12 +733,14 @@ public class InvoiceService {
                 return;
             }
 
-            jdbcTemplate.update("""
+            Integer revivedId = jdbcTemplate.queryForObject("""
                 INSERT INTO beworking.subscriptions
                     (contact_id, monthly_amount, currency, cuenta, description, vat_percent,
                      start_date, active, created_at, billing_method, billing_interval, producto_id)
                 VALUES (?, ?, ?, 'PT', ?, ?, CURRENT_DATE, TRUE, NOW(), ?, ?, ?)
+                RETURNING id
                 """,
+                Integer.class,
                 contactId,
                 prior.get("monthly_amount"),
                 prior.get("currency") != null ? prior.get("currency") : "EUR",
@@ -740,6 +749,10 @@ public class InvoiceService {
                 prior.get("billing_method") != null ? prior.get("billing_method") : "bank_transfer",
                 prior.get("billing_interval") != null ? prior.get("billing_interval") : "month",
                 prior.get("producto_id"));
+            // Raw insert bypasses the Subscription entity listeners — drop the cached
+            // locked rate and put the revived desk back on the occupancy timeline by hand.
+            taxProfileCache.evict(contactId);
+            occupancyTimeline.refreshSubscription(revivedId);
 
             logger.info("ensureSubscriptionAfterPayment: revived sub on PT for contact {} (cloned from latest cancelled sub)", contactId);
         } catch (Exception e) {
@@ -761,29 +774,32 @@ public class InvoiceService {
     }
 
     private void syncBloqueosPaidByStripeInvoice(String stripeInvoiceId) {
-        jdbcTemplate.update("""
+        occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
             UPDATE beworking.bloqueos b SET estado = 'Pagado'
             FROM beworking.facturasdesglose fd
             JOIN beworking.facturas f ON f.idfactura = fd.idfacturadesglose
             WHERE fd.idbloqueovinculado = b.id AND f.stripeinvoiceid = ? AND b.estado <> 'Pagado'
-            """, stripeInvoiceId);
+            RETURNING b.id
+            """, Long.class, stripeInvoiceId));
     }
 
     private void syncBloqueosPaidByInvoiceNum(String invoiceNum) {
-        jdbcTemplate.update("""
+        occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
             UPDATE beworking.bloqueos b SET estado = 'Pagado'
             FROM beworking.facturasdesglose fd
             JOIN beworking.facturas f ON f.idfactura = fd.idfacturadesglose
             WHERE fd.idbloqueovinculado = b.id AND f.holdedinvoicenum = ? AND b.estado <> 'Pagado'
-            """, invoiceNum);
+            RETURNING b.id
+            """, Long.class, invoiceNum));
     }
 
     private void syncBloqueosPaidByIdfactura(int idfactura) {
-        jdbcTemplate.update("""
+        occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
             UPDATE beworking.bloqueos b SET estado = 'Pagado'
             FROM beworking.facturasdesglose fd
             WHERE fd.idbloqueovinculado = b.id AND fd.idfacturadesglose = ? AND b.estado <> 'Pagado'
-            """, idfactura);
+            RETURNING b.id
+            """, Long.class, idfactura));
     }
 
     @Transactional
@@ -796,13 +812,14 @@ public class InvoiceService {
         }
 
         if ("Pagado".equals(normalized)) {
-            jdbcTemplate.update("""
+            occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
                 UPDATE beworking.bloqueos b SET estado = 'Pagado'
                 FROM beworking.facturasdesglose fd
                 WHERE fd.idbloqueovinculado = b.id
                   AND fd.factura_id = ?
                   AND b.estado <> 'Pagado'
-                """, id);
+                RETURNING b.id
+                """, Long.class, id));
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -1366,18 +1383,20 @@ public class InvoiceService {
                     "DELETE FROM beworking.bloqueos WHERE id IN (" + placeholders + ")",
                     linkedBloqueoIds.toArray()
                 );
+                occupancyTimeline.refreshBloqueos(linkedBloqueoIds);
             }
         } else {
-            jdbcTemplate.update(
+            occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList(
                 """
                 UPDATE beworking.bloqueos SET estado = 'Booked'
                 WHERE id IN (
                     SELECT fd.idbloqueovinculado FROM beworking.facturasdesglose fd
                     WHERE fd.idfacturadesglose = ? AND fd.idbloqueovinculado IS NOT NULL
                   )
+                RETURNING id
                 """,
-                origLegacy
-            );
+                Long.class, origLegacy
+            ));
         }
 
         // Stripe: refund if paid, void invoice if not paid
@@ -1644,24 +1663,12 @@ public class InvoiceService {
         if (contactId == null) return 21;
 
         // Single source of truth: TaxResolver (lock-in first, fresh compute fallback).
-        try {
-            Integer lockedRate = jdbcTemplate.queryForObject(
-                "SELECT vat_percent FROM beworking.subscriptions "
-                + "WHERE contact_id = ? AND active = TRUE AND vat_percent IS NOT NULL "
-                + "ORDER BY id LIMIT 1",
-                Integer.class, contactId);
-            if (lockedRate != null) return lockedRate;
-        } catch (EmptyResultDataAccessException ignored) {}
+        Optional<Integer> lockedRate = taxResolver.lockedRateFor(contactId);
+        if (lockedRate.isPresent()) return lockedRate.get();
 
         contactProfileService.ensureVatValidated(contactId);
 
-        String cuenta = "PT";
-        try {
-            String c = jdbcTemplate.queryForObject(
-                "SELECT cuenta FROM beworking.subscriptions WHERE contact_id = ? AND active = true ORDER BY id DESC LIMIT 1",
-                String.class, contactId);
-            if (c != null && !c.isBlank()) cuenta = c;
-        } catch (EmptyResultDataAccessException ignored) {}
+        String cuenta = taxResolver.activeCuentaFor(contactId).orElse("PT");
         return taxResolver.computeFreshForContact(contactId, cuenta);
     }
 
@@ -1914,6 +1921,7 @@ public class InvoiceService {
                         "UPDATE beworking.bloqueos SET estado = 'Invoiced', edicion_fecha = NOW() WHERE id IN (" + placeholders + ")",
                         linkedBloqueoIds.toArray()
                     );
+                    occupancyTimeline.refreshBloqueos(linkedBloqueoIds);
                 }
             }
 
@@ -2020,11 +2028,12 @@ public class InvoiceService {
                                     WHERE id = ?
                                     """, piId, piStatus, paymentMethodId, nextInternalId);
                                 // Sync linked bloqueos to Pagado
-                                jdbcTemplate.update("""
+                                occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
                                     UPDATE beworking.bloqueos b SET estado = 'Pagado'
                                     FROM beworking.facturasdesglose fd
                                     WHERE fd.idbloqueovinculado = b.id AND fd.idfacturadesglose = ? AND b.estado <> 'Pagado'
-                                    """, invoiceId);
+                                    RETURNING b.id
+                                    """, Long.class, invoiceId));
                                 normalizedStatus = "Pagado";
                                 paymentMethod = "card_charged";
                                 cardCharged = true;
@@ -1,6 +1,8 @@
 package com.beworking.invoices;
 
 import com.beworking.auth.EmailService;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -23,16 +25,19 @@ public class MeetingRoomReconciliationScheduler {
 
     private final MeetingRoomReconciliationService service;
     private final EmailService emailService;
+    private final ScheduledJobRunner jobRunner;
 
     public MeetingRoomReconciliationScheduler(MeetingRoomReconciliationService service,
-                                              EmailService emailService) {
+                                              EmailService emailService,
+                                              ScheduledJobRunner jobRunner) {
         this.service = service;
         this.emailService = emailService;
+        this.jobRunner = jobRunner;
     }
 
     @Scheduled(cron = "0 30 5 * * *")
     public void runScheduled() {
-        runOnce();
+        jobRunner.runScheduled("meetingRoomReconciliation", this::runOnce);
     }
 
     public RunResult runOnce() {
@@ -126,5 +131,10 @@ public class MeetingRoomReconciliationScheduler {
         return String.format(Locale.ROOT, "€%,.2f", n);
     }
 
-    public record RunResult(int facturasPastDue, BigDecimal totalAmount, boolean emailSent) {}
+    public record RunResult(int facturasPastDue, BigDecimal totalAmount, boolean emailSent) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return facturasPastDue;
+        }
+    }
 }
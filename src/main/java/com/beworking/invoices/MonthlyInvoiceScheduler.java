@@ -4,6 +4,8 @@ import com.beworking.auth.EmailService;
 import com.beworking.bookings.Bloqueo;
 import com.beworking.bookings.BloqueoRepository;
 import com.beworking.contacts.ContactProfile;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
@@ -11,6 +13,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -43,6 +46,7 @@ public class MonthlyInvoiceScheduler {
     private final com.beworking.tax.TaxResolver taxResolver;
     private final RestClient http;
     private final String paymentsBaseUrl;
+    private final ScheduledJobRunner jobRunner;
 
     public MonthlyInvoiceScheduler(BloqueoRepository bloqueoRepository,
                                    InvoiceService invoiceService,
@@ -50,7 +54,8 @@ public class MonthlyInvoiceScheduler {
                                    JdbcTemplate jdbcTemplate,
                                    @org.springframework.context.annotation.Lazy com.beworking.contacts.ContactProfileService contactProfileService,
                                    com.beworking.tax.TaxResolver taxResolver,
-                                   @Value("${app.payments.base-url:}") String paymentsBaseUrl) {
+                                   @Value("${app.payments.base-url:}") String paymentsBaseUrl,
+                                   ScheduledJobRunner jobRunner) {
         this.bloqueoRepository = bloqueoRepository;
         this.invoiceService = invoiceService;
         this.emailService = emailService;
@@ -59,6 +64,7 @@ public class MonthlyInvoiceScheduler {
         this.taxResolver = taxResolver;
         this.http = RestClient.create();
         this.paymentsBaseUrl = paymentsBaseUrl;
+        this.jobRunner = jobRunner;
     }
 
     /**
@@ -68,7 +74,7 @@ public class MonthlyInvoiceScheduler {
      */
      @Scheduled(cron = "0 0 5 28 * *")
       public void invoiceCurrentMonth() {
-          runOnce();
+          jobRunner.runScheduled("monthlyInvoice", this::runOnce);
       }
   
       public RunResult runOnce() {
@@ -265,14 +271,8 @@ public class MonthlyInvoiceScheduler {
         // Single source of truth: TaxResolver consults sub.vat_percent first
         // (lock-in), then falls back to fresh compute. JIT VIES happens here
         // as a side effect for the legacy path only.
-        try {
-            Integer lockedRate = jdbcTemplate.queryForObject(
-                "SELECT vat_percent FROM beworking.subscriptions "
-                + "WHERE contact_id = ? AND active = TRUE AND vat_percent IS NOT NULL "
-                + "ORDER BY id LIMIT 1",
-                Integer.class, contactId);
-            if (lockedRate != null) return lockedRate;
-        } catch (EmptyResultDataAccessException ignored) {}
+        Optional<Integer> lockedRate = taxResolver.lockedRateFor(contactId);
+        if (lockedRate.isPresent()) return lockedRate.get();
 
         contactProfileService.ensureVatValidated(contactId);
         return taxResolver.computeFreshForContact(contactId, cuenta);
@@ -327,5 +327,10 @@ public class MonthlyInvoiceScheduler {
             logger.error("Failed to send status email for {}: {}", month, e.getMessage(), e);
         }
     }
-    public record RunResult(int success, int failed) {}
+    public record RunResult(int success, int failed) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return success + failed;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.beworking.invoices;
 
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -23,15 +24,18 @@ public class ReconciliationController {
     private final MeetingRoomReconciliationService meetingRoomService;
     private final RestClient http = RestClient.create();
     private final String paymentsBaseUrl;
+    private final ScheduledJobRunner jobRunner;
 
     public ReconciliationController(JdbcTemplate jdbcTemplate,
                                     DailyReconciliationScheduler scheduler,
                                     MeetingRoomReconciliationService meetingRoomService,
-                                    @Value("${app.payments.base-url:}") String paymentsBaseUrl) {
+                                    @Value("${app.payments.base-url:}") String paymentsBaseUrl,
+                                    ScheduledJobRunner jobRunner) {
         this.jdbcTemplate = jdbcTemplate;
         this.scheduler = scheduler;
         this.meetingRoomService = meetingRoomService;
         this.paymentsBaseUrl = paymentsBaseUrl;
+        this.jobRunner = jobRunner;
     }
 
     @GetMapping("/meeting-rooms")
@@ -260,27 +264,26 @@ public class ReconciliationController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Starts a reconciliation run in the background (it calls Stripe per
+     * account and can outlast the load balancer's timeout). Poll
+     * {@code statusUrl} for the outcome; 409 while a run is in progress.
+     */
     @PostMapping("/run")
     public ResponseEntity<Map<String, Object>> triggerRun() {
-        long t0 = System.currentTimeMillis();
         try {
-            scheduler.runDailyReconciliation();
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                "status", "error",
-                "message", "Reconciliation failed: " + e.getClass().getSimpleName() + ": " + (e.getMessage() != null ? e.getMessage() : ""),
-                "durationMs", System.currentTimeMillis() - t0
+            long runId = jobRunner.submit("reconciliation", scheduler::runOnce);
+            return ResponseEntity.accepted().body(Map.of(
+                "status", "started",
+                "message", "Reconciliation started",
+                "runId", runId,
+                "statusUrl", "/api/admin/automation/runs/" + runId
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "status", "rejected",
+                "message", e.getMessage()
             ));
         }
-        // Count rows persisted today to verify the run actually saved
-        Integer rowsToday = jdbcTemplate.queryForObject(
-            "SELECT COUNT(*) FROM beworking.reconciliation_results WHERE run_date = CURRENT_DATE",
-            Integer.class);
-        return ResponseEntity.ok(Map.of(
-            "status", "ok",
-            "message", "Reconciliation triggered",
-            "rowsToday", rowsToday != null ? rowsToday : 0,
-            "durationMs", System.currentTimeMillis() - t0
-        ));
     }
 }
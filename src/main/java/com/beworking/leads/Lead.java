@@ -78,6 +78,10 @@ public class Lead {
     @Column(name = "last_hubspot_attempt_at")
     private Instant lastHubspotAttemptAt;
 
+    // Earliest time HubspotSyncWorker may retry a failed sync (V107).
+    @Column(name = "hubspot_next_attempt_at")
+    private Instant hubspotNextAttemptAt;
+
 
     // Getters and Setters
 
@@ -168,6 +172,13 @@ public class Lead {
         this.lastHubspotAttemptAt = lastHubspotAttemptAt;
     }
 
+    public Instant getHubspotNextAttemptAt() {
+        return hubspotNextAttemptAt;
+    }
+    public void setHubspotNextAttemptAt(Instant hubspotNextAttemptAt) {
+        this.hubspotNextAttemptAt = hubspotNextAttemptAt;
+    }
+
     // Patch: add setHubspotAttemptAt for compatibility
     public void setHubspotAttemptAt(Instant instant) {
         this.lastHubspotAttemptAt = instant;
@@ -1,5 +1,7 @@
 package com.beworking.leads;
 
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -28,15 +30,17 @@ public class LeadAgingScheduler {
     private static final int AGING_DAYS = 30;
 
     private final JdbcTemplate jdbcTemplate;
+    private final ScheduledJobRunner jobRunner;
 
-    public LeadAgingScheduler(JdbcTemplate jdbcTemplate) {
+    public LeadAgingScheduler(JdbcTemplate jdbcTemplate, ScheduledJobRunner jobRunner) {
         this.jdbcTemplate = jdbcTemplate;
+        this.jobRunner = jobRunner;
     }
 
     // 02:30 UTC every day, after the contact-funnel crons (03:00 / 04:00).
     @Scheduled(cron = "0 30 2 * * *")
     public void ageOutStaleContactado() {
-        runOnce();
+        jobRunner.runScheduled("leadAging", this::runOnce);
     }
 
     public RunResult runOnce() {
@@ -56,5 +60,10 @@ public class LeadAgingScheduler {
         return new RunResult(flipped);
     }
 
-    public record RunResult(int flipped) {}
+    public record RunResult(int flipped) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return flipped;
+        }
+    }
 }
@@ -22,7 +22,8 @@ import com.beworking.leads.SanitizationUtils;
  *   persisting: it strips HTML from the name via {@link SanitizationUtils#sanitizeText(String)},
  *   trims the email, and normalizes the phone via {@link SanitizationUtils#sanitizePhone(String)}.
  * - After saving the lead, a {@link LeadCreatedEvent} is published so background listeners (email,
- *   HubSpot sync, etc.) can react asynchronously.
+ *   etc.) can react asynchronously. HubSpot picks the lead up from its unsynced state on the next
+ *   HubspotSyncWorker run.
  *
  * <p>Testing notes:
  * - Tests that exercise this controller should send values that pass bean validation (trimmed
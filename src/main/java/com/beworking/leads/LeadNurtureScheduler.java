@@ -1,11 +1,13 @@
 package com.beworking.leads;
 
 import com.beworking.auth.EmailService;
+import com.beworking.campaigns.CampaignStepEngine;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -27,6 +29,7 @@ import org.springframework.stereotype.Component;
  *
  * Each send bumps {@code nurture_email_count} and stamps
  * {@code last_nurture_email_at} so the cadence is exact and re-runs are safe.
+ * Both happen in the claiming UPDATE run by {@link CampaignStepEngine}.
  */
 @Component
 public class LeadNurtureScheduler {
@@ -47,65 +50,69 @@ public class LeadNurtureScheduler {
         Duration.ofDays(6)        // #4
     };
 
-    private final LeadRepository leadRepository;
+    /** 'Contactado' leads inside the window whose next email is due. */
+    private static final String DUE = """
+        status = '%s'
+           AND nurture_email_count < %d
+           AND status_changed_at >= NOW() - make_interval(days => %d)
+           AND status_changed_at <= NOW() - %s
+        """.formatted(TARGET_STATUS, MAX_EMAILS, NURTURE_WINDOW.toDays(),
+            CampaignStepEngine.stepDelay("nurture_email_count", DELAY_AFTER_STATUS_CHANGE)).strip();
+
+    private static final String CLAIM = """
+        UPDATE beworking.leads l
+           SET nurture_email_count = l.nurture_email_count + 1,
+               last_nurture_email_at = NOW()
+         WHERE l.id IN (
+               SELECT id FROM beworking.leads
+                WHERE %s
+                  AND nullif(trim(email), '') IS NOT NULL
+                ORDER BY id
+                LIMIT ?
+                  FOR UPDATE SKIP LOCKED)
+        RETURNING l.id, l.email, l.name, l.nurture_email_count AS step
+        """.formatted(DUE);
+
+    private static final String COUNT_SKIPPED = """
+        SELECT count(*) FROM beworking.leads
+         WHERE %s
+           AND nullif(trim(email), '') IS NULL
+        """.formatted(DUE);
+
+    private final CampaignStepEngine campaignStepEngine;
+    private final JdbcTemplate jdbcTemplate;
     private final EmailService emailService;
+    private final ScheduledJobRunner jobRunner;
 
-    public LeadNurtureScheduler(LeadRepository leadRepository, EmailService emailService) {
-        this.leadRepository = leadRepository;
+    public LeadNurtureScheduler(CampaignStepEngine campaignStepEngine, JdbcTemplate jdbcTemplate,
+                                EmailService emailService, ScheduledJobRunner jobRunner) {
+        this.campaignStepEngine = campaignStepEngine;
+        this.jdbcTemplate = jdbcTemplate;
         this.emailService = emailService;
+        this.jobRunner = jobRunner;
     }
 
     @Scheduled(cron = "0 0 * * * *")
     public void sendNurtureEmails() {
-        runOnce();
+        jobRunner.runScheduled("leadNurture", this::runOnce);
     }
 
     public RunResult runOnce() {
-        Instant now = Instant.now();
-        Instant windowStart = now.minus(NURTURE_WINDOW);
-
-        List<Lead> candidates = leadRepository
-            .findByStatusAndStatusChangedAtGreaterThanEqualAndNurtureEmailCountLessThan(
-                TARGET_STATUS, windowStart, MAX_EMAILS);
-
-        int sent = 0;
-        int skipped = 0;
+        int sent = campaignStepEngine.run("leadNurture", CLAIM, recipient ->
+            emailService.queueLeadNurtureEmail(recipient.email(), recipient.name(), recipient.step()));
+        Integer skipped = jdbcTemplate.queryForObject(COUNT_SKIPPED, Integer.class);
+        int skippedCount = skipped == null ? 0 : skipped;
 
-        for (Lead lead : candidates) {
-            int alreadySent = lead.getNurtureEmailCount();
-            if (alreadySent >= MAX_EMAILS) {
-                continue;
-            }
-            Instant statusChangedAt = lead.getStatusChangedAt();
-            if (statusChangedAt == null) {
-                skipped++;
-                continue;
-            }
-            Duration elapsed = Duration.between(statusChangedAt, now);
-            if (elapsed.compareTo(DELAY_AFTER_STATUS_CHANGE[alreadySent]) < 0) {
-                continue;
-            }
-            String email = lead.getEmail();
-            if (email == null || email.isBlank()) {
-                skipped++;
-                continue;
-            }
-
-            int templateNumber = alreadySent + 1;
-            lead.setNurtureEmailCount(templateNumber);
-            lead.setLastNurtureEmailAt(now);
-            leadRepository.save(lead);
-
-            emailService.sendLeadNurtureEmail(email, lead.getName(), templateNumber);
-            sent++;
+        if (sent > 0 || skippedCount > 0) {
+            logger.info("Lead nurture cron: sent={} skipped={}", sent, skippedCount);
         }
+        return new RunResult(sent, skippedCount, sent + skippedCount);
+    }
 
-        if (sent > 0 || skipped > 0) {
-            logger.info("Lead nurture cron: sent={} skipped={} candidates={}",
-                sent, skipped, candidates.size());
+    public record RunResult(int sent, int skipped, int totalCandidates) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return sent;
         }
-        return new RunResult(sent, skipped, candidates.size());
     }
-
-    public record RunResult(int sent, int skipped, int totalCandidates) {}
 }
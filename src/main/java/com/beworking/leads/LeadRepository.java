@@ -1,5 +1,6 @@
 package com.beworking.leads;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -45,9 +46,15 @@ public interface LeadRepository extends JpaRepository<Lead, UUID> {
     Page<Lead> searchByPattern(@Param("pattern") String pattern, Pageable pageable);
 
     /**
-     * Nurture cron candidates: leads still in 'Contactado' that became so
-     * within the email window and haven't yet hit the 4-email cap.
+     * Leads HubspotSyncWorker should push now: never synced, or failed with
+     * attempts left and their backoff elapsed. Oldest first.
      */
-    List<Lead> findByStatusAndStatusChangedAtGreaterThanEqualAndNurtureEmailCountLessThan(
-        String status, Instant since, int maxEmails);
+    @Query("""
+        select l from Lead l
+        where (l.hubspotSyncStatus is null or l.hubspotSyncStatus <> com.beworking.leads.SyncStatus.SYNCED)
+          and coalesce(l.hubspotSyncAttempts, 0) < :maxAttempts
+          and (l.hubspotNextAttemptAt is null or l.hubspotNextAttemptAt <= :now)
+        order by l.createdAt
+        """)
+    List<Lead> findDueForHubspotSync(@Param("maxAttempts") int maxAttempts, @Param("now") Instant now, Limit limit);
 }
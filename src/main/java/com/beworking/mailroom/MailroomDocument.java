@@ -72,6 +72,12 @@ public class MailroomDocument {
     @Column(name = "file_size_bytes")
     private Long fileSizeBytes;
 
+    // Maintained with plain UPDATEs by MailroomPreviewService, so saving a
+    // stale entity never resets it; defaults to PENDING in the database.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "preview_status", length = 16, insertable = false, updatable = false)
+    private MailroomPreviewStatus previewStatus;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -146,6 +152,10 @@ public class MailroomDocument {
         this.pickupCode = pickupCode;
     }
 
+    public MailroomPreviewStatus getPreviewStatus() {
+        return previewStatus;
+    }
+
     public Instant getPickedUpAt() {
         return pickedUpAt;
     }
@@ -1,50 +1,63 @@
 package com.beworking.mailroom;
 
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.contacts.ContactProfileService;
+import com.beworking.storage.DirectUploadRequest;
+import com.beworking.storage.DirectUploadService;
+import com.beworking.storage.PresignedUpload;
+import com.beworking.storage.StoredObjectResponses;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import org.springframework.core.io.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/mailroom/documents")
 public class MailroomDocumentController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MailroomDocumentController.class);
+
     private final MailroomDocumentService service;
-    private final UserRepository userRepository;
     private final ContactProfileService contactService;
     private final MailroomAnnouncementService announcementService;
+    private final DirectUploadService directUploadService;
+    private final MailroomPreviewService previewService;
 
-    public MailroomDocumentController(MailroomDocumentService service, UserRepository userRepository,
+    public MailroomDocumentController(MailroomDocumentService service,
                                       ContactProfileService contactService,
-                                      MailroomAnnouncementService announcementService) {
+                                      MailroomAnnouncementService announcementService,
+                                      DirectUploadService directUploadService,
+                                      MailroomPreviewService previewService) {
         this.service = service;
-        this.userRepository = userRepository;
         this.contactService = contactService;
         this.announcementService = announcementService;
+        this.directUploadService = directUploadService;
+        this.previewService = previewService;
     }
 
     /**
@@ -56,8 +69,7 @@ public class MailroomDocumentController {
     @PostMapping("/announcement")
     public ResponseEntity<?> sendAnnouncement(
             @RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -77,9 +89,8 @@ public class MailroomDocumentController {
 
     @GetMapping
     public ResponseEntity<List<MailroomDocumentResponse>> listDocuments(
-            Authentication authentication,
+            AuthenticatedUser user,
             @RequestParam(value = "contactEmail", required = false) String contactEmailParam) {
-        User user = resolveUser(authentication);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -92,7 +103,7 @@ public class MailroomDocumentController {
             }
         } else {
             // Non-admin: ALWAYS scoped to own email; client-supplied contactEmail ignored.
-            contactEmail = resolveOwnEmail(user);
+            contactEmail = contactService.resolveOwnEmail(user);
             if (contactEmail == null) {
                 return ResponseEntity.ok(List.of());
             }
@@ -112,9 +123,8 @@ public class MailroomDocumentController {
             @RequestParam(value = "contactEmail", required = false) String contactEmail,
             @RequestParam(value = "autoNotify", required = false, defaultValue = "false") boolean autoNotify,
             @RequestParam(value = "documentType", required = false) String documentType,
-            Authentication authentication
+            AuthenticatedUser user
     ) {
-        User user = resolveUser(authentication);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -125,7 +135,7 @@ public class MailroomDocumentController {
         MailroomDocumentResponse created = service.createDocument(
                 file,
                 title,
-                resolveSender(authentication),
+                user.getEmail(),
                 parseInstant(receivedAt),
                 tenantId,
                 pages,
@@ -134,23 +144,92 @@ public class MailroomDocumentController {
                 documentType
         );
 
-        if (autoNotify && created.id() != null) {
-            try {
-                created = service.markDocumentNotified(created.id());
-            } catch (Exception e) {
-                // Don't fail the upload if notification fails
-                System.err.println("Auto-notify failed for document " + created.id() + ": " + e.getMessage());
-            }
+        return ResponseEntity.status(HttpStatus.CREATED).body(autoNotify ? notifyQuietly(created) : created);
+    }
+
+    /**
+     * Phase one of a direct upload: returns a presigned PUT (S3) or a one-time
+     * local upload URL for the scan, so its bytes skip the API.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<PresignedUpload> initiateUpload(@RequestBody DirectUploadRequest request,
+                                                          AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (user.getRole() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(directUploadService.initiate("mailroom", request.fileName(),
+                    request.contentType(), request.sizeBytes(), user.getEmail()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** Phase two: verifies the uploaded object and creates the document, as the multipart upload does. */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<MailroomDocumentResponse> completeUpload(
+            @PathVariable UUID uploadId,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "receivedAt", required = false) String receivedAt,
+            @RequestParam(value = "tenantId", required = false) String tenantId,
+            @RequestParam(value = "pages", required = false) Integer pages,
+            @RequestParam(value = "avatarColor", required = false) String avatarColor,
+            @RequestParam(value = "contactEmail", required = false) String contactEmail,
+            @RequestParam(value = "autoNotify", required = false, defaultValue = "false") boolean autoNotify,
+            @RequestParam(value = "documentType", required = false) String documentType,
+            AuthenticatedUser user
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (user.getRole() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Instant received = parseInstant(receivedAt);
+        MailroomDocumentResponse created;
+        try {
+            created = directUploadService.complete(uploadId, "mailroom", user.getEmail(), storedFile ->
+                    service.registerDocument(
+                            storedFile,
+                            title,
+                            user.getEmail(),
+                            received,
+                            tenantId,
+                            pages,
+                            StringUtils.hasText(avatarColor) ? avatarColor : null,
+                            contactEmail,
+                            documentType
+                    ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.CREATED).body(autoNotify ? notifyQuietly(created) : created);
+    }
+
+    private MailroomDocumentResponse notifyQuietly(MailroomDocumentResponse created) {
+        if (created.id() == null) {
+            return created;
+        }
+        try {
+            return service.markDocumentNotified(created.id());
+        } catch (Exception e) {
+            // Don't fail the upload if notification fails
+            logger.warn("Auto-notify failed for document {}: {}", created.id(), e.getMessage());
+            return created;
+        }
     }
 
     @PostMapping("/{id}/notify")
     public ResponseEntity<MailroomDocumentResponse> markNotified(
             @PathVariable("id") UUID documentId,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -164,8 +243,7 @@ public class MailroomDocumentController {
     @PostMapping("/{id}/view")
     public ResponseEntity<MailroomDocumentResponse> markViewed(
             @PathVariable("id") UUID documentId,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -179,8 +257,7 @@ public class MailroomDocumentController {
     @PostMapping("/verify-pickup")
     public ResponseEntity<MailroomDocumentResponse> verifyPickup(
             @RequestParam("code") String code,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -194,8 +271,7 @@ public class MailroomDocumentController {
     @PostMapping("/{id}/pickup")
     public ResponseEntity<MailroomDocumentResponse> markPickedUp(
             @PathVariable("id") UUID documentId,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -209,8 +285,7 @@ public class MailroomDocumentController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDocument(
             @PathVariable("id") UUID documentId,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -222,10 +297,10 @@ public class MailroomDocumentController {
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadDocument(
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
             @PathVariable("id") UUID documentId,
-            Authentication authentication) {
-        User user = resolveUser(authentication);
+            @RequestHeader HttpHeaders requestHeaders,
+            AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -238,10 +313,31 @@ public class MailroomDocumentController {
                 .filename(download.originalFileName(), StandardCharsets.UTF_8)
                 .build();
 
-        return ResponseEntity.ok()
-                .contentType(mediaType)
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
-                .body(download.resource());
+        return StoredObjectResponses.serve(download.object(), requestHeaders, mediaType, contentDisposition);
+    }
+
+    /**
+     * First-page JPEG preview ({@code variant=preview}, default) or thumbnail
+     * ({@code variant=thumbnail}) of a document; 404 until it has been rendered
+     * (see {@link MailroomDocumentResponse#hasPreview()}). Same access rule as
+     * the download.
+     */
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<StreamingResponseBody> previewDocument(
+            @PathVariable("id") UUID documentId,
+            @RequestParam(value = "variant", defaultValue = "preview") String variant,
+            @RequestHeader HttpHeaders requestHeaders,
+            AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!canAccessDocument(user, documentId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return previewService.openPreview(documentId, "thumbnail".equalsIgnoreCase(variant))
+                .map(object -> StoredObjectResponses.serve(object, requestHeaders, MediaType.IMAGE_JPEG,
+                        ContentDisposition.inline().build()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -254,53 +350,15 @@ public class MailroomDocumentController {
         return ResponseEntity.badRequest().build();
     }
 
-    /** Loads the authenticated user from the verified token, or null if not authenticated/known. */
-    private User resolveUser(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        return userRepository.findByEmail(authentication.getName()).orElse(null);
-    }
-
-    /** The caller's OWN contact email, derived from their identity (never from request input). */
-    private String resolveOwnEmail(User user) {
-        if (user.getTenantId() != null) {
-            return user.getEmail();
-        }
-        final String[] emailHolder = {null};
-        contactService.findContactByEmail(user.getEmail()).ifPresent(contact -> {
-            emailHolder[0] = firstNonBlank(
-                contact.getEmailPrimary(),
-                contact.getEmailSecondary(),
-                contact.getEmailTertiary(),
-                contact.getRepresentativeEmail()
-            );
-        });
-        return emailHolder[0];
-    }
-
     /** Admins may touch any document; everyone else only their own. */
-    private boolean canAccessDocument(User user, UUID documentId) {
+    private boolean canAccessDocument(AuthenticatedUser user, UUID documentId) {
         if (user.getRole() == User.Role.ADMIN) {
             return true;
         }
-        String own = resolveOwnEmail(user);
+        String own = contactService.resolveOwnEmail(user);
         return own != null && service.isDocumentOwnedByEmail(documentId, own);
     }
 
-
-    private String firstNonBlank(String... values) {
-        if (values == null) {
-            return null;
-        }
-        for (String value : values) {
-            if (value != null && !value.isBlank()) {
-                return value;
-            }
-        }
-        return null;
-    }
-
     private Instant parseInstant(String value) {
         if (!StringUtils.hasText(value)) {
             return null;
@@ -311,15 +369,4 @@ public class MailroomDocumentController {
             return null;
         }
     }
-
-    private String resolveSender(Authentication authentication) {
-        if (authentication == null) {
-            return "System";
-        }
-        if (StringUtils.hasText(authentication.getName())) {
-            return authentication.getName();
-        }
-        Object principal = authentication.getPrincipal();
-        return principal != null ? principal.toString() : "System";
-    }
 }
@@ -1,9 +1,9 @@
 package com.beworking.mailroom;
 
-import org.springframework.core.io.Resource;
+import com.beworking.storage.StoredObject;
 
 public record MailroomDocumentDownload(
-        Resource resource,
+        StoredObject object,
         String originalFileName,
         String contentType
 ) {
@@ -3,7 +3,10 @@ package com.beworking.mailroom;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface MailroomDocumentRepository extends JpaRepository<MailroomDocument, UUID> {
     List<MailroomDocument> findTop100ByOrderByReceivedAtDescCreatedAtDesc();
@@ -14,10 +17,28 @@ public interface MailroomDocumentRepository extends JpaRepository<MailroomDocume
 
     boolean existsByPickupCode(String pickupCode);
 
-    default List<MailroomDocument> findRecentDocuments(UUID tenantId) {
-        if (tenantId != null) {
+    /** Documents for a tenant or addressed to an email (case-insensitive), newest first. */
+    @Query("""
+        SELECT d FROM MailroomDocument d
+         WHERE d.tenantId = :tenantId OR lower(d.contactEmail) = lower(:contactEmail)
+         ORDER BY d.receivedAt DESC, d.createdAt DESC
+        """)
+    List<MailroomDocument> findRecentForTenantOrEmail(@Param("tenantId") UUID tenantId,
+                                                      @Param("contactEmail") String contactEmail,
+                                                      Limit limit);
+
+    /**
+     * The 100 most recent documents visible to a tenant and/or recipient
+     * email; with neither, the 100 most recent overall. Filtering happens in
+     * the query, so the 100 are taken from the matching documents only.
+     */
+    default List<MailroomDocument> findRecentDocuments(UUID tenantId, String contactEmail) {
+        if (tenantId == null && contactEmail == null) {
+            return findTop100ByOrderByReceivedAtDescCreatedAtDesc();
+        }
+        if (contactEmail == null) {
             return findTop100ByTenantIdOrderByReceivedAtDescCreatedAtDesc(tenantId);
         }
-        return findTop100ByOrderByReceivedAtDescCreatedAtDesc();
+        return findRecentForTenantOrEmail(tenantId, contactEmail, Limit.of(100));
     }
 }
@@ -20,7 +20,8 @@
           String type,
           String pickupCode,
           Instant pickedUpAt,
-          String recipientPhone
+          String recipientPhone,
+          boolean hasPreview
   ) {
       public static MailroomDocumentResponse fromEntity(MailroomDocument document) {
           return new MailroomDocumentResponse(
@@ -40,7 +41,8 @@
                   document.getDocumentType() != null ? document.getDocumentType().toApiValue() : "mail",
                   document.getPickupCode(),
                   document.getPickedUpAt(),
-                  null
+                  null,
+                  document.getPreviewStatus() == MailroomPreviewStatus.READY
           );
       }
 
@@ -49,7 +51,7 @@
           return new MailroomDocumentResponse(
                   id, tenantId, title, sender, recipient, receivedAt, status, lastNotifiedAt,
                   pages, avatarColor, originalFileName, fileSizeBytes, contentType, type,
-                  pickupCode, pickedUpAt, phone
+                  pickupCode, pickedUpAt, phone, hasPreview
           );
       }
   }
@@ -14,9 +14,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.HashMap;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -46,56 +46,36 @@ public class MailroomDocumentService {
     private final FileStorage fileStorageService;
     private final EmailService emailService;
     private final ContactProfileService contactProfileService;
+    private final ApplicationEventPublisher eventPublisher;
     private final String appBaseUrl;
 
     public MailroomDocumentService(MailroomDocumentRepository repository, FileStorage fileStorageService,
             EmailService emailService, ContactProfileService contactProfileService,
+            ApplicationEventPublisher eventPublisher,
             @Value("${app.base-url:https://app.be-working.com}") String appBaseUrl) {
         this.repository = repository;
         this.fileStorageService = fileStorageService;
         this.emailService = emailService;
         this.contactProfileService = contactProfileService;
+        this.eventPublisher = eventPublisher;
         this.appBaseUrl = appBaseUrl;
     }
 
     public List<MailroomDocumentResponse> listRecentDocuments(UUID tenantId, String contactEmail) {
-        Map<String, String> phoneByEmail = new HashMap<>();
-        return repository.findRecentDocuments(tenantId).stream()
-                .filter(doc -> {
-                    if (tenantId == null && contactEmail == null) {
-                        return true;
-                    }
-                    if (tenantId != null && tenantId.equals(doc.getTenantId())) {
-                        return true;
-                    }
-                    if (contactEmail != null && doc.getContactEmail() != null) {
-                        return contactEmail.equalsIgnoreCase(doc.getContactEmail());
-                    }
-                    return false;
-                })
+        List<MailroomDocument> documents = repository.findRecentDocuments(tenantId, contactEmail);
+        Map<String, String> phoneByEmail = contactProfileService.findPhonesByEmails(
+                documents.stream().map(MailroomDocument::getContactEmail).toList());
+        return documents.stream()
                 .map(doc -> {
                     MailroomDocumentResponse response = MailroomDocumentResponse.fromEntity(doc);
                     String email = doc.getContactEmail();
                     if (email == null || email.isBlank()) {
                         return response;
                     }
-                    String phone = phoneByEmail.computeIfAbsent(
-                            email.toLowerCase(), key -> resolvePhoneForEmail(email));
-                    return response.withRecipientPhone(phone);
+                    return response.withRecipientPhone(phoneByEmail.get(email.trim().toLowerCase()));
                 })
                 .toList();
     }
-      
-    private String resolvePhoneForEmail(String email) {
-        return contactProfileService.findContactByEmail(email)
-                .map(contact -> firstNonBlank(
-                        contact.getPhonePrimary(),
-                        contact.getPhoneSecondary(),
-                        contact.getPhoneTertiary(),
-                        contact.getPhoneQuaternary(),
-                        contact.getRepresentativePhone()))
-                .orElse(null);
-    }
 
     private String firstNonBlank(String... values) {
         if (values == null) {
@@ -121,8 +101,26 @@ public class MailroomDocumentService {
             String contactEmail,
             String documentType
     ) {
-        StoredFile storedFile = fileStorageService.store(file);
+        return registerDocument(fileStorageService.store(file), title, sender, receivedAt, tenantId, pages,
+                avatarColor, contactEmail, documentType);
+    }
 
+    /**
+     * Creates the document row for a file already in storage — the tail of a
+     * multipart upload, or the confirm step of a direct upload.
+     */
+    @Transactional
+    public MailroomDocumentResponse registerDocument(
+            StoredFile storedFile,
+            String title,
+            String sender,
+            Instant receivedAt,
+            String tenantId,
+            Integer pages,
+            String avatarColor,
+            String contactEmail,
+            String documentType
+    ) {
         MailroomDocument document = new MailroomDocument();
         document.setTitle(resolveTitle(title, storedFile.originalFileName()));
         document.setSender(StringUtils.hasText(sender) ? sender : null);
@@ -161,6 +159,9 @@ public class MailroomDocumentService {
         }
 
         MailroomDocument persisted = repository.save(document);
+        // Previews are rendered, and the member told, in the background once this commits.
+        eventPublisher.publishEvent(new MailroomDocumentStoredEvent(persisted.getId(), persisted.getContactEmail(),
+                persisted.getTitle(), persisted.getDocumentType().name().toLowerCase()));
         return MailroomDocumentResponse.fromEntity(persisted);
     }
 
@@ -283,14 +284,14 @@ public class MailroomDocumentService {
 
     public MailroomDocumentDownload getDocumentDownload(UUID documentId) {
         MailroomDocument document = getDocumentOrThrow(documentId);
-        var resource = fileStorageService.loadAsResource(document.getStoredFileName());
+        var object = fileStorageService.open(document.getStoredFileName());
         String contentType = StringUtils.hasText(document.getContentType())
                 ? document.getContentType()
                 : MediaType.APPLICATION_OCTET_STREAM_VALUE;
         String originalName = StringUtils.hasText(document.getOriginalFileName())
                 ? document.getOriginalFileName()
                 : document.getTitle();
-        return new MailroomDocumentDownload(resource, originalName, contentType);
+        return new MailroomDocumentDownload(object, originalName, contentType);
     }
 
     private void sendDocumentNotificationEmail(MailroomDocument document) {
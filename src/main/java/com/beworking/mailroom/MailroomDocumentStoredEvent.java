@@ -0,0 +1,11 @@
+package com.beworking.mailroom;
+
+import java.util.UUID;
+
+/**
+ * Published when a document row has been created for a newly stored file.
+ * Carries the recipient and what the member list shows, so listeners that
+ * announce the arrival need not load the row.
+ */
+public record MailroomDocumentStoredEvent(UUID documentId, String contactEmail, String title, String documentType) {
+}
@@ -0,0 +1,292 @@
+package com.beworking.mailroom;
+
+import com.beworking.storage.FileStorage;
+import com.beworking.storage.StoredObject;
+import jakarta.annotation.PreDestroy;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Renders a first-page preview and a thumbnail for each mailroom document so
+ * the list can show mail without downloading the original. PDFs are rendered
+ * with PDFBox, images are scaled with ImageIO; both are written as JPEG next
+ * to the original ({@link FileStorage#PREVIEW_SUFFIX},
+ * {@link FileStorage#THUMBNAIL_SUFFIX}).
+ *
+ * Work runs on a small pool of its own ({@code app.mailroom.previews.workers}
+ * threads, {@code queue-size} waiting) once the upload commits, so neither
+ * the uploading request nor the scheduler thread renders. A periodic sweep
+ * queues anything still PENDING — documents from before previews existed,
+ * ones whose render was lost to a restart, or ones the full queue turned
+ * away. Since blobs are content-addressed, a file another document already
+ * rendered is not rendered again.
+ *
+ * Decoding is bounded by {@code app.mailroom.previews.max-pixels}: PDF pages
+ * are rendered at a scale that keeps the page under it, and images larger
+ * than it are subsampled while they are read, so a tall page or a huge scan
+ * cannot allocate an unbounded raster.
+ */
+@Service
+public class MailroomPreviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailroomPreviewService.class);
+
+    static final int PREVIEW_WIDTH = 1024;
+    static final int THUMBNAIL_WIDTH = 240;
+
+    private static final int SWEEP_BATCH_SIZE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorage fileStorage;
+    private final long maxPixels;
+    private final ThreadPoolExecutor renderers;
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    public MailroomPreviewService(JdbcTemplate jdbcTemplate, FileStorage fileStorage,
+                                  @Value("${app.mailroom.previews.workers:2}") int workers,
+                                  @Value("${app.mailroom.previews.queue-size:100}") int queueSize,
+                                  @Value("${app.mailroom.previews.max-pixels:16000000}") long maxPixels) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileStorage = fileStorage;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadId = new AtomicInteger();
+        this.renderers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), runnable -> {
+                Thread thread = new Thread(runnable, "mailroom-preview-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDocumentStored(MailroomDocumentStoredEvent event) {
+        submit(event.documentId());
+    }
+
+    /** Leaves fresh uploads to {@link #onDocumentStored} and queues whatever it missed. */
+    @Scheduled(fixedDelayString = "${app.mailroom.previews.sweep-interval:PT5M}")
+    void renderPending() {
+        try {
+            List<UUID> pending = jdbcTemplate.queryForList("""
+                SELECT id FROM beworking.mailroom_documents
+                 WHERE preview_status = 'PENDING' AND created_at < now() - interval '2 minutes'
+                 ORDER BY created_at
+                 LIMIT ?
+                """, UUID.class, SWEEP_BATCH_SIZE);
+            pending.forEach(this::submit);
+        } catch (Exception e) {
+            logger.warn("Mailroom preview sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a render unless one for the document is already waiting or
+     * running. A full queue leaves the document PENDING for the next sweep.
+     */
+    boolean submit(UUID documentId) {
+        if (!queued.add(documentId)) {
+            return false;
+        }
+        try {
+            renderers.execute(() -> {
+                try {
+                    render(documentId);
+                } catch (Exception e) {
+                    logger.warn("Preview of mailroom document {} not recorded: {}", documentId, e.getMessage());
+                } finally {
+                    queued.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(documentId);
+            logger.debug("Mailroom preview queue full; document {} waits for the sweep", documentId);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderers.shutdownNow();
+    }
+
+    /** The preview or thumbnail of a document, if it has been rendered. */
+    public Optional<StoredObject> openPreview(UUID documentId, boolean thumbnail) {
+        return jdbcTemplate.queryForList("""
+                SELECT stored_file_name FROM beworking.mailroom_documents
+                 WHERE id = ? AND preview_status = 'READY'
+                """, String.class, documentId).stream()
+            .findFirst()
+            .map(name -> fileStorage.open(name + (thumbnail ? FileStorage.THUMBNAIL_SUFFIX : FileStorage.PREVIEW_SUFFIX)));
+    }
+
+    void render(UUID documentId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+            SELECT d.stored_file_name, d.content_type,
+                   EXISTS (SELECT 1 FROM beworking.mailroom_documents o
+                            WHERE o.stored_file_name = d.stored_file_name
+                              AND o.preview_status = 'READY') AS rendered
+              FROM beworking.mailroom_documents d
+             WHERE d.id = ? AND d.preview_status = 'PENDING'
+            """, documentId);
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<String, Object> row = rows.get(0);
+        String storedFileName = (String) row.get("stored_file_name");
+        MailroomPreviewStatus status;
+        if (Boolean.TRUE.equals(row.get("rendered"))) {
+            status = MailroomPreviewStatus.READY;
+        } else {
+            try {
+                status = renderFiles(storedFileName, (String) row.get("content_type"));
+            } catch (Exception e) {
+                logger.warn("Preview of mailroom document {} failed: {}", documentId, e.getMessage());
+                status = MailroomPreviewStatus.FAILED;
+            }
+        }
+        jdbcTemplate.update(
+            "UPDATE beworking.mailroom_documents SET preview_status = ? WHERE id = ? AND preview_status = 'PENDING'",
+            status.name(), documentId);
+    }
+
+    MailroomPreviewStatus renderFiles(String storedFileName, String contentType) throws IOException {
+        BufferedImage page = firstPage(storedFileName, contentType);
+        if (page == null) {
+            return MailroomPreviewStatus.UNSUPPORTED;
+        }
+        fileStorage.store(storedFileName + FileStorage.PREVIEW_SUFFIX,
+            toJpeg(scaleToWidth(page, PREVIEW_WIDTH)), "image/jpeg");
+        fileStorage.store(storedFileName + FileStorage.THUMBNAIL_SUFFIX,
+            toJpeg(scaleToWidth(page, THUMBNAIL_WIDTH)), "image/jpeg");
+        return MailroomPreviewStatus.READY;
+    }
+
+    /** The first page as an image, or null if the type cannot be rendered. */
+    private BufferedImage firstPage(String storedFileName, String contentType) throws IOException {
+        boolean pdf = "application/pdf".equalsIgnoreCase(contentType);
+        boolean image = contentType != null && contentType.toLowerCase().startsWith("image/");
+        if (!pdf && !image) {
+            return null;
+        }
+        // Spool to disk: PDFBox and ImageIO both read files without holding the original in heap.
+        StoredObject object = fileStorage.open(storedFileName);
+        Path temp = Files.createTempFile("mailroom-preview-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                object.transferTo(0, object.size() - 1, out);
+            }
+            if (image) {
+                return readImage(temp);
+            }
+            try (PDDocument document = PDDocument.load(temp.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+                if (document.getNumberOfPages() == 0) {
+                    return null;
+                }
+                PDRectangle box = document.getPage(0).getMediaBox();
+                return new PDFRenderer(document).renderImage(0, pageScale(box.getWidth(), box.getHeight()), ImageType.RGB);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Scale to {@link #PREVIEW_WIDTH}, reduced further if the page would exceed {@code maxPixels}. */
+    float pageScale(float width, float height) {
+        float scale = PREVIEW_WIDTH / width;
+        double pixels = (double) width * scale * height * scale;
+        if (pixels > maxPixels) {
+            scale *= (float) Math.sqrt(maxPixels / pixels);
+        }
+        return scale;
+    }
+
+    /**
+     * Reads the image header first and subsamples while decoding, so at most
+     * about {@code maxPixels} are ever held; null if no reader knows the format.
+     */
+    private BufferedImage readImage(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (pixels > maxPixels) {
+                    int step = (int) Math.ceil(Math.sqrt((double) pixels / maxPixels));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+        BufferedImage out = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha: flatten transparent images onto white.
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,12 @@
+package com.beworking.mailroom;
+
+/**
+ * Whether a document's preview and thumbnail have been rendered. Written only
+ * by {@link MailroomPreviewService}.
+ */
+public enum MailroomPreviewStatus {
+    PENDING,
+    READY,
+    UNSUPPORTED,
+    FAILED
+}
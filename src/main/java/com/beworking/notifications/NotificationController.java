@@ -1,14 +1,15 @@
 package com.beworking.notifications;
 
 import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.contacts.ContactProfileService;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -25,44 +26,43 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final NotificationService service;
-    private final UserRepository userRepository;
     private final ContactProfileService contactService;
 
-    public NotificationController(NotificationService service, UserRepository userRepository,
-                                  ContactProfileService contactService) {
+    public NotificationController(NotificationService service, ContactProfileService contactService) {
         this.service = service;
-        this.userRepository = userRepository;
         this.contactService = contactService;
     }
 
     @GetMapping
     public ResponseEntity<List<NotificationResponse>> list(
-            Authentication authentication,
-            @RequestParam(value = "contactEmail", required = false) String contactEmailParam) {
-        User user = resolveUser(authentication);
+            AuthenticatedUser user,
+            @RequestParam(value = "contactEmail", required = false) String contactEmailParam,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         if (user.getRole() == User.Role.ADMIN) {
             if (StringUtils.hasText(contactEmailParam)) {
-                return ResponseEntity.ok(service.listByContactEmail(contactEmailParam.trim()));
+                return page(service.listByContactEmail(contactEmailParam.trim(), before, limit));
             }
             return ResponseEntity.ok(service.listAll());
         }
         // Non-admin: always scoped to own email; client input ignored.
-        String own = resolveOwnEmail(user);
+        String own = contactService.resolveOwnEmail(user);
         if (own == null) {
             return ResponseEntity.ok(List.of());
         }
-        return ResponseEntity.ok(service.listByContactEmail(own));
+        return page(service.listByContactEmail(own, before, limit));
     }
 
     @PostMapping
     public ResponseEntity<NotificationResponse> create(
-            Authentication authentication,
+            AuthenticatedUser user,
             @RequestBody Map<String, Object> payload) {
-        User user = resolveUser(authentication);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -77,10 +77,32 @@ public class NotificationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<NotificationService.BulkResult> createBulk(
+            AuthenticatedUser user,
+            @RequestBody Map<String, Object> payload) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (user.getRole() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<String> contactEmails = new ArrayList<>();
+        if (payload.get("contactEmails") instanceof Collection<?> emails) {
+            for (Object email : emails) {
+                contactEmails.add(asString(email));
+            }
+        }
+        String subject = asString(payload.get("subject"));
+        String body = asString(payload.get("body"));
+        UUID tenantId = parseUuid(asString(payload.get("tenantId")));
+        NotificationService.BulkResult result = service.createBulk(contactEmails, subject, body, tenantId, user.getEmail());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @PostMapping("/{id}/read")
     public ResponseEntity<NotificationResponse> markRead(
-            @PathVariable("id") UUID id, Authentication authentication) {
-        User user = resolveUser(authentication);
+            @PathVariable("id") UUID id, AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -92,8 +114,7 @@ public class NotificationController {
 
     @PostMapping("/{id}/acknowledge")
     public ResponseEntity<NotificationResponse> acknowledge(
-            @PathVariable("id") UUID id, Authentication authentication) {
-        User user = resolveUser(authentication);
+            @PathVariable("id") UUID id, AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -105,8 +126,7 @@ public class NotificationController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(
-            @PathVariable("id") UUID id, Authentication authentication) {
-        User user = resolveUser(authentication);
+            @PathVariable("id") UUID id, AuthenticatedUser user) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -122,47 +142,22 @@ public class NotificationController {
         return ResponseEntity.badRequest().build();
     }
 
-    private User resolveUser(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
+    private ResponseEntity<List<NotificationResponse>> page(NotificationService.InboxPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
         }
-        return userRepository.findByEmail(authentication.getName()).orElse(null);
-    }
-
-    private String resolveOwnEmail(User user) {
-        if (user.getTenantId() != null) {
-            return user.getEmail();
-        }
-        final String[] emailHolder = {null};
-        contactService.findContactByEmail(user.getEmail()).ifPresent(contact ->
-            emailHolder[0] = firstNonBlank(
-                contact.getEmailPrimary(),
-                contact.getEmailSecondary(),
-                contact.getEmailTertiary(),
-                contact.getRepresentativeEmail()));
-        return emailHolder[0];
+        return response.body(page.items());
     }
 
-    private boolean canAccess(User user, UUID id) {
+    private boolean canAccess(AuthenticatedUser user, UUID id) {
         if (user.getRole() == User.Role.ADMIN) {
             return true;
         }
-        String own = resolveOwnEmail(user);
+        String own = contactService.resolveOwnEmail(user);
         return own != null && service.isOwnedByEmail(id, own);
     }
 
-    private String firstNonBlank(String... values) {
-        if (values == null) {
-            return null;
-        }
-        for (String value : values) {
-            if (value != null && !value.isBlank()) {
-                return value;
-            }
-        }
-        return null;
-    }
-
     private String asString(Object o) {
         return o != null ? o.toString() : null;
     }
@@ -0,0 +1,7 @@
+package com.beworking.notifications;
+
+import java.util.UUID;
+
+/** Published for every notification row written, single or bulk. */
+public record NotificationCreatedEvent(UUID notificationId, String contactEmail, String subject) {
+}
@@ -1,5 +1,6 @@
  package com.beworking.notifications;
 
+  import java.time.Instant;
   import java.util.List;
   import java.util.UUID;
   import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,13 +9,28 @@
 
   public interface NotificationRepository extends JpaRepository<Notification, UUID> {
 
-      // All notifications for one recipient, case-insensitive, newest first.
-      @Query("SELECT n FROM Notification n "
-           + "WHERE LOWER(n.contactEmail) = LOWER(:email) "
-           + "ORDER BY n.createdAt DESC")
-      List<Notification> findByContactEmail(@Param("email") String email);
+      // First inbox page for one recipient, case-insensitive, newest first (idx_notifications_inbox, V110).
+      @Query(value = """
+          SELECT * FROM beworking.notifications
+           WHERE LOWER(contact_email) = LOWER(:email)
+           ORDER BY created_at DESC, id DESC
+           LIMIT :limit
+          """, nativeQuery = true)
+      List<Notification> findInboxPage(@Param("email") String email, @Param("limit") int limit);
+
+      // Next inbox page: the rows strictly older than the last one returned, by (created_at, id).
+      @Query(value = """
+          SELECT * FROM beworking.notifications
+           WHERE LOWER(contact_email) = LOWER(:email)
+             AND (created_at, id) < (:createdAt, :id)
+           ORDER BY created_at DESC, id DESC
+           LIMIT :limit
+          """, nativeQuery = true)
+      List<Notification> findInboxPageBefore(@Param("email") String email,
+                                             @Param("createdAt") Instant createdAt,
+                                             @Param("id") UUID id,
+                                             @Param("limit") int limit);
 
       // Most recent notifications across all contacts (admin overview), newest first.
       List<Notification> findTop200ByOrderByCreatedAtDesc();
   }
-  
\ No newline at end of file
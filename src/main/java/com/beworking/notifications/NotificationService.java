@@ -1,14 +1,27 @@
 package com.beworking.notifications;
 
+import com.beworking.auth.EmailOutbox;
 import com.beworking.auth.EmailService;
-import com.beworking.contacts.ContactProfile;
+import com.beworking.contacts.ContactProfileRepository;
 import com.beworking.contacts.ContactProfileService;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -17,19 +30,53 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class NotificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO beworking.notifications (id, contact_email, subject, body, tenant_id, status, created_by)
+        VALUES (?, ?, ?, ?, ?, 'CREATED', ?)
+        """;
+    private static final String MARK_SENT_SQL = """
+        UPDATE beworking.notifications
+           SET status = 'SENT', sent_at = now(), updated_at = now()
+         WHERE id = ?
+        """;
+
+    /** Outcome of {@link #createBulk}: rows written, email nudges queued, and duplicate or blank addresses dropped. */
+    public record BulkResult(int created, int emailsQueued, int skipped) {
+    }
+
+    /** One inbox page, newest first; {@code nextCursor} is null on the last page. */
+    public record InboxPage(List<NotificationResponse> items, String nextCursor) {
+    }
+
     private final NotificationRepository repository;
+    private final JdbcTemplate jdbcTemplate;
     private final EmailService emailService;
+    private final EmailOutbox emailOutbox;
     private final ContactProfileService contactProfileService;
+    private final ApplicationEventPublisher eventPublisher;
     private final String appBaseUrl;
+    private final int bulkMaxRecipients;
 
     public NotificationService(NotificationRepository repository,
+                               JdbcTemplate jdbcTemplate,
                                EmailService emailService,
+                               EmailOutbox emailOutbox,
                                ContactProfileService contactProfileService,
-                               @Value("${app.base-url:https://app.be-working.com}") String appBaseUrl) {
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${app.base-url:https://app.be-working.com}") String appBaseUrl,
+                               @Value("${app.notifications.bulk-max-recipients:5000}") int bulkMaxRecipients) {
         this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
         this.emailService = emailService;
+        this.emailOutbox = emailOutbox;
         this.contactProfileService = contactProfileService;
+        this.eventPublisher = eventPublisher;
         this.appBaseUrl = appBaseUrl;
+        this.bulkMaxRecipients = bulkMaxRecipients;
     }
 
     @Transactional
@@ -38,9 +85,7 @@ public class NotificationService {
         if (!StringUtils.hasText(contactEmail)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "contactEmail is required");
         }
-        if (!StringUtils.hasText(subject) || !StringUtils.hasText(body)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "subject and body are required");
-        }
+        requireContent(subject, body);
 
         Notification n = new Notification();
         n.setContactEmail(contactEmail.trim());
@@ -49,27 +94,108 @@ public class NotificationService {
         n.setTenantId(tenantId);
         n.setCreatedBy(createdBy);
         n.setStatus(NotificationStatus.CREATED);
-        Notification saved = repository.save(n);
 
-        // Email the client a nudge to read it in-app (best-effort, like mailroom).
-        try {
-            sendNotificationEmail(saved);
-            saved.setStatus(NotificationStatus.SENT);
-            saved.setSentAt(Instant.now());
-            saved = repository.save(saved);
-        } catch (Exception e) {
-            System.err.println("Failed to send notification email to " + contactEmail + ": " + e.getMessage());
+        // Email the client a nudge to read it in-app (best-effort, like mailroom). The
+        // outbox row commits with the notification, so SENT means "handed to delivery".
+        ContactProfileRepository.EmailRecipient contact = contactProfileService
+                .findRecipientsByEmails(List.of(n.getContactEmail()))
+                .get(n.getContactEmail().toLowerCase());
+        if (queueNudge(n.getContactEmail(), n.getSubject(), contact)) {
+            n.setStatus(NotificationStatus.SENT);
+            n.setSentAt(Instant.now());
         }
+        Notification saved = repository.save(n);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(saved.getId(), saved.getContactEmail(), saved.getSubject()));
         return NotificationResponse.fromEntity(saved);
     }
 
-    public List<NotificationResponse> listByContactEmail(String contactEmail) {
+    /**
+     * Sends the same notification to many clients in one transaction: one
+     * batched INSERT for every recipient row, one lookup for their names, one
+     * batched outbox INSERT for their email nudges (delivered off-request by
+     * the outbox dispatcher), and one batched UPDATE marking the queued ones
+     * SENT. Addresses are trimmed and de-duplicated case-insensitively; one
+     * whose nudge cannot be built (e.g. an invalid address) stays CREATED.
+     * {@code tenantId}, when given, is stored on every row, as {@link #create} does.
+     */
+    @Transactional
+    public BulkResult createBulk(Collection<String> contactEmails, String subject, String body,
+                                 UUID tenantId, String createdBy) {
+        requireContent(subject, body);
+        Map<String, String> recipients = new LinkedHashMap<>();
+        if (contactEmails != null) {
+            for (String email : contactEmails) {
+                if (StringUtils.hasText(email)) {
+                    recipients.putIfAbsent(email.trim().toLowerCase(), email.trim());
+                }
+            }
+        }
+        if (recipients.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "contactEmails is required");
+        }
+        if (recipients.size() > bulkMaxRecipients) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + bulkMaxRecipients + " recipients per request");
+        }
+
+        String trimmedSubject = subject.trim();
+        String trimmedBody = body.trim();
+        List<UUID> ids = new ArrayList<>(recipients.size());
+        List<Object[]> rows = new ArrayList<>(recipients.size());
+        for (String email : recipients.values()) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[] {id, email, trimmedSubject, trimmedBody, tenantId, createdBy});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        Map<String, ContactProfileRepository.EmailRecipient> contacts =
+                contactProfileService.findRecipientsByEmails(recipients.keySet());
+        List<MimeMessage> nudges = new ArrayList<>();
+        List<Object[]> queued = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<String, String> recipient : recipients.entrySet()) {
+            Nudge nudge = nudgeFor(trimmedSubject, contacts.get(recipient.getKey()));
+            try {
+                nudges.add(emailService.createHtmlMessage(recipient.getValue(), nudge.subject(), nudge.html()));
+                queued.add(new Object[] {ids.get(i)});
+            } catch (MessagingException e) {
+                logger.warn("Notification nudge to {} not queued: {}", recipient.getValue(), e.getMessage());
+            }
+            i++;
+        }
+        if (!queued.isEmpty()) {
+            emailOutbox.enqueueAll(nudges);
+            jdbcTemplate.batchUpdate(MARK_SENT_SQL, queued);
+        }
+        i = 0;
+        for (String email : recipients.values()) {
+            eventPublisher.publishEvent(new NotificationCreatedEvent(ids.get(i++), email, trimmedSubject));
+        }
+        int skipped = contactEmails.size() - recipients.size();
+        return new BulkResult(recipients.size(), queued.size(), skipped);
+    }
+
+    /**
+     * One page of a recipient's inbox, newest first. {@code before} is the
+     * {@code nextCursor} of the previous page; each page is a range scan of
+     * idx_notifications_inbox (V110) rather than a load of the whole inbox.
+     */
+    public InboxPage listByContactEmail(String contactEmail, String before, int limit) {
         if (!StringUtils.hasText(contactEmail)) {
-            return List.of();
+            return new InboxPage(List.of(), null);
         }
-        return repository.findByContactEmail(contactEmail).stream()
-                .map(NotificationResponse::fromEntity)
-                .toList();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String email = contactEmail.trim();
+        List<Notification> rows;
+        if (StringUtils.hasText(before)) {
+            Cursor cursor = decodeCursor(before);
+            rows = repository.findInboxPageBefore(email, cursor.createdAt(), cursor.id(), size);
+        } else {
+            rows = repository.findInboxPage(email, size);
+        }
+        String nextCursor = rows.size() == size ? encodeCursor(rows.get(rows.size() - 1)) : null;
+        return new InboxPage(rows.stream().map(NotificationResponse::fromEntity).toList(), nextCursor);
     }
 
     public List<NotificationResponse> listAll() {
@@ -122,11 +248,25 @@ public class NotificationService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Notification not found"));
     }
 
-    private void sendNotificationEmail(Notification n) {
-        String contactEmail = n.getContactEmail();
-        Optional<ContactProfile> contact = contactProfileService.findContactByEmail(contactEmail);
-        String name = contact.map(c -> firstNonBlank(c.getContactName(), c.getName())).orElse(null);
-        String country = contact.map(ContactProfile::getBillingCountry).orElse(null);
+    private void requireContent(String subject, String body) {
+        if (!StringUtils.hasText(subject) || !StringUtils.hasText(body)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "subject and body are required");
+        }
+    }
+
+    private boolean queueNudge(String contactEmail, String notificationSubject,
+                               ContactProfileRepository.EmailRecipient contact) {
+        Nudge nudge = nudgeFor(notificationSubject, contact);
+        return emailService.sendHtmlAndReturnMessageId(contactEmail, nudge.subject(), nudge.html()) != null;
+    }
+
+    /** The "you have a notification" email for one recipient, in their language. */
+    private record Nudge(String subject, String html) {
+    }
+
+    private Nudge nudgeFor(String notificationSubject, ContactProfileRepository.EmailRecipient contact) {
+        String name = contact != null ? firstNonBlank(contact.getContactName(), contact.getName()) : null;
+        String country = contact != null ? contact.getBillingCountry() : null;
         boolean spanish = country == null || country.isBlank()
                 || country.equalsIgnoreCase("ES")
                 || country.equalsIgnoreCase("España")
@@ -136,11 +276,28 @@ public class NotificationService {
         String subject = spanish
                 ? "BeWorking: Tienes una notificación"
                 : "BeWorking: You have a notification";
-        String html = buildEmailHtml(n, name, spanish);
-        emailService.sendHtml(contactEmail, subject, html);
+        return new Nudge(subject, buildEmailHtml(notificationSubject, name, spanish));
+    }
+
+    private record Cursor(Instant createdAt, UUID id) {
+    }
+
+    static String encodeCursor(Notification n) {
+        String raw = n.getCreatedAt() + "_" + n.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('_');
+            return new Cursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
-    private String buildEmailHtml(Notification n, String name, boolean spanish) {
+    private String buildEmailHtml(String notificationSubject, String name, boolean spanish) {
         String accent = "#16a34a";
         String greeting = StringUtils.hasText(name)
                 ? (spanish ? "Hola " + escapeHtml(name) + "," : "Hi " + escapeHtml(name) + ",")
@@ -151,7 +308,7 @@ public class NotificationService {
         String card =
                 "<div style=\"background:#ffffff;border:1px solid #e2e8f0;border-left:4px solid " + accent + ";"
                 + "border-radius:8px;padding:16px;margin:20px 0;\">"
-                + "<div style=\"font-size:16px;font-weight:600;color:#0f172a;\">" + escapeHtml(n.getSubject()) + "</div>"
+                + "<div style=\"font-size:16px;font-weight:600;color:#0f172a;\">" + escapeHtml(notificationSubject) + "</div>"
                 + "</div>";
         String mailboxUrl = StringUtils.hasText(appBaseUrl) ? appBaseUrl : "https://app.be-working.com";
         String cta = spanish ? "Ver mi notificaci&oacute;n" : "View my notification";
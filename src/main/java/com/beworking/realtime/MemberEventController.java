@@ -0,0 +1,61 @@
+package com.beworking.realtime;
+
+import com.beworking.auth.AuthenticatedUser;
+import com.beworking.contacts.ContactProfileService;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events for the signed-in member: {@code notification-created}
+ * and {@code mailroom-document-received} for the member's own email (the
+ * same scoping as the notification and mailroom lists), {@code bekey-share}
+ * for shares they made or received. Replaces polling those lists; on every
+ * {@code ready} event (first connect and each reconnect) the client reloads
+ * them once.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class MemberEventController {
+
+    private final MemberEventHub hub;
+    private final ContactProfileService contactService;
+
+    public MemberEventController(MemberEventHub hub, ContactProfileService contactService) {
+        this.hub = hub;
+        this.contactService = contactService;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Set<String> topics = new HashSet<>();
+        String own = contactService.resolveOwnEmail(user);
+        if (own != null) {
+            topics.add(MemberEventHub.emailTopic(own));
+        }
+        if (user.getTenantId() != null) {
+            topics.add(MemberEventHub.contactTopic(user.getTenantId()));
+        }
+        if (topics.isEmpty()) {
+            // Nothing to stream; 204 also tells EventSource not to reconnect.
+            return ResponseEntity.noContent().build();
+        }
+        try {
+            return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(hub.subscribe(topics));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
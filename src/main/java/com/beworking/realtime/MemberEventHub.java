@@ -0,0 +1,232 @@
+package com.beworking.realtime;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Open server-sent-event connections of signed-in members, indexed by topic
+ * ({@link #emailTopic}, {@link #contactTopic}), so in-process events reach
+ * the sessions they concern without those sessions polling.
+ *
+ * {@link #publish} never writes to a socket: it appends to each matching
+ * connection's buffer (bounded at {@code app.events.buffer-size}) and a small
+ * sender pool drains it, one task per connection at a time, so a slow client
+ * holds up only itself. A connection whose buffer fills is closed; the
+ * browser's EventSource reconnects and the page reloads its lists. Idle
+ * connections get a comment every {@code app.events.heartbeat} so proxies
+ * keep them open and dead ones are found and dropped.
+ */
+@Component
+public class MemberEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberEventHub.class);
+
+    static final MemberEvent HEARTBEAT = new MemberEvent(null, null);
+
+    private final int bufferSize;
+    private final int maxConnections;
+    private final Duration timeout;
+    private final ExecutorService senders;
+
+    private final Map<String, Set<Connection>> byTopic = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder overflowed = new LongAdder();
+
+    public MemberEventHub(@Value("${app.events.buffer-size:32}") int bufferSize,
+                          @Value("${app.events.max-connections:2000}") int maxConnections,
+                          @Value("${app.events.timeout:PT30M}") Duration timeout,
+                          @Value("${app.events.senders:2}") int senders) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxConnections = maxConnections;
+        this.timeout = timeout;
+        AtomicInteger threadId = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senders), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** What a member receives: an SSE event name and its JSON payload. */
+    public record MemberEvent(String name, Object data) {
+    }
+
+    public static String emailTopic(String email) {
+        return "email:" + email.trim().toLowerCase();
+    }
+
+    public static String contactTopic(Long contactId) {
+        return "contact:" + contactId;
+    }
+
+    /**
+     * Opens a stream for {@code topics} and queues a {@code ready} event, after
+     * which the client should (re)load what it shows.
+     *
+     * @throws IllegalStateException if {@code app.events.max-connections} are open.
+     */
+    public SseEmitter subscribe(Collection<String> topics) {
+        if (connections.size() >= maxConnections) {
+            throw new IllegalStateException("Too many open event streams");
+        }
+        Connection connection = new Connection(newEmitter(timeout.toMillis()), Set.copyOf(topics), bufferSize);
+        connection.emitter.onCompletion(() -> remove(connection));
+        connection.emitter.onTimeout(() -> close(connection));
+        connection.emitter.onError(error -> remove(connection));
+        connections.add(connection);
+        for (String topic : connection.topics) {
+            // Inside compute so a concurrent remove() cannot drop the set between lookup and add.
+            byTopic.compute(topic, (t, subscribers) -> {
+                Set<Connection> set = subscribers != null ? subscribers : new CopyOnWriteArraySet<>();
+                set.add(connection);
+                return set;
+            });
+        }
+        offer(connection, new MemberEvent("ready", Map.of("topics", connection.topics.size())));
+        return connection.emitter;
+    }
+
+    /** Queues {@code event} for every open connection on {@code topic}; returns how many. */
+    public int publish(String topic, MemberEvent event) {
+        Set<Connection> subscribers = byTopic.get(topic);
+        if (subscribers == null) {
+            return 0;
+        }
+        int queued = 0;
+        for (Connection connection : subscribers) {
+            if (offer(connection, event)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /** Keeps idle streams open through proxies; busy ones are already sending. */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat:PT25S}")
+    void heartbeat() {
+        for (Connection connection : connections) {
+            if (connection.buffer.isEmpty()) {
+                offer(connection, HEARTBEAT);
+            }
+        }
+    }
+
+    int connectionCount() {
+        return connections.size();
+    }
+
+    long overflowedCount() {
+        return overflowed.sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Connection connection : List.copyOf(connections)) {
+            close(connection);
+        }
+        senders.shutdown();
+    }
+
+    private boolean offer(Connection connection, MemberEvent event) {
+        if (connection.closed) {
+            return false;
+        }
+        if (!connection.buffer.offer(event)) {
+            overflowed.increment();
+            logger.debug("Event stream buffer full ({} events); closing it", bufferSize);
+            close(connection);
+            return false;
+        }
+        scheduleDrain(connection);
+        return true;
+    }
+
+    private void scheduleDrain(Connection connection) {
+        if (connection.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                connection.draining.set(false);
+                close(connection);
+            }
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            MemberEvent event;
+            while (!connection.closed && (event = connection.buffer.poll()) != null) {
+                connection.emitter.send(event == HEARTBEAT
+                    ? SseEmitter.event().comment("heartbeat")
+                    : SseEmitter.event().name(event.name()).data(event.data()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away (or the emitter already completed); the container reports the rest.
+            remove(connection);
+            return;
+        } finally {
+            connection.draining.set(false);
+        }
+        if (!connection.closed && !connection.buffer.isEmpty()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.closed) {
+            remove(connection);
+            connection.emitter.complete();
+        }
+    }
+
+    private void remove(Connection connection) {
+        connection.closed = true;
+        connection.buffer.clear();
+        if (connections.remove(connection)) {
+            for (String topic : connection.topics) {
+                byTopic.computeIfPresent(topic, (t, subscribers) -> {
+                    subscribers.remove(connection);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+        }
+    }
+
+    private static final class Connection {
+        final SseEmitter emitter;
+        final Set<String> topics;
+        final ArrayBlockingQueue<MemberEvent> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Connection(SseEmitter emitter, Set<String> topics, int bufferSize) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
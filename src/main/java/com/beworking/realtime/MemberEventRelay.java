@@ -0,0 +1,56 @@
+package com.beworking.realtime;
+
+import com.beworking.bekey.BeKeyShareChangedEvent;
+import com.beworking.mailroom.MailroomDocumentStoredEvent;
+import com.beworking.notifications.NotificationCreatedEvent;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Turns domain events into member stream events once their transaction
+ * commits, so a member is never told about a row a rollback took back.
+ * Payloads are small — enough to show a badge or toast; the client loads
+ * the full item from the usual endpoint.
+ */
+@Component
+class MemberEventRelay {
+
+    private final MemberEventHub hub;
+
+    MemberEventRelay(MemberEventHub hub) {
+        this.hub = hub;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        hub.publish(MemberEventHub.emailTopic(event.contactEmail()), new MemberEventHub.MemberEvent(
+            "notification-created", Map.of("id", event.notificationId(), "subject", event.subject())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMailroomDocumentStored(MailroomDocumentStoredEvent event) {
+        if (event.contactEmail() == null) {
+            return;
+        }
+        hub.publish(MemberEventHub.emailTopic(event.contactEmail()), new MemberEventHub.MemberEvent(
+            "mailroom-document-received", Map.of(
+                "id", event.documentId(),
+                "title", event.title() != null ? event.title() : "",
+                "documentType", event.documentType())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeKeyShareChanged(BeKeyShareChangedEvent event) {
+        publishShare(event, event.sharerContactId(), "sharer");
+        publishShare(event, event.guestContactId(), "guest");
+    }
+
+    private void publishShare(BeKeyShareChangedEvent event, Long contactId, String role) {
+        if (contactId == null) {
+            return;
+        }
+        hub.publish(MemberEventHub.contactTopic(contactId), new MemberEventHub.MemberEvent(
+            "bekey-share", Map.of("shareId", event.shareId(), "change", event.change(), "role", role)));
+    }
+}
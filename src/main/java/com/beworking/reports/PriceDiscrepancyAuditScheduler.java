@@ -1,6 +1,8 @@
 package com.beworking.reports;
 
 import com.beworking.auth.EmailService;
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -22,15 +24,17 @@ public class PriceDiscrepancyAuditScheduler {
 
     private final PriceDiscrepancyService service;
     private final EmailService emailService;
+    private final ScheduledJobRunner jobRunner;
 
-    public PriceDiscrepancyAuditScheduler(PriceDiscrepancyService service, EmailService emailService) {
+    public PriceDiscrepancyAuditScheduler(PriceDiscrepancyService service, EmailService emailService, ScheduledJobRunner jobRunner) {
         this.service = service;
         this.emailService = emailService;
+        this.jobRunner = jobRunner;
     }
 
     @Scheduled(cron = "0 0 6 * * *")
     public void runScheduled() {
-        runOnce();
+        jobRunner.runScheduled("priceDiscrepancyAudit", this::runOnce);
     }
 
     public RunResult runOnce() {
@@ -111,5 +115,10 @@ public class PriceDiscrepancyAuditScheduler {
         return String.format(Locale.ROOT, "€%,.2f", n);
     }
 
-    public record RunResult(int discrepancies, boolean emailSent) {}
+    public record RunResult(int discrepancies, boolean emailSent) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return discrepancies;
+        }
+    }
 }
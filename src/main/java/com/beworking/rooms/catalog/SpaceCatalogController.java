@@ -1,11 +1,9 @@
 package com.beworking.rooms.catalog;
 
-import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,31 +22,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class SpaceCatalogController {
 
     private final SpaceCatalogService service;
-    private final UserRepository userRepository;
 
-    public SpaceCatalogController(SpaceCatalogService service, UserRepository userRepository) {
+    public SpaceCatalogController(SpaceCatalogService service) {
         this.service = service;
-        this.userRepository = userRepository;
     }
 
     /**
-     * Verifies the current authentication belongs to an admin user.
+     * Verifies the caller is an admin user.
      */
-    private boolean isAdmin(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        return userRepository.findByEmail(authentication.getName())
-            .map(User::isAdmin)
-            .orElse(false);
+    private static boolean isAdmin(AuthenticatedUser user) {
+        return user != null && user.isAdmin();
     }
 
     /**
      * Lists all catalog spaces. Returns 403 if the caller is not an admin.
      */
     @GetMapping
-    public ResponseEntity<List<SpaceCatalogDto>> list(Authentication authentication) {
-        if (!isAdmin(authentication)) {
+    public ResponseEntity<List<SpaceCatalogDto>> list(AuthenticatedUser user) {
+        if (!isAdmin(user)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         return ResponseEntity.ok(service.listSpaces());
@@ -58,8 +49,8 @@ public class SpaceCatalogController {
      * Retrieves a single space by id, returning 404 when not found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SpaceCatalogDto> get(@PathVariable Long id, Authentication authentication) {
-        if (!isAdmin(authentication)) {
+    public ResponseEntity<SpaceCatalogDto> get(@PathVariable Long id, AuthenticatedUser user) {
+        if (!isAdmin(user)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         return service.findById(id)
@@ -71,8 +62,8 @@ public class SpaceCatalogController {
      * Creates a new space record using the posted payload.
      */
     @PostMapping
-    public ResponseEntity<SpaceCatalogDto> create(@RequestBody SpaceCatalogDto payload, Authentication authentication) {
-        if (!isAdmin(authentication)) {
+    public ResponseEntity<SpaceCatalogDto> create(@RequestBody SpaceCatalogDto payload, AuthenticatedUser user) {
+        if (!isAdmin(user)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         SpaceCatalogDto saved = service.save(payload);
@@ -85,8 +76,8 @@ public class SpaceCatalogController {
     @PutMapping("/{id}")
     public ResponseEntity<SpaceCatalogDto> update(@PathVariable Long id,
                                                   @RequestBody SpaceCatalogDto payload,
-                                                  Authentication authentication) {
-        if (!isAdmin(authentication)) {
+                                                  AuthenticatedUser user) {
+        if (!isAdmin(user)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         SpaceCatalogDto saved = service.save(
@@ -134,8 +125,8 @@ public class SpaceCatalogController {
      * Deletes a space by id.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id, Authentication authentication) {
-        if (!isAdmin(authentication)) {
+    public ResponseEntity<Void> delete(@PathVariable Long id, AuthenticatedUser user) {
+        if (!isAdmin(user)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         service.delete(id);
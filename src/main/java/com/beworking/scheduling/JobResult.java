@@ -0,0 +1,11 @@
+package com.beworking.scheduling;
+
+/**
+ * Implemented by each scheduler's {@code RunResult} so {@link ScheduledJobRunner}
+ * can record how much work a run did.
+ */
+public interface JobResult {
+
+    /** Rows (contacts, invoices, grants...) the run acted on. */
+    int rowsProcessed();
+}
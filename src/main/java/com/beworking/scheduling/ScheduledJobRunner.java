@@ -0,0 +1,297 @@
+package com.beworking.scheduling;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a named job on at most one replica at a time and records the run in
+ * {@code beworking.scheduled_job_runs}.
+ *
+ * The lock is a row in {@code beworking.scheduled_job_locks}, taken with one
+ * upsert that only succeeds once the previous holder's {@code locked_until}
+ * has passed. It is held for at most {@code app.jobs.lock-at-most} (so a
+ * replica that dies mid-run blocks the job only that long) and, for
+ * scheduled runs, at least {@code app.jobs.lock-at-least}, so a replica whose
+ * clock fires the same cron a little later finds it still taken. Manual runs
+ * release the lock as soon as they finish.
+ *
+ * Manual runs are {@link #submit submitted}: the lock and the history row are
+ * taken on the caller's thread, so a duplicate is refused at once and the
+ * caller gets the run id to poll, while the job itself runs on a pool of
+ * {@code app.jobs.workers} threads queueing at most
+ * {@code app.jobs.queue-capacity} more. The job's {@code RunResult} is stored
+ * as JSON on its history row when it finishes.
+ */
+@Component
+public class ScheduledJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobRunner.class);
+
+    private static final int HISTORY_DAYS = 90;
+
+    public enum Trigger { SCHEDULED, MANUAL }
+
+    /** One row of run history. Finish fields and {@code result} are null while the run is in progress. */
+    public record JobRun(long id, String jobName, String trigger, String host, Instant startedAt, Instant finishedAt,
+                         Long durationMs, Integer rowsProcessed, String outcome, String error, JsonNode result) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration lockAtMostFor;
+    private final Duration lockAtLeastFor;
+    private final String host;
+    private final ThreadPoolExecutor pool;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ScheduledJobRunner(JdbcTemplate jdbcTemplate,
+                              @Value("${app.jobs.lock-at-most:PT3H}") Duration lockAtMostFor,
+                              @Value("${app.jobs.lock-at-least:PT30S}") Duration lockAtLeastFor,
+                              @Value("${app.jobs.workers:2}") int workers,
+                              @Value("${app.jobs.queue-capacity:10}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockAtMostFor = lockAtMostFor;
+        this.lockAtLeastFor = lockAtLeastFor;
+        this.host = ManagementFactory.getRuntimeMXBean().getName();
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "job-runner-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * For {@code @Scheduled} methods: runs {@code task} unless another run of
+     * {@code job} holds the lock, in which case this firing is skipped. A
+     * failure is logged and recorded, not rethrown.
+     */
+    public <T extends JobResult> Optional<T> runScheduled(String job, Supplier<T> task) {
+        if (!tryLock(job)) {
+            logger.debug("Job {} is running elsewhere; skipping this firing", job);
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(execute(startRun(job, Trigger.SCHEDULED), task));
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed: {}", job, e.getMessage(), e);
+            return Optional.empty();
+        } finally {
+            unlock(job, lockAtLeastFor);
+        }
+    }
+
+    /**
+     * For manual triggers: starts {@code task} in the background and returns
+     * the id of its history row, to poll with {@link #findRun}.
+     *
+     * @throws IllegalStateException if {@code job} is already running, or too
+     *         many manual runs are queued.
+     */
+    public <T extends JobResult> long submit(String job, Supplier<T> task) {
+        if (!tryLock(job)) {
+            throw new IllegalStateException("Job " + job + " is already running");
+        }
+        long runId;
+        try {
+            runId = startRun(job, Trigger.MANUAL);
+        } catch (RuntimeException e) {
+            unlock(job, Duration.ZERO);
+            throw e;
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    execute(runId, task);
+                } catch (RuntimeException e) {
+                    logger.error("Job {} (run {}) failed: {}", job, runId, e.getMessage(), e);
+                } finally {
+                    unlock(job, Duration.ZERO);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finish(runId, System.nanoTime(), null, "REJECTED", "Job queue is full", null);
+            unlock(job, Duration.ZERO);
+            throw new IllegalStateException("Too many jobs queued; try again shortly");
+        }
+        return runId;
+    }
+
+    /** One run by id, or empty if it never existed or was purged. */
+    public Optional<JobRun> findRun(long runId) {
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT * FROM beworking.scheduled_job_runs WHERE id = ?", (rs, i) -> mapRun(rs), runId));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** The most recent run of each job that has ever run, keyed by job name. */
+    public Map<String, JobRun> lastRuns() {
+        Map<String, JobRun> runs = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+            SELECT DISTINCT ON (job_name) *
+              FROM beworking.scheduled_job_runs
+             ORDER BY job_name, started_at DESC
+            """, rs -> {
+            JobRun run = mapRun(rs);
+            runs.put(run.jobName(), run);
+        });
+        return runs;
+    }
+
+    /** The latest {@code limit} runs of {@code job}, newest first. */
+    public List<JobRun> recentRuns(String job, int limit) {
+        return jdbcTemplate.query("""
+            SELECT * FROM beworking.scheduled_job_runs
+             WHERE job_name = ?
+             ORDER BY started_at DESC
+             LIMIT ?
+            """, (rs, i) -> mapRun(rs), job, limit);
+    }
+
+    @Scheduled(cron = "${app.jobs.history-purge-cron:0 45 3 * * *}")
+    void purgeHistory() {
+        // A run still RUNNING past the lock bound lost its replica mid-run.
+        jdbcTemplate.update("""
+            UPDATE beworking.scheduled_job_runs
+               SET outcome = 'ABANDONED'
+             WHERE outcome = 'RUNNING' AND started_at < now() - make_interval(secs => ?)
+            """, lockAtMostFor.toSeconds());
+        jdbcTemplate.update(
+            "DELETE FROM beworking.scheduled_job_runs WHERE started_at < now() - make_interval(days => ?)",
+            HISTORY_DAYS);
+    }
+
+    private long startRun(String job, Trigger trigger) {
+        return jdbcTemplate.queryForObject("""
+            INSERT INTO beworking.scheduled_job_runs (job_name, trigger_type, host)
+            VALUES (?, ?, ?)
+            RETURNING id
+            """, Long.class, job, trigger.name(), host);
+    }
+
+    private <T extends JobResult> T execute(long runId, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            T result = task.get();
+            finish(runId, start, result == null ? null : result.rowsProcessed(), "SUCCEEDED", null, toJson(result));
+            return result;
+        } catch (RuntimeException e) {
+            finish(runId, start, null, "FAILED", String.valueOf(e.getMessage()), null);
+            throw e;
+        }
+    }
+
+    private void finish(long runId, long start, Integer rows, String outcome, String error, String resultJson) {
+        try {
+            jdbcTemplate.update("""
+                UPDATE beworking.scheduled_job_runs
+                   SET finished_at = now(), duration_ms = ?, rows_processed = ?, outcome = ?, error = ?,
+                       result = ?::jsonb
+                 WHERE id = ?
+                """, Duration.ofNanos(System.nanoTime() - start).toMillis(), rows, outcome, error, resultJson, runId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not record finish of job run {}: {}", runId, e.getMessage());
+        }
+    }
+
+    boolean tryLock(String job) {
+        int updated = jdbcTemplate.update("""
+            INSERT INTO beworking.scheduled_job_locks (name, locked_until, locked_at, locked_by)
+            VALUES (?, now() + make_interval(secs => ?), now(), ?)
+            ON CONFLICT (name) DO UPDATE
+               SET locked_until = EXCLUDED.locked_until,
+                   locked_at = EXCLUDED.locked_at,
+                   locked_by = EXCLUDED.locked_by
+             WHERE scheduled_job_locks.locked_until <= now()
+            """, job, lockAtMostFor.toSeconds(), host);
+        return updated > 0;
+    }
+
+    private void unlock(String job, Duration lockAtLeast) {
+        try {
+            jdbcTemplate.update("""
+                UPDATE beworking.scheduled_job_locks
+                   SET locked_until = GREATEST(now(), locked_at + make_interval(secs => ?))
+                 WHERE name = ? AND locked_by = ?
+                """, lockAtLeast.toSeconds(), job, host);
+        } catch (RuntimeException e) {
+            // The lock still expires at locked_until; the next firing after that runs normally.
+            logger.warn("Could not release lock for job {}: {}", job, e.getMessage());
+        }
+    }
+
+    private String toJson(Object result) {
+        if (result == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize result of type {}: {}", result.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private JobRun mapRun(ResultSet rs) throws SQLException {
+        return new JobRun(
+            rs.getLong("id"),
+            rs.getString("job_name"),
+            rs.getString("trigger_type"),
+            rs.getString("host"),
+            toInstant(rs.getTimestamp("started_at")),
+            toInstant(rs.getTimestamp("finished_at")),
+            (Long) rs.getObject("duration_ms"),
+            (Integer) rs.getObject("rows_processed"),
+            rs.getString("outcome"),
+            rs.getString("error"),
+            readJson(rs.getString("result")));
+    }
+
+    private JsonNode readJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
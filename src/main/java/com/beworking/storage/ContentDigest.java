@@ -0,0 +1,41 @@
+package com.beworking.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 naming for content-addressed mailroom blobs: identical bytes get
+ * the same stored file name, so a scan uploaded twice is stored once.
+ */
+final class ContentDigest {
+
+    private ContentDigest() {
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Digest of {@code in}, read to the end in a fixed-size buffer. */
+    static byte[] sha256(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    /** The stored file name for a digest: its lowercase hex form. */
+    static String fileName(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,29 @@
+package com.beworking.storage;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A store that can take uploads straight from the client. S3 backends sign a
+ * PUT URL so the bytes never pass through the JVM; local (dev) backends are
+ * {@link LocalUploadReceiver}s and take the body themselves.
+ */
+public interface DirectUploadBackend {
+
+    /** Which upload flow this store serves ("mailroom", "media"). */
+    String purpose();
+
+    /** A fresh object key for a file with this original name. */
+    String newKey(String originalFileName);
+
+    PresignedUpload presign(UUID uploadId, String key, String contentType, long sizeBytes, Duration ttl);
+
+    /** Size and content type of an uploaded object, or empty if nothing is there (yet). */
+    Optional<UploadedObject> stat(String key);
+
+    void delete(String key);
+
+    record UploadedObject(long sizeBytes, String contentType) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.beworking.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Dev stand-in for an S3 presigned PUT: receives the body of a direct upload
+ * into local storage. The upload id issued by {@link DirectUploadService#initiate}
+ * is the one-time token, exactly as the signature is for S3, so the route
+ * needs no session.
+ */
+@RestController
+@Profile("dev")
+public class DirectUploadController {
+
+    public static final String PATH = "/api/storage/uploads";
+
+    private final DirectUploadService directUploadService;
+
+    public DirectUploadController(DirectUploadService directUploadService) {
+        this.directUploadService = directUploadService;
+    }
+
+    @PutMapping(PATH + "/{id}")
+    public ResponseEntity<Void> receive(@PathVariable UUID id, HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        try (InputStream body = request.getInputStream()) {
+            directUploadService.receive(id, request.getContentType(), request.getContentLengthLong(), body);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
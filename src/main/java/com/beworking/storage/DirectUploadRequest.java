@@ -0,0 +1,9 @@
+package com.beworking.storage;
+
+/** Body of a direct upload request: the file the client is about to PUT. */
+public record DirectUploadRequest(
+        String fileName,
+        String contentType,
+        long sizeBytes
+) {
+}
@@ -0,0 +1,225 @@
+package com.beworking.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Two-phase uploads that bypass the API: {@link #initiate} records the
+ * expected object in {@code beworking.pending_uploads} and returns where to
+ * PUT it, {@link #complete} checks what actually landed in storage and hands
+ * the owning endpoint a {@link StoredFile} exactly once to register like a
+ * multipart upload. The claim and that registration share one transaction,
+ * so if registration fails the session reopens: the client can retry, or the
+ * expiry sweep deletes the object, instead of it being orphaned.
+ *
+ * Errors: {@link IllegalArgumentException} for a request or object that
+ * fails validation, {@link IllegalStateException} for an unknown, expired or
+ * already-used session.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectUploadService.class);
+
+    /** Content types each purpose accepts; {@code type/*} matches any subtype. */
+    private static final Map<String, List<MediaType>> ALLOWED_TYPES = Map.of(
+        "mailroom", List.of(MediaType.APPLICATION_PDF, MediaType.parseMediaType("image/*")),
+        "media", List.of(MediaType.parseMediaType("image/*")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, DirectUploadBackend> backends;
+    private final long maxBytes;
+    private final Duration ttl;
+
+    public DirectUploadService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               List<DirectUploadBackend> backends,
+                               @Value("${app.uploads.max-bytes:20971520}") long maxBytes,
+                               @Value("${app.uploads.ttl:PT15M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backends = backends.stream()
+            .collect(Collectors.toMap(DirectUploadBackend::purpose, Function.identity()));
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+    }
+
+    public PresignedUpload initiate(String purpose, String originalFileName, String contentType,
+                                    long sizeBytes, String createdBy) {
+        DirectUploadBackend backend = backend(purpose);
+        if (sizeBytes <= 0 || sizeBytes > maxBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxBytes + " bytes");
+        }
+        MediaType type = parseType(contentType);
+        if (ALLOWED_TYPES.get(purpose).stream().noneMatch(allowed -> allowed.includes(type))) {
+            throw new IllegalArgumentException("Content type " + contentType + " is not accepted for " + purpose);
+        }
+        String fileName = StringUtils.hasText(originalFileName)
+            ? StringUtils.cleanPath(originalFileName)
+            : "upload";
+        UUID id = UUID.randomUUID();
+        String key = backend.newKey(fileName);
+        jdbcTemplate.update("""
+            INSERT INTO beworking.pending_uploads
+                (id, purpose, object_key, original_file_name, content_type, size_bytes, created_by, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """,
+            id, purpose, key, fileName, type.toString(), sizeBytes, createdBy,
+            Timestamp.from(Instant.now().plus(ttl)));
+        return backend.presign(id, key, type.toString(), sizeBytes, ttl);
+    }
+
+    /**
+     * Local backends: accepts the body of the one PUT an open session allows.
+     * The declared length must match so the disk never takes more than was
+     * announced.
+     */
+    public void receive(UUID id, String contentType, long contentLength, InputStream body) throws IOException {
+        PendingUpload pending = findOpen(id);
+        if (!(backend(pending.purpose()) instanceof LocalUploadReceiver receiver)) {
+            throw new IllegalStateException(pending.purpose() + " uploads go straight to object storage");
+        }
+        if (contentLength != pending.sizeBytes() || !pending.contentType().equals(contentType)) {
+            throw new IllegalArgumentException("Upload does not match the declared size and content type");
+        }
+        int claimed = jdbcTemplate.update("""
+            UPDATE beworking.pending_uploads SET uploaded_at = now()
+             WHERE id = ? AND uploaded_at IS NULL AND completed_at IS NULL
+            """, id);
+        if (claimed == 0) {
+            throw new IllegalStateException("Upload " + id + " was already received");
+        }
+        try {
+            receiver.write(pending.objectKey(), body);
+        } catch (IOException | RuntimeException e) {
+            jdbcTemplate.update("UPDATE beworking.pending_uploads SET uploaded_at = NULL WHERE id = ?", id);
+            throw e;
+        }
+    }
+
+    /**
+     * Verifies the uploaded object against the session, consumes it and
+     * passes it to {@code register}, all in one transaction: anything
+     * {@code register} throws rolls the claim back with it. An object that
+     * does not match is deleted along with the session, so a rejected upload
+     * cannot be retried with the same ticket.
+     */
+    public <T> T complete(UUID id, String purpose, String completedBy, Function<StoredFile, T> register) {
+        PendingUpload pending = findOpen(id);
+        if (!pending.purpose().equals(purpose) || !Objects.equals(pending.createdBy(), completedBy)) {
+            throw new IllegalStateException("Unknown upload " + id);
+        }
+        DirectUploadBackend backend = backend(purpose);
+        DirectUploadBackend.UploadedObject object = backend.stat(pending.objectKey())
+            .orElseThrow(() -> new IllegalArgumentException("Nothing has been uploaded for " + id));
+        boolean typeMatches = object.contentType() == null
+            || parseType(object.contentType()).equalsTypeAndSubtype(parseType(pending.contentType()));
+        if (object.sizeBytes() != pending.sizeBytes() || !typeMatches) {
+            claim(id);
+            backend.delete(pending.objectKey());
+            throw new IllegalArgumentException("Uploaded object does not match the declared size and content type");
+        }
+        StoredFile file = new StoredFile(pending.objectKey(), pending.originalFileName(),
+            pending.contentType(), pending.sizeBytes());
+        return transactionTemplate.execute(status -> {
+            claim(id);
+            return register.apply(file);
+        });
+    }
+
+    private void claim(UUID id) {
+        int claimed = jdbcTemplate.update("""
+            UPDATE beworking.pending_uploads SET completed_at = now()
+             WHERE id = ? AND completed_at IS NULL
+            """, id);
+        if (claimed == 0) {
+            throw new IllegalStateException("Upload " + id + " was already completed");
+        }
+    }
+
+    /**
+     * Drops sessions that expired unconfirmed together with anything uploaded
+     * for them, and forgets completed sessions after a day.
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval:PT15M}")
+    public void purgeExpired() {
+        try {
+            List<Map<String, Object>> expired = jdbcTemplate.queryForList("""
+                SELECT id, purpose, object_key FROM beworking.pending_uploads
+                 WHERE completed_at IS NULL AND expires_at < now()
+                 ORDER BY expires_at
+                 LIMIT 500
+                """);
+            for (Map<String, Object> row : expired) {
+                DirectUploadBackend backend = backends.get((String) row.get("purpose"));
+                if (backend != null) {
+                    backend.delete((String) row.get("object_key"));
+                }
+                jdbcTemplate.update("DELETE FROM beworking.pending_uploads WHERE id = ? AND completed_at IS NULL",
+                    row.get("id"));
+            }
+            jdbcTemplate.update(
+                "DELETE FROM beworking.pending_uploads WHERE completed_at < now() - interval '1 day'");
+        } catch (Exception e) {
+            logger.warn("Pending upload cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private PendingUpload findOpen(UUID id) {
+        return jdbcTemplate.query("""
+            SELECT purpose, object_key, original_file_name, content_type, size_bytes, created_by
+              FROM beworking.pending_uploads
+             WHERE id = ? AND completed_at IS NULL AND expires_at > now()
+            """,
+            (rs, i) -> new PendingUpload(rs.getString("purpose"), rs.getString("object_key"),
+                rs.getString("original_file_name"), rs.getString("content_type"),
+                rs.getLong("size_bytes"), rs.getString("created_by")),
+            id).stream().findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown or expired upload " + id));
+    }
+
+    private DirectUploadBackend backend(String purpose) {
+        DirectUploadBackend backend = backends.get(purpose);
+        if (backend == null) {
+            throw new IllegalArgumentException("Direct uploads are not available for " + purpose);
+        }
+        return backend;
+    }
+
+    private static MediaType parseType(String contentType) {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid content type: " + contentType);
+        }
+        if (type.isWildcardType() || type.isWildcardSubtype()) {
+            throw new IllegalArgumentException("Invalid content type: " + contentType);
+        }
+        return type;
+    }
+
+    record PendingUpload(String purpose, String objectKey, String originalFileName,
+                         String contentType, long sizeBytes, String createdBy) {
+    }
+}
@@ -1,6 +1,6 @@
 package com.beworking.storage;
 
-import org.springframework.core.io.Resource;
+import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -8,10 +8,32 @@ import org.springframework.web.multipart.MultipartFile;
  * to disk; the S3 impl (non-dev) stores private objects in a bucket. The
  * mailroom download endpoint is already authorization-gated, so swapping the
  * backing store does not change access control.
+ *
+ * Storage is content-addressed: a file is stored under the hex SHA-256 of its
+ * bytes, and storing identical content again reuses the existing blob. Blobs
+ * are shared between documents, so only {@link StoredFileCollector} deletes
+ * them, once no document references them.
  */
 public interface FileStorage {
 
+    /** Files derived from a stored file (previews) live next to it as {@code <storedFileName><suffix>}. */
+    String PREVIEW_SUFFIX = ".preview.jpg";
+    String THUMBNAIL_SUFFIX = ".thumb.jpg";
+    List<String> DERIVED_SUFFIXES = List.of(PREVIEW_SUFFIX, THUMBNAIL_SUFFIX);
+
     StoredFile store(MultipartFile file);
 
-    Resource loadAsResource(String storedFileName);
+    /** Stores generated content (e.g. a preview) under an exact name, replacing any previous version. */
+    void store(String storedFileName, byte[] content, String contentType);
+
+    /**
+     * Metadata for a stored file, with its body left in the store until
+     * {@link StoredObject#transferTo} streams it.
+     *
+     * @throws FileStorageException if the file does not exist.
+     */
+    StoredObject open(String storedFileName);
+
+    /** Removes a stored file; a file that does not exist is not an error. */
+    void delete(String storedFileName);
 }
\ No newline at end of file
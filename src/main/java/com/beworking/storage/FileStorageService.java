@@ -2,16 +2,24 @@
 
   import java.io.IOException;
   import java.io.InputStream;
-  import java.net.MalformedURLException;
+  import java.io.OutputStream;
+  import java.nio.channels.Channels;
+  import java.nio.channels.FileChannel;
+  import java.nio.channels.WritableByteChannel;
   import java.nio.file.Files;
   import java.nio.file.Path;
   import java.nio.file.Paths;
   import java.nio.file.StandardCopyOption;
+  import java.nio.file.StandardOpenOption;
+  import java.security.DigestInputStream;
+  import java.security.MessageDigest;
+  import java.time.Duration;
+  import java.time.Instant;
+  import java.util.Map;
   import java.util.Objects;
+  import java.util.Optional;
   import java.util.UUID;
   import org.springframework.context.annotation.Profile;
-  import org.springframework.core.io.Resource;
-  import org.springframework.core.io.UrlResource;
   import org.springframework.stereotype.Service;
   import org.springframework.util.StringUtils;
   import org.springframework.web.multipart.MultipartFile;
@@ -20,14 +28,18 @@
    * Local-disk mailroom storage. Active only under the dev profile; staging/prod
    * (profile "prod") use {@link S3FileStorageService}. NOTE: container disk is
    * ephemeral, so this is for local development only — never durable in ECS.
+   *
+   * Direct uploads are received by {@link DirectUploadController} and written
+   * through {@link #write}, standing in for the S3 presigned PUT.
    */
   @Service
   @Profile("dev")
-  public class FileStorageService implements FileStorage {
+  public class FileStorageService implements FileStorage, LocalUploadReceiver {
 
       private final Path storageLocation;
+      private final StoredFileRefs refs;
 
-      public FileStorageService(FileStorageProperties properties) {
+      FileStorageService(FileStorageProperties properties, StoredFileRefs refs) {
           Path configured = Paths.get(properties.getLocation()).toAbsolutePath().normalize();
           try {
               Files.createDirectories(configured);
@@ -35,8 +47,15 @@
               throw new FileStorageException("Could not create upload directory " + configured, e);
           }
           this.storageLocation = configured;
+          this.refs = refs;
       }
 
+      /**
+       * Streams the upload into a temp file while hashing it, then moves it to
+       * its digest name — or drops it if that content is already stored.
+       * The digest is pinned first ({@link StoredFileRefs#pin}), so the blob
+       * being reused cannot be collected before the document row commits.
+       */
       @Override
       public StoredFile store(MultipartFile file) {
           if (file == null || file.isEmpty()) {
@@ -44,17 +63,89 @@
           }
 
           String originalFilename = StringUtils.cleanPath(Objects.requireNonNullElse(file.getOriginalFilename(), "upload"));
-          String extension = extractExtension(originalFilename);
-          String storedFileName = UUID.randomUUID() + extension;
-
-          Path targetLocation = storageLocation.resolve(storedFileName);
-          try (InputStream inputStream = file.getInputStream()) {
-              Files.copy(inputStream, targetLocation, StandardCopyOption.REPLACE_EXISTING);
+          Path temp = storageLocation.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+          try {
+              MessageDigest digest = ContentDigest.sha256();
+              try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                  Files.copy(inputStream, temp);
+              }
+              String storedFileName = ContentDigest.fileName(digest.digest());
+              Path targetLocation = storageLocation.resolve(storedFileName);
+              refs.pin(storedFileName);
+              if (Files.exists(targetLocation)) {
+                  Files.delete(temp);
+              } else {
+                  Files.move(temp, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+              }
+              return new StoredFile(storedFileName, originalFilename, file.getContentType(), file.getSize());
           } catch (IOException e) {
               throw new FileStorageException("Failed to store file " + originalFilename, e);
+          } finally {
+              try {
+                  Files.deleteIfExists(temp);
+              } catch (IOException ignored) {
+                  // best effort
+              }
+          }
+      }
+
+      @Override
+      public void store(String storedFileName, byte[] content, String contentType) {
+          try {
+              Files.write(resolve(storedFileName), content);
+          } catch (IOException e) {
+              throw new FileStorageException("Failed to store file " + storedFileName, e);
           }
+      }
+
+      @Override
+      public String purpose() {
+          return "mailroom";
+      }
 
-          return new StoredFile(storedFileName, originalFilename, file.getContentType(), file.getSize());
+      @Override
+      public String newKey(String originalFileName) {
+          return UUID.randomUUID() + extractExtension(originalFileName);
+      }
+
+      @Override
+      public PresignedUpload presign(UUID uploadId, String key, String contentType, long sizeBytes, Duration ttl) {
+          return new PresignedUpload(uploadId, "PUT", DirectUploadController.PATH + "/" + uploadId,
+                  Map.of("Content-Type", contentType), Instant.now().plus(ttl));
+      }
+
+      @Override
+      public Optional<UploadedObject> stat(String key) {
+          Path filePath = resolve(key);
+          try {
+              return Files.isRegularFile(filePath)
+                      ? Optional.of(new UploadedObject(Files.size(filePath), null))
+                      : Optional.empty();
+          } catch (IOException e) {
+              return Optional.empty();
+          }
+      }
+
+      @Override
+      public void delete(String key) {
+          try {
+              Files.deleteIfExists(resolve(key));
+          } catch (IOException e) {
+              throw new FileStorageException("Could not delete " + key, e);
+          }
+      }
+
+      @Override
+      public void write(String key, InputStream body) throws IOException {
+          Files.copy(body, resolve(key), StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      private Path resolve(String key) {
+          Path filePath = storageLocation.resolve(key).normalize();
+          if (!filePath.startsWith(storageLocation)) {
+              throw new FileStorageException("Invalid storage key: " + key);
+          }
+          return filePath;
       }
 
       private String extractExtension(String filename) {
@@ -65,17 +156,42 @@
           return filename.substring(lastDot);
       }
 
+      /**
+       * Served with {@link FileChannel#transferTo}, which hands the copy to the
+       * kernel where the target allows it instead of cycling through a heap buffer.
+       */
       @Override
-      public Resource loadAsResource(String storedFileName) {
-          try {
-              Path filePath = storageLocation.resolve(storedFileName).normalize();
-              Resource resource = new UrlResource(filePath.toUri());
-              if (resource.exists() && resource.isReadable()) {
-                  return resource;
-              }
+      public StoredObject open(String storedFileName) {
+          Path filePath = storageLocation.resolve(storedFileName).normalize();
+          if (!filePath.startsWith(storageLocation) || !Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
               throw new FileStorageException("File not found: " + storedFileName);
-          } catch (MalformedURLException e) {
-              throw new FileStorageException("Invalid file path for: " + storedFileName, e);
+          }
+          try {
+              long size = Files.size(filePath);
+              Instant lastModified = Files.getLastModifiedTime(filePath).toInstant();
+              String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+              return new StoredObject() {
+                  @Override public long size() { return size; }
+                  @Override public String eTag() { return eTag; }
+                  @Override public Instant lastModified() { return lastModified; }
+
+                  @Override
+                  public void transferTo(long start, long endInclusive, OutputStream out) throws IOException {
+                      try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                          WritableByteChannel target = Channels.newChannel(out);
+                          long position = start;
+                          long remaining = endInclusive - start + 1;
+                          while (remaining > 0) {
+                              long sent = channel.transferTo(position, remaining, target);
+                              if (sent <= 0) break;
+                              position += sent;
+                              remaining -= sent;
+                          }
+                      }
+                  }
+              };
+          } catch (IOException e) {
+              throw new FileStorageException("Could not read " + storedFileName, e);
           }
       }
   }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.beworking.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link DirectUploadBackend} that keeps files on local disk (dev) and so
+ * receives the upload itself: its {@link #presign} points the client at
+ * {@code PUT /api/storage/uploads/{uploadId}}, whose body lands in
+ * {@link #write}. Object-storage backends sign a PUT URL instead and do not
+ * implement this.
+ */
+public interface LocalUploadReceiver extends DirectUploadBackend {
+
+    /** Stores the body of {@code PUT /api/storage/uploads/{id}} under {@code key}. */
+    void write(String key, InputStream body) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.beworking.storage;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Phase one of a direct upload: where the client sends the bytes. The client
+ * issues {@code method} against {@code url} with exactly {@code headers}, then
+ * confirms {@code uploadId} with the owning endpoint.
+ */
+public record PresignedUpload(
+        UUID uploadId,
+        String method,
+        String url,
+        Map<String, String> headers,
+        Instant expiresAt
+) {
+}
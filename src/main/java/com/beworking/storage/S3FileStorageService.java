@@ -1,20 +1,35 @@
 package com.beworking.storage;
   
   import java.io.IOException;
+  import java.io.InputStream;
+  import java.io.OutputStream;
+  import java.time.Duration;
+  import java.time.Instant;
+  import java.util.Base64;
+  import java.util.LinkedHashMap;
+  import java.util.Map;
   import java.util.Objects;
+  import java.util.Optional;
   import java.util.UUID;
+  import org.springframework.beans.factory.annotation.Autowired;
   import org.springframework.beans.factory.annotation.Value;
   import org.springframework.context.annotation.Profile;
-  import org.springframework.core.io.ByteArrayResource;
-  import org.springframework.core.io.Resource;
   import org.springframework.stereotype.Service;
   import org.springframework.util.StringUtils;
   import org.springframework.web.multipart.MultipartFile;
+  import software.amazon.awssdk.core.ResponseInputStream;
   import software.amazon.awssdk.core.sync.RequestBody;
   import software.amazon.awssdk.regions.Region;
   import software.amazon.awssdk.services.s3.S3Client;
+  import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
   import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+  import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+  import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+  import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
   import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+  import software.amazon.awssdk.services.s3.model.S3Exception;
+  import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+  import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
   /**
    * Durable mailroom storage backed by a PRIVATE S3 bucket. Active for all
@@ -22,25 +37,50 @@ package com.beworking.storage;
    * the "mailroom/" prefix with no public access; bytes are streamed back through
    * the already authorization-gated download endpoint. Credentials come from the
    * ECS task role — no static keys.
+   *
+   * Also a {@link DirectUploadBackend}: large scans can be PUT straight into the
+   * bucket with a short-lived signed URL instead of streaming through the API.
    */
   @Service
   @Profile("!dev")
-  public class S3FileStorageService implements FileStorage {
+  public class S3FileStorageService implements FileStorage, DirectUploadBackend {
 
       private static final String KEY_PREFIX = "mailroom/";
 
       private final S3Client s3Client;
+      private final S3Presigner presigner;
       private final String bucket;
+      private final StoredFileRefs refs;
 
-      public S3FileStorageService(
+      @Autowired
+      S3FileStorageService(
               @Value("${mailroom.s3.bucket:}") String bucket,
-              @Value("${mailroom.s3.region:eu-north-1}") String region) {
-          this.bucket = bucket;
-          this.s3Client = S3Client.builder()
+              @Value("${mailroom.s3.region:eu-north-1}") String region,
+              StoredFileRefs refs) {
+          this(S3Client.builder()
+                  .region(Region.of(region))
+                  .build(),
+               S3Presigner.builder()
                   .region(Region.of(region))
-                  .build();
+                  .build(),
+               bucket,
+               refs);
       }
 
+      S3FileStorageService(S3Client s3Client, S3Presigner presigner, String bucket, StoredFileRefs refs) {
+          this.s3Client = s3Client;
+          this.presigner = presigner;
+          this.bucket = bucket;
+          this.refs = refs;
+      }
+
+      /**
+       * Hashes the (already spooled) upload, then sends it only if no object
+       * with that digest exists. The digest is also sent as the object's
+       * SHA-256 checksum, so S3 rejects a body that does not match its name.
+       * The existence check runs after {@link StoredFileRefs#pin}, so a blob
+       * this upload reuses cannot be collected before the document row commits.
+       */
       @Override
       public StoredFile store(MultipartFile file) {
           if (file == null || file.isEmpty()) {
@@ -48,34 +88,128 @@ package com.beworking.storage;
           }
           String originalFilename = StringUtils.cleanPath(
                   Objects.requireNonNullElse(file.getOriginalFilename(), "upload"));
-          String storedFileName = UUID.randomUUID() + extractExtension(originalFilename);
           try {
-              s3Client.putObject(
-                      PutObjectRequest.builder()
-                              .bucket(bucket)
-                              .key(KEY_PREFIX + storedFileName)
-                              .contentType(file.getContentType())
-                              .build(),
-                      RequestBody.fromBytes(file.getBytes()));
+              byte[] digest;
+              try (InputStream in = file.getInputStream()) {
+                  digest = ContentDigest.sha256(in);
+              }
+              String storedFileName = ContentDigest.fileName(digest);
+              refs.pin(storedFileName);
+              if (stat(storedFileName).isEmpty()) {
+                  try (InputStream in = file.getInputStream()) {
+                      s3Client.putObject(
+                              PutObjectRequest.builder()
+                                      .bucket(bucket)
+                                      .key(KEY_PREFIX + storedFileName)
+                                      .contentType(file.getContentType())
+                                      .checksumSHA256(Base64.getEncoder().encodeToString(digest))
+                                      .build(),
+                              RequestBody.fromInputStream(in, file.getSize()));
+                  }
+              }
+              return new StoredFile(storedFileName, originalFilename, file.getContentType(), file.getSize());
           } catch (IOException e) {
               throw new FileStorageException("Failed to store file " + originalFilename, e);
           }
-          return new StoredFile(storedFileName, originalFilename, file.getContentType(), file.getSize());
       }
 
       @Override
-      public Resource loadAsResource(String storedFileName) {
+      public void store(String storedFileName, byte[] content, String contentType) {
+          s3Client.putObject(
+                  PutObjectRequest.builder()
+                          .bucket(bucket)
+                          .key(KEY_PREFIX + storedFileName)
+                          .contentType(contentType)
+                          .build(),
+                  RequestBody.fromBytes(content));
+      }
+
+      /**
+       * HEAD for the metadata; the body is a ranged GET streamed straight to the
+       * caller's output, so no download is ever held in heap.
+       */
+      @Override
+      public StoredObject open(String storedFileName) {
+          String key = KEY_PREFIX + storedFileName;
+          HeadObjectResponse head;
           try {
-              byte[] bytes = s3Client.getObjectAsBytes(
-                      GetObjectRequest.builder()
-                              .bucket(bucket)
-                              .key(KEY_PREFIX + storedFileName)
-                              .build())
-                      .asByteArray();
-              return new ByteArrayResource(bytes);
+              head = s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
           } catch (Exception e) {
               throw new FileStorageException("File not found: " + storedFileName, e);
           }
+          long size = head.contentLength();
+          String eTag = head.eTag();
+          Instant lastModified = head.lastModified();
+          return new StoredObject() {
+              @Override public long size() { return size; }
+              @Override public String eTag() { return eTag; }
+              @Override public Instant lastModified() { return lastModified; }
+
+              @Override
+              public void transferTo(long start, long endInclusive, OutputStream out) throws IOException {
+                  GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+                  if (start > 0 || endInclusive < size - 1) {
+                      request.range("bytes=" + start + "-" + endInclusive);
+                  }
+                  // Pin the version we described: a concurrent overwrite fails instead of mixing bytes.
+                  if (eTag != null) {
+                      request.ifMatch(eTag);
+                  }
+                  try (ResponseInputStream<GetObjectResponse> body = s3Client.getObject(request.build())) {
+                      body.transferTo(out);
+                  }
+              }
+          };
+      }
+
+      @Override
+      public String purpose() {
+          return "mailroom";
+      }
+
+      @Override
+      public String newKey(String originalFileName) {
+          return UUID.randomUUID() + extractExtension(originalFileName);
+      }
+
+      /** Content type and length are signed, so the client cannot swap either. */
+      @Override
+      public PresignedUpload presign(UUID uploadId, String key, String contentType, long sizeBytes, Duration ttl) {
+          PresignedPutObjectRequest signed = presigner.presignPutObject(builder -> builder
+                  .signatureDuration(ttl)
+                  .putObjectRequest(PutObjectRequest.builder()
+                          .bucket(bucket)
+                          .key(KEY_PREFIX + key)
+                          .contentType(contentType)
+                          .contentLength(sizeBytes)
+                          .build()));
+          Map<String, String> headers = new LinkedHashMap<>();
+          signed.signedHeaders().forEach((name, values) -> {
+              if (!"host".equalsIgnoreCase(name)) {
+                  headers.put(name, String.join(",", values));
+              }
+          });
+          return new PresignedUpload(uploadId, "PUT", signed.url().toString(), headers, signed.expiration());
+      }
+
+      @Override
+      public Optional<UploadedObject> stat(String key) {
+          try {
+              HeadObjectResponse head = s3Client.headObject(
+                      HeadObjectRequest.builder().bucket(bucket).key(KEY_PREFIX + key).build());
+              return Optional.of(new UploadedObject(head.contentLength(), head.contentType()));
+          } catch (S3Exception e) {
+              // HEAD has no body: a missing key surfaces as a bare 404.
+              if (e.statusCode() == 404) {
+                  return Optional.empty();
+              }
+              throw e;
+          }
+      }
+
+      @Override
+      public void delete(String key) {
+          s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(KEY_PREFIX + key).build());
       }
 
       private String extractExtension(String filename) {
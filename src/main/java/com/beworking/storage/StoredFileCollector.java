@@ -0,0 +1,97 @@
+package com.beworking.storage;
+
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes mailroom blobs that no document references any more, together with
+ * their derived files (previews). Counts live in
+ * {@code beworking.stored_file_refs} (V103, trigger-maintained). A blob is
+ * only collected once it has been unreferenced for
+ * {@code app.storage.gc-grace}.
+ *
+ * Each blob is collected in its own transaction. The transaction locks the
+ * ref row and re-checks that it is still unreferenced. It deletes the
+ * objects while it holds the lock, and only then deletes the row. An
+ * upload reusing the blob pins that row first ({@link StoredFileRefs}), so
+ * one of two things happens. Either the upload waits and then finds the
+ * blob gone and sends it again, or the collector skips the pinned row.
+ * Replicas skip rows another one has locked. If a delete fails, the
+ * transaction rolls back and the row stays, so the next sweep retries it.
+ */
+@Component
+class StoredFileCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredFileCollector.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorage fileStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+
+    StoredFileCollector(JdbcTemplate jdbcTemplate, FileStorage fileStorage,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.storage.gc-grace:PT1H}") Duration grace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileStorage = fileStorage;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc-interval:PT15M}")
+    void collect() {
+        try {
+            List<String> candidates = jdbcTemplate.queryForList("""
+                SELECT stored_file_name FROM beworking.stored_file_refs
+                 WHERE ref_count = 0 AND released_at < now() - make_interval(secs => ?)
+                 LIMIT ?
+                """, String.class, grace.toSeconds(), BATCH_SIZE);
+            int deleted = 0;
+            for (String storedFileName : candidates) {
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> collectOne(storedFileName)))) {
+                        deleted++;
+                    }
+                } catch (Exception e) {
+                    logger.warn("Could not delete unreferenced file {}: {}", storedFileName, e.getMessage());
+                }
+            }
+            if (deleted > 0) {
+                logger.info("Deleted {} unreferenced mailroom files", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Stored file collection failed: {}", e.getMessage());
+        }
+    }
+
+    /** Runs in one transaction; false if the row was pinned, re-referenced or is being collected elsewhere. */
+    boolean collectOne(String storedFileName) {
+        List<String> locked = jdbcTemplate.queryForList("""
+            SELECT stored_file_name FROM beworking.stored_file_refs
+             WHERE stored_file_name = ?
+               AND ref_count = 0 AND released_at < now() - make_interval(secs => ?)
+               FOR UPDATE SKIP LOCKED
+            """, String.class, storedFileName, grace.toSeconds());
+        if (locked.isEmpty()) {
+            return false;
+        }
+        fileStorage.delete(storedFileName);
+        for (String suffix : FileStorage.DERIVED_SUFFIXES) {
+            fileStorage.delete(storedFileName + suffix);
+        }
+        // The row lock held since the SELECT means no reference was counted in between.
+        return jdbcTemplate.update(
+            "DELETE FROM beworking.stored_file_refs WHERE stored_file_name = ? AND ref_count = 0",
+            storedFileName) > 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.beworking.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guards a blob that an upload is about to reuse against
+ * {@link StoredFileCollector}. The storage backends call {@link #pin} with
+ * the digest name before they decide whether the bytes still need sending.
+ */
+@Component
+class StoredFileRefs {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    StoredFileRefs(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts the {@code stored_file_refs} row for {@code storedFileName}. An
+     * unreferenced row's grace period restarts now. The row stays locked until
+     * the caller's transaction commits, and by then the document row's trigger
+     * has counted the reference. A collector that is deleting this blob already
+     * holds the lock, so this call waits for it to finish; the caller then
+     * sees the blob is gone and uploads it again.
+     */
+    void pin(String storedFileName) {
+        jdbcTemplate.update("""
+            INSERT INTO beworking.stored_file_refs AS r (stored_file_name, ref_count, released_at)
+            VALUES (?, 0, now())
+            ON CONFLICT (stored_file_name) DO UPDATE
+               SET released_at = CASE WHEN r.ref_count = 0 THEN now() ELSE r.released_at END
+            """, storedFileName);
+    }
+}
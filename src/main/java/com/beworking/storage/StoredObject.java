@@ -0,0 +1,24 @@
+package com.beworking.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * A stored file's metadata plus a way to stream any byte range of it. The
+ * body is only fetched by {@link #transferTo}, so a conditional request
+ * answered with 304 never touches the bytes, and a range request reads only
+ * that range from the backing store.
+ */
+public interface StoredObject {
+
+    long size();
+
+    /** Strong entity tag, including the surrounding quotes. */
+    String eTag();
+
+    Instant lastModified();
+
+    /** Writes bytes {@code start..endInclusive} to {@code out}. */
+    void transferTo(long start, long endInclusive, OutputStream out) throws IOException;
+}
@@ -0,0 +1,107 @@
+package com.beworking.storage;
+
+import java.util.List;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * HTTP semantics for streaming a {@link StoredObject}: {@code ETag} /
+ * {@code If-None-Match} (304), a single {@code Range} (206 with
+ * {@code Content-Range}; 416 when unsatisfiable) guarded by {@code If-Range},
+ * and a body written straight from the store to the response.
+ *
+ * Multi-range requests are answered with the whole file (RFC 9110 lets a
+ * server ignore Range); PDF viewers and media players only send one.
+ *
+ * The body is async, so a transfer is bounded by the MVC async timeout
+ * ({@code app.mvc.async-timeout}, see WebMvcConfig), not the container's 30s.
+ */
+public final class StoredObjectResponses {
+
+    private StoredObjectResponses() {
+    }
+
+    public static ResponseEntity<StreamingResponseBody> serve(StoredObject object,
+                                                              HttpHeaders request,
+                                                              MediaType mediaType,
+                                                              ContentDisposition disposition) {
+        String eTag = object.eTag();
+        long size = object.size();
+
+        if (eTag != null && matches(request.getIfNoneMatch(), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .build();
+        }
+
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        String rangeHeader = request.getFirst(HttpHeaders.RANGE);
+        if (rangeHeader != null && rangeApplies(request.getFirst(HttpHeaders.IF_RANGE), eTag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                if (size == 0 || range.getRangeStart(size) >= size) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+                }
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+                partial = true;
+            }
+        }
+
+        long from = start;
+        long to = end;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+            .contentType(mediaType)
+            .contentLength(size == 0 ? 0 : to - from + 1)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        if (object.lastModified() != null) {
+            builder.lastModified(object.lastModified());
+        }
+        if (partial) {
+            builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + from + "-" + to + "/" + size);
+        }
+        return builder.body(out -> {
+            if (size > 0) {
+                object.transferTo(from, to, out);
+            }
+        });
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** No If-Range, or it names the current version: honour Range. A date or stale tag: send it all. */
+    private static boolean rangeApplies(String ifRange, String eTag) {
+        return ifRange == null || (eTag != null && ifRange.trim().equals(eTag));
+    }
+
+    private static String stripWeak(String tag) {
+        String trimmed = tag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+}
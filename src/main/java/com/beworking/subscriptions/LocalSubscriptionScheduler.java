@@ -1,5 +1,7 @@
 package com.beworking.subscriptions;
 
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
 import java.time.YearMonth;
 import java.util.List;
 import org.slf4j.Logger;
@@ -14,11 +16,14 @@ public class LocalSubscriptionScheduler {
 
     private final SubscriptionService subscriptionService;
     private final SubscriptionRepository subscriptionRepository;
+    private final ScheduledJobRunner jobRunner;
 
     public LocalSubscriptionScheduler(SubscriptionService subscriptionService,
-                                       SubscriptionRepository subscriptionRepository) {
+                                       SubscriptionRepository subscriptionRepository,
+                                       ScheduledJobRunner jobRunner) {
         this.subscriptionService = subscriptionService;
         this.subscriptionRepository = subscriptionRepository;
+        this.jobRunner = jobRunner;
     }
 
     /**
@@ -28,7 +33,7 @@ public class LocalSubscriptionScheduler {
      */
    @Scheduled(cron = "0 0 1 1 * *")
       public void generateBankTransferInvoices() {
-          runOnce();
+          jobRunner.runScheduled("localSubscription", this::runOnce);
       }
   
       public RunResult runOnce() {
@@ -102,5 +107,10 @@ public class LocalSubscriptionScheduler {
         };
     }
 
-    public record RunResult(int success, int failed, int skipped, int total) {}
+    public record RunResult(int success, int failed, int skipped, int total) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return total;
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "subscriptions", schema = "beworking")
+@EntityListeners({SubscriptionTaxProfileListener.class, com.beworking.bookings.OccupancyTimelineListener.class})
 public class Subscription {
 
     @Id
@@ -0,0 +1,265 @@
+package com.beworking.subscriptions;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the admin bulk subscription operations — VAT relock-all and Stripe tax
+ * sync-all — as persisted background jobs.
+ *
+ * Active subs are walked in id order in chunks of {@link #CHUNK_SIZE}; each
+ * chunk fans out over a bounded worker pool, and every call toward
+ * stripe-service first takes a token from a shared bucket so the pool can't
+ * exceed stripe-service's rate limit. After each chunk the counters and the
+ * {@code last_subscription_id} checkpoint are written to
+ * {@code beworking.subscription_bulk_jobs}; the admin UI polls that row.
+ *
+ * A run whose row stops advancing for {@link #STALE_AFTER} (the instance died
+ * mid-run) is adopted by the periodic {@link #resumeStaleJobs()} sweep and
+ * resumed from its checkpoint. Relock and sync are both idempotent, so the
+ * at-most-one-chunk overlap on resume is harmless.
+ */
+@Service
+public class SubscriptionBulkJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionBulkJobService.class);
+
+    static final int CHUNK_SIZE = 25;
+    static final Duration STALE_AFTER = Duration.ofMinutes(5);
+
+    public enum Kind { RELOCK, STRIPE_TAX_SYNC }
+
+    enum Outcome { CHANGED, UNCHANGED, SYNCED, SKIPPED, ERROR }
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionService subscriptionService;
+    private final StripeTaxSyncClient stripeTaxSyncClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService workers;
+    private final Bucket stripeLimiter;
+
+    public SubscriptionBulkJobService(SubscriptionRepository subscriptionRepository,
+                                      SubscriptionService subscriptionService,
+                                      StripeTaxSyncClient stripeTaxSyncClient,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${app.subscriptions.bulk.workers:4}") int workerCount,
+                                      @Value("${app.subscriptions.bulk.stripe-requests-per-second:5}") int stripeRate) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionService = subscriptionService;
+        this.stripeTaxSyncClient = stripeTaxSyncClient;
+        this.jdbcTemplate = jdbcTemplate;
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), r -> {
+            Thread t = new Thread(r, "subscription-bulk-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        int rate = Math.max(1, stripeRate);
+        this.stripeLimiter = Bucket4j.builder()
+            .addLimit(Bandwidth.classic(rate, Refill.greedy(rate, Duration.ofSeconds(1))))
+            .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Cancel the chunk still queued so its coordinator stops waiting on it.
+        for (Runnable queued : workers.shutdownNow()) {
+            if (queued instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Registers a new run and starts it off the request thread.
+     *
+     * @return the job id, or empty when a run of the same kind is already in
+     *         flight (on any replica).
+     */
+    public Optional<UUID> start(Kind kind, String startedBy) {
+        UUID id = UUID.randomUUID();
+        long total = subscriptionRepository.countByActiveTrue();
+        try {
+            jdbcTemplate.update("""
+                INSERT INTO beworking.subscription_bulk_jobs (id, kind, status, total, started_by)
+                VALUES (?, ?, 'RUNNING', ?, ?)
+                """, id, kind.name(), total, startedBy);
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+        launch(id, kind, 0);
+        return Optional.of(id);
+    }
+
+    /** Latest state of one run, or empty if the id is unknown. */
+    public Optional<Map<String, Object>> findJob(UUID id) {
+        try {
+            return Optional.of(jdbcTemplate.queryForMap(
+                "SELECT * FROM beworking.subscription_bulk_jobs WHERE id = ?", id));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** Most recent runs first, for the admin job list. */
+    public List<Map<String, Object>> listRecent(int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT * FROM beworking.subscription_bulk_jobs ORDER BY started_at DESC LIMIT ?", limit);
+    }
+
+    /**
+     * Adopts runs whose owner stopped heartbeating (restart, crash, redeploy)
+     * and resumes them from their checkpoint. The conditional UPDATE is the
+     * claim: only one replica wins it.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void resumeStaleJobs() {
+        List<Map<String, Object>> stale = jdbcTemplate.queryForList("""
+            SELECT id, kind, last_subscription_id
+              FROM beworking.subscription_bulk_jobs
+             WHERE status = 'RUNNING'
+               AND updated_at < now() - make_interval(secs => ?)
+            """, STALE_AFTER.toSeconds());
+        for (Map<String, Object> row : stale) {
+            UUID id = (UUID) row.get("id");
+            int claimed = jdbcTemplate.update("""
+                UPDATE beworking.subscription_bulk_jobs SET updated_at = now()
+                 WHERE id = ? AND status = 'RUNNING'
+                   AND updated_at < now() - make_interval(secs => ?)
+                """, id, STALE_AFTER.toSeconds());
+            if (claimed == 1) {
+                int checkpoint = ((Number) row.get("last_subscription_id")).intValue();
+                logger.info("Resuming bulk job {} ({}) after sub {}", id, row.get("kind"), checkpoint);
+                launch(id, Kind.valueOf((String) row.get("kind")), checkpoint);
+            }
+        }
+    }
+
+    private void launch(UUID id, Kind kind, int checkpoint) {
+        Thread coordinator = new Thread(() -> run(id, kind, checkpoint), "subscription-bulk-" + kind.name().toLowerCase());
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    void run(UUID id, Kind kind, int checkpoint) {
+        long start = System.currentTimeMillis();
+        logger.info("Bulk job {} ({}) starting after sub {}", id, kind, checkpoint);
+        try {
+            int lastId = checkpoint;
+            while (true) {
+                List<Subscription> chunk = subscriptionRepository
+                    .findByActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, CHUNK_SIZE));
+                if (chunk.isEmpty()) break;
+
+                List<Future<Outcome>> futures = new ArrayList<>(chunk.size());
+                for (Subscription sub : chunk) {
+                    futures.add(workers.submit(() -> process(kind, sub)));
+                }
+                Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+                for (Future<Outcome> f : futures) {
+                    Outcome o;
+                    try {
+                        o = f.get();
+                    } catch (ExecutionException e) {
+                        o = Outcome.ERROR;
+                    }
+                    counts.merge(o, 1, Integer::sum);
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+                checkpoint(id, chunk.size(), counts, lastId);
+            }
+            jdbcTemplate.update("""
+                UPDATE beworking.subscription_bulk_jobs
+                   SET status = 'COMPLETED', finished_at = now(), updated_at = now()
+                 WHERE id = ?
+                """, id);
+            logger.info("Bulk job {} ({}) completed in {}s", id, kind,
+                (System.currentTimeMillis() - start) / 1000);
+        } catch (InterruptedException e) {
+            // Shutdown: leave the row RUNNING so another instance resumes it.
+            Thread.currentThread().interrupt();
+            logger.warn("Bulk job {} ({}) interrupted; will resume from checkpoint", id, kind);
+        } catch (RejectedExecutionException | CancellationException e) {
+            // The worker pool shut down under us: same as an interrupt, stay RUNNING.
+            logger.warn("Bulk job {} ({}) stopped by shutdown; will resume from checkpoint", id, kind);
+        } catch (Exception e) {
+            logger.error("Bulk job {} ({}) failed", id, kind, e);
+            jdbcTemplate.update("""
+                UPDATE beworking.subscription_bulk_jobs
+                   SET status = 'FAILED', error = ?, finished_at = now(), updated_at = now()
+                 WHERE id = ?
+                """, e.getMessage(), id);
+        }
+    }
+
+    private void checkpoint(UUID id, int processed, Map<Outcome, Integer> counts, int lastId) {
+        jdbcTemplate.update("""
+            UPDATE beworking.subscription_bulk_jobs
+               SET processed = processed + ?,
+                   changed = changed + ?,
+                   unchanged = unchanged + ?,
+                   synced = synced + ?,
+                   skipped = skipped + ?,
+                   errors = errors + ?,
+                   last_subscription_id = ?,
+                   updated_at = now()
+             WHERE id = ?
+            """,
+            processed,
+            counts.getOrDefault(Outcome.CHANGED, 0),
+            counts.getOrDefault(Outcome.UNCHANGED, 0),
+            counts.getOrDefault(Outcome.SYNCED, 0),
+            counts.getOrDefault(Outcome.SKIPPED, 0),
+            counts.getOrDefault(Outcome.ERROR, 0),
+            lastId, id);
+    }
+
+    Outcome process(Kind kind, Subscription sub) throws InterruptedException {
+        boolean hasStripe = sub.getStripeSubscriptionId() != null && !sub.getStripeSubscriptionId().isBlank();
+        try {
+            if (kind == Kind.RELOCK) {
+                // relockVatPercent always pushes the fresh rate to Stripe when the sub is Stripe-billed.
+                if (hasStripe) stripeLimiter.asBlocking().consume(1);
+                return subscriptionService.relockVatPercent(sub).changed() ? Outcome.CHANGED : Outcome.UNCHANGED;
+            }
+            if (!hasStripe || sub.getVatPercent() == null) {
+                return Outcome.SKIPPED;
+            }
+            stripeLimiter.asBlocking().consume(1);
+            return stripeTaxSyncClient.syncSubscriptionTax(
+                sub.getStripeSubscriptionId(), sub.getVatPercent(), sub.getCuenta())
+                ? Outcome.SYNCED : Outcome.ERROR;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Bulk {}: sub {} failed: {}", kind, sub.getId(), e.getMessage());
+            return Outcome.ERROR;
+        }
+    }
+}
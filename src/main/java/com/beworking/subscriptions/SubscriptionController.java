@@ -1,7 +1,6 @@
 package com.beworking.subscriptions;
 
-import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
 import com.beworking.bookings.Producto;
 import com.beworking.bookings.ProductoRepository;
 import com.beworking.contacts.ContactProfile;
@@ -32,7 +31,6 @@ public class SubscriptionController {
     private static final Logger logger = LoggerFactory.getLogger(SubscriptionController.class);
 
     private final SubscriptionService subscriptionService;
-    private final UserRepository userRepository;
     private final ContactProfileRepository contactRepository;
     private final ProductoRepository productoRepository;
     private final com.beworking.plans.PlanRepository planRepository;
@@ -42,13 +40,14 @@ public class SubscriptionController {
     private final RestClient http;
     private final com.beworking.bekey.BeKeyAccessService beKeyAccessService;
     private final com.beworking.bekey.BeKeyShareService beKeyShareService;
+    private final SubscriptionBulkJobService bulkJobService;
+    private final com.beworking.bookings.OccupancyTimeline occupancyTimeline;
 
 
     @Value("${app.frontend-url:}")
     private String frontendUrl;
 
     public SubscriptionController(SubscriptionService subscriptionService,
-                                  UserRepository userRepository,
                                   ContactProfileRepository contactRepository,
                                   ProductoRepository productoRepository,
                                   com.beworking.plans.PlanRepository planRepository,
@@ -57,9 +56,10 @@ public class SubscriptionController {
                                   com.beworking.auth.RegisterService registerService,
                                   com.beworking.bekey.BeKeyAccessService beKeyAccessService,
                                   com.beworking.bekey.BeKeyShareService beKeyShareService,
+                                  SubscriptionBulkJobService bulkJobService,
+                                  com.beworking.bookings.OccupancyTimeline occupancyTimeline,
                                   @Value("${app.payments.base-url:http://beworking-stripe-service:8081}") String paymentsBaseUrl) {
         this.subscriptionService = subscriptionService;
-        this.userRepository = userRepository;
         this.contactRepository = contactRepository;
         this.productoRepository = productoRepository;
         this.planRepository = planRepository;
@@ -68,25 +68,21 @@ public class SubscriptionController {
         this.registerService = registerService;
         this.beKeyAccessService = beKeyAccessService;
         this.beKeyShareService = beKeyShareService;
+        this.bulkJobService = bulkJobService;
+        this.occupancyTimeline = occupancyTimeline;
         this.http = RestClient.builder().baseUrl(paymentsBaseUrl).build();
     }
 
     @GetMapping
     public ResponseEntity<?> list(
-        Authentication authentication,
+        AuthenticatedUser currentUser,
         @RequestParam(required = false) Long contactId
     ) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        boolean admin = isAdmin(authentication);
         // Non-admin users can only list subscriptions for their own contact
-        if (!admin) {
-            Optional<User> userOpt = userRepository.findByEmail(authentication.getName());
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            }
-            User currentUser = userOpt.get();
+        if (!currentUser.isAdmin()) {
             if (contactId == null || currentUser.getTenantId() == null || !currentUser.getTenantId().equals(contactId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
@@ -692,16 +688,13 @@ public class SubscriptionController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Subscription> activeSubs = subscriptionService.findActiveDeskSubscriptions();
-
-        // Resolve each active desk sub's product name once, to bucket by zone.
-        Set<Long> productIds = activeSubs.stream()
-            .map(Subscription::getProductoId)
+        // Occupied desk names, resolved from the shared occupancy timeline.
+        List<String> occupiedNames = occupancyTimeline.subscriptionsCovering(java.time.LocalDate.now()).stream()
+            .map(sub -> occupancyTimeline.product(sub.productoId())
+                .map(p -> p.nombre() == null ? "" : p.nombre().toUpperCase())
+                .orElse(null))
             .filter(java.util.Objects::nonNull)
-            .collect(java.util.stream.Collectors.toSet());
-        Map<Long, String> productNames = new HashMap<>();
-        productoRepository.findAllById(productIds).forEach(p ->
-            productNames.put(p.getId(), p.getNombre() == null ? "" : p.getNombre().toUpperCase()));
+            .toList();
 
         // One row per coworking zone that is bookable today (so the summer A5 zone
         // appears only during its window). Top-level totals stay the primary zone
@@ -712,12 +705,9 @@ public class SubscriptionController {
             // All zones are permanent fixtures now (a zone may be blocked for
             // booking outside its window, but it still shows in occupancy).
             String prefixUpper = zone.prefix.toUpperCase();
-            long total = productoRepository.countByNombrePrefix(zone.prefix);
-            long occupied = activeSubs.stream()
-                .map(Subscription::getProductoId)
-                .filter(java.util.Objects::nonNull)
-                .map(productNames::get)
-                .filter(n -> n != null && n.startsWith(prefixUpper))
+            long total = occupancyTimeline.productsByPrefix(zone.prefix).size();
+            long occupied = occupiedNames.stream()
+                .filter(n -> n.startsWith(prefixUpper))
                 .count();
             Map<String, Object> z = new HashMap<>();
             z.put("roomCode", zone.roomCode);
@@ -744,28 +734,18 @@ public class SubscriptionController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Subscription> activeSubs = subscriptionService.findActiveDeskSubscriptions();
         List<Map<String, Object>> result = new ArrayList<>();
-
-        for (Subscription sub : activeSubs) {
+        for (com.beworking.bookings.OccupancyTimeline.SubscriptionSlot sub
+                : occupancyTimeline.subscriptionsCovering(java.time.LocalDate.now())) {
             Map<String, Object> entry = new HashMap<>();
-            entry.put("subscriptionId", sub.getId());
-            entry.put("contactId", sub.getContactId());
-            entry.put("productoId", sub.getProductoId());
-            entry.put("monthlyAmount", sub.getMonthlyAmount());
-            entry.put("startDate", sub.getStartDate());
-            entry.put("description", sub.getDescription());
-
-            // Resolve contact name
-            contactRepository.findById(sub.getContactId()).ifPresent(cp ->
-                entry.put("contactName", cp.getName())
-            );
-
-            // Resolve product name and extract desk number
-            productoRepository.findById(sub.getProductoId()).ifPresent(p -> {
-                entry.put("productName", p.getNombre());
-            });
-
+            entry.put("subscriptionId", sub.id());
+            entry.put("contactId", sub.contactId());
+            entry.put("productoId", sub.productoId());
+            entry.put("monthlyAmount", sub.monthlyAmount());
+            entry.put("startDate", sub.startDate());
+            entry.put("description", sub.description());
+            occupancyTimeline.contactName(sub.contactId()).ifPresent(name -> entry.put("contactName", name));
+            occupancyTimeline.product(sub.productoId()).ifPresent(p -> entry.put("productName", p.nombre()));
             result.add(entry);
         }
 
@@ -805,8 +785,8 @@ public class SubscriptionController {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        java.util.Set<Long> occupied = subscriptionService.findActiveDeskSubscriptions().stream()
-            .map(Subscription::getProductoId)
+        java.util.Set<Long> occupied = occupancyTimeline.subscriptionsCovering(java.time.LocalDate.now()).stream()
+            .map(com.beworking.bookings.OccupancyTimeline.SubscriptionSlot::productoId)
             .filter(java.util.Objects::nonNull)
             .collect(java.util.stream.Collectors.toSet());
         // Every coworking zone bookable today (permanent MA1O1 + seasonal MA1O5/A5
@@ -815,11 +795,11 @@ public class SubscriptionController {
         List<Map<String, Object>> result = new ArrayList<>();
         for (com.beworking.bookings.CoworkZone zone : com.beworking.bookings.CoworkZone.ALL) {
             if (!zone.isActiveOn(today)) continue;
-            for (Producto p : productoRepository.findByNombrePrefix(zone.prefix)) {
+            for (com.beworking.bookings.OccupancyTimeline.ProductSlot p : occupancyTimeline.productsByPrefix(zone.prefix)) {
                 Map<String, Object> entry = new HashMap<>();
-                entry.put("id", p.getId());
-                entry.put("nombre", p.getNombre());
-                entry.put("available", !occupied.contains(p.getId()));
+                entry.put("id", p.id());
+                entry.put("nombre", p.nombre());
+                entry.put("available", !occupied.contains(p.id()));
                 entry.put("zone", zone.roomCode);
                 result.add(entry);
             }
@@ -1002,29 +982,15 @@ public class SubscriptionController {
      * BeWorking's canonical invoices. Run once after V48 lands the lock-in;
      * also useful any time you suspect Stripe-vs-DB drift.
      *
-     * Synchronous + throttled (~5 req/sec). For ~322 active subs, ~65 sec.
-     * Wrapped in a background thread so it can complete past ALB timeout.
+     * Runs as a background job (see {@link SubscriptionBulkJobService});
+     * returns the job id at once — poll {@code /bulk-jobs/{jobId}} for progress.
      */
     @PostMapping("/sync-stripe-tax-all")
     public ResponseEntity<?> bulkSyncStripeTax(Authentication authentication) {
         if (!isAdmin(authentication)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        new Thread(() -> {
-            long start = System.currentTimeMillis();
-            logger.info("Stripe tax bulk sync starting");
-            try {
-                var stats = subscriptionService.bulkSyncStripeTax();
-                long elapsed = (System.currentTimeMillis() - start) / 1000;
-                logger.info("Stripe tax bulk sync completed in {}s: {}", elapsed, stats);
-            } catch (Exception e) {
-                logger.error("Stripe tax bulk sync failed", e);
-            }
-        }, "stripe-tax-bulk-sync").start();
-        return ResponseEntity.accepted().body(Map.of(
-            "status", "started",
-            "message", "Stripe tax sync running in background. Check backend logs for completion counts."
-        ));
+        return startBulkJob(SubscriptionBulkJobService.Kind.STRIPE_TAX_SYNC, authentication);
     }
 
     /**
@@ -1037,21 +1003,36 @@ public class SubscriptionController {
         if (!isAdmin(authentication)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        new Thread(() -> {
-            long start = System.currentTimeMillis();
-            logger.info("Bulk relock starting");
-            try {
-                var stats = subscriptionService.bulkRelockAllActiveSubs();
-                long elapsedMin = (System.currentTimeMillis() - start) / 60_000;
-                logger.info("Bulk relock completed in {} min: {}", elapsedMin, stats);
-            } catch (Exception e) {
-                logger.error("Bulk relock failed", e);
-            }
-        }, "bulk-relock-all").start();
-        return ResponseEntity.accepted().body(Map.of(
-            "status", "started",
-            "message", "Bulk relock running in background (~2 min for ~321 subs). Check backend logs for completion counts."
-        ));
+        return startBulkJob(SubscriptionBulkJobService.Kind.RELOCK, authentication);
+    }
+
+    /** Progress of the bulk relock / Stripe tax sync runs, newest first. */
+    @GetMapping("/bulk-jobs")
+    public ResponseEntity<?> listBulkJobs(Authentication authentication) {
+        if (!isAdmin(authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(bulkJobService.listRecent(20));
+    }
+
+    @GetMapping("/bulk-jobs/{jobId}")
+    public ResponseEntity<?> getBulkJob(Authentication authentication, @PathVariable java.util.UUID jobId) {
+        if (!isAdmin(authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return bulkJobService.findJob(jobId)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> startBulkJob(SubscriptionBulkJobService.Kind kind, Authentication authentication) {
+        return bulkJobService.start(kind, authentication.getName())
+            .<ResponseEntity<?>>map(jobId -> ResponseEntity.accepted().body(Map.of(
+                "status", "started",
+                "jobId", jobId,
+                "statusUrl", "/api/subscriptions/bulk-jobs/" + jobId)))
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "A " + kind + " run is already in progress")));
     }
 
     @PostMapping("/{id}/generate-invoice")
@@ -1257,8 +1238,8 @@ public class SubscriptionController {
     }
 
     @PostMapping("/{id}/upgrade")
-    public ResponseEntity<?> upgradePlan(Authentication authentication, @PathVariable Integer id, @RequestBody Map<String, Object> body) {
-        if (authentication == null) {
+    public ResponseEntity<?> upgradePlan(AuthenticatedUser currentUser, @PathVariable Integer id, @RequestBody Map<String, Object> body) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         Optional<Subscription> opt = subscriptionService.findById(id);
@@ -1268,17 +1249,16 @@ public class SubscriptionController {
         // Admins can edit any sub to any amount. A non-admin may change their OWN
         // sub, but the price must come from a real plan (never a client-supplied
         // amount — a user could otherwise set €0).
-        boolean admin = isAdmin(authentication);
+        boolean admin = currentUser.isAdmin();
         if (!admin) {
             // Verify ownership via the user's tenant_id (= contact id), NOT by
             // matching the login email against the contact's email fields — a
             // user's login email isn't always one of the contact emails, which
             // would wrongly 403 (contact↔login email drift).
-            Long myContactId = userRepository.findByEmail(authentication.getName())
-                    .map(User::getTenantId).orElse(null);
+            Long myContactId = currentUser.getTenantId();
             if (myContactId == null || !myContactId.equals(sub.getContactId())) {
                 logger.warn("Self-upgrade forbidden: user={} myContactId={} subContactId={} subId={}",
-                        authentication.getName(), myContactId, sub.getContactId(), id);
+                        currentUser.getEmail(), myContactId, sub.getContactId(), id);
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
         }
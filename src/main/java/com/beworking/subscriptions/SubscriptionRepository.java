@@ -3,6 +3,7 @@ package com.beworking.subscriptions;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +18,11 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Inte
 
     List<Subscription> findByActiveTrue();
 
+    long countByActiveTrue();
+
+    /** Keyset page over active subs in id order — used by the resumable bulk jobs. */
+    List<Subscription> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
     List<Subscription> findByContactId(Long contactId);
 
     List<Subscription> findByContactIdAndActiveTrue(Long contactId);
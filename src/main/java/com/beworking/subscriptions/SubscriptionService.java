@@ -31,6 +31,7 @@ public class SubscriptionService {
     private final StripeTaxSyncClient stripeTaxSyncClient;
     private final com.beworking.tax.TaxResolver taxResolver;
     private final com.beworking.invoices.BillingSnapshotService billingSnapshotService;
+    private final com.beworking.bookings.OccupancyTimeline occupancyTimeline;
 
     public SubscriptionService(SubscriptionRepository subscriptionRepository,
                                CuentaService cuentaService,
@@ -39,7 +40,8 @@ public class SubscriptionService {
                                @org.springframework.context.annotation.Lazy com.beworking.contacts.ContactProfileService contactProfileService,
                                StripeTaxSyncClient stripeTaxSyncClient,
                                com.beworking.tax.TaxResolver taxResolver,
-                               com.beworking.invoices.BillingSnapshotService billingSnapshotService) {
+                               com.beworking.invoices.BillingSnapshotService billingSnapshotService,
+                               com.beworking.bookings.OccupancyTimeline occupancyTimeline) {
         this.subscriptionRepository = subscriptionRepository;
         this.cuentaService = cuentaService;
         this.jdbcTemplate = jdbcTemplate;
@@ -48,6 +50,7 @@ public class SubscriptionService {
         this.stripeTaxSyncClient = stripeTaxSyncClient;
         this.taxResolver = taxResolver;
         this.billingSnapshotService = billingSnapshotService;
+        this.occupancyTimeline = occupancyTimeline;
     }
 
     public List<Subscription> findAll() {
@@ -83,14 +86,6 @@ public class SubscriptionService {
         return subscriptionRepository.findById(id);
     }
 
-    public List<Subscription> findActiveDeskSubscriptions() {
-        // Desks currently occupied = subscriptions whose paid coverage contains
-        // today. A sub cancelled mid-period keeps its desk until its paid-through
-        // end_date, so the admin floor plan doesn't free a still-paid desk (which
-        // would let it be double-booked).
-        return subscriptionRepository.findActiveCoveringDate(java.time.LocalDate.now());
-    }
-
     public Optional<Subscription> findByStripeSubscriptionId(String stripeSubscriptionId) {
         return subscriptionRepository.findByStripeSubscriptionId(stripeSubscriptionId);
     }
@@ -167,12 +162,13 @@ public class SubscriptionService {
                                 payload.getStripePaymentIntentId(), payload.getStripeInvoiceId());
                         }
                         // Sync linked bloqueos to Pagado
-                        jdbcTemplate.update("""
+                        occupancyTimeline.refreshBloqueos(jdbcTemplate.queryForList("""
                             UPDATE beworking.bloqueos b SET estado = 'Pagado'
                             FROM beworking.facturasdesglose fd
                             JOIN beworking.facturas f ON f.idfactura = fd.idfacturadesglose
                             WHERE fd.idbloqueovinculado = b.id AND f.stripeinvoiceid = ? AND b.estado <> 'Pagado'
-                            """, payload.getStripeInvoiceId());
+                            RETURNING b.id
+                            """, Long.class, payload.getStripeInvoiceId()));
                         // Reactivate contact (aging cron may have demoted before payment landed)
                         jdbcTemplate.update("""
                             UPDATE beworking.contact_profiles
@@ -638,74 +634,6 @@ public class SubscriptionService {
         return new RelockResult(subscription.getId(), previous, fresh, changed);
     }
 
-    /**
-     * Bulk-sync Stripe tax config for every active subscription with a
-     * stripe_subscription_id. Idempotent. Used as a one-shot reconciliation
-     * after V48 lands the canonical vat_percent on the local DB — Stripe needs
-     * to be told about the locked rates so its monthly invoices match ours.
-     *
-     * Returns counts: {processed, synced, skipped}.
-     */
-    /**
-     * Bulk re-lock: for every active sub, recompute vat_percent from fresh
-     * contact data + push Stripe tax sync. Used on prod AFTER the post-deploy
-     * reseed completes, to apply newly-healed vat_valid values to subs that
-     * V48/V49 (which run on Flyway startup) couldn't see yet.
-     *
-     * Returns counts: {processed, changed, unchanged, errors}.
-     */
-    public java.util.Map<String, Integer> bulkRelockAllActiveSubs() {
-        int processed = 0, changed = 0, unchanged = 0, errors = 0;
-        for (Subscription sub : subscriptionRepository.findByActiveTrue()) {
-            processed++;
-            try {
-                RelockResult r = relockVatPercent(sub);
-                if (r.changed()) changed++; else unchanged++;
-            } catch (Exception e) {
-                errors++;
-                logger.warn("bulkRelockAllActiveSubs: sub {} failed: {}", sub.getId(), e.getMessage());
-            }
-            // Throttle for VIES (legacy fresh path) + Stripe rate limits.
-            try { Thread.sleep(300); } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        return java.util.Map.of(
-            "processed", processed,
-            "changed", changed,
-            "unchanged", unchanged,
-            "errors", errors);
-    }
-
-    public java.util.Map<String, Integer> bulkSyncStripeTax() {
-        int processed = 0, synced = 0, skipped = 0, errors = 0;
-        for (Subscription sub : subscriptionRepository.findByActiveTrue()) {
-            processed++;
-            if (sub.getStripeSubscriptionId() == null || sub.getStripeSubscriptionId().isBlank()) {
-                skipped++;
-                continue;
-            }
-            if (sub.getVatPercent() == null) {
-                skipped++;
-                continue;
-            }
-            boolean ok = stripeTaxSyncClient.syncSubscriptionTax(
-                sub.getStripeSubscriptionId(), sub.getVatPercent(), sub.getCuenta());
-            if (ok) synced++; else errors++;
-            // Stripe rate-limit safety: small delay between calls.
-            try { Thread.sleep(200); } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        return java.util.Map.of(
-            "processed", processed,
-            "synced", synced,
-            "skipped", skipped,
-            "errors", errors);
-    }
-
     public record RelockResult(Integer subId, Integer previousVatPercent, int newVatPercent, boolean changed) {}
 
     /**
@@ -0,0 +1,33 @@
+package com.beworking.subscriptions;
+
+import com.beworking.tax.ContactTaxProfileCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the contact's cached VAT decision whenever one of its subscriptions
+ * is written through JPA — relock, create, cancel, reactivate, webhook
+ * updates. Any of those can change the locked vat_percent or the active
+ * cuenta that {@link com.beworking.tax.TaxResolver} reads.
+ *
+ * Instantiated by Hibernate through Spring's bean container, so constructor
+ * injection works like any other component.
+ */
+@Component
+public class SubscriptionTaxProfileListener {
+
+    private final ContactTaxProfileCache taxProfileCache;
+
+    public SubscriptionTaxProfileListener(ContactTaxProfileCache taxProfileCache) {
+        this.taxProfileCache = taxProfileCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onSubscriptionWritten(Subscription subscription) {
+        taxProfileCache.evict(subscription.getContactId());
+    }
+}
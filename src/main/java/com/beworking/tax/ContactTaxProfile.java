@@ -0,0 +1,23 @@
+package com.beworking.tax;
+
+/**
+ * Everything VAT resolution needs to know about one contact, loaded in a
+ * single query by {@link ContactTaxProfileCache}.
+ *
+ * @param contactId         beworking.contact_profiles.id
+ * @param lockedVatPercent  vat_percent of the contact's first active sub with a
+ *                          locked rate, or null when nothing is locked yet
+ * @param activeCuenta      cuenta of the contact's most recent active sub, or null
+ * @param taxId             contact_profiles.billing_tax_id
+ * @param billingCountry    contact_profiles.billing_country
+ * @param customerCountry   EU country derived via {@link TaxResolver#deriveCustomerCountry},
+ *                          null when the customer is outside the EU
+ * @param vatValid          contact_profiles.vat_valid (VIES status)
+ */
+public record ContactTaxProfile(Long contactId,
+                                Integer lockedVatPercent,
+                                String activeCuenta,
+                                String taxId,
+                                String billingCountry,
+                                String customerCountry,
+                                Boolean vatValid) {}
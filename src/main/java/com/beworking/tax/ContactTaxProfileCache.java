@@ -0,0 +1,133 @@
+package com.beworking.tax;
+
+import com.beworking.contacts.ContactBillingChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of {@link ContactTaxProfile} per contact, shared by every
+ * invoice path that resolves VAT (monthly run, bookings, Stripe webhooks,
+ * subscription invoices). One query loads the locked sub rate, the active
+ * cuenta and the contact's billing/VIES fields together, so a monthly run
+ * touching every contact costs one round-trip per contact instead of three
+ * or four.
+ *
+ * <p>Invalidation:
+ * <ul>
+ *   <li>{@link ContactBillingChangedEvent} — profile edits, VIES revalidation
+ *       and JIT validation that flips vat_valid.</li>
+ *   <li>Subscription writes — evicted by the Subscription entity listener and
+ *       by the few raw-SQL subscription inserts.</li>
+ * </ul>
+ * The expire-after-write TTL is only a safety net for writes made outside the
+ * app (migrations, manual SQL).
+ *
+ * <p>Every eviction also bumps a per-contact generation, and a load is only
+ * cached if the generation is unchanged once it returns — so a reader that
+ * loaded the pre-commit row cannot put it back after the writer's eviction.
+ */
+@Component
+public class ContactTaxProfileCache {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final long MAX_ENTRIES = 10_000;
+    private static final int GENERATION_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, ContactTaxProfile> cache = Caffeine.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(TTL)
+        .build();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public ContactTaxProfileCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Cached profile for the contact; a contact with no row gets an all-null profile (not cached). */
+    public ContactTaxProfile get(Long contactId) {
+        if (contactId == null) return empty(null);
+        ContactTaxProfile cached = cache.getIfPresent(contactId);
+        if (cached != null) return cached;
+        int stripe = stripe(contactId);
+        long generation = generations.get(stripe);
+        ContactTaxProfile loaded = load(contactId);
+        if (loaded != null) {
+            if (generations.get(stripe) == generation) {
+                cache.put(contactId, loaded);
+            }
+            return loaded;
+        }
+        return empty(contactId);
+    }
+
+    /**
+     * Drops the contact's entry now — so the writing transaction sees its own
+     * change — and, when called inside a transaction, once more when it
+     * completes (commit or rollback), so an entry a concurrent reader loaded
+     * from the pre-commit row does not outlive the transaction.
+     */
+    public void evict(Long contactId) {
+        if (contactId == null) return;
+        invalidate(contactId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(contactId);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onContactBillingChanged(ContactBillingChangedEvent event) {
+        evict(event.contactId());
+    }
+
+    private void invalidate(Long contactId) {
+        generations.incrementAndGet(stripe(contactId));
+        cache.invalidate(contactId);
+    }
+
+    private static int stripe(Long contactId) {
+        return Math.floorMod(contactId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private ContactTaxProfile load(Long contactId) {
+        List<ContactTaxProfile> rows = jdbcTemplate.query("""
+            SELECT cp.billing_tax_id, cp.billing_country, cp.vat_valid,
+                   (SELECT s.vat_percent FROM beworking.subscriptions s
+                     WHERE s.contact_id = cp.id AND s.active = TRUE AND s.vat_percent IS NOT NULL
+                     ORDER BY s.id LIMIT 1) AS locked_vat_percent,
+                   (SELECT s.cuenta FROM beworking.subscriptions s
+                     WHERE s.contact_id = cp.id AND s.active = TRUE
+                     ORDER BY s.id DESC LIMIT 1) AS active_cuenta
+              FROM beworking.contact_profiles cp
+             WHERE cp.id = ?
+            """,
+            (rs, n) -> {
+                String taxId = rs.getString("billing_tax_id");
+                String billingCountry = rs.getString("billing_country");
+                Boolean vatValid = (Boolean) rs.getObject("vat_valid");
+                Integer locked = (Integer) rs.getObject("locked_vat_percent");
+                return new ContactTaxProfile(contactId, locked, rs.getString("active_cuenta"),
+                    taxId, billingCountry, TaxResolver.deriveCustomerCountry(taxId, billingCountry), vatValid);
+            },
+            contactId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static ContactTaxProfile empty(Long contactId) {
+        return new ContactTaxProfile(contactId, null, null, null, null,
+            TaxResolver.deriveCustomerCountry(null, null), null);
+    }
+}
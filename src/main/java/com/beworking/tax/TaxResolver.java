@@ -1,11 +1,8 @@
 package com.beworking.tax;
 
-import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 /**
@@ -25,6 +22,10 @@ import org.springframework.stereotype.Component;
  *       admin "Re-validate VAT" trigger after a deliberate VIES refresh.</li>
  * </ul>
  *
+ * <p>Contact data is read through {@link ContactTaxProfileCache}, so repeated
+ * resolutions for the same contact (e.g. every line of a monthly run) cost a
+ * single query.
+ *
  * <p>This component does NOT call VIES itself; that's handled upstream by
  * {@link com.beworking.contacts.ContactProfileService#ensureVatValidated} for
  * the legacy fresh path, and by {@link ViesGateway} for explicit revalidation
@@ -35,10 +36,10 @@ public class TaxResolver {
 
     private static final Logger logger = LoggerFactory.getLogger(TaxResolver.class);
 
-    private final JdbcTemplate jdbcTemplate;
+    private final ContactTaxProfileCache profileCache;
 
-    public TaxResolver(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public TaxResolver(ContactTaxProfileCache profileCache) {
+        this.profileCache = profileCache;
     }
 
     /**
@@ -47,7 +48,7 @@ public class TaxResolver {
      * compute when no sub or no lock exists.
      */
     public int resolveForContact(Long contactId, String cuenta) {
-        Optional<Integer> locked = readLockedRate(contactId);
+        Optional<Integer> locked = lockedRateFor(contactId);
         if (locked.isPresent()) return locked.get();
         int fresh = computeFreshForContact(contactId, cuenta);
         logger.debug("TaxResolver: contact {} cuenta {} → {}% (legacy fresh path)",
@@ -63,25 +64,13 @@ public class TaxResolver {
     public int computeFreshForContact(Long contactId, String cuenta) {
         String supplierCountry = "GT".equalsIgnoreCase(cuenta) ? "EE" : "ES";
 
-        String taxId = null;
-        String billingCountry = null;
-        Boolean vatValid = null;
-        try {
-            Map<String, Object> row = jdbcTemplate.queryForMap(
-                "SELECT billing_tax_id, billing_country, vat_valid "
-                + "FROM beworking.contact_profiles WHERE id = ?",
-                contactId);
-            taxId = (String) row.get("billing_tax_id");
-            billingCountry = (String) row.get("billing_country");
-            vatValid = (Boolean) row.get("vat_valid");
-        } catch (EmptyResultDataAccessException ignored) {}
-
-        String customerCountry = deriveCustomerCountry(taxId, billingCountry);
+        ContactTaxProfile profile = profileCache.get(contactId);
+        String customerCountry = profile.customerCountry();
         if (customerCountry == null) {
             return EUVatRates.rateFor(supplierCountry);
         }
 
-        boolean reverseCharge = Boolean.TRUE.equals(vatValid)
+        boolean reverseCharge = Boolean.TRUE.equals(profile.vatValid())
             && !supplierCountry.equals(customerCountry);
         if (reverseCharge) return 0;
         return EUVatRates.rateFor(customerCountry);
@@ -142,16 +131,18 @@ public class TaxResolver {
         };
     }
 
-    private Optional<Integer> readLockedRate(Long contactId) {
-        try {
-            Integer rate = jdbcTemplate.queryForObject(
-                "SELECT vat_percent FROM beworking.subscriptions "
-                + "WHERE contact_id = ? AND active = TRUE AND vat_percent IS NOT NULL "
-                + "ORDER BY id LIMIT 1",
-                Integer.class, contactId);
-            return Optional.ofNullable(rate);
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+    /**
+     * The rate locked on the contact's active subscription, if any. Callers
+     * that run JIT VIES before the fresh compute check this first so locked
+     * contacts never trigger a VIES call.
+     */
+    public Optional<Integer> lockedRateFor(Long contactId) {
+        return Optional.ofNullable(profileCache.get(contactId).lockedVatPercent());
+    }
+
+    /** Cuenta of the contact's most recent active subscription, if any. */
+    public Optional<String> activeCuentaFor(Long contactId) {
+        String cuenta = profileCache.get(contactId).activeCuenta();
+        return cuenta == null || cuenta.isBlank() ? Optional.empty() : Optional.of(cuenta);
     }
 }
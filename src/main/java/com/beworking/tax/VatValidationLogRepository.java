@@ -1,6 +1,10 @@
 package com.beworking.tax;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface VatValidationLogRepository extends JpaRepository<VatValidationLog, Long> {
+
+    /** Latest VIES check for a normalized tax id — backs {@link ViesResultCache}. */
+    Optional<VatValidationLog> findFirstByTaxIdOrderByCheckedAtDesc(String taxId);
 }
@@ -2,6 +2,11 @@ package com.beworking.tax;
 
 import com.beworking.contacts.ViesVatService;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -16,6 +21,14 @@ import org.springframework.stereotype.Component;
  *       of the €15 ↔ €18.15 oscillation customers were complaining about.</li>
  * </ol>
  *
+ * <p>Outcomes are shared through {@link ViesResultCache}, keyed by the
+ * {@link TaxIdNormalizer} form of the number: contacts carrying the same tax
+ * id (employees of one company, duplicate profiles) reuse one check until its
+ * outcome's TTL runs out. Concurrent callers for a number that is already
+ * being checked wait on that call instead of issuing their own, and every
+ * real VIES call takes a token from the member state's {@link ViesThrottle}
+ * bucket.
+ *
  * <p>This is the single place that calls {@link ViesVatService} for the resolver
  * pipeline. Other code paths (e.g. {@code GET /vat/validate} for live form
  * feedback) may still call ViesVatService directly without persisting.
@@ -27,11 +40,21 @@ public class ViesGateway {
 
     private final ViesVatService viesVatService;
     private final VatValidationLogRepository logRepository;
+    private final TaxIdNormalizer taxIdNormalizer;
+    private final ViesResultCache resultCache;
+    private final ViesThrottle viesThrottle;
+    private final ConcurrentMap<String, CompletableFuture<GatewayResult>> inFlight = new ConcurrentHashMap<>();
 
     public ViesGateway(ViesVatService viesVatService,
-                       VatValidationLogRepository logRepository) {
+                       VatValidationLogRepository logRepository,
+                       TaxIdNormalizer taxIdNormalizer,
+                       ViesResultCache resultCache,
+                       ViesThrottle viesThrottle) {
         this.viesVatService = viesVatService;
         this.logRepository = logRepository;
+        this.taxIdNormalizer = taxIdNormalizer;
+        this.resultCache = resultCache;
+        this.viesThrottle = viesThrottle;
     }
 
     public enum Result { VALID, INVALID, UNREACHABLE }
@@ -51,34 +74,128 @@ public class ViesGateway {
      * @param countryIso ISO-2 country code (ES, FR, etc.) — required by VIES
      */
     public GatewayResult validate(Long contactId, String taxIdValue, String countryIso) {
-        VatValidationLog log = new VatValidationLog();
-        log.setContactId(contactId);
-        log.setCheckedAt(LocalDateTime.now());
-        log.setTaxId(taxIdValue != null ? taxIdValue : "");
-        log.setCountry(countryIso != null ? countryIso : "");
+        return validate(List.of(contactId), taxIdValue, countryIso);
+    }
+
+    /**
+     * One VIES check shared by several contacts that carry the same tax ID.
+     * Served from {@link ViesResultCache} while a previous outcome is still
+     * fresh; otherwise joins an in-flight check for the same number, or makes
+     * the call itself. Each contact on a real call gets its own audit row;
+     * the returned audit id is the first contact's (or the cached row's).
+     */
+    public GatewayResult validate(List<Long> contactIds, String taxIdValue, String countryIso) {
+        return validate(contactIds, taxIdValue, countryIso, false);
+    }
+
+    /**
+     * Same as {@link #validate(Long, String, String)} but skips the cached
+     * outcome — for explicit admin revalidation, where the point is to ask
+     * VIES again. The fresh answer replaces the cached one.
+     */
+    public GatewayResult validateFresh(Long contactId, String taxIdValue, String countryIso) {
+        return validate(List.of(contactId), taxIdValue, countryIso, true);
+    }
+
+    /** {@link #validateFresh(Long, String, String)} for several contacts sharing one tax ID. */
+    public GatewayResult validateFresh(List<Long> contactIds, String taxIdValue, String countryIso) {
+        return validate(contactIds, taxIdValue, countryIso, true);
+    }
+
+    private GatewayResult validate(List<Long> contactIds, String taxIdValue, String countryIso, boolean fresh) {
+        String key = taxIdNormalizer.canonicalize(taxIdValue, countryIso);
+        if (key == null) {
+            return call(contactIds, taxIdValue, countryIso, null);
+        }
+        if (!fresh) {
+            Optional<ViesResultCache.Entry> cached = resultCache.lookup(key);
+            if (cached.isPresent()) {
+                return new GatewayResult(cached.get().result(), cached.get().auditLogId(), null);
+            }
+        }
+
+        CompletableFuture<GatewayResult> mine = new CompletableFuture<>();
+        CompletableFuture<GatewayResult> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            // Our contacts were not on the leader's audit rows; record the shared outcome for them too.
+            GatewayResult shared = leader.join();
+            Long auditLogId = audit(contactIds, LocalDateTime.now(), key, countryIso, shared.result(),
+                shared.consultationNumber());
+            return new GatewayResult(shared.result(), auditLogId != null ? auditLogId : shared.auditLogId(),
+                shared.consultationNumber());
+        }
+        try {
+            GatewayResult result = call(contactIds, taxIdValue, countryIso, key);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
 
+    private GatewayResult call(List<Long> contactIds, String taxIdValue, String countryIso, String key) {
+        LocalDateTime checkedAt = LocalDateTime.now();
         Result result;
         String consultation = null;
         try {
+            if (key != null && key.length() >= 2) {
+                viesThrottle.acquire(key.substring(0, 2));
+            }
             ViesVatService.VatValidationResult viesResult = viesVatService.validate(taxIdValue, countryIso);
-            result = viesResult.valid() ? Result.VALID : Result.INVALID;
+            if (viesResult.serviceError()) {
+                logger.warn("VIES unreachable for contacts {} (taxId={}, country={}): {}",
+                    contactIds, taxIdValue, countryIso, viesResult.error());
+                result = Result.UNREACHABLE;
+            } else {
+                result = viesResult.valid() ? Result.VALID : Result.INVALID;
+            }
             // ViesVatService doesn't currently surface the consultation number.
             // Once it does, plumb it through here for full AEAT defensibility.
+        } catch (InterruptedException e) {
+            // Shutdown while waiting for a token: no call was made, nothing to log or cache.
+            Thread.currentThread().interrupt();
+            return new GatewayResult(Result.UNREACHABLE, null, null);
         } catch (Exception e) {
-            logger.warn("VIES unreachable for contact {} (taxId={}, country={}): {}",
-                contactId, taxIdValue, countryIso, e.getMessage());
+            logger.warn("VIES unreachable for contacts {} (taxId={}, country={}): {}",
+                contactIds, taxIdValue, countryIso, e.getMessage());
             result = Result.UNREACHABLE;
         }
 
-        log.setViesResult(result.name().toLowerCase());
-        log.setConsultationNumber(consultation);
-        try {
-            logRepository.save(log);
-        } catch (Exception persistError) {
-            // Audit-log write failure must not block the validation flow.
-            logger.error("Failed to persist VIES audit row for contact {}: {}",
-                contactId, persistError.getMessage());
+        Long firstLogId = audit(contactIds, checkedAt, key != null ? key : taxIdValue, countryIso, result, consultation);
+        if (key != null) {
+            resultCache.put(key, new ViesResultCache.Entry(result, firstLogId, checkedAt));
+        }
+        return new GatewayResult(result, firstLogId, consultation);
+    }
+
+    /**
+     * One audit row per contact; returns the first row's id. {@code taxId} is
+     * the normalized form so {@link ViesResultCache} can find the row again
+     * after a restart, or the value as given when it could not be normalized.
+     */
+    private Long audit(List<Long> contactIds, LocalDateTime checkedAt, String taxId, String countryIso,
+                       Result result, String consultation) {
+        Long firstLogId = null;
+        for (Long contactId : contactIds) {
+            VatValidationLog log = new VatValidationLog();
+            log.setContactId(contactId);
+            log.setCheckedAt(checkedAt);
+            log.setTaxId(taxId != null ? taxId : "");
+            log.setCountry(countryIso != null ? countryIso : "");
+            log.setViesResult(result.name().toLowerCase());
+            log.setConsultationNumber(consultation);
+            try {
+                logRepository.save(log);
+                if (firstLogId == null) firstLogId = log.getId();
+            } catch (Exception persistError) {
+                // Audit-log write failure must not block the validation flow.
+                logger.error("Failed to persist VIES audit row for contact {}: {}",
+                    contactId, persistError.getMessage());
+            }
         }
-        return new GatewayResult(result, log.getId(), consultation);
+        return firstLogId;
     }
 }
@@ -0,0 +1,99 @@
+package com.beworking.tax;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * VIES outcomes keyed by normalized tax id ({@link TaxIdNormalizer} output),
+ * with a TTL per outcome: a VALID registration is stable for days, an INVALID
+ * one is re-checked sooner (the customer may be mid-registration), and an
+ * UNREACHABLE result only suppresses retries for a few minutes.
+ *
+ * <p>Two tiers: an in-process map, backed by the {@code vat_validations}
+ * audit table — the latest row for the tax id is reused while still within
+ * its TTL, so the cache survives restarts and is shared across replicas.
+ */
+@Component
+public class ViesResultCache {
+
+    /** A VIES outcome and the audit row that recorded it. */
+    public record Entry(ViesGateway.Result result, Long auditLogId, LocalDateTime checkedAt) {}
+
+    private final VatValidationLogRepository logRepository;
+    private final Duration validTtl;
+    private final Duration invalidTtl;
+    private final Duration unreachableTtl;
+    private final Cache<String, Entry> memory;
+
+    public ViesResultCache(VatValidationLogRepository logRepository,
+                           @Value("${app.vies.cache.valid-ttl:7d}") Duration validTtl,
+                           @Value("${app.vies.cache.invalid-ttl:1d}") Duration invalidTtl,
+                           @Value("${app.vies.cache.unreachable-ttl:5m}") Duration unreachableTtl) {
+        this.logRepository = logRepository;
+        this.validTtl = validTtl;
+        this.invalidTtl = invalidTtl;
+        this.unreachableTtl = unreachableTtl;
+        this.memory = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(new Expiry<String, Entry>() {
+                @Override
+                public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                    return remaining(entry).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                    return remaining(entry).toNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    /** A still-fresh outcome for the tax id, from memory or the audit table. */
+    public Optional<Entry> lookup(String normalizedTaxId) {
+        Entry hit = memory.getIfPresent(normalizedTaxId);
+        if (hit != null) return Optional.of(hit);
+
+        Optional<Entry> persisted = logRepository.findFirstByTaxIdOrderByCheckedAtDesc(normalizedTaxId)
+            .filter(log -> log.getViesResult() != null && log.getCheckedAt() != null)
+            .map(log -> new Entry(ViesGateway.Result.valueOf(log.getViesResult().toUpperCase()),
+                log.getId(), log.getCheckedAt()))
+            .filter(entry -> !remaining(entry).isZero());
+        persisted.ifPresent(entry -> memory.put(normalizedTaxId, entry));
+        return persisted;
+    }
+
+    public void put(String normalizedTaxId, Entry entry) {
+        memory.put(normalizedTaxId, entry);
+    }
+
+    /** Drops the cached outcome, e.g. when an admin explicitly asks for a fresh check. */
+    public void evict(String normalizedTaxId) {
+        memory.invalidate(normalizedTaxId);
+    }
+
+    Duration ttlFor(ViesGateway.Result result) {
+        return switch (result) {
+            case VALID -> validTtl;
+            case INVALID -> invalidTtl;
+            case UNREACHABLE -> unreachableTtl;
+        };
+    }
+
+    private Duration remaining(Entry entry) {
+        Duration age = Duration.between(entry.checkedAt(), LocalDateTime.now());
+        Duration left = ttlFor(entry.result()).minus(age);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+}
@@ -0,0 +1,38 @@
+package com.beworking.tax;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * One token bucket per VIES member state. VIES forwards each check to the
+ * member state's own national database, and those are what rate-limit us — so
+ * a burst of Spanish checks must not hold back French ones, and vice versa.
+ * Replaces the single global {@code Thread.sleep(1000)} the bulk reseed used.
+ */
+@Component
+public class ViesThrottle {
+
+    private final int requestsPerSecond;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public ViesThrottle(@Value("${app.vies.requests-per-second-per-country:2}") int requestsPerSecond) {
+        this.requestsPerSecond = Math.max(1, requestsPerSecond);
+    }
+
+    /** Blocks until the member state's bucket has a token. */
+    public void acquire(String countryIso) throws InterruptedException {
+        String key = countryIso == null ? "" : countryIso.toUpperCase();
+        buckets.computeIfAbsent(key, k -> Bucket4j.builder()
+                .addLimit(Bandwidth.classic(requestsPerSecond, Refill.greedy(requestsPerSecond, Duration.ofSeconds(1))))
+                .build())
+            .asBlocking()
+            .consume(1);
+    }
+}
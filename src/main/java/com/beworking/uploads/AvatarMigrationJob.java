@@ -0,0 +1,125 @@
+package com.beworking.uploads;
+
+import com.beworking.scheduling.JobResult;
+import com.beworking.scheduling.ScheduledJobRunner;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Converts legacy base64 avatars ({@code data:image/...}) in
+ * {@code users.avatar} and {@code contact_profiles.avatar} into stored
+ * thumbnails referenced by URL (see {@link AvatarService}).
+ *
+ * Runs once per cluster: started on a background thread at startup
+ * ({@code app.avatars.migrate-on-startup}), it goes through
+ * {@link ScheduledJobRunner} as {@value #JOB}, so only the replica holding the
+ * job lock makes the pass, and it is skipped altogether once a run has
+ * succeeded (new avatars are stored by URL, so there is nothing left to move).
+ * Rows are read with plain JDBC in id order so no entity — and no other row's
+ * image — is loaded, and each row is rewritten only if it still holds the same
+ * value, so a concurrent edit is harmless. The same image is uploaded once per
+ * run: the contact and its linked user usually share it. Undecodable values
+ * are logged and left alone.
+ */
+@Component
+class AvatarMigrationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarMigrationJob.class);
+
+    static final String JOB = "avatarMigration";
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvatarService avatarService;
+    private final ScheduledJobRunner jobRunner;
+    private final boolean migrateOnStartup;
+
+    AvatarMigrationJob(JdbcTemplate jdbcTemplate, AvatarService avatarService, ScheduledJobRunner jobRunner,
+                       @Value("${app.avatars.migrate-on-startup:true}") boolean migrateOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.avatarService = avatarService;
+        this.jobRunner = jobRunner;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void migrateOnStartup() {
+        if (!migrateOnStartup) return;
+        Thread worker = new Thread(this::runOnce, "avatar-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void runOnce() {
+        try {
+            boolean done = jobRunner.recentRuns(JOB, 1).stream()
+                .anyMatch(run -> "SUCCEEDED".equals(run.outcome()));
+            if (!done) {
+                jobRunner.runScheduled(JOB, this::run);
+            }
+        } catch (Exception e) {
+            logger.error("Avatar migration failed", e);
+        }
+    }
+
+    RunResult run() {
+        Map<String, String> uploaded = new HashMap<>();
+        int contacts = migrate("contact_profiles", uploaded);
+        int users = migrate("users", uploaded);
+        if (contacts + users > 0) {
+            logger.info("Avatar migration: {} contacts, {} users moved to media storage ({} images)",
+                contacts, users, uploaded.size());
+        }
+        return new RunResult(contacts, users, uploaded.size());
+    }
+
+    int migrate(String table, Map<String, String> uploaded) {
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, avatar FROM beworking." + table
+                    + " WHERE avatar LIKE 'data:%' AND id > ? ORDER BY id LIMIT ?",
+                lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                lastId = id;
+                String data = (String) row.get("avatar");
+                try {
+                    String digest = DigestUtils.md5DigestAsHex(data.getBytes(StandardCharsets.US_ASCII));
+                    String url = uploaded.get(digest);
+                    if (url == null) {
+                        url = avatarService.normalize(data);
+                        uploaded.put(digest, url);
+                    }
+                    migrated += jdbcTemplate.update(
+                        "UPDATE beworking." + table + " SET avatar = ? WHERE id = ? AND avatar = ?",
+                        url, id, data);
+                } catch (Exception e) {
+                    logger.warn("Avatar migration: {} {} skipped: {}", table, id, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public record RunResult(int contacts, int users, int images) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return contacts + users;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.beworking.uploads;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.UUID;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores avatars through {@link MediaStorageService} and hands back a URL, so
+ * {@code users.avatar} / {@code contact_profiles.avatar} hold a short link
+ * instead of a base64 image loaded with every entity.
+ *
+ * Each upload is center-cropped to a square and written once per size in
+ * {@link #SIZES} as {@code avatars/<id>-<size>.jpg}; the stored URL is the
+ * largest one and {@link #sizedUrl} derives the others. The header is read
+ * before decoding, so an image over {@code app.avatars.max-pixels} is refused
+ * without its pixels ever being allocated.
+ */
+@Service
+public class AvatarService {
+
+    /** Thumbnail edge lengths in pixels, largest last. */
+    public static final int[] SIZES = {64, 256};
+
+    private static final int MAX_URL_LENGTH = 2048;
+
+    private final MediaStorageService storage;
+    private final long maxBytes;
+    private final long maxPixels;
+
+    public AvatarService(MediaStorageService storage,
+                         @Value("${app.avatars.max-bytes:5242880}") long maxBytes,
+                         @Value("${app.avatars.max-pixels:25000000}") long maxPixels) {
+        this.storage = storage;
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Resolves what a client sent as "avatar": a {@code data:image/...;base64,}
+     * URI is decoded, resized and stored, and its URL returned; anything else
+     * must already be a URL and is kept as is. Null/blank pass through.
+     *
+     * @throws IllegalArgumentException for non-image data or oversized values.
+     */
+    public String normalize(String value) throws IOException {
+        if (value == null || value.isBlank() || !value.startsWith("data:")) {
+            if (value != null && value.length() > MAX_URL_LENGTH) {
+                throw new IllegalArgumentException("Avatar must be an image upload or a URL");
+            }
+            return value;
+        }
+        return store(decodeDataUri(value));
+    }
+
+    /** Resizes {@code image} into every size in {@link #SIZES}; returns the largest one's URL. */
+    public String store(byte[] image) throws IOException {
+        if (image == null || image.length == 0) {
+            throw new IllegalArgumentException("Empty avatar");
+        }
+        if (image.length > maxBytes) {
+            throw new IllegalArgumentException("Avatar exceeds " + maxBytes + " bytes");
+        }
+        BufferedImage source = decode(image);
+        String id = UUID.randomUUID().toString();
+        String url = null;
+        for (int size : SIZES) {
+            url = storage.store("avatars/" + id + "-" + size + ".jpg", toJpeg(thumbnail(source, size)), "image/jpeg");
+        }
+        return url;
+    }
+
+    /** URL of the {@code size} variant of an avatar stored by this service (others unchanged). */
+    public static String sizedUrl(String url, int size) {
+        String largest = "-" + SIZES[SIZES.length - 1] + ".jpg";
+        if (url == null || !url.contains("/avatars/") || !url.endsWith(largest)) {
+            return url;
+        }
+        return url.substring(0, url.length() - largest.length()) + "-" + size + ".jpg";
+    }
+
+    /** Decodes {@code image} once its header shows at most {@code maxPixels}. */
+    private BufferedImage decode(byte[] image) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported avatar image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("Avatar exceeds " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static byte[] decodeDataUri(String dataUri) {
+        int comma = dataUri.indexOf(',');
+        String header = comma > 0 ? dataUri.substring(5, comma) : "";
+        if (!header.startsWith("image/") || !header.endsWith(";base64")) {
+            throw new IllegalArgumentException("Avatar data must be a base64 image");
+        }
+        try {
+            return Base64.getMimeDecoder().decode(dataUri.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Avatar data is not valid base64");
+        }
+    }
+
+    static BufferedImage thumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha: flatten transparent PNGs onto white.
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
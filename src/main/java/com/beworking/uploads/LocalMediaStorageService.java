@@ -1,8 +1,17 @@
 package com.beworking.uploads;
 
+import com.beworking.storage.LocalUploadReceiver;
+import com.beworking.storage.DirectUploadController;
+import com.beworking.storage.PresignedUpload;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
@@ -12,7 +21,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @Profile("dev")
-public class LocalMediaStorageService implements MediaStorageService {
+public class LocalMediaStorageService implements MediaStorageService, LocalUploadReceiver {
     @Value("${media.local.root:uploads/catalog}")
     private String rootDir;
     public String store(MultipartFile file) throws IOException {
@@ -23,4 +32,74 @@ public class LocalMediaStorageService implements MediaStorageService {
         file.transferTo(target.toFile());
         return "/uploads/" + filename; // the URL returned to the client
     }
+
+    @Override
+    public String store(String key, byte[] content, String contentType) throws IOException {
+        Path root = Path.of(rootDir).toAbsolutePath();
+        Path target = root.resolve(StringUtils.cleanPath(key)).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Invalid storage key: " + key);
+        }
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+        return "/uploads/" + root.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return "/uploads/" + key;
+    }
+
+    @Override
+    public String purpose() {
+        return "media";
+    }
+
+    @Override
+    public String newKey(String originalFileName) {
+        return UUID.randomUUID() + "-" + StringUtils.getFilename(StringUtils.cleanPath(originalFileName));
+    }
+
+    @Override
+    public PresignedUpload presign(UUID uploadId, String key, String contentType, long sizeBytes, Duration ttl) {
+        return new PresignedUpload(uploadId, "PUT", DirectUploadController.PATH + "/" + uploadId,
+                Map.of("Content-Type", contentType), Instant.now().plus(ttl));
+    }
+
+    @Override
+    public Optional<UploadedObject> stat(String key) {
+        try {
+            Path target = resolve(key);
+            return Files.isRegularFile(target)
+                    ? Optional.of(new UploadedObject(Files.size(target), null))
+                    : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException ignored) {
+            // nothing to clean up
+        }
+    }
+
+    @Override
+    public void write(String key, InputStream body) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path resolve(String key) throws IOException {
+        Path root = Path.of(rootDir).toAbsolutePath();
+        Path target = root.resolve(StringUtils.cleanPath(key)).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Invalid storage key: " + key);
+        }
+        return target;
+    }
 }
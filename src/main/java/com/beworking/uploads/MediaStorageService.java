@@ -6,4 +6,13 @@ import org.springframework.web.multipart.MultipartFile;
 public interface MediaStorageService {
     /** Store the file and return the public URL to access it. */
     String store(MultipartFile file) throws IOException;
+
+    /**
+     * Store generated content under {@code key} (a relative path such as
+     * {@code avatars/<id>-256.jpg}) and return its public URL.
+     */
+    String store(String key, byte[] content, String contentType) throws IOException;
+
+    /** Public URL of the object stored under {@code key}. */
+    String publicUrl(String key);
 }
@@ -1,6 +1,12 @@
 package com.beworking.uploads;
 
+import com.beworking.storage.DirectUploadBackend;
+import com.beworking.storage.PresignedUpload;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
@@ -10,13 +16,22 @@ import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
 @Service
 @Profile("!dev")
-public class S3MediaStorageService implements MediaStorageService {
+public class S3MediaStorageService implements MediaStorageService, DirectUploadBackend {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
 
     private final S3Client s3Client;
+    private final S3Presigner presigner;
     private final String bucket;
     private final String region;
 
@@ -28,6 +43,9 @@ public class S3MediaStorageService implements MediaStorageService {
         this.s3Client = S3Client.builder()
                 .region(Region.of(region))
                 .build();
+        this.presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .build();
     }
 
     @Override
@@ -40,6 +58,73 @@ public class S3MediaStorageService implements MediaStorageService {
                         .contentType(file.getContentType())
                         .build(),
                 RequestBody.fromBytes(file.getBytes()));
+        return publicUrl(key);
+    }
+
+    @Override
+    public String store(String key, byte[] content, String contentType) {
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .cacheControl(IMMUTABLE)
+                        .build(),
+                RequestBody.fromBytes(content));
+        return publicUrl(key);
+    }
+
+    @Override
+    public String publicUrl(String key) {
         return "https://" + bucket + ".s3." + region + ".amazonaws.com/" + key;
     }
+
+    @Override
+    public String purpose() {
+        return "media";
+    }
+
+    @Override
+    public String newKey(String originalFileName) {
+        return "catalog/" + UUID.randomUUID() + "-" + StringUtils.getFilename(StringUtils.cleanPath(originalFileName));
+    }
+
+    @Override
+    public PresignedUpload presign(UUID uploadId, String key, String contentType, long sizeBytes, Duration ttl) {
+        PresignedPutObjectRequest signed = presigner.presignPutObject(builder -> builder
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(sizeBytes)
+                        .cacheControl(IMMUTABLE)
+                        .build()));
+        Map<String, String> headers = new LinkedHashMap<>();
+        signed.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(uploadId, "PUT", signed.url().toString(), headers, signed.expiration());
+    }
+
+    @Override
+    public Optional<UploadedObject> stat(String key) {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return Optional.of(new UploadedObject(head.contentLength(), head.contentType()));
+        } catch (S3Exception e) {
+            // HEAD has no body: a missing key surfaces as a bare 404.
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
 }
@@ -1,11 +1,13 @@
 package com.beworking.uploads;
 
-import com.beworking.auth.User;
-import com.beworking.auth.UserRepository;
+import com.beworking.auth.AuthenticatedUser;
+import com.beworking.storage.DirectUploadRequest;
+import com.beworking.storage.DirectUploadService;
+import com.beworking.storage.PresignedUpload;
 import java.io.IOException;
+import java.util.UUID;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
@@ -14,25 +16,22 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/api/uploads")
 public class UploadController {
     private final MediaStorageService storage;
-    private final UserRepository userRepository;
+    private final DirectUploadService directUploadService;
 
-    public UploadController(MediaStorageService storage, UserRepository userRepository) {
+    public UploadController(MediaStorageService storage, DirectUploadService directUploadService) {
         this.storage = storage;
-        this.userRepository = userRepository;
+        this.directUploadService = directUploadService;
     }
 
-    private void requireAdmin(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
+    private static void requireAdmin(AuthenticatedUser user) {
+        if (user == null || !user.isAdmin()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
-        userRepository.findByEmail(authentication.getName())
-            .filter(User::isAdmin)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN));
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public UploadResponse upload(@RequestPart("file") MultipartFile file, Authentication authentication) throws IOException {
-        requireAdmin(authentication);
+    public UploadResponse upload(@RequestPart("file") MultipartFile file, AuthenticatedUser user) throws IOException {
+        requireAdmin(user);
         if (file.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
         }
@@ -40,6 +39,32 @@ public class UploadController {
         return new UploadResponse(url);
     }
 
+    /** Phase one of a direct upload: where to PUT the image. */
+    @PostMapping("/presign")
+    public PresignedUpload presign(@RequestBody DirectUploadRequest request, AuthenticatedUser user) {
+        requireAdmin(user);
+        try {
+            return directUploadService.initiate("media", request.fileName(), request.contentType(),
+                request.sizeBytes(), user.getEmail());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /** Phase two: confirms the uploaded image and returns its public URL. */
+    @PostMapping("/presign/{uploadId}/complete")
+    public UploadResponse completePresigned(@PathVariable UUID uploadId, AuthenticatedUser user) {
+        requireAdmin(user);
+        try {
+            return directUploadService.complete(uploadId, "media", user.getEmail(),
+                stored -> new UploadResponse(storage.publicUrl(stored.storedFileName())));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
     public record UploadResponse(String url) {}
     
 }
@@ -0,0 +1,12 @@
+-- Token buckets for RateLimitingFilter when app.rate-limit.backend=jdbc, so
+-- login/register/lead/door-open limits hold across replicas. Idle rows are
+-- full buckets and are purged by JdbcRateLimitStore.
+CREATE TABLE IF NOT EXISTS beworking.rate_limit_buckets (
+    bucket_key  VARCHAR(255) PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    refilled_at TIMESTAMPTZ NOT NULL,
+    allowed     BOOLEAN NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_refilled_at
+    ON beworking.rate_limit_buckets (refilled_at);
@@ -0,0 +1,50 @@
+-- V101: Normalized email → contact mapping.
+--
+-- Login, /me, /my-accounts and account switching resolved a user's contacts
+-- with a four-column case-insensitive OR over contact_profiles
+-- (email_primary / email_secondary / email_tertiary / representative_email),
+-- which no index can serve. contact_emails holds one row per distinct
+-- lower(btrim(email)) per contact and is kept in sync by a trigger, so every
+-- write path — JPA, raw JDBC, psql repairs — maintains it.
+--
+-- Idempotent: IF NOT EXISTS + CREATE OR REPLACE + DROP-IF-EXISTS.
+
+CREATE TABLE IF NOT EXISTS beworking.contact_emails (
+    email      VARCHAR(255) NOT NULL,
+    contact_id BIGINT       NOT NULL REFERENCES beworking.contact_profiles(id) ON DELETE CASCADE,
+    PRIMARY KEY (email, contact_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_contact_emails_contact_id
+    ON beworking.contact_emails (contact_id);
+
+CREATE OR REPLACE FUNCTION beworking.sync_contact_emails()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+  DELETE FROM beworking.contact_emails WHERE contact_id = NEW.id;
+  INSERT INTO beworking.contact_emails (email, contact_id)
+  SELECT DISTINCT lower(btrim(e)), NEW.id
+    FROM unnest(ARRAY[NEW.email_primary, NEW.email_secondary,
+                      NEW.email_tertiary, NEW.representative_email]) AS e
+   WHERE e IS NOT NULL AND btrim(e) <> '';
+  RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS sync_contact_emails ON beworking.contact_profiles;
+CREATE TRIGGER sync_contact_emails
+  AFTER INSERT OR UPDATE OF email_primary, email_secondary, email_tertiary, representative_email
+  ON beworking.contact_profiles
+  FOR EACH ROW
+  EXECUTE FUNCTION beworking.sync_contact_emails();
+
+-- Backfill. Deletes cascade through the foreign key.
+INSERT INTO beworking.contact_emails (email, contact_id)
+SELECT DISTINCT lower(btrim(e.email)), c.id
+  FROM beworking.contact_profiles c
+  CROSS JOIN LATERAL unnest(ARRAY[c.email_primary, c.email_secondary,
+                                  c.email_tertiary, c.representative_email]) AS e(email)
+ WHERE e.email IS NOT NULL AND btrim(e.email) <> ''
+ON CONFLICT DO NOTHING;
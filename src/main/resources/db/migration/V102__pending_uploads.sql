@@ -0,0 +1,24 @@
+-- V102: Direct-to-storage upload sessions (DirectUploadService).
+--
+-- Phase one registers the expected object (key, declared size and type) and
+-- hands the client a presigned PUT; phase two checks the stored object
+-- against this row and claims it exactly once (completed_at). Rows live in
+-- the database so the confirm can land on any replica. Expired, unclaimed
+-- sessions are swept together with whatever was uploaded for them.
+CREATE TABLE IF NOT EXISTS beworking.pending_uploads (
+    id                 UUID PRIMARY KEY,
+    purpose            VARCHAR(32)  NOT NULL,
+    object_key         VARCHAR(512) NOT NULL,
+    original_file_name VARCHAR(255) NOT NULL,
+    content_type       VARCHAR(255) NOT NULL,
+    size_bytes         BIGINT       NOT NULL,
+    created_by         VARCHAR(255),
+    created_at         TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    expires_at         TIMESTAMPTZ  NOT NULL,
+    uploaded_at        TIMESTAMPTZ,
+    completed_at       TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_uploads_open_expiry
+    ON beworking.pending_uploads (expires_at)
+    WHERE completed_at IS NULL;
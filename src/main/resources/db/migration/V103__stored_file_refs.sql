@@ -0,0 +1,57 @@
+-- V103: Reference counts for mailroom blobs.
+--
+-- Mailroom uploads are now stored once per SHA-256 digest, so several
+-- mailroom_documents rows can point at the same stored_file_name.
+-- stored_file_refs counts those rows and is kept in sync by a trigger, so
+-- every write path — JPA, raw JDBC, psql repairs — maintains it. A blob
+-- whose count dropped to zero is deleted by StoredFileCollector after a
+-- grace period (released_at), which leaves room for an upload of the same
+-- content that is reusing it right now.
+--
+-- Idempotent: IF NOT EXISTS + CREATE OR REPLACE + DROP-IF-EXISTS.
+
+CREATE TABLE IF NOT EXISTS beworking.stored_file_refs (
+    stored_file_name VARCHAR(255) PRIMARY KEY,
+    ref_count        INTEGER      NOT NULL,
+    released_at      TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_file_refs_released
+    ON beworking.stored_file_refs (released_at)
+    WHERE ref_count = 0;
+
+CREATE OR REPLACE FUNCTION beworking.count_stored_file_refs()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') THEN
+    UPDATE beworking.stored_file_refs
+       SET ref_count = ref_count - 1,
+           released_at = CASE WHEN ref_count = 1 THEN now() ELSE released_at END
+     WHERE stored_file_name = OLD.stored_file_name;
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    INSERT INTO beworking.stored_file_refs AS r (stored_file_name, ref_count)
+    VALUES (NEW.stored_file_name, 1)
+    ON CONFLICT (stored_file_name) DO UPDATE
+       SET ref_count = r.ref_count + 1,
+           released_at = NULL;
+  END IF;
+  RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS count_stored_file_refs ON beworking.mailroom_documents;
+CREATE TRIGGER count_stored_file_refs
+  AFTER INSERT OR DELETE OR UPDATE OF stored_file_name
+  ON beworking.mailroom_documents
+  FOR EACH ROW
+  EXECUTE FUNCTION beworking.count_stored_file_refs();
+
+-- Backfill from existing documents.
+INSERT INTO beworking.stored_file_refs (stored_file_name, ref_count)
+SELECT stored_file_name, count(*)
+  FROM beworking.mailroom_documents
+ GROUP BY stored_file_name
+ON CONFLICT (stored_file_name) DO UPDATE SET ref_count = EXCLUDED.ref_count, released_at = NULL;
@@ -0,0 +1,12 @@
+-- V104: Preview state for mailroom documents (MailroomPreviewService).
+--
+-- PENDING until the first-page preview and thumbnail have been rendered
+-- next to the stored file; READY once they exist, UNSUPPORTED for content
+-- types that cannot be rendered, FAILED after a rendering error. Existing
+-- documents start PENDING and are rendered by the background sweep.
+ALTER TABLE beworking.mailroom_documents
+    ADD COLUMN IF NOT EXISTS preview_status VARCHAR(16) NOT NULL DEFAULT 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_mailroom_documents_preview_pending
+    ON beworking.mailroom_documents (created_at)
+    WHERE preview_status = 'PENDING';
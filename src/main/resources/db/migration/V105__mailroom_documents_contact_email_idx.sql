@@ -0,0 +1,5 @@
+-- V105: Member mailroom listings filter on lower(contact_email) in SQL
+-- (MailroomDocumentRepository.findRecentForTenantOrEmail) and read the
+-- newest 100; this index serves both the match and the order.
+CREATE INDEX IF NOT EXISTS idx_mailroom_documents_contact_email_recent
+    ON beworking.mailroom_documents (lower(contact_email), received_at DESC, created_at DESC);
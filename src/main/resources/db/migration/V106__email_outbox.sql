@@ -0,0 +1,25 @@
+-- V106: Durable email outbox (EmailOutbox / EmailOutboxDispatcher).
+--
+-- EmailService enqueues each fully built MIME message here, inside the
+-- producer's transaction, and the dispatcher delivers them in batches over
+-- shared SMTP sessions. next_attempt_at doubles as the claim lease: a
+-- claimed row is pushed into the future, so a crashed sender's rows come
+-- back on their own. dedup_key (optional) makes a repeated enqueue of the
+-- same logical email for the same recipient a no-op.
+CREATE TABLE IF NOT EXISTS beworking.email_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    recipient       VARCHAR(320) NOT NULL,
+    subject         VARCHAR(998),
+    raw_message     BYTEA,
+    dedup_key       VARCHAR(255) UNIQUE,
+    status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    last_error      TEXT,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    sent_at         TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due
+    ON beworking.email_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,12 @@
+-- V107: HubSpot sync moves from a one-shot listener to HubspotSyncWorker,
+-- which retries failed leads with exponential backoff. next_attempt_at holds
+-- when a failed lead becomes due again; the partial index keeps the worker's
+-- poll (unsynced leads only, oldest first) off the synced majority; its
+-- predicate is written exactly as LeadRepository.findDueForHubspotSync
+-- renders it so the planner can match the two.
+ALTER TABLE beworking.leads
+    ADD COLUMN IF NOT EXISTS hubspot_next_attempt_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_leads_hubspot_unsynced
+    ON beworking.leads (created_at)
+    WHERE (hubspot_sync_status IS NULL OR hubspot_sync_status <> 'SYNCED');
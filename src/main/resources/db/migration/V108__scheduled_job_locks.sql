@@ -0,0 +1,32 @@
+-- V108: Cluster-wide coordination for @Scheduled jobs (ScheduledJobRunner).
+--
+-- scheduled_job_locks holds one row per job name. A replica takes the lock by
+-- upserting its row only where locked_until has passed, so exactly one
+-- replica runs each firing; locked_until is both the crash bound (a dead
+-- replica's lock expires on its own) and, after a short run, the minimum
+-- hold that keeps replicas with skewed clocks from re-running it.
+--
+-- scheduled_job_runs records every run that took the lock, scheduled or
+-- manual, with duration, rows processed and outcome for the admin jobs list.
+CREATE TABLE IF NOT EXISTS beworking.scheduled_job_locks (
+    name         VARCHAR(64)  PRIMARY KEY,
+    locked_until TIMESTAMPTZ  NOT NULL,
+    locked_at    TIMESTAMPTZ  NOT NULL,
+    locked_by    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS beworking.scheduled_job_runs (
+    id             BIGSERIAL PRIMARY KEY,
+    job_name       VARCHAR(64)  NOT NULL,
+    trigger_type   VARCHAR(16)  NOT NULL,
+    host           VARCHAR(255) NOT NULL,
+    started_at     TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    finished_at    TIMESTAMPTZ,
+    duration_ms    BIGINT,
+    rows_processed INTEGER,
+    outcome        VARCHAR(16)  NOT NULL DEFAULT 'RUNNING',
+    error          TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_runs_job_started
+    ON beworking.scheduled_job_runs (job_name, started_at DESC);
@@ -0,0 +1,5 @@
+-- V109: Manual job runs from the admin panel now run in the background
+-- (ScheduledJobRunner.submit) and the caller polls the run row, so the
+-- run's full result (the scheduler's RunResult counts) is kept on it.
+ALTER TABLE beworking.scheduled_job_runs
+    ADD COLUMN IF NOT EXISTS result JSONB;
@@ -0,0 +1,13 @@
+-- V110: Keyset-paginated notification inbox.
+--
+-- The inbox read filters on LOWER(contact_email) and pages newest first by
+-- (created_at, id). This index serves both the filter and the ORDER BY, so
+-- each page is an index range scan that stops after LIMIT rows. It covers
+-- the plain LOWER(contact_email) lookups of V91 as well, so that index goes.
+--
+-- Idempotent: IF NOT EXISTS + DROP-IF-EXISTS.
+
+CREATE INDEX IF NOT EXISTS idx_notifications_inbox
+    ON beworking.notifications (LOWER(contact_email), created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS beworking.idx_notifications_contact_email;
@@ -0,0 +1,46 @@
+-- V111: Cross-instance refresh of the occupancy timeline.
+--
+-- Each replica keeps its own in-memory OccupancyTimeline. Writes to bloqueos,
+-- subscriptions and contact names now NOTIFY 'occupancy_changed' with
+-- '<kind>:<id>' (b = bloqueo, s = subscription, c = contact renamed,
+-- cd = contact deleted). Postgres delivers it to every listening replica
+-- when, and only if, the writing transaction commits, so raw-SQL writers
+-- and other instances are covered without any application hook.
+--
+-- Idempotent: CREATE OR REPLACE + DROP-IF-EXISTS.
+
+CREATE OR REPLACE FUNCTION beworking.notify_occupancy_change()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    PERFORM pg_notify('occupancy_changed',
+      CASE WHEN TG_ARGV[0] = 'c' THEN 'cd' ELSE TG_ARGV[0] END || ':' || OLD.id);
+  ELSE
+    PERFORM pg_notify('occupancy_changed', TG_ARGV[0] || ':' || NEW.id);
+  END IF;
+  RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS notify_occupancy_change ON beworking.bloqueos;
+CREATE TRIGGER notify_occupancy_change
+  AFTER INSERT OR UPDATE OR DELETE
+  ON beworking.bloqueos
+  FOR EACH ROW
+  EXECUTE FUNCTION beworking.notify_occupancy_change('b');
+
+DROP TRIGGER IF EXISTS notify_occupancy_change ON beworking.subscriptions;
+CREATE TRIGGER notify_occupancy_change
+  AFTER INSERT OR UPDATE OR DELETE
+  ON beworking.subscriptions
+  FOR EACH ROW
+  EXECUTE FUNCTION beworking.notify_occupancy_change('s');
+
+DROP TRIGGER IF EXISTS notify_occupancy_change ON beworking.contact_profiles;
+CREATE TRIGGER notify_occupancy_change
+  AFTER UPDATE OF name, contact_name OR DELETE
+  ON beworking.contact_profiles
+  FOR EACH ROW
+  EXECUTE FUNCTION beworking.notify_occupancy_change('c');
@@ -0,0 +1,30 @@
+-- Background runs of the admin bulk subscription operations (VAT relock-all
+-- and Stripe tax sync-all). Previously each ran as a bare thread walking every
+-- active sub serially, reporting only to the backend logs and losing its
+-- place on a restart. One row per run: counters are bumped after every chunk
+-- and last_subscription_id is the resume checkpoint (subs are walked in id
+-- order), so an interrupted run is picked up where it stopped.
+CREATE TABLE IF NOT EXISTS beworking.subscription_bulk_jobs (
+    id                   UUID PRIMARY KEY,
+    kind                 VARCHAR(32) NOT NULL
+                         CHECK (kind IN ('RELOCK','STRIPE_TAX_SYNC')),
+    status               VARCHAR(16) NOT NULL DEFAULT 'RUNNING'
+                         CHECK (status IN ('RUNNING','COMPLETED','FAILED')),
+    total                INTEGER     NOT NULL DEFAULT 0,
+    processed            INTEGER     NOT NULL DEFAULT 0,
+    changed              INTEGER     NOT NULL DEFAULT 0,
+    unchanged            INTEGER     NOT NULL DEFAULT 0,
+    synced               INTEGER     NOT NULL DEFAULT 0,
+    skipped              INTEGER     NOT NULL DEFAULT 0,
+    errors               INTEGER     NOT NULL DEFAULT 0,
+    last_subscription_id INTEGER     NOT NULL DEFAULT 0,
+    error                TEXT,
+    started_by           VARCHAR(255),
+    started_at           TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at           TIMESTAMPTZ NOT NULL DEFAULT now(),
+    finished_at          TIMESTAMPTZ
+);
+
+-- At most one in-flight run per kind, across all replicas.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_subscription_bulk_jobs_running
+    ON beworking.subscription_bulk_jobs (kind) WHERE status = 'RUNNING';
@@ -0,0 +1,36 @@
+-- Background VIES revalidation runs (admin "revalidate all VAT"). The old
+-- reseed loaded every contact on the request thread and slept 1s between
+-- serial VIES calls (~33 min for ~2,000 contacts), reporting only to logs.
+--
+-- Progress needs no per-contact bookkeeping: every processed contact gets
+-- vat_validated_at stamped, so candidates are "tax id present, vat_valid not
+-- TRUE, and not validated since candidate_cutoff" — a resumed run naturally
+-- skips what it already did. candidate_cutoff is written by the app (same
+-- clock as vat_validated_at, which is a local TIMESTAMP).
+CREATE TABLE IF NOT EXISTS beworking.vat_revalidation_jobs (
+    id               UUID PRIMARY KEY,
+    status           VARCHAR(16) NOT NULL DEFAULT 'RUNNING'
+                     CHECK (status IN ('RUNNING','COMPLETED','FAILED')),
+    candidate_cutoff TIMESTAMP   NOT NULL,
+    total            INTEGER     NOT NULL DEFAULT 0,
+    processed        INTEGER     NOT NULL DEFAULT 0,
+    vies_calls       INTEGER     NOT NULL DEFAULT 0,
+    validated        INTEGER     NOT NULL DEFAULT 0,
+    invalid          INTEGER     NOT NULL DEFAULT 0,
+    unreachable      INTEGER     NOT NULL DEFAULT 0,
+    errors           INTEGER     NOT NULL DEFAULT 0,
+    error            TEXT,
+    started_by       VARCHAR(255),
+    started_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    finished_at      TIMESTAMPTZ
+);
+
+-- At most one in-flight run, across all replicas.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_vat_revalidation_jobs_running
+    ON beworking.vat_revalidation_jobs ((status)) WHERE status = 'RUNNING';
+
+-- Candidate selection: contacts with a tax id whose VIES state isn't TRUE.
+CREATE INDEX IF NOT EXISTS idx_contact_profiles_vat_stale
+    ON beworking.contact_profiles (vat_validated_at)
+    WHERE billing_tax_id IS NOT NULL AND vat_valid IS DISTINCT FROM TRUE;
@@ -0,0 +1,4 @@
+-- ViesResultCache reads the latest audit row per normalized tax id so cached
+-- VIES outcomes survive restarts and are shared across replicas.
+CREATE INDEX IF NOT EXISTS idx_vat_validations_tax_id_checked
+    ON beworking.vat_validations (tax_id, checked_at DESC);
@@ -0,0 +1,80 @@
+package com.beworking.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthenticatedUserCacheTest {
+
+    @Mock private UserRepository userRepository;
+
+    private AuthenticatedUserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new AuthenticatedUserCache(userRepository, Duration.ofSeconds(30));
+    }
+
+    private static User user(String email, User.Role role, Long tenantId) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setTenantId(tenantId);
+        return user;
+    }
+
+    @Test
+    void get_loadsOnceThenServesFromCache() {
+        when(userRepository.findByEmail("a@b.com")).thenReturn(Optional.of(user("a@b.com", User.Role.USER, 42L)));
+
+        AuthenticatedUser first = cache.get("a@b.com").orElseThrow();
+        AuthenticatedUser second = cache.get("a@b.com").orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(42L, first.getTenantId());
+        assertTrue(first.isUser());
+        verify(userRepository, times(1)).findByEmail("a@b.com");
+    }
+
+    @Test
+    void evict_forcesReload() {
+        when(userRepository.findByEmail("a@b.com"))
+            .thenReturn(Optional.of(user("a@b.com", User.Role.USER, 42L)))
+            .thenReturn(Optional.of(user("a@b.com", User.Role.ADMIN, null)));
+
+        cache.get("a@b.com");
+        cache.evict("a@b.com");
+
+        assertTrue(cache.get("a@b.com").orElseThrow().isAdmin());
+        verify(userRepository, times(2)).findByEmail("a@b.com");
+    }
+
+    @Test
+    void unknownEmail_isNotCached() {
+        when(userRepository.findByEmail("ghost@b.com")).thenReturn(Optional.empty());
+
+        assertTrue(cache.get("ghost@b.com").isEmpty());
+        assertTrue(cache.get("ghost@b.com").isEmpty());
+        verify(userRepository, times(2)).findByEmail("ghost@b.com");
+    }
+
+    @Test
+    void resolve_unauthenticated_isEmpty() {
+        TestingAuthenticationToken auth = new TestingAuthenticationToken("a@b.com", null);
+        auth.setAuthenticated(false);
+
+        assertTrue(cache.resolve(auth).isEmpty());
+        assertTrue(cache.resolve(null).isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+}
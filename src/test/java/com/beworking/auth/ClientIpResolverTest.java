@@ -0,0 +1,38 @@
+package com.beworking.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "127.0.0.1/32"));
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    @Test
+    void untrustedPeer_headerIgnored() {
+        assertEquals("203.0.113.9", resolver.resolve(request("203.0.113.9", "1.1.1.1")));
+    }
+
+    @Test
+    void trustedProxy_usesRightmostUntrustedHop() {
+        // Client spoofed "6.6.6.6"; the balancer appended the real peer 198.51.100.7.
+        assertEquals("198.51.100.7", resolver.resolve(request("10.0.3.4", "6.6.6.6, 198.51.100.7")));
+        assertEquals("198.51.100.7", resolver.resolve(request("10.0.3.4", "198.51.100.7, 10.0.9.9")));
+    }
+
+    @Test
+    void trustedProxy_withoutHeaderOrWithGarbage_fallsBackToPeer() {
+        assertEquals("10.0.3.4", resolver.resolve(request("10.0.3.4", null)));
+        assertEquals("10.0.3.4", resolver.resolve(request("10.0.3.4", "evil.example.com")));
+    }
+}
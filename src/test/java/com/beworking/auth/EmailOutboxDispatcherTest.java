@@ -0,0 +1,153 @@
+package com.beworking.auth;
+
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private SmtpStub smtp;
+    private JavaMailSenderImpl mailSender;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        smtp = new SmtpStub("bounce@example.com");
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.port());
+        dispatcher = new EmailOutboxDispatcher(jdbcTemplate, mailSender, 1, 20, 3, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.shutdown();
+        smtp.close();
+    }
+
+    private byte[] raw(String to, String bcc) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom(new InternetAddress("info@be-working.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        if (bcc != null) {
+            message.setRecipient(Message.RecipientType.BCC, new InternetAddress(bcc));
+        }
+        message.setSubject("Hello " + to);
+        message.setText("Body for " + to);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void claims(EmailOutboxDispatcher.Claimed... rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenReturn(List.of(rows));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> markedSent() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("status = 'SENT'"), captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void sendBatch_deliversWholeBatchOverOneConnection() throws Exception {
+        claims(new EmailOutboxDispatcher.Claimed(1, raw("a@example.com", "audit@be-working.com"), 1),
+            new EmailOutboxDispatcher.Claimed(2, raw("b@example.com", null), 1),
+            new EmailOutboxDispatcher.Claimed(3, raw("c@example.com", null), 1));
+
+        assertEquals(3, dispatcher.sendBatch());
+
+        assertEquals(1, smtp.connections.get());
+        assertEquals(3, smtp.messages.size());
+        SmtpStub.Received first = smtp.messages.get(0);
+        assertEquals(List.of("a@example.com", "audit@be-working.com"), first.recipients());
+        assertFalse(first.data().contains("Bcc:"), "Bcc stays in the envelope only");
+        assertEquals(3, markedSent().size());
+        verify(jdbcTemplate, never()).update(contains("next_attempt_at"), any(Object[].class));
+    }
+
+    @Test
+    void sendBatch_rejectedRecipient_isRetriedWhileOthersAreSent() throws Exception {
+        claims(new EmailOutboxDispatcher.Claimed(1, raw("a@example.com", null), 1),
+            new EmailOutboxDispatcher.Claimed(2, raw("bounce@example.com", null), 1),
+            new EmailOutboxDispatcher.Claimed(3, raw("c@example.com", null), 1));
+
+        dispatcher.sendBatch();
+
+        assertEquals(2, smtp.messages.size());
+        List<Long> sentIds = markedSent().stream().map(args -> (Long) args[0]).toList();
+        assertEquals(2, sentIds.size());
+        assertTrue(sentIds.containsAll(List.of(1L, 3L)));
+        verify(jdbcTemplate).update(contains("next_attempt_at"), eq(60L), anyString(), eq(2L));
+    }
+
+    @Test
+    void sendBatch_lastAttempt_marksFailed() throws Exception {
+        claims(new EmailOutboxDispatcher.Claimed(7, raw("bounce@example.com", null), 3));
+
+        dispatcher.sendBatch();
+
+        verify(jdbcTemplate).update(contains("status = 'FAILED'"), anyString(), eq(7L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void sendBatch_nothingDue_doesNotConnect() {
+        claims();
+
+        assertEquals(0, dispatcher.sendBatch());
+        assertEquals(0, smtp.connections.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatch_returnsWithoutWaitingAndSkipsWhileAllWorkersAreBusy() throws Exception {
+        CountDownLatch claiming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenAnswer(inv -> {
+            claiming.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        dispatcher.dispatch();
+        assertTrue(claiming.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch();
+        release.countDown();
+
+        verify(jdbcTemplate, timeout(5000).times(1)).query(anyString(), any(RowMapper.class), any(), any());
+        Thread.sleep(100);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(), any());
+    }
+
+    @Test
+    void backoff_doublesPerAttemptUpToSixHours() {
+        assertEquals(Duration.ofMinutes(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofMinutes(8), dispatcher.backoff(4));
+        assertEquals(Duration.ofHours(6), dispatcher.backoff(30));
+    }
+}
@@ -0,0 +1,90 @@
+package com.beworking.auth;
+
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private EmailOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outbox = new EmailOutbox(jdbcTemplate, transactionManager);
+    }
+
+    private static MimeMessage message(String to) throws Exception {
+        MimeMessage message = new MimeMessage((Session) null);
+        if (to != null) {
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        }
+        message.setSubject("Hola");
+        message.setText("Texto");
+        return message;
+    }
+
+    @Test
+    void enqueue_insertsInASavepoint() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertTrue(outbox.enqueue(message("a@example.com"), "key"));
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+            definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NESTED));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void enqueue_failedInsert_rollsBackToTheSavepointAndPropagates() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+            .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> outbox.enqueue(message("a@example.com"), "key"));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueueAll_writesEveryMessageInOneBatch() throws Exception {
+        outbox.enqueueAll(List.of(message("a@example.com"), message("b@example.com")));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO beworking.email_outbox"), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals("b@example.com", rows.getValue().get(1)[0]);
+        assertEquals("Hola", rows.getValue().get(1)[1]);
+        assertNull(rows.getValue().get(1)[3]);
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void enqueueAll_queuesNothingIfAnyMessageCannotBeRendered() throws Exception {
+        List<MimeMessage> messages = List.of(message("a@example.com"), message(null));
+
+        assertThrows(MailPreparationException.class, () -> outbox.enqueueAll(messages));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
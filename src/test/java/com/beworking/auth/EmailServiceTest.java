@@ -6,6 +6,7 @@ import org.mockito.*;
 import org.springframework.mail.javamail.JavaMailSender;
 import jakarta.mail.internet.MimeMessage;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class EmailServiceTest {
@@ -13,6 +14,9 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Mock
+    private EmailOutbox outbox;
+
     @InjectMocks
     private EmailService emailService;
 
@@ -35,7 +39,8 @@ class EmailServiceTest {
         emailService.sendConfirmationEmail("test@example.com", "token123");
 
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(message);
+        verify(outbox).enqueue(message);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     /**
@@ -66,7 +71,8 @@ class EmailServiceTest {
         emailService.sendPasswordResetEmail("test@example.com", "token123");
 
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(outbox).enqueue(mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     /**
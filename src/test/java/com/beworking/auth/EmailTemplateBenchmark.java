@@ -0,0 +1,97 @@
+package com.beworking.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-email render cost of a compiled {@link EmailTemplate} against the
+ * {@code String.format} path the lead emails used before (the format string
+ * is re-parsed on every call), plus a full recovery email (shell + body).
+ * Add {@code -prof gc} to compare bytes allocated per email.
+ *
+ * Run from the IDE, or:
+ * <pre>
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.beworking.auth.EmailTemplateBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplate leadAdmin;
+    private String leadAdminFormat;
+    private EmailTemplate shell;
+    private EmailTemplate recoveryBody;
+    private Map<String, Object> leadParams;
+
+    @Setup
+    public void setUp() throws IOException {
+        leadAdmin = EmailTemplate.load("lead-admin.html");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("templates/email/lead-admin.html")) {
+            leadAdminFormat = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                .replace("%", "%%")
+                .replaceAll("\\{\\{\\{?\\w+\\}?\\}\\}", "%s");
+        }
+        shell = EmailTemplate.load("shell.html");
+        recoveryBody = EmailTemplate.load("recovery-1.html");
+        leadParams = new HashMap<>();
+        leadParams.put("name", "María López");
+        leadParams.put("email", "maria@example.com");
+        leadParams.put("phone", "+34600123456");
+        leadParams.put("gmailLink", "https://mail.google.com/mail/u/0/#search/rfc822msgid%3Aabc");
+        leadParams.put("mailtoLink", "mailto:maria@example.com?subject=Re");
+        leadParams.put("waLink", "https://wa.me/34600123456");
+        leadParams.put("waWebLink", "https://web.whatsapp.com/send?phone=34600123456");
+    }
+
+    @Benchmark
+    public String leadAdmin_compiledTemplate() {
+        return leadAdmin.render(leadParams);
+    }
+
+    @Benchmark
+    public String leadAdmin_stringFormat() {
+        return String.format(leadAdminFormat,
+            leadParams.get("name"), leadParams.get("email"), leadParams.get("email"),
+            leadParams.get("phone"), leadParams.get("phone"), leadParams.get("gmailLink"),
+            leadParams.get("phone"), leadParams.get("waLink"), leadParams.get("mailtoLink"),
+            leadParams.get("waWebLink"));
+    }
+
+    @Benchmark
+    public String recoveryEmail_compiledTemplate() {
+        Map<String, Object> params = new HashMap<>(4);
+        params.put("headline", "¿Necesitas ayuda para terminar?");
+        params.put("body", recoveryBody.with(Map.of("greeting", "Hola María,")));
+        params.put("tracking", null);
+        return shell.render(params);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EmailTemplateBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
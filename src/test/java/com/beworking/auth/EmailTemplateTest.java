@@ -0,0 +1,66 @@
+package com.beworking.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void render_escapesDoubleBraceSlotsAndKeepsTripleBraceRaw() {
+        EmailTemplate template = EmailTemplate.compile("t", "<p>{{name}}</p>{{{body}}}");
+
+        String html = template.render(Map.of("name", "Ana & <Bob>", "body", "<b>hi</b>"));
+
+        assertEquals("<p>Ana &amp; &lt;Bob&gt;</p><b>hi</b>", html);
+    }
+
+    @Test
+    void render_boundTemplate_rendersInline() {
+        EmailTemplate shell = EmailTemplate.compile("shell", "<div>{{{body}}}</div>");
+        EmailTemplate body = EmailTemplate.compile("body", "Hola {{name}}");
+
+        assertEquals("<div>Hola O&#39;Neil</div>", shell.render(Map.of("body", body.with(Map.of("name", "O'Neil")))));
+    }
+
+    @Test
+    void render_nullValue_isEmptyButMissingParameterFails() {
+        EmailTemplate template = EmailTemplate.compile("t", "a{{x}}b");
+        Map<String, Object> params = new HashMap<>();
+        params.put("x", null);
+
+        assertEquals("ab", template.render(params));
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    void render_reusesBufferWithoutLeakingPreviousOutput() {
+        EmailTemplate template = EmailTemplate.compile("t", "[{{v}}]");
+
+        assertEquals("[long value]", template.render(Map.of("v", "long value")));
+        assertEquals("[x]", template.render(Map.of("v", "x")));
+    }
+
+    @Test
+    void compile_unclosedSlot_fails() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("t", "Hola {{name"));
+    }
+
+    @Test
+    void load_readsClasspathTemplate() {
+        EmailTemplate shell = EmailTemplate.load("shell.html");
+        Map<String, Object> params = new HashMap<>();
+        params.put("headline", "Hola");
+        params.put("body", "<p>cuerpo</p>");
+        params.put("tracking", null);
+
+        String html = shell.render(params);
+
+        assertTrue(html.startsWith("<!doctype html>"));
+        assertTrue(html.contains("<p>cuerpo</p>"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.load("missing.html"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.beworking.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimitStoreTest {
+
+    @Test
+    void tryConsume_limitsPerKey() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(1_000, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.tryConsume("1.2.3.4", 5, Duration.ofMinutes(1)));
+        }
+        assertFalse(store.tryConsume("1.2.3.4", 5, Duration.ofMinutes(1)));
+        assertTrue(store.tryConsume("5.6.7.8", 5, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void sprayedKeys_stayBounded() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10_000; i++) {
+            store.tryConsume("spray-" + i, 5, Duration.ofMinutes(1));
+        }
+        assertTrue(store.size() <= 100, "size=" + store.size());
+    }
+}
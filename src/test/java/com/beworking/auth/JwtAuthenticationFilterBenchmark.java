@@ -0,0 +1,101 @@
+package com.beworking.auth;
+
+import io.jsonwebtoken.Claims;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Per-request cost of {@link JwtAuthenticationFilter} with and without the
+ * verified-token cache. Both filter benchmarks send the same request with the
+ * same token through the same filter; the only difference is whether
+ * {@link JwtUtil#parseToken} answers from the cache or verifies the signature.
+ * The parse benchmarks isolate the same comparison below the filter.
+ *
+ * Run from the IDE, or:
+ * <pre>
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.beworking.auth.JwtAuthenticationFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString("my-very-secret-key-1234567890abcd".getBytes());
+        jwtUtil = new JwtUtil(secret, 10_000);
+        JwtUtil uncached = new JwtUtil(secret, 0) {
+            @Override
+            public Claims parseToken(String token) {
+                return parseTokenUncached(token);
+            }
+        };
+        cachedFilter = new JwtAuthenticationFilter(jwtUtil, "beworking");
+        uncachedFilter = new JwtAuthenticationFilter(uncached, "beworking");
+        token = jwtUtil.generateAccessToken("user@example.com", "USER", 1L);
+        jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Object filterRequest_cachedToken() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    @Benchmark
+    public Object filterRequest_cacheDisabled() throws Exception {
+        return filter(uncachedFilter);
+    }
+
+    @Benchmark
+    public void parseToken_cached(Blackhole bh) {
+        bh.consume(jwtUtil.parseToken(token));
+    }
+
+    @Benchmark
+    public void parseToken_uncached(Blackhole bh) {
+        bh.consume(jwtUtil.parseTokenUncached(token));
+    }
+
+    private Object filter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -3,7 +3,6 @@ package com.beworking.auth;
 import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Base64;
 
@@ -18,9 +17,7 @@ class JwtUtilTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        // Inject the secret key into the private field
-        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", secret);
+        jwtUtil = new JwtUtil(secret, 100);
     }
 
     @Test
@@ -50,4 +47,25 @@ class JwtUtilTest {
 
     }
 
+    @Test
+    void parseToken_RepeatedToken_ServedFromCache() {
+        String token = jwtUtil.generateAccessToken("user@example.com", "USER", 7L);
+
+        Claims first = jwtUtil.parseToken(token);
+        Claims second = jwtUtil.parseToken(token);
+
+        assertSame(first, second);
+        assertEquals(7L, second.get("tenantId", Long.class));
+    }
+
+    @Test
+    void parseToken_TamperedToken_NotServedFromCache() {
+        String token = jwtUtil.generateAccessToken("user@example.com", "USER", null);
+        jwtUtil.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+            + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(Exception.class, () -> jwtUtil.parseToken(tampered));
+    }
+
 }
\ No newline at end of file
@@ -88,4 +88,28 @@ class LoginServiceTest {
         assertFalse(result.isPresent());
     }
 
-}
\ No newline at end of file
+    /**
+     * A hash below the configured BCrypt cost is re-encoded on successful login;
+     * a current hash is left untouched.
+     */
+    @Test
+    void authenticate_OutdatedHash_IsUpgraded() {
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("oldHash");
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("pw", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("pw")).thenReturn("newHash");
+
+        assertTrue(loginService.authenticate(email, "pw").isPresent());
+        assertEquals("newHash", user.getPassword());
+        verify(userRepository).save(user);
+
+        when(passwordEncoder.matches("pw", "newHash")).thenReturn(true);
+        loginService.authenticate(email, "pw");
+        verify(userRepository, times(1)).save(user);
+    }
+}
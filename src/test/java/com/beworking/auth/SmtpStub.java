@@ -0,0 +1,103 @@
+package com.beworking.auth;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests: accepts everything except
+ * recipients in {@code rejected} (550), records each message's envelope
+ * recipients and DATA, and counts connections.
+ */
+final class SmtpStub implements AutoCloseable {
+
+    record Received(List<String> recipients, String data) {
+    }
+
+    final List<Received> messages = new CopyOnWriteArrayList<>();
+    final AtomicInteger connections = new AtomicInteger();
+
+    private final ServerSocket server;
+    private final Set<String> rejected;
+
+    SmtpStub(String... rejected) throws IOException {
+        this.rejected = Set.of(rejected);
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "smtp-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                connections.incrementAndGet();
+                serve(socket);
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1);
+        reply(out, "220 stub ESMTP");
+        List<String> recipients = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase(Locale.ROOT);
+            if (command.startsWith("MAIL FROM") || command.startsWith("RSET")) {
+                recipients.clear();
+                reply(out, "250 OK");
+            } else if (command.startsWith("RCPT TO")) {
+                String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                if (rejected.contains(address)) {
+                    reply(out, "550 No such user");
+                } else {
+                    recipients.add(address);
+                    reply(out, "250 OK");
+                }
+            } else if (command.startsWith("DATA")) {
+                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                StringBuilder data = new StringBuilder();
+                while (!(line = in.readLine()).equals(".")) {
+                    data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                }
+                messages.add(new Received(List.copyOf(recipients), data.toString()));
+                reply(out, "250 OK");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 Bye");
+                return;
+            } else {
+                reply(out, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+}
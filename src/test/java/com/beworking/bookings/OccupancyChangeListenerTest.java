@@ -0,0 +1,60 @@
+package com.beworking.bookings;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class OccupancyChangeListenerTest {
+
+    @Mock private DataSource dataSource;
+    @Mock private OccupancyTimeline timeline;
+
+    private OccupancyChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        listener = new OccupancyChangeListener(dataSource, timeline, true);
+    }
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getName()).thenReturn(OccupancyChangeListener.CHANNEL);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    @Test
+    void apply_groupsBloqueosAndDispatchesEachKind() {
+        listener.apply(new PGNotification[] {
+            notification("b:1"), notification("s:7"), notification("b:2"), notification("b:1"),
+            notification("c:40"), notification("cd:41")
+        });
+
+        verify(timeline).applyBloqueos(List.of(1L, 2L));
+        verify(timeline).applySubscription(7);
+        verify(timeline).applyContact(40L);
+        verify(timeline).removeContact(41L);
+        verifyNoMoreInteractions(timeline);
+    }
+
+    @Test
+    void apply_skipsMalformedPayloadsAndSurvivesAFailedRefresh() {
+        doThrow(new IllegalStateException("db down")).when(timeline).applySubscription(3);
+
+        listener.apply(new PGNotification[] {
+            notification("garbage"), notification("b:x"), notification("s:3"), notification("c:9")
+        });
+
+        verify(timeline).applySubscription(3);
+        verify(timeline).applyContact(9L);
+        verifyNoMoreInteractions(timeline);
+    }
+}
@@ -0,0 +1,115 @@
+package com.beworking.bookings;
+
+import com.beworking.contacts.ContactProfileDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OccupancyTimelineTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private OccupancyTimeline timeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        timeline = new OccupancyTimeline(jdbcTemplate, 7);
+
+        when(jdbcTemplate.query(eq("SELECT id, nombre, centro, tipo FROM beworking.productos"), any(RowMapper.class)))
+            .thenReturn(List.of(
+                new OccupancyTimeline.ProductSlot(1L, "MA1A1", "MA1", "aula"),
+                new OccupancyTimeline.ProductSlot(2L, "MA1O1-3", "MA1", "mesa")));
+        when(jdbcTemplate.query(startsWith("SELECT id, id_producto"), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(List.of(
+                bloqueo(10L, 1L, TODAY.atTime(9, 0), TODAY.atTime(11, 0)),
+                bloqueo(11L, 1L, TODAY.plusDays(1).atTime(9, 0), TODAY.plusDays(1).atTime(11, 0))));
+        when(jdbcTemplate.query(startsWith("SELECT id, contact_id"), any(RowMapper.class)))
+            .thenReturn(List.of(
+                subscription(20, 2L, TODAY.minusMonths(2), null, true),
+                // Cancelled mid-period: keeps the desk until its paid-through end date.
+                subscription(21, 2L, TODAY.minusMonths(1), TODAY.plusDays(3), false),
+                subscription(22, 2L, TODAY.minusMonths(3), TODAY.minusDays(1), false)));
+    }
+
+    private static OccupancyTimeline.BloqueoSlot bloqueo(Long id, Long productId, LocalDateTime ini, LocalDateTime fin) {
+        return new OccupancyTimeline.BloqueoSlot(id, productId, 5L, ini, fin, false, "Pagado");
+    }
+
+    private static OccupancyTimeline.SubscriptionSlot subscription(int id, Long productId, LocalDate start,
+                                                                   LocalDate end, boolean active) {
+        return new OccupancyTimeline.SubscriptionSlot(id, 5L, productId, start, end, active, "Coworking", BigDecimal.TEN);
+    }
+
+    @Test
+    void bloqueosOverlapping_returnsOnlyTheRequestedDay() {
+        List<OccupancyTimeline.BloqueoSlot> today = timeline.bloqueosOverlapping(
+            TODAY.atStartOfDay(), TODAY.plusDays(1).atStartOfDay(), List.of(1L));
+
+        assertEquals(List.of(10L), today.stream().map(OccupancyTimeline.BloqueoSlot::id).toList());
+        assertTrue(timeline.bloqueosOverlapping(TODAY.atStartOfDay(), TODAY.plusDays(1).atStartOfDay(), List.of(2L)).isEmpty());
+    }
+
+    @Test
+    void subscriptionsCovering_followsPaidCoverage() {
+        List<Integer> covering = timeline.subscriptionsCovering(TODAY).stream()
+            .map(OccupancyTimeline.SubscriptionSlot::id).toList();
+
+        assertEquals(List.of(20, 21), covering);
+        assertEquals(List.of(20), timeline.activeSubscriptions().stream()
+            .map(OccupancyTimeline.SubscriptionSlot::id).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refreshBloqueo_movesAndRemovesSingleRows() {
+        timeline.covers(TODAY.atStartOfDay());  // load
+
+        when(jdbcTemplate.query(endsWith("WHERE id IN (?)"), any(RowMapper.class), eq(10L)))
+            .thenReturn(List.of(bloqueo(10L, 2L, TODAY.atTime(12, 0), TODAY.atTime(13, 0))));
+        timeline.refreshBloqueo(10L);
+
+        LocalDateTime start = TODAY.atStartOfDay();
+        LocalDateTime end = TODAY.plusDays(1).atStartOfDay();
+        assertTrue(timeline.bloqueosOverlapping(start, end, List.of(1L)).isEmpty());
+        assertEquals(1, timeline.bloqueosOverlapping(start, end, List.of(2L)).size());
+
+        when(jdbcTemplate.query(endsWith("WHERE id IN (?)"), any(RowMapper.class), eq(10L))).thenReturn(List.of());
+        timeline.refreshBloqueo(10L);
+
+        assertTrue(timeline.bloqueosOverlapping(start, end, null).isEmpty());
+    }
+
+    @Test
+    void onContactDeleted_dropsTheContactsBloqueosAndSubscriptions() {
+        timeline.covers(TODAY.atStartOfDay());  // load
+
+        timeline.onContactDeleted(new ContactProfileDeletedEvent(5L));
+
+        assertTrue(timeline.bloqueosOverlapping(TODAY.atStartOfDay(), TODAY.plusDays(2).atStartOfDay(), null).isEmpty());
+        assertTrue(timeline.subscriptionsCovering(TODAY).isEmpty());
+        assertTrue(timeline.contactName(5L).isEmpty());
+    }
+
+    @Test
+    void productsByPrefix_isCaseInsensitive() {
+        assertEquals(List.of(2L), timeline.productsByPrefix("ma1o1-").stream()
+            .map(OccupancyTimeline.ProductSlot::id).toList());
+        assertFalse(timeline.covers(TODAY.minusDays(30).atStartOfDay()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.beworking.campaigns;
+
+import com.beworking.auth.EmailOutbox;
+import com.beworking.auth.EmailService;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CampaignStepEngineTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CampaignStepEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engine = new CampaignStepEngine(jdbcTemplate, transactionManager);
+    }
+
+    private static List<CampaignStepEngine.Recipient> recipients(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new CampaignStepEngine.Recipient((long) i, "c" + i + "@example.com", "C" + i, 1))
+            .toList();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_claimsBatchesUntilShortOneAndSendsEachRecipientInItsTransaction() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(recipients(CampaignStepEngine.BATCH_SIZE))
+            .thenReturn(recipients(3));
+        List<CampaignStepEngine.Recipient> sent = new ArrayList<>();
+
+        int claimed = engine.run("test", "UPDATE ... LIMIT ?", sent::add, "Potencial");
+
+        assertEquals(CampaignStepEngine.BATCH_SIZE + 3, claimed);
+        assertEquals(claimed, sent.size());
+        verify(jdbcTemplate, times(2)).query(eq("UPDATE ... LIMIT ?"), any(RowMapper.class),
+            eq(new Object[] {"Potencial", CampaignStepEngine.BATCH_SIZE}));
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_outboxFailure_rollsBackTheBatch() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(recipients(2));
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage((Session) null));
+        EmailOutbox outbox = mock(EmailOutbox.class);
+        doThrow(new DataAccessResourceFailureException("outbox unavailable"))
+            .when(outbox).enqueue(any(MimeMessage.class), anyString());
+        EmailService emailService = new EmailService(mailSender, outbox);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> engine.run("test", "UPDATE", recipient ->
+            emailService.queueRecoveryEmail(recipient.email(), recipient.name(), recipient.step(), (Long) recipient.id())));
+
+        verify(outbox).enqueue(any(MimeMessage.class), eq("recovery:0:1"));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_badAddress_skipsThatRecipientAndCommitsTheRest() {
+        List<CampaignStepEngine.Recipient> rows = new ArrayList<>(recipients(3));
+        rows.set(1, new CampaignStepEngine.Recipient(1L, "not an address@@", "Legacy", 1));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(rows);
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage((Session) null));
+        EmailOutbox outbox = mock(EmailOutbox.class);
+        EmailService emailService = new EmailService(mailSender, outbox);
+
+        int queued = engine.run("test", "UPDATE", recipient ->
+            emailService.queueRecoveryEmail(recipient.email(), recipient.name(), recipient.step(), (Long) recipient.id()));
+
+        assertEquals(2, queued);
+        verify(outbox).enqueue(any(MimeMessage.class), eq("recovery:0:1"));
+        verify(outbox).enqueue(any(MimeMessage.class), eq("recovery:2:1"));
+        verify(outbox, never()).enqueue(any(MimeMessage.class), eq("recovery:1:1"));
+        verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_nothingDue_claimsNothing() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(Collections.emptyList());
+
+        assertEquals(0, engine.run("test", "UPDATE", recipient -> fail("nothing to send")));
+    }
+
+    @Test
+    void stepDelay_indexesDelaysByCounter() {
+        assertEquals("make_interval(secs => (ARRAY[1800,86400])[nurture_email_count + 1])",
+            CampaignStepEngine.stepDelay("nurture_email_count",
+                new Duration[] {Duration.ofMinutes(30), Duration.ofDays(1)}));
+    }
+}
@@ -0,0 +1,32 @@
+package com.beworking.config;
+
+import com.beworking.auth.AuthenticatedUserArgumentResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WebMvcConfigTest {
+
+    /** Exposes the timeout the configurer hands to the MVC async machinery. */
+    private static class Probe extends AsyncSupportConfigurer {
+        Long timeout() {
+            return getTimeout();
+        }
+    }
+
+    @Test
+    void configureAsyncSupport_letsStreamedDownloadsOutliveTheContainerDefault() {
+        Probe probe = new Probe();
+
+        new WebMvcConfig(mock(AuthenticatedUserArgumentResolver.class), Duration.ofMinutes(30))
+            .configureAsyncSupport(probe);
+
+        // Tomcat cuts async requests (every StreamingResponseBody) at 30s unless told otherwise.
+        assertEquals(Duration.ofMinutes(30).toMillis(), probe.timeout());
+        assertTrue(probe.timeout() > Duration.ofSeconds(30).toMillis());
+    }
+}
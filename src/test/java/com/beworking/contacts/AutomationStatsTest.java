@@ -0,0 +1,81 @@
+package com.beworking.contacts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AutomationStatsTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private AutomationStats stats;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stats = new AutomationStats(jdbcTemplate, Duration.ofMinutes(1));
+    }
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    @Test
+    void funnel_mapsOneRowIntoDashboardPayload() {
+        when(jdbcTemplate.queryForMap(contains("beworking.email_opens"))).thenReturn(row(
+            "activo", 10L, "potencial", 4L, "inactivo", 7L,
+            "converted_30d", 2L, "aged_out_30d", 1L,
+            "recovery_sent_1", 3L, "recovery_sent_2", 0L, "recovery_sent_3", 1L, "recovery_sent_4", 0L,
+            "recovery_opens_1", 2L, "recovery_opens_2", 0L, "recovery_opens_3", 0L, "recovery_opens_4", 0L,
+            "reengagement_opens", 5L));
+
+        Map<String, Object> funnel = stats.funnel();
+
+        assertEquals(Map.of("Activo", 10L, "Potencial", 4L, "Inactivo", 7L), funnel.get("counts"));
+        assertEquals(2L, funnel.get("potencialesConverted30d"));
+        assertEquals(1L, funnel.get("potencialesAgedOut30d"));
+        assertEquals(Map.of("1", 3L, "3", 1L), funnel.get("recoveryEmailsByTemplate30d"));
+        assertEquals(Map.of("1", 2L), funnel.get("recoveryOpensByTemplate30d"));
+        assertEquals(5L, funnel.get("reengagementOpens30d"));
+    }
+
+    @Test
+    void statusCountsAndFunnel_shareOneCachedQuery() {
+        when(jdbcTemplate.queryForMap(contains("beworking.email_opens"))).thenReturn(row(
+            "activo", 1L, "potencial", 2L, "inactivo", 3L));
+
+        stats.funnel();
+        Map<String, Long> counts = stats.statusCounts();
+
+        assertEquals(2L, counts.get("Potencial"));
+        verify(jdbcTemplate, times(1)).queryForMap(anyString());
+    }
+
+    @Test
+    void jobCandidates_keepsJobNamesFromColumnAliases() {
+        when(jdbcTemplate.queryForMap(contains("\"bekeyShareSweep\""))).thenReturn(row(
+            "recovery", 3L, "activoAging", 9L, "bekeyShareSweep", null));
+
+        Map<String, Long> candidates = stats.jobCandidates();
+        stats.jobCandidates();
+
+        assertEquals(3L, candidates.get("recovery"));
+        assertEquals(9L, candidates.get("activoAging"));
+        assertEquals(0L, candidates.get("bekeyShareSweep"));
+        verify(jdbcTemplate, times(1)).queryForMap(anyString());
+    }
+}
@@ -1,5 +1,7 @@
 package com.beworking.contacts;
 
+import com.beworking.auth.AuthenticatedUserArgumentResolver;
+import com.beworking.auth.AuthenticatedUserCache;
 import com.beworking.auth.JwtUtil;
 import com.beworking.auth.User;
 import com.beworking.auth.UserRepository;
@@ -9,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,6 +32,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * and dependencies are mocked so tests run fast and deterministically.
  */
 @WebMvcTest(ContactProfileController.class)
+@Import({AuthenticatedUserCache.class, AuthenticatedUserArgumentResolver.class})
 @AutoConfigureMockMvc(addFilters = false)
 public class ContactProfileControllerTest {
 
@@ -53,6 +57,12 @@ public class ContactProfileControllerTest {
     @MockBean
     private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
 
+    @MockBean
+    private VatRevalidationJobService vatRevalidationJobService;
+
+    @MockBean
+    private AutomationStats automationStats;
+
     // --- Helper to build a mock admin user ---
     private User adminUser() {
         User user = new User();
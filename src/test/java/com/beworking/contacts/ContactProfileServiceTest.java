@@ -1,5 +1,7 @@
 package com.beworking.contacts;
 
+import com.beworking.auth.AuthenticatedUser;
+import com.beworking.auth.User;
 import com.beworking.auth.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -443,4 +445,69 @@ public class ContactProfileServiceTest {
             assertThat(result.get().getName()).isEqualTo("Acme Corp");
         }
     }
+
+    // ==================== resolveOwnEmail ====================
+
+    @Nested
+    class ResolveOwnEmail {
+
+        @Test
+        void tenantUser_usesLoginEmail() {
+            AuthenticatedUser user = new AuthenticatedUser(7L, "login@example.com", User.Role.USER, 1L);
+
+            assertThat(service.resolveOwnEmail(user)).isEqualTo("login@example.com");
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void userWithoutTenant_usesFirstNonBlankContactEmail() {
+            validContact.setEmailPrimary(" ");
+            validContact.setEmailSecondary("billing@example.com");
+            when(repository.findFirstByEmailPrimaryIgnoreCaseOrEmailSecondaryIgnoreCaseOrEmailTertiaryIgnoreCaseOrRepresentativeEmailIgnoreCase(
+                any(), any(), any(), any()
+            )).thenReturn(Optional.of(validContact));
+            AuthenticatedUser user = new AuthenticatedUser(7L, "Billing@Example.com", User.Role.USER, null);
+
+            assertThat(service.resolveOwnEmail(user)).isEqualTo("billing@example.com");
+        }
+
+        @Test
+        void userWithoutTenantOrContact_returnsNull() {
+            AuthenticatedUser user = new AuthenticatedUser(7L, "nobody@example.com", User.Role.USER, null);
+
+            assertThat(service.resolveOwnEmail(user)).isNull();
+        }
+    }
+
+    // ==================== findPhonesByEmails ====================
+
+    @Nested
+    class FindPhonesByEmails {
+
+        private ContactProfileRepository.EmailPhone row(String email, String phone) {
+            return new ContactProfileRepository.EmailPhone() {
+                @Override public String getEmail() { return email; }
+                @Override public String getPhone() { return phone; }
+            };
+        }
+
+        @Test
+        void resolvesAllEmailsInOneNormalizedLookup() {
+            when(repository.findPhonesByEmails(any())).thenReturn(List.of(
+                row("acme@example.com", "+34600000000"),
+                row("nophone@example.com", null)));
+
+            java.util.Map<String, String> phones = service.findPhonesByEmails(java.util.Arrays.asList(
+                " ACME@example.com", "acme@example.com", "nophone@example.com", null, " "));
+
+            assertThat(phones).containsExactly(java.util.Map.entry("acme@example.com", "+34600000000"));
+            verify(repository).findPhonesByEmails(java.util.Set.of("acme@example.com", "nophone@example.com"));
+        }
+
+        @Test
+        void skipsQueryWithoutEmails() {
+            assertThat(service.findPhonesByEmails(List.of())).isEmpty();
+            verify(repository, never()).findPhonesByEmails(any());
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.beworking.contacts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOpenRecorderTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private EmailOpenRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Flusher thread not started: tests drive flush() directly.
+        recorder = new EmailOpenRecorder(jdbcTemplate, 5, 2, Duration.ofMillis(250));
+    }
+
+    private static EmailOpenRecorder.Open open(long contactId) {
+        return new EmailOpenRecorder.Open(contactId, "recovery", 1, LocalDateTime.now(), "Mozilla", "10.0.0.1");
+    }
+
+    @Test
+    void flush_writesOneMultiRowInsertPerBatch() {
+        recorder.record(open(1));
+        recorder.record(open(2));
+        recorder.record(open(3));
+
+        assertEquals(2, recorder.flush());
+        assertEquals(1, recorder.flush());
+        assertEquals(0, recorder.flush());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(sql.capture(), args.capture());
+        assertTrue(sql.getAllValues().get(0).endsWith("VALUES (?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?)"));
+        assertTrue(sql.getAllValues().get(1).endsWith("VALUES (?, ?, ?, ?, ?, ?)"));
+        assertEquals(12, args.getAllValues().get(0).length);
+        assertEquals(3L, args.getAllValues().get(1)[0]);
+    }
+
+    @Test
+    void record_bufferFull_dropsAndCounts() {
+        for (int i = 0; i < 7; i++) {
+            recorder.record(open(i));
+        }
+
+        assertEquals(2, recorder.droppedCount());
+        int written = 0;
+        int n;
+        while ((n = recorder.flush()) > 0) {
+            written += n;
+        }
+        assertEquals(5, written);
+        assertTrue(recorder.record(open(99)), "space frees up once flushed");
+    }
+
+    @Test
+    void flush_databaseError_countsFailureAndMovesOn() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+        recorder.record(open(1));
+
+        assertEquals(1, recorder.flush());
+        assertEquals(1, recorder.failedCount());
+        assertEquals(0, recorder.flush());
+    }
+}
@@ -0,0 +1,87 @@
+package com.beworking.contacts;
+
+import com.beworking.tax.TaxIdNormalizer;
+import com.beworking.tax.ViesGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VatRevalidationJobServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ViesGateway viesGateway;
+    @Mock private ContactProfileService contactProfileService;
+
+    private VatRevalidationJobService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new VatRevalidationJobService(jdbcTemplate, viesGateway,
+            new TaxIdNormalizer(), contactProfileService, 4);
+    }
+
+    private static Map<String, Object> contact(long id, String taxId, String country) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("billing_tax_id", taxId);
+        row.put("billing_country", country);
+        return row;
+    }
+
+    @SafeVarargs
+    private void givenCandidates(Map<String, Object>... rows) {
+        when(jdbcTemplate.queryForList(contains("FROM beworking.contact_profiles"), any(Object[].class)))
+            .thenReturn(List.of(rows));
+    }
+
+    @Test
+    void loadCandidates_groupsByMemberStateAndNormalizedTaxId() {
+        givenCandidates(
+            contact(1, "B12345678", "Spain"),
+            contact(2, "es b12345678", null),
+            contact(3, "FR12345678901", "France"),
+            contact(4, "X1234567L", "España"));
+
+        var byCountry = service.loadCandidates(LocalDateTime.now());
+
+        assertEquals(List.of("ES", "FR"), List.copyOf(byCountry.keySet()));
+        assertEquals(2, byCountry.get("ES").size());
+        assertEquals(List.of(1L, 2L), byCountry.get("ES").get(0).contactIds());
+        assertEquals("ESB12345678", byCountry.get("ES").get(0).taxId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_makesOneViesCallPerDistinctTaxIdAndAppliesItToEveryContact() {
+        givenCandidates(
+            contact(1, "B12345678", "Spain"),
+            contact(2, "ESB12345678", "Spain"),
+            contact(3, "FR12345678901", "France"));
+        when(viesGateway.validateFresh(anyList(), eq("ESB12345678"), eq("ES")))
+            .thenReturn(new ViesGateway.GatewayResult(ViesGateway.Result.VALID, 10L, null));
+        when(viesGateway.validateFresh(anyList(), eq("FR12345678901"), eq("FR")))
+            .thenReturn(new ViesGateway.GatewayResult(ViesGateway.Result.UNREACHABLE, 11L, null));
+
+        service.run(UUID.randomUUID(), LocalDateTime.now());
+
+        verify(viesGateway, times(1)).validateFresh(eq(List.of(1L, 2L)), eq("ESB12345678"), eq("ES"));
+        verify(viesGateway, times(1)).validateFresh(eq(List.of(3L)), eq("FR12345678901"), eq("FR"));
+        verify(contactProfileService).applyViesOutcome(1L, ViesGateway.Result.VALID);
+        verify(contactProfileService).applyViesOutcome(2L, ViesGateway.Result.VALID);
+        verify(contactProfileService).applyViesOutcome(3L, ViesGateway.Result.UNREACHABLE);
+        verify(jdbcTemplate).update(contains("status = 'COMPLETED'"), any(UUID.class));
+    }
+}
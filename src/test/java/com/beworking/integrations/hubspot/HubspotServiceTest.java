@@ -1,114 +1,155 @@
 package com.beworking.integrations.hubspot;
 
 import com.beworking.leads.Lead;
-import com.beworking.leads.LeadRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.springframework.http.*;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpServerErrorException;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.*;
 
+/** Runs {@link HubspotService} against a local stub of the batch upsert endpoint. */
 class HubspotServiceTest {
 
-    private LeadRepository leadRepository;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private HttpServer server;
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authHeaders = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile String responseBody = "{}";
+    private volatile String retryAfter;
     private HubspotService hubspotService;
 
     @BeforeEach
-    void setUp() {
-        leadRepository = mock(LeadRepository.class);
-        hubspotService = new HubspotService(leadRepository);
-        ReflectionTestUtils.setField(hubspotService, "hubspotToken", "test-token");
-        ReflectionTestUtils.setField(hubspotService, "hubspotBaseUrl", "https://api.hubapi.com");
-        // You may need to set hubspotBaseUrl and hubspotToken via reflection if not set by Spring
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(HubspotService.BATCH_UPSERT_PATH, exchange -> {
+            requests.add(JSON.readTree(exchange.getRequestBody()));
+            authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        hubspotService = new HubspotService("http://localhost:" + server.getAddress().getPort(), "test-token");
     }
 
-    @Test
-    void syncLead_returnsSuccessOn2xxResponse() {
-        Lead lead = new Lead();
-        lead.setName("Test User");
-        lead.setEmail("test@example.com");
-        lead.setPhone("123456789");
-
-        // Mock RestTemplate and response
-        RestTemplate restTemplate = mock(RestTemplate.class);
-        Map<String, Object> responseBody = Map.of("id", "hubspot-123");
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), any(Class.class))).thenReturn(response);
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
 
-        // Optionally inject restTemplate if your service allows it, or use PowerMock/ReflectionTestUtils
+    private static Lead lead(String name, String email, String phone) {
+        Lead lead = new Lead();
+        lead.setName(name);
+        lead.setEmail(email);
+        lead.setPhone(phone);
+        return lead;
+    }
 
-        HubspotService.HubspotSyncResult result = hubspotService.syncLead(lead);
+    @Test
+    void upsertContacts_sendsOneBatchKeyedOnEmail() {
+        responseBody = """
+            {"status":"COMPLETE","results":[
+              {"id":"101","properties":{"email":"ana@example.com"}},
+              {"id":"102","properties":{"email":"bob@example.com"}}]}
+            """;
+
+        HubspotService.BatchResult result = hubspotService.upsertContacts(List.of(
+            lead("Ana", "Ana@Example.com", "600111222"),
+            lead("Bob", "bob@example.com", null)));
+
+        assertEquals(1, requests.size());
+        assertEquals("Bearer test-token", authHeaders.get(0));
+        JsonNode inputs = requests.get(0).get("inputs");
+        assertEquals(2, inputs.size());
+        assertEquals("email", inputs.get(0).get("idProperty").asText());
+        assertEquals("ana@example.com", inputs.get(0).get("id").asText());
+        assertEquals("600111222", inputs.get(0).get("properties").get("phone").asText());
+        assertFalse(inputs.get(1).get("properties").has("phone"));
+        assertEquals("101", result.idsByEmail().get("ana@example.com"));
+        assertEquals("102", result.idsByEmail().get("bob@example.com"));
+    }
 
-        assertTrue(result.isSuccess());
-        assertEquals("hubspot-123", result.getId());
-        assertNull(result.getError());
+    @Test
+    void upsertContacts_duplicateEmails_areSentOnce() {
+        responseBody = """
+            {"results":[{"id":"101","properties":{"email":"ana@example.com"}}]}
+            """;
+
+        hubspotService.upsertContacts(List.of(
+            lead("Ana", "ana@example.com", null),
+            lead("Ana Ruiz", "ANA@example.com", null)));
+
+        JsonNode inputs = requests.get(0).get("inputs");
+        assertEquals(1, inputs.size());
+        assertEquals("Ana Ruiz", inputs.get(0).get("properties").get("firstname").asText());
     }
 
     @Test
-    void syncLead_returnsErrorOnNon2xxResponse() {
-        Lead lead = new Lead();
-        lead.setName("Test User");
-        lead.setEmail("test@example.com");
-        lead.setPhone("123456789");
+    void upsertContacts_partialFailure_reportsRejectedEmails() {
+        status = 207;
+        responseBody = """
+            {"status":"COMPLETE",
+             "results":[{"id":"101","properties":{"email":"ana@example.com"}}],
+             "errors":[{"status":"error","message":"Property values were not valid",
+                        "context":{"ids":["bad@example.com"]}}]}
+            """;
+
+        HubspotService.BatchResult result = hubspotService.upsertContacts(List.of(
+            lead("Ana", "ana@example.com", null),
+            lead("Bad", "bad@example.com", null)));
+
+        assertEquals("101", result.idsByEmail().get("ana@example.com"));
+        assertEquals("Property values were not valid", result.errorsByEmail().get("bad@example.com"));
+    }
 
-        RestTemplate restTemplate = mock(RestTemplate.class);
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
-        when(restTemplate.postForEntity(anyString(), any(), any(Class.class))).thenReturn(response);
+    @Test
+    void upsertContacts_tooManyRequests_throwsWithRetryAfter() {
+        status = 429;
+        retryAfter = "7";
+        responseBody = "{\"status\":\"error\",\"category\":\"RATE_LIMITS\"}";
 
-        HubspotService.HubspotSyncResult result = hubspotService.syncLead(lead);
+        HubspotRateLimitException e = assertThrows(HubspotRateLimitException.class,
+            () -> hubspotService.upsertContacts(List.of(lead("Ana", "ana@example.com", null))));
 
-        assertFalse(result.isSuccess());
-        assertNull(result.getId());
-        assertTrue(result.getError().contains("Non-2xx response"));
+        assertEquals(Duration.ofSeconds(7), e.getRetryAfter());
     }
 
     @Test
-    void syncLead_returnsErrorOnException() {
-        Lead lead = new Lead();
-        lead.setName("Test User");
-        lead.setEmail("test@example.com");
-        lead.setPhone("123456789");
+    void upsertContacts_serverError_propagates() {
+        status = 502;
 
-        RestTemplate restTemplate = mock(RestTemplate.class);
-        when(restTemplate.postForEntity(anyString(), any(), any(Class.class)))
-                .thenThrow(new RuntimeException("Connection error"));
-
-        HubspotService.HubspotSyncResult result = hubspotService.syncLead(lead);
-
-        assertFalse(result.isSuccess());
-        assertNull(result.getId());
-        assertTrue(result.getError().contains("Connection error"));
+        assertThrows(HttpServerErrorException.class,
+            () -> hubspotService.upsertContacts(List.of(lead("Ana", "ana@example.com", null))));
     }
 
     @Test
-    void syncLead_sendsCorrectDataToHubSpot() {
-        Lead lead = new Lead();
-        lead.setName("Test User");
-        lead.setEmail("test@example.com");
-        lead.setPhone("123456789");
-
-        RestTemplate restTemplate = mock(RestTemplate.class);
-        Map<String, Object> responseBody = Map.of("id", "hubspot-123");
-        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(responseBody, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), any(Class.class))).thenReturn(response);
-
-        ArgumentCaptor<HttpEntity> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
-
-        hubspotService.syncLead(lead);
-
-        // You would need to inject or mock RestTemplate in your service to capture the entity
-        // verify(restTemplate).postForEntity(anyString(), entityCaptor.capture(), any(Class.class));
-        // HttpEntity<Map<String, Object>> sentEntity = entityCaptor.getValue();
-        // Map<String, Object> properties = (Map<String, Object>) sentEntity.getBody().get("properties");
-        // assertEquals("test@example.com", properties.get("email"));
-        // assertEquals("Test User", properties.get("firstname"));
-        // assertEquals("123456789", properties.get("phone"));
+    void upsertContacts_withoutToken_failsWithoutCalling() {
+        HubspotService unconfigured = new HubspotService("http://localhost:" + server.getAddress().getPort(), "");
+
+        assertFalse(unconfigured.isConfigured());
+        assertThrows(IllegalStateException.class,
+            () -> unconfigured.upsertContacts(List.of(lead("Ana", "ana@example.com", null))));
+        assertTrue(requests.isEmpty());
     }
 }
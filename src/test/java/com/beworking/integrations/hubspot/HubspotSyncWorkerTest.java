@@ -0,0 +1,172 @@
+package com.beworking.integrations.hubspot;
+
+import com.beworking.leads.Lead;
+import com.beworking.leads.LeadRepository;
+import com.beworking.leads.SyncStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HubspotSyncWorkerTest {
+
+    @Mock private HubspotService hubspotService;
+    @Mock private LeadRepository leadRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private HubspotSyncWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(hubspotService.isConfigured()).thenReturn(true);
+        worker = new HubspotSyncWorker(hubspotService, leadRepository, jdbcTemplate, 2, 3, Duration.ofMinutes(1));
+    }
+
+    private static Lead lead(String email, Integer attempts) {
+        Lead lead = new Lead();
+        lead.setName("Lead");
+        lead.setEmail(email);
+        lead.setId(UUID.randomUUID());
+        lead.setHubspotSyncAttempts(attempts);
+        return lead;
+    }
+
+    @Test
+    void push_marksWrittenLeadsSyncedAndRejectedOnesFailedWithBackoff() {
+        Lead ok = lead("ok@example.com", null);
+        Lead bad = lead("bad@example.com", 1);
+        when(hubspotService.upsertContacts(any())).thenReturn(new HubspotService.BatchResult(
+            Map.of("ok@example.com", "101"), Map.of("bad@example.com", "Invalid email")));
+
+        Instant before = Instant.now();
+        worker.push(List.of(ok, bad));
+
+        assertEquals(SyncStatus.SYNCED, ok.getHubspotSyncStatus());
+        assertEquals("101", ok.getHubspotId());
+        assertEquals(1, ok.getHubspotSyncAttempts());
+        assertNull(ok.getHubspotNextAttemptAt());
+        assertEquals(SyncStatus.FAILED, bad.getHubspotSyncStatus());
+        assertEquals("Invalid email", bad.getHubspotError());
+        assertEquals(2, bad.getHubspotSyncAttempts());
+        assertFalse(bad.getHubspotNextAttemptAt().isBefore(before.plus(Duration.ofMinutes(2))));
+        verify(jdbcTemplate).batchUpdate(eq(HubspotSyncWorker.UPDATE_SYNC_SQL), argThat((List<Object[]> rows) ->
+            rows.size() == 2
+                && "SYNCED".equals(rows.get(0)[0]) && "101".equals(rows.get(0)[1]) && ok.getId().equals(rows.get(0)[7])
+                && "FAILED".equals(rows.get(1)[0]) && "Invalid email".equals(rows.get(1)[2]) && bad.getId().equals(rows.get(1)[7])));
+        verify(leadRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void push_lastAttempt_leavesLeadFailedWithoutNextAttempt() {
+        Lead lead = lead("bad@example.com", 2);
+        when(hubspotService.upsertContacts(any())).thenThrow(new ResourceAccessException("timeout"));
+
+        worker.push(List.of(lead));
+
+        assertEquals(SyncStatus.FAILED, lead.getHubspotSyncStatus());
+        assertEquals(3, lead.getHubspotSyncAttempts());
+        assertNull(lead.getHubspotNextAttemptAt());
+    }
+
+    @Test
+    void push_clientError_bisectsDownToTheRejectedLead() {
+        Lead a = lead("a@example.com", null);
+        Lead b = lead("b@example.com", null);
+        Lead bad = lead("bad@example.com", null);
+        Lead d = lead("d@example.com", null);
+        when(hubspotService.upsertContacts(any())).thenAnswer(inv -> {
+            List<Lead> batch = inv.getArgument(0);
+            if (batch.contains(bad)) {
+                throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null);
+            }
+            Map<String, String> ids = new HashMap<>();
+            batch.forEach(lead -> ids.put(lead.getEmail(), "id-" + lead.getEmail()));
+            return new HubspotService.BatchResult(ids, Map.of());
+        });
+
+        worker.push(List.of(a, b, bad, d));
+
+        assertEquals(SyncStatus.SYNCED, a.getHubspotSyncStatus());
+        assertEquals(SyncStatus.SYNCED, b.getHubspotSyncStatus());
+        assertEquals(SyncStatus.SYNCED, d.getHubspotSyncStatus());
+        assertEquals(SyncStatus.FAILED, bad.getHubspotSyncStatus());
+        assertEquals(1, bad.getHubspotSyncAttempts());
+        assertNotNull(bad.getHubspotNextAttemptAt());
+    }
+
+    @Test
+    void push_serverError_backsOffTheWholeBatch() {
+        Lead a = lead("a@example.com", null);
+        Lead b = lead("b@example.com", null);
+        when(hubspotService.upsertContacts(any())).thenThrow(
+            HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null));
+
+        worker.push(List.of(a, b));
+
+        verify(hubspotService, times(1)).upsertContacts(any());
+        assertEquals(SyncStatus.FAILED, a.getHubspotSyncStatus());
+        assertEquals(SyncStatus.FAILED, b.getHubspotSyncStatus());
+    }
+
+    @Test
+    void syncDue_rateLimited_pausesWithoutChargingAttempts() {
+        List<Lead> batch = new ArrayList<>(List.of(lead("a@example.com", null), lead("b@example.com", null)));
+        when(leadRepository.findDueForHubspotSync(eq(3), any(), eq(Limit.of(2)))).thenReturn(batch);
+        when(hubspotService.upsertContacts(any())).thenThrow(new HubspotRateLimitException(Duration.ofMinutes(5)));
+
+        worker.syncDue();
+        worker.syncDue();
+
+        verify(hubspotService, times(1)).upsertContacts(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertNull(batch.get(0).getHubspotSyncAttempts());
+    }
+
+    @Test
+    void syncDue_drainsFullBatchesUntilAShortOne() {
+        when(leadRepository.findDueForHubspotSync(anyInt(), any(), any()))
+            .thenReturn(List.of(lead("a@example.com", null), lead("b@example.com", null)))
+            .thenReturn(List.of(lead("c@example.com", null)));
+        when(hubspotService.upsertContacts(any())).thenReturn(new HubspotService.BatchResult(Map.of(), Map.of()));
+
+        worker.syncDue();
+
+        verify(hubspotService, times(2)).upsertContacts(any());
+        verify(leadRepository, times(2)).findDueForHubspotSync(anyInt(), any(), any());
+    }
+
+    @Test
+    void syncDue_withoutToken_doesNothing() {
+        when(hubspotService.isConfigured()).thenReturn(false);
+
+        worker.syncDue();
+
+        verifyNoInteractions(leadRepository);
+    }
+
+    @Test
+    void backoff_doublesPerAttemptUpToOneDay() {
+        assertEquals(Duration.ofMinutes(1), worker.backoff(1));
+        assertEquals(Duration.ofMinutes(4), worker.backoff(3));
+        assertEquals(Duration.ofDays(1), worker.backoff(40));
+    }
+}
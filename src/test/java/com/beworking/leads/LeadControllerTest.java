@@ -1,5 +1,6 @@
 package com.beworking.leads;
 
+import com.beworking.auth.AuthenticatedUserArgumentResolver;
 import com.beworking.auth.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -62,6 +63,10 @@ public class LeadControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    // Needed by WebMvcConfig, which the slice picks up
+    @MockBean
+    private AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver;
+
     /**
      * Happy-path test for POST /api/leads.
      *
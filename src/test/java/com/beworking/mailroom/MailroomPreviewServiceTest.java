@@ -0,0 +1,141 @@
+package com.beworking.mailroom;
+
+import com.beworking.storage.FileStorage;
+import com.beworking.storage.StoredObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MailroomPreviewServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private FileStorage fileStorage;
+
+    private MailroomPreviewService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new MailroomPreviewService(jdbcTemplate, fileStorage, 1, 10, 16_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void stored(String name, byte[] content) {
+        when(fileStorage.open(name)).thenReturn(new StoredObject() {
+            @Override public long size() { return content.length; }
+            @Override public String eTag() { return "\"x\""; }
+            @Override public Instant lastModified() { return Instant.EPOCH; }
+            @Override public void transferTo(long start, long endInclusive, OutputStream out) throws java.io.IOException {
+                out.write(Arrays.copyOfRange(content, (int) start, (int) endInclusive + 1));
+            }
+        });
+    }
+
+    private BufferedImage written(String name) throws Exception {
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(fileStorage).store(eq(name), captor.capture(), eq("image/jpeg"));
+        return ImageIO.read(new ByteArrayInputStream(captor.getValue()));
+    }
+
+    @Test
+    void renderFiles_pdf_writesPreviewAndThumbnailOfFirstPage() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf);
+        }
+        stored("abc", pdf.toByteArray());
+
+        assertEquals(MailroomPreviewStatus.READY, service.renderFiles("abc", "application/pdf"));
+
+        BufferedImage preview = written("abc" + FileStorage.PREVIEW_SUFFIX);
+        BufferedImage thumbnail = written("abc" + FileStorage.THUMBNAIL_SUFFIX);
+        assertEquals(MailroomPreviewService.PREVIEW_WIDTH, preview.getWidth());
+        assertEquals(MailroomPreviewService.THUMBNAIL_WIDTH, thumbnail.getWidth());
+        assertTrue(preview.getHeight() > preview.getWidth(), "A4 portrait keeps its aspect ratio");
+    }
+
+    @Test
+    void renderFiles_smallImage_isNotUpscaled() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB), "png", png);
+        stored("img", png.toByteArray());
+
+        assertEquals(MailroomPreviewStatus.READY, service.renderFiles("img", "image/png"));
+
+        assertEquals(100, written("img" + FileStorage.PREVIEW_SUFFIX).getWidth());
+    }
+
+    @Test
+    void renderFiles_imageOverPixelCap_isSubsampledWhileDecoding() throws Exception {
+        service = new MailroomPreviewService(jdbcTemplate, fileStorage, 1, 10, 1_000);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "png", png);
+        stored("big", png.toByteArray());
+
+        assertEquals(MailroomPreviewStatus.READY, service.renderFiles("big", "image/png"));
+
+        BufferedImage preview = written("big" + FileStorage.PREVIEW_SUFFIX);
+        assertTrue(preview.getWidth() * preview.getHeight() <= 1_000);
+    }
+
+    @Test
+    void pageScale_tallPage_staysUnderPixelCap() {
+        service = new MailroomPreviewService(jdbcTemplate, fileStorage, 1, 10, 4_000_000);
+
+        float scale = service.pageScale(600, 60_000);
+
+        assertTrue(600 * scale * 60_000 * scale <= 4_000_000 * 1.001);
+        assertEquals(MailroomPreviewService.PREVIEW_WIDTH / 595f, service.pageScale(595, 842), 1e-6);
+    }
+
+    @Test
+    void renderPending_queuesRendersOnThePreviewPool() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(contains("created_at < now()"), eq(UUID.class), any()))
+            .thenReturn(List.of(id));
+        CompletableFuture<String> renderThread = new CompletableFuture<>();
+        when(jdbcTemplate.queryForList(contains("AS rendered"), eq(id))).thenAnswer(inv -> {
+            renderThread.complete(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        service.renderPending();
+
+        assertTrue(renderThread.get(5, TimeUnit.SECONDS).startsWith("mailroom-preview-"));
+    }
+
+    @Test
+    void renderFiles_otherTypes_areUnsupported() throws Exception {
+        assertEquals(MailroomPreviewStatus.UNSUPPORTED, service.renderFiles("doc", "application/msword"));
+        verifyNoInteractions(fileStorage);
+    }
+}
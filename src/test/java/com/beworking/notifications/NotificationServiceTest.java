@@ -0,0 +1,150 @@
+package com.beworking.notifications;
+
+import com.beworking.auth.EmailOutbox;
+import com.beworking.auth.EmailService;
+import com.beworking.contacts.ContactProfileRepository;
+import com.beworking.contacts.ContactProfileService;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private static final UUID TENANT = UUID.fromString("7f1c2d3e-0000-4000-8000-000000000001");
+
+    @Mock private NotificationRepository repository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private EmailService emailService;
+    @Mock private EmailOutbox emailOutbox;
+    @Mock private ContactProfileService contactProfileService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new NotificationService(repository, jdbcTemplate, emailService, emailOutbox, contactProfileService,
+            eventPublisher, "https://app.example.com", 3);
+        when(repository.save(any(Notification.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private static Notification notification(Instant createdAt) {
+        Notification n = new Notification();
+        n.setId(UUID.randomUUID());
+        n.setContactEmail("ana@example.com");
+        n.setSubject("Cambio");
+        n.setBody("Texto");
+        n.setStatus(NotificationStatus.SENT);
+        n.setCreatedAt(createdAt);
+        return n;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBulk_insertsQueuesAndMarksSentInOneBatchEach() throws Exception {
+        ContactProfileRepository.EmailRecipient ana = mock(ContactProfileRepository.EmailRecipient.class);
+        when(ana.getContactName()).thenReturn("Ana");
+        when(ana.getBillingCountry()).thenReturn("GB");
+        when(contactProfileService.findRecipientsByEmails(any())).thenReturn(Map.of("ana@example.com", ana));
+        MimeMessage nudge = new MimeMessage((Session) null);
+        when(emailService.createHtmlMessage(eq("Ana@example.com"), anyString(), anyString())).thenReturn(nudge);
+        when(emailService.createHtmlMessage(eq("luis@example.com"), anyString(), anyString()))
+            .thenThrow(new MessagingException("bad address"));
+
+        NotificationService.BulkResult result = service.createBulk(
+            Arrays.asList(" Ana@example.com ", "ana@EXAMPLE.com", "luis@example.com", null),
+            " Cambio en correo ", "Texto", TENANT, "admin@example.com");
+
+        assertEquals(new NotificationService.BulkResult(2, 1, 2), result);
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO beworking.notifications"), inserts.capture());
+        assertEquals(2, inserts.getValue().size());
+        assertEquals("Ana@example.com", inserts.getValue().get(0)[1]);
+        assertEquals("Cambio en correo", inserts.getValue().get(0)[2]);
+        assertEquals(TENANT, inserts.getValue().get(0)[4]);
+        assertEquals(TENANT, inserts.getValue().get(1)[4]);
+
+        ArgumentCaptor<List<Object[]>> sent = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("SET status = 'SENT'"), sent.capture());
+        assertEquals(1, sent.getValue().size());
+        assertEquals(inserts.getValue().get(0)[0], sent.getValue().get(0)[0]);
+        verify(emailService).createHtmlMessage(eq("Ana@example.com"), eq("BeWorking: You have a notification"), contains("Hi Ana,"));
+        verify(emailOutbox, times(1)).enqueueAll(List.of(nudge));
+        verify(emailService, never()).sendHtmlAndReturnMessageId(anyString(), anyString(), anyString());
+        verify(contactProfileService, times(1)).findRecipientsByEmails(any());
+        verify(eventPublisher, times(2)).publishEvent(any(NotificationCreatedEvent.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void createBulk_tooManyRecipients_rejected() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.createBulk(
+            List.of("a@x.com", "b@x.com", "c@x.com", "d@x.com"), "S", "B", null, "admin@example.com"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(jdbcTemplate, emailService);
+    }
+
+    @Test
+    void create_queuesNudgeThenSavesOnceAsSent() {
+        when(contactProfileService.findRecipientsByEmails(any())).thenReturn(Map.of());
+        when(emailService.sendHtmlAndReturnMessageId(eq("ana@example.com"), anyString(), anyString())).thenReturn("<id@x>");
+
+        NotificationResponse created = service.create("ana@example.com", "Cambio", "Texto", null, "admin@example.com");
+
+        assertEquals("sent", created.status());
+        assertNotNull(created.sentAt());
+        verify(repository, times(1)).save(any(Notification.class));
+    }
+
+    @Test
+    void listByContactEmail_fullPageReturnsCursorForTheNextOne() {
+        Notification newer = notification(Instant.parse("2026-10-02T10:00:00.123456Z"));
+        Notification older = notification(Instant.parse("2026-10-01T10:00:00Z"));
+        when(repository.findInboxPage("ana@example.com", 2)).thenReturn(List.of(newer, older));
+
+        NotificationService.InboxPage first = service.listByContactEmail(" ana@example.com ", null, 2);
+
+        assertEquals(2, first.items().size());
+        assertNotNull(first.nextCursor());
+
+        when(repository.findInboxPageBefore("ana@example.com", older.getCreatedAt(), older.getId(), 2))
+            .thenReturn(List.of(notification(Instant.parse("2026-09-30T10:00:00Z"))));
+        NotificationService.InboxPage second = service.listByContactEmail("ana@example.com", first.nextCursor(), 2);
+
+        assertEquals(1, second.items().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void listByContactEmail_capsLimitAndRejectsBadCursor() {
+        when(repository.findInboxPage(anyString(), anyInt())).thenReturn(List.of());
+
+        service.listByContactEmail("ana@example.com", null, 10_000);
+        verify(repository).findInboxPage("ana@example.com", NotificationService.MAX_PAGE_SIZE);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+            () -> service.listByContactEmail("ana@example.com", "not-a-cursor", 20));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
@@ -0,0 +1,142 @@
+package com.beworking.realtime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberEventHubTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile boolean nextBlocks;
+
+    private final MemberEventHub hub = new MemberEventHub(2, 10, Duration.ofMinutes(5), 2) {
+        @Override
+        SseEmitter newEmitter(long timeoutMillis) {
+            RecordingEmitter emitter = new RecordingEmitter(nextBlocks ? release : null);
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hub.shutdown();
+    }
+
+    /** Captures what would be written to the client; optionally stalls like a slow one. */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        boolean received(String eventName) {
+            return sent.stream().anyMatch(s -> s.startsWith("event:" + eventName + "\n"));
+        }
+    }
+
+    private static void eventually(Runnable assertion) throws InterruptedException {
+        AssertionError last = null;
+        for (int i = 0; i < 100; i++) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                last = e;
+                Thread.sleep(20);
+            }
+        }
+        throw last;
+    }
+
+    @Test
+    void publish_reachesOnlyConnectionsOnTheTopic() throws Exception {
+        hub.subscribe(List.of(MemberEventHub.emailTopic("Ana@Example.com "), MemberEventHub.contactTopic(7L)));
+        hub.subscribe(List.of(MemberEventHub.emailTopic("luis@example.com")));
+        RecordingEmitter ana = emitters.get(0);
+        RecordingEmitter luis = emitters.get(1);
+
+        int queued = hub.publish("email:ana@example.com",
+            new MemberEventHub.MemberEvent("notification-created", Map.of("subject", "Hola")));
+
+        assertEquals(1, queued);
+        assertEquals(0, hub.publish(MemberEventHub.contactTopic(8L), new MemberEventHub.MemberEvent("bekey-share", Map.of())));
+        eventually(() -> {
+            assertTrue(ana.received("ready"));
+            assertTrue(ana.received("notification-created"));
+            assertTrue(luis.received("ready"));
+        });
+        assertFalse(luis.received("notification-created"));
+    }
+
+    @Test
+    void slowClient_bufferFull_closesOnlyThatConnection() throws Exception {
+        nextBlocks = true;
+        hub.subscribe(List.of("contact:1"));
+        nextBlocks = false;
+        hub.subscribe(List.of("contact:1"));
+        RecordingEmitter fast = emitters.get(1);
+        MemberEventHub.MemberEvent event = new MemberEventHub.MemberEvent("bekey-share", Map.of("shareId", 3L));
+
+        // The slow connection's sender is stuck on "ready"; its buffer of 2 fills, the third closes it.
+        for (int i = 1; i <= 3; i++) {
+            hub.publish("contact:1", event);
+            int expected = i + 1;
+            eventually(() -> assertEquals(expected, fast.sent.size()));
+        }
+
+        assertEquals(1, hub.overflowedCount());
+        assertEquals(1, hub.connectionCount());
+        assertEquals(1, hub.publish("contact:1", event));
+    }
+
+    @Test
+    void heartbeat_sendsCommentAndConnectionCapRejects() throws Exception {
+        MemberEventHub small = new MemberEventHub(4, 1, Duration.ofMinutes(5), 1) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(null);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        try {
+            small.subscribe(List.of("contact:1"));
+            assertThrows(IllegalStateException.class, () -> small.subscribe(List.of("contact:2")));
+
+            eventually(() -> assertTrue(emitters.get(0).received("ready")));
+            small.heartbeat();
+            eventually(() -> assertTrue(emitters.get(0).sent.contains(":heartbeat\n\n")));
+        } finally {
+            small.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.beworking.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledJobRunnerTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private ScheduledJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        runner = new ScheduledJobRunner(jdbcTemplate, Duration.ofHours(3), Duration.ofSeconds(30), 1, 1);
+        when(jdbcTemplate.queryForObject(contains("INSERT INTO beworking.scheduled_job_runs"), eq(Long.class), any(), any(), any()))
+            .thenReturn(42L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    private void lockAvailable(boolean available) {
+        when(jdbcTemplate.update(contains("INSERT INTO beworking.scheduled_job_locks"), eq("potencialAging"), eq(10800L), anyString()))
+            .thenReturn(available ? 1 : 0);
+    }
+
+    @Test
+    void runScheduled_lockTaken_runsTaskAndRecordsOutcome() {
+        lockAvailable(true);
+
+        Optional<JobResult> result = runner.runScheduled("potencialAging", () -> () -> 7);
+
+        assertTrue(result.isPresent());
+        verify(jdbcTemplate).queryForObject(contains("scheduled_job_runs"), eq(Long.class), eq("potencialAging"), eq("SCHEDULED"), anyString());
+        verify(jdbcTemplate).update(contains("SET finished_at"), anyLong(), eq(7), eq("SUCCEEDED"), isNull(), isNull(), eq(42L));
+        verify(jdbcTemplate).update(contains("GREATEST(now()"), eq(30L), eq("potencialAging"), anyString());
+    }
+
+    @Test
+    void runScheduled_lockHeldElsewhere_skipsWithoutHistory() {
+        lockAvailable(false);
+        AtomicInteger calls = new AtomicInteger();
+
+        Optional<JobResult> result = runner.runScheduled("potencialAging", () -> {
+            calls.incrementAndGet();
+            return () -> 0;
+        });
+
+        assertTrue(result.isEmpty());
+        assertEquals(0, calls.get());
+        verify(jdbcTemplate, never()).queryForObject(contains("scheduled_job_runs"), eq(Long.class), any(), any(), any());
+        verify(jdbcTemplate, never()).update(contains("GREATEST(now()"), any(), any(), any());
+    }
+
+    @Test
+    void runScheduled_taskFails_recordsFailureAndReleasesLock() {
+        lockAvailable(true);
+
+        Optional<JobResult> result = runner.runScheduled("potencialAging", () -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        assertTrue(result.isEmpty());
+        verify(jdbcTemplate).update(contains("SET finished_at"), anyLong(), isNull(), eq("FAILED"), eq("boom"), isNull(), eq(42L));
+        verify(jdbcTemplate).update(contains("GREATEST(now()"), eq(30L), eq("potencialAging"), anyString());
+    }
+
+    @Test
+    void submit_lockHeldElsewhere_throwsConflict() {
+        lockAvailable(false);
+
+        assertThrows(IllegalStateException.class, () -> runner.submit("potencialAging", () -> () -> 1));
+        verify(jdbcTemplate, never()).queryForObject(contains("scheduled_job_runs"), eq(Long.class), any(), any(), any());
+    }
+
+    @Test
+    void submit_returnsRunIdAndFinishesInBackground() throws Exception {
+        lockAvailable(true);
+        CountDownLatch release = new CountDownLatch(1);
+
+        long runId = runner.submit("potencialAging", () -> {
+            await(release);
+            return new Counted(3);
+        });
+
+        assertEquals(42L, runId);
+        verify(jdbcTemplate).queryForObject(contains("scheduled_job_runs"), eq(Long.class), eq("potencialAging"), eq("MANUAL"), anyString());
+        verify(jdbcTemplate, never()).update(contains("SET finished_at"), any(), any(), any(), any(), any(), any());
+
+        release.countDown();
+        verify(jdbcTemplate, timeout(2000)).update(contains("SET finished_at"), anyLong(), eq(3),
+            eq("SUCCEEDED"), isNull(), eq("{\"n\":3}"), eq(42L));
+        verify(jdbcTemplate, timeout(2000)).update(contains("GREATEST(now()"), eq(0L), eq("potencialAging"), anyString());
+    }
+
+    @Test
+    void submit_queueFull_rejectsAndReleasesLock() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (String job : new String[] {"a", "b", "c"}) {
+            when(jdbcTemplate.update(contains("INSERT INTO beworking.scheduled_job_locks"), eq(job), anyLong(), anyString()))
+                .thenReturn(1);
+        }
+        runner.submit("a", () -> { await(release); return () -> 0; });
+        runner.submit("b", () -> () -> 0);
+
+        assertThrows(IllegalStateException.class, () -> runner.submit("c", () -> () -> 0));
+
+        verify(jdbcTemplate).update(contains("SET finished_at"), anyLong(), isNull(), eq("REJECTED"), anyString(), isNull(), eq(42L));
+        verify(jdbcTemplate).update(contains("GREATEST(now()"), eq(0L), eq("c"), anyString());
+        release.countDown();
+    }
+
+    record Counted(int n) implements JobResult {
+        @Override
+        public int rowsProcessed() {
+            return n;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.beworking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DirectUploadServiceTest {
+
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private DirectUploadBackend backend;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private DirectUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(backend.purpose()).thenReturn("mailroom");
+        service = new DirectUploadService(jdbcTemplate, transactionManager, List.of(backend), 1000, Duration.ofMinutes(15));
+    }
+
+    private void pending(long sizeBytes) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<DirectUploadService.PendingUpload>>any(), eq(ID)))
+            .thenReturn(List.of(new DirectUploadService.PendingUpload(
+                "mailroom", "key.pdf", "scan.pdf", "application/pdf", sizeBytes, "admin@example.com")));
+    }
+
+    @Test
+    void initiate_recordsSessionAndPresigns() {
+        when(backend.newKey("scan.pdf")).thenReturn("key.pdf");
+        PresignedUpload ticket = new PresignedUpload(ID, "PUT", "https://signed", Map.of(), Instant.now());
+        when(backend.presign(any(), eq("key.pdf"), eq("application/pdf"), eq(500L), any())).thenReturn(ticket);
+
+        assertSame(ticket, service.initiate("mailroom", "scan.pdf", "application/pdf", 500, "admin@example.com"));
+        verify(jdbcTemplate).update(anyString(), any(), eq("mailroom"), eq("key.pdf"), eq("scan.pdf"),
+            eq("application/pdf"), eq(500L), eq("admin@example.com"), any());
+    }
+
+    @Test
+    void initiate_rejectsOversizedOrDisallowedFiles() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.initiate("mailroom", "scan.pdf", "application/pdf", 1001, "admin@example.com"));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.initiate("mailroom", "run.sh", "text/x-shellscript", 10, "admin@example.com"));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.initiate("mailroom", "scan.png", "image/*", 10, "admin@example.com"));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.initiate("media", "a.png", "image/png", 10, "admin@example.com"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void receive_refusesBackendsThatSignUploadsThemselves() {
+        pending(500);
+
+        assertThrows(IllegalStateException.class,
+            () -> service.receive(ID, "application/pdf", 500, InputStream.nullInputStream()));
+        verify(jdbcTemplate, never()).update(contains("uploaded_at = now()"), any(Object[].class));
+    }
+
+    @Test
+    void complete_returnsStoredFileOnce() {
+        pending(500);
+        when(backend.stat("key.pdf")).thenReturn(Optional.of(new DirectUploadBackend.UploadedObject(500, "application/pdf")));
+        when(jdbcTemplate.update(contains("completed_at = now()"), eq(ID))).thenReturn(1, 0);
+
+        StoredFile stored = service.complete(ID, "mailroom", "admin@example.com", file -> file);
+
+        assertEquals(new StoredFile("key.pdf", "scan.pdf", "application/pdf", 500), stored);
+        assertThrows(IllegalStateException.class,
+            () -> service.complete(ID, "mailroom", "admin@example.com", file -> fail("already completed")));
+        verify(backend, never()).delete(anyString());
+    }
+
+    @Test
+    void complete_failedRegistration_rollsTheClaimBackAndKeepsTheObject() {
+        pending(500);
+        when(backend.stat("key.pdf")).thenReturn(Optional.of(new DirectUploadBackend.UploadedObject(500, "application/pdf")));
+        when(jdbcTemplate.update(contains("completed_at = now()"), eq(ID))).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> service.complete(ID, "mailroom", "admin@example.com", file -> {
+            throw new IllegalStateException("contact lookup failed");
+        }));
+
+        verify(jdbcTemplate).update(contains("completed_at = now()"), eq(ID));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(backend, never()).delete(anyString());
+    }
+
+    @Test
+    void complete_deletesObjectThatDoesNotMatchDeclaration() {
+        pending(500);
+        when(backend.stat("key.pdf")).thenReturn(Optional.of(new DirectUploadBackend.UploadedObject(900, "application/pdf")));
+        when(jdbcTemplate.update(contains("completed_at = now()"), eq(ID))).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.complete(ID, "mailroom", "admin@example.com", file -> fail("mismatch")));
+        verify(backend).delete("key.pdf");
+    }
+
+    @Test
+    void complete_rejectsOtherUsersAndMissingObjects() {
+        pending(500);
+        assertThrows(IllegalStateException.class,
+            () -> service.complete(ID, "mailroom", "other@example.com", file -> fail("other user")));
+
+        when(backend.stat("key.pdf")).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class,
+            () -> service.complete(ID, "mailroom", "admin@example.com", file -> fail("nothing uploaded")));
+        verify(jdbcTemplate, never()).update(contains("completed_at = now()"), eq(ID));
+    }
+}
@@ -0,0 +1,62 @@
+package com.beworking.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FileStorageServiceTest {
+
+    @TempDir Path dir;
+
+    private FileStorageService storage() {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setLocation(dir.toString());
+        return new FileStorageService(properties, mock(StoredFileRefs.class));
+    }
+
+    @Test
+    void open_streamsRequestedRange() throws Exception {
+        Files.writeString(dir.resolve("scan.pdf"), "0123456789");
+        StoredObject object = storage().open("scan.pdf");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        object.transferTo(3, 6, out);
+
+        assertEquals(10, object.size());
+        assertTrue(object.eTag().startsWith("\""));
+        assertEquals("3456", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void open_rejectsMissingAndEscapingPaths() {
+        FileStorageService storage = storage();
+        assertThrows(FileStorageException.class, () -> storage.open("missing.pdf"));
+        assertThrows(FileStorageException.class, () -> storage.open("../outside.pdf"));
+    }
+
+    @Test
+    void store_keepsOneBlobPerContent() throws Exception {
+        FileStorageService storage = storage();
+        byte[] scan = "%PDF-1.7 scan".getBytes(StandardCharsets.US_ASCII);
+
+        StoredFile first = storage.store(new MockMultipartFile("file", "a.pdf", "application/pdf", scan));
+        StoredFile second = storage.store(new MockMultipartFile("file", "copy of a.pdf", "application/pdf", scan));
+        StoredFile other = storage.store(new MockMultipartFile("file", "b.pdf", "application/pdf", "other".getBytes()));
+
+        assertEquals(64, first.storedFileName().length());
+        assertEquals(first.storedFileName(), second.storedFileName());
+        assertEquals("copy of a.pdf", second.originalFileName());
+        assertNotEquals(first.storedFileName(), other.storedFileName());
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+}
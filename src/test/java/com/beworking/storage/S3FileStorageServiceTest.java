@@ -0,0 +1,117 @@
+package com.beworking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/** S3 is stood in by a mocked {@link S3Client} that serves ranges of an in-memory object. */
+class S3FileStorageServiceTest {
+
+    private static final byte[] CONTENT = "hello mailroom".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock private S3Client s3Client;
+    @Mock private StoredFileRefs refs;
+
+    private S3FileStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        storage = new S3FileStorageService(s3Client, mock(S3Presigner.class), "bucket", refs);
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+            .contentLength((long) CONTENT.length)
+            .eTag("\"e1\"")
+            .lastModified(Instant.parse("2026-01-01T00:00:00Z"))
+            .build());
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> {
+            GetObjectRequest request = inv.getArgument(0);
+            int start = 0, end = CONTENT.length - 1;
+            if (request.range() != null) {
+                String[] bounds = request.range().substring("bytes=".length()).split("-");
+                start = Integer.parseInt(bounds[0]);
+                end = Integer.parseInt(bounds[1]);
+            }
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(CONTENT, start, end - start + 1)));
+        });
+    }
+
+    @Test
+    void open_readsMetadataOnly() {
+        StoredObject object = storage.open("a.pdf");
+
+        assertEquals(CONTENT.length, object.size());
+        assertEquals("\"e1\"", object.eTag());
+        verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void transferTo_requestsOnlyTheRangeAndPinsTheVersion() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        storage.open("a.pdf").transferTo(6, 13, out);
+
+        assertEquals("mailroom", out.toString(StandardCharsets.US_ASCII));
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(captor.capture());
+        assertEquals("mailroom/a.pdf", captor.getValue().key());
+        assertEquals("bytes=6-13", captor.getValue().range());
+        assertEquals("\"e1\"", captor.getValue().ifMatch());
+    }
+
+    @Test
+    void open_missingObject_throws() {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThrows(FileStorageException.class, () -> storage.open("missing.pdf"));
+    }
+
+    @Test
+    void store_uploadsNewContentUnderItsDigest() {
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+            .thenThrow(S3Exception.builder().statusCode(404).build());
+
+        StoredFile stored = storage.store(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(captor.capture(), any(RequestBody.class));
+        assertEquals("mailroom/" + stored.storedFileName(), captor.getValue().key());
+        assertNotNull(captor.getValue().checksumSHA256());
+    }
+
+    @Test
+    void store_skipsUploadWhenDigestExists() {
+        StoredFile stored = storage.store(new MockMultipartFile("file", "a.pdf", "application/pdf", CONTENT));
+
+        assertEquals(64, stored.storedFileName().length());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        // Pinned before the existence check, so the collector cannot take the blob in between.
+        var order = inOrder(refs, s3Client);
+        order.verify(refs).pin(stored.storedFileName());
+        order.verify(s3Client).headObject(any(HeadObjectRequest.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.beworking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StoredFileCollectorTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private FileStorage fileStorage;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private StoredFileCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        collector = new StoredFileCollector(jdbcTemplate, fileStorage, transactionManager, Duration.ofHours(1));
+    }
+
+    @Test
+    void collectOne_deletesBlobWhileHoldingTheRowLockThenTheRow() {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(String.class), eq("abc"), eq(3600L)))
+            .thenReturn(List.of("abc"));
+        when(jdbcTemplate.update(contains("DELETE FROM beworking.stored_file_refs"), eq("abc"))).thenReturn(1);
+
+        assertTrue(collector.collectOne("abc"));
+
+        InOrder order = inOrder(jdbcTemplate, fileStorage);
+        order.verify(jdbcTemplate).queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(String.class), eq("abc"), eq(3600L));
+        order.verify(fileStorage).delete("abc");
+        order.verify(fileStorage).delete("abc" + FileStorage.PREVIEW_SUFFIX);
+        order.verify(jdbcTemplate).update(contains("ref_count = 0"), eq("abc"));
+    }
+
+    @Test
+    void collectOne_pinnedOrLockedElsewhere_leavesBlobAlone() {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(String.class), any(), any()))
+            .thenReturn(List.of());
+
+        assertFalse(collector.collectOne("abc"));
+
+        verifyNoInteractions(fileStorage);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void collect_blobDeleteFails_rollsBackAndKeepsRow() {
+        when(jdbcTemplate.queryForList(contains("LIMIT ?"), eq(String.class), any(), any())).thenReturn(List.of("abc"));
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE SKIP LOCKED"), eq(String.class), eq("abc"), any()))
+            .thenReturn(List.of("abc"));
+        doThrow(new FileStorageException("s3 down")).when(fileStorage).delete("abc");
+
+        collector.collect();
+
+        verify(transactionManager).rollback(any());
+        verify(jdbcTemplate, never()).update(contains("DELETE FROM beworking.stored_file_refs"), eq("abc"));
+    }
+}
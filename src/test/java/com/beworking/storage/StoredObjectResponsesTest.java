@@ -0,0 +1,103 @@
+package com.beworking.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoredObjectResponsesTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"abc\"";
+
+    private final StoredObject object = new StoredObject() {
+        @Override public long size() { return CONTENT.length; }
+        @Override public String eTag() { return ETAG; }
+        @Override public Instant lastModified() { return Instant.parse("2026-01-01T00:00:00Z"); }
+
+        @Override
+        public void transferTo(long start, long endInclusive, OutputStream out) throws IOException {
+            out.write(CONTENT, (int) start, (int) (endInclusive - start + 1));
+        }
+    };
+
+    private ResponseEntity<StreamingResponseBody> serve(HttpHeaders request) {
+        return StoredObjectResponses.serve(object, request, MediaType.APPLICATION_PDF,
+            ContentDisposition.inline().filename("scan.pdf").build());
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void fullDownload_advertisesRangesAndEtag() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = serve(new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getHeaders().getContentLength());
+        assertEquals("0123456789", body(response));
+    }
+
+    @Test
+    void ifNoneMatch_returnsNotModifiedWithoutBody() {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch(ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void singleRange_returnsPartialContent() throws IOException {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-5");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 2-5/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getHeaders().getContentLength());
+        assertEquals("2345", body(response));
+
+        request.set(HttpHeaders.RANGE, "bytes=-3");
+        assertEquals("789", body(serve(request)));
+    }
+
+    @Test
+    void unsatisfiableRange_returns416() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=50-60");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void staleIfRange_sendsWholeFile() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-5");
+        request.set(HttpHeaders.IF_RANGE, "\"old\"");
+
+        assertEquals(HttpStatus.OK, serve(request).getStatusCode());
+    }
+}
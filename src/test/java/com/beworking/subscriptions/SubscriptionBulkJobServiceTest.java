@@ -0,0 +1,99 @@
+package com.beworking.subscriptions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubscriptionBulkJobServiceTest {
+
+    @Mock private SubscriptionRepository subscriptionRepository;
+    @Mock private SubscriptionService subscriptionService;
+    @Mock private StripeTaxSyncClient stripeTaxSyncClient;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private SubscriptionBulkJobService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new SubscriptionBulkJobService(
+            subscriptionRepository, subscriptionService, stripeTaxSyncClient, jdbcTemplate, 2, 100);
+    }
+
+    private Subscription sub(int id, String stripeId, Integer vat) {
+        Subscription s = new Subscription();
+        s.setId(id);
+        s.setStripeSubscriptionId(stripeId);
+        s.setVatPercent(vat);
+        s.setCuenta("PT");
+        return s;
+    }
+
+    @Test
+    void start_returnsEmptyWhenSameKindAlreadyRunning() {
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any()))
+            .thenThrow(new DuplicateKeyException("uq_subscription_bulk_jobs_running"));
+
+        Optional<java.util.UUID> id = service.start(SubscriptionBulkJobService.Kind.RELOCK, "admin@beworking.es");
+
+        assertTrue(id.isEmpty());
+    }
+
+    @Test
+    void run_leavesJobRunningWhenWorkersAreShutDown() {
+        when(subscriptionRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(eq(0), any()))
+            .thenReturn(List.of(sub(1, "sub_a", 21)));
+        service.shutdown();
+
+        service.run(UUID.randomUUID(), SubscriptionBulkJobService.Kind.RELOCK, 0);
+
+        verify(jdbcTemplate, never()).update(contains("'FAILED'"), any(), any());
+        verify(jdbcTemplate, never()).update(contains("'COMPLETED'"), (Object) any());
+        verifyNoInteractions(subscriptionService);
+    }
+
+    @Test
+    void syncOutcome_skipsSubsWithoutStripeIdOrLockedRate() throws Exception {
+        assertEquals(SubscriptionBulkJobService.Outcome.SKIPPED,
+            service.process(SubscriptionBulkJobService.Kind.STRIPE_TAX_SYNC, sub(1, null, 21)));
+        assertEquals(SubscriptionBulkJobService.Outcome.SKIPPED,
+            service.process(SubscriptionBulkJobService.Kind.STRIPE_TAX_SYNC, sub(2, "sub_x", null)));
+        verifyNoInteractions(stripeTaxSyncClient);
+    }
+
+    @Test
+    void syncOutcome_reflectsStripeResult() throws Exception {
+        when(stripeTaxSyncClient.syncSubscriptionTax("sub_ok", 21, "PT")).thenReturn(true);
+        when(stripeTaxSyncClient.syncSubscriptionTax("sub_ko", 21, "PT")).thenReturn(false);
+
+        assertEquals(SubscriptionBulkJobService.Outcome.SYNCED,
+            service.process(SubscriptionBulkJobService.Kind.STRIPE_TAX_SYNC, sub(1, "sub_ok", 21)));
+        assertEquals(SubscriptionBulkJobService.Outcome.ERROR,
+            service.process(SubscriptionBulkJobService.Kind.STRIPE_TAX_SYNC, sub(2, "sub_ko", 21)));
+    }
+
+    @Test
+    void relockOutcome_countsChangedAndSwallowsErrors() throws Exception {
+        Subscription changed = sub(1, "sub_a", 21);
+        Subscription broken = sub(2, null, 21);
+        when(subscriptionService.relockVatPercent(changed))
+            .thenReturn(new SubscriptionService.RelockResult(1, 21, 0, true));
+        when(subscriptionService.relockVatPercent(broken)).thenThrow(new IllegalStateException("boom"));
+
+        assertEquals(SubscriptionBulkJobService.Outcome.CHANGED,
+            service.process(SubscriptionBulkJobService.Kind.RELOCK, changed));
+        assertEquals(SubscriptionBulkJobService.Outcome.ERROR,
+            service.process(SubscriptionBulkJobService.Kind.RELOCK, broken));
+    }
+}
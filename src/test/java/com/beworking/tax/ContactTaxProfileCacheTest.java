@@ -0,0 +1,117 @@
+package com.beworking.tax;
+
+import com.beworking.contacts.ContactBillingChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContactTaxProfileCacheTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private ContactTaxProfileCache cache;
+    private TaxResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new ContactTaxProfileCache(jdbcTemplate);
+        resolver = new TaxResolver(cache);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenProfile(ContactTaxProfile profile) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(profile.contactId())))
+            .thenReturn(List.of(profile));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedResolutions_hitTheDatabaseOnce() {
+        givenProfile(new ContactTaxProfile(7L, 21, "PT", "B12345678", "Spain", "ES", false));
+
+        assertEquals(21, resolver.resolveForContact(7L, "PT"));
+        assertEquals(21, resolver.resolveForContact(7L, "PT"));
+        assertEquals("PT", resolver.activeCuentaFor(7L).orElseThrow());
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(7L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void billingChangedEvent_evictsTheContact() {
+        givenProfile(new ContactTaxProfile(7L, null, null, "FR12345678901", "France", "FR", true));
+
+        assertEquals(0, resolver.computeFreshForContact(7L, "PT"));
+        cache.onContactBillingChanged(new ContactBillingChangedEvent(7L));
+        resolver.computeFreshForContact(7L, "PT");
+
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(7L));
+    }
+
+    @Test
+    void computeFresh_appliesCustomerCountryRateWithoutReverseCharge() {
+        givenProfile(new ContactTaxProfile(9L, null, null, "FR12345678901", "France", "FR", false));
+
+        assertEquals(EUVatRates.rateFor("FR"), resolver.computeFreshForContact(9L, "PT"));
+        assertTrue(resolver.lockedRateFor(9L).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unknownContact_isNotCached() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(99L))).thenReturn(List.of());
+
+        assertNull(cache.get(99L).lockedVatPercent());
+        cache.get(99L);
+
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(99L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadRacingAnEviction_isNotCached() {
+        ContactTaxProfile preCommit = new ContactTaxProfile(7L, null, null, "B12345678", "Spain", "ES", false);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(7L))).thenAnswer(inv -> {
+            // The writer evicts while this reader is still loading the old row.
+            cache.evict(7L);
+            return List.of(preCommit);
+        }).thenReturn(List.of(preCommit));
+
+        assertSame(preCommit, cache.get(7L));
+        cache.get(7L);
+
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(7L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictInTransaction_evictsAgainOnRollbackToo() {
+        givenProfile(new ContactTaxProfile(7L, 21, "PT", "B12345678", "Spain", "ES", false));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(7L);
+            cache.get(7L);
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get(7L);
+
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(7L));
+    }
+}
@@ -0,0 +1,159 @@
+package com.beworking.tax;
+
+import com.beworking.contacts.ViesVatService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ViesGatewayTest {
+
+    @Mock private ViesVatService viesVatService;
+    @Mock private VatValidationLogRepository logRepository;
+
+    private ViesGateway gateway;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(logRepository.findFirstByTaxIdOrderByCheckedAtDesc(anyString())).thenReturn(Optional.empty());
+        when(logRepository.save(any(VatValidationLog.class))).thenAnswer(inv -> {
+            VatValidationLog log = inv.getArgument(0);
+            log.setId(ids.incrementAndGet());
+            return log;
+        });
+        ViesResultCache cache = new ViesResultCache(logRepository,
+            Duration.ofDays(7), Duration.ofDays(1), Duration.ofMinutes(5));
+        gateway = new ViesGateway(viesVatService, logRepository, new TaxIdNormalizer(), cache, new ViesThrottle(1000));
+    }
+
+    private static ViesVatService.VatValidationResult valid() {
+        return new ViesVatService.VatValidationResult(true, "ACME SL", null, null, false);
+    }
+
+    @Test
+    void sameNormalizedTaxId_isCheckedOnce() {
+        when(viesVatService.validate(anyString(), eq("ES"))).thenReturn(valid());
+
+        ViesGateway.GatewayResult first = gateway.validate(1L, "b12345678", "ES");
+        ViesGateway.GatewayResult second = gateway.validate(2L, "ES B12345678", "ES");
+
+        assertTrue(second.isValid());
+        assertEquals(first.auditLogId(), second.auditLogId());
+        verify(viesVatService, times(1)).validate(anyString(), anyString());
+        verify(logRepository, times(1)).save(argThat(log -> "ESB12345678".equals(log.getTaxId())));
+    }
+
+    @Test
+    void persistedOutcome_isReusedWhileWithinItsTtl() {
+        VatValidationLog log = new VatValidationLog();
+        log.setId(42L);
+        log.setTaxId("FR12345678901");
+        log.setViesResult("invalid");
+        log.setCheckedAt(LocalDateTime.now().minusHours(2));
+        when(logRepository.findFirstByTaxIdOrderByCheckedAtDesc("FR12345678901")).thenReturn(Optional.of(log));
+
+        ViesGateway.GatewayResult result = gateway.validate(5L, "FR12345678901", "FR");
+
+        assertTrue(result.isInvalid());
+        assertEquals(42L, result.auditLogId());
+        verifyNoInteractions(viesVatService);
+    }
+
+    @Test
+    void expiredUnreachable_isCheckedAgain() {
+        VatValidationLog log = new VatValidationLog();
+        log.setId(42L);
+        log.setTaxId("ESB12345678");
+        log.setViesResult("unreachable");
+        log.setCheckedAt(LocalDateTime.now().minusMinutes(10));
+        when(logRepository.findFirstByTaxIdOrderByCheckedAtDesc("ESB12345678")).thenReturn(Optional.of(log));
+        when(viesVatService.validate(anyString(), anyString())).thenReturn(valid());
+
+        assertTrue(gateway.validate(5L, "B12345678", "ES").isValid());
+        verify(viesVatService).validate("B12345678", "ES");
+    }
+
+    @Test
+    void validateFresh_bypassesTheCache() {
+        when(viesVatService.validate(anyString(), anyString())).thenReturn(valid());
+
+        gateway.validate(1L, "B12345678", "ES");
+        gateway.validateFresh(1L, "B12345678", "ES");
+
+        verify(viesVatService, times(2)).validate(anyString(), anyString());
+    }
+
+    @Test
+    void concurrentChecks_forTheSameTaxId_shareOneCall() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(viesVatService.validate(anyString(), anyString())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return valid();
+        });
+
+        CompletableFuture<ViesGateway.GatewayResult> leader =
+            CompletableFuture.supplyAsync(() -> gateway.validate(List.of(1L), "B12345678", "ES"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ViesGateway.GatewayResult> follower =
+            CompletableFuture.supplyAsync(() -> gateway.validate(List.of(2L), "ESB12345678", "ES"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS).isValid());
+        assertTrue(follower.get(5, TimeUnit.SECONDS).isValid());
+        verify(viesVatService, times(1)).validate(anyString(), anyString());
+    }
+
+    @Test
+    void followerOfAnInFlightCheck_getsItsOwnAuditRow() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(viesVatService.validate(anyString(), anyString())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return valid();
+        });
+
+        CompletableFuture<ViesGateway.GatewayResult> leader =
+            CompletableFuture.supplyAsync(() -> gateway.validateFresh(List.of(1L), "B12345678", "ES"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ViesGateway.GatewayResult> follower =
+            CompletableFuture.supplyAsync(() -> gateway.validateFresh(List.of(2L, 3L), "ESB12345678", "ES"));
+        Thread.sleep(100);
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+        follower.get(5, TimeUnit.SECONDS);
+
+        for (long contactId : new long[] {1L, 2L, 3L}) {
+            verify(logRepository).save(argThat(log -> log.getContactId() == contactId
+                && "ESB12345678".equals(log.getTaxId()) && "valid".equals(log.getViesResult())));
+        }
+    }
+
+    @Test
+    void unnormalizableTaxId_isAuditedAsGiven() {
+        when(viesVatService.validate(anyString(), any())).thenReturn(
+            new ViesVatService.VatValidationResult(false, null, null, "blank", true));
+
+        gateway.validateFresh(7L, "  ", null);
+
+        verify(logRepository).save(argThat(log -> "  ".equals(log.getTaxId()) && "unreachable".equals(log.getViesResult())));
+    }
+}
@@ -0,0 +1,55 @@
+package com.beworking.uploads;
+
+import com.beworking.scheduling.ScheduledJobRunner;
+import com.beworking.scheduling.ScheduledJobRunner.JobRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvatarMigrationJobTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private AvatarService avatarService;
+    @Mock private ScheduledJobRunner jobRunner;
+
+    private AvatarMigrationJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        job = new AvatarMigrationJob(jdbcTemplate, avatarService, jobRunner, true);
+    }
+
+    private static JobRun run(String outcome) {
+        return new JobRun(1L, AvatarMigrationJob.JOB, "SCHEDULED", "host", Instant.now(), Instant.now(),
+            10L, 0, outcome, null, null);
+    }
+
+    @Test
+    void runOnce_skipsOnceAPassHasSucceeded() {
+        when(jobRunner.recentRuns(AvatarMigrationJob.JOB, 1)).thenReturn(List.of(run("SUCCEEDED")));
+
+        job.runOnce();
+
+        verify(jobRunner, never()).runScheduled(anyString(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void runOnce_runsUnderTheJobLockAfterAFailedPass() {
+        when(jobRunner.recentRuns(AvatarMigrationJob.JOB, 1)).thenReturn(List.of(run("FAILED")));
+
+        job.runOnce();
+
+        verify(jobRunner).runScheduled(eq(AvatarMigrationJob.JOB), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
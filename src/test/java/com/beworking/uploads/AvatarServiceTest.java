@@ -0,0 +1,79 @@
+package com.beworking.uploads;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvatarServiceTest {
+
+    @Mock private MediaStorageService storage;
+
+    private AvatarService avatarService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        avatarService = new AvatarService(storage, 1_000_000, 100_000);
+        when(storage.store(anyString(), any(byte[].class), eq("image/jpeg")))
+            .thenAnswer(inv -> "https://cdn.example.com/" + inv.getArgument(0));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void normalize_dataUri_storesEverySizeAndReturnsLargest() throws Exception {
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png(300, 200));
+
+        String url = avatarService.normalize(dataUri);
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<byte[]> bodies = ArgumentCaptor.forClass(byte[].class);
+        verify(storage, times(2)).store(keys.capture(), bodies.capture(), eq("image/jpeg"));
+        assertTrue(keys.getAllValues().get(0).endsWith("-64.jpg"));
+        assertTrue(url.endsWith("-256.jpg"));
+        BufferedImage large = ImageIO.read(new ByteArrayInputStream(bodies.getAllValues().get(1)));
+        assertEquals(256, large.getWidth());
+        assertEquals(256, large.getHeight());
+        assertEquals(url.replace("-256.jpg", "-64.jpg"), AvatarService.sizedUrl(url, 64));
+    }
+
+    @Test
+    void normalize_urlPassesThrough() throws Exception {
+        assertEquals("https://example.com/me.png", avatarService.normalize("https://example.com/me.png"));
+        assertNull(avatarService.normalize(null));
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void normalize_rejectsNonImageData() {
+        assertThrows(IllegalArgumentException.class,
+            () -> avatarService.normalize("data:text/html;base64,PGgxPg=="));
+        assertThrows(IllegalArgumentException.class,
+            () -> avatarService.normalize("data:image/png;base64," + Base64.getEncoder().encodeToString("nope".getBytes())));
+    }
+
+    @Test
+    void store_rejectsImagesOverThePixelLimitBeforeDecoding() throws Exception {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> avatarService.store(png(1000, 200)));
+
+        assertTrue(e.getMessage().contains("pixels"));
+        verifyNoInteractions(storage);
+    }
+}